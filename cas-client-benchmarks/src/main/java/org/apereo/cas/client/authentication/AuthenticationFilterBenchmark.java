@@ -0,0 +1,109 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.validation.AssertionImpl;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the requests {@link AuthenticationFilter} lets through without redirecting: requests of an
+ * authenticated session, which most requests of an application are, and requests for static resources matching
+ * the ignore pattern. Without an ignore pattern, the latter are redirected to the CAS server instead.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar AuthenticationFilterBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    /** Whether an ignore pattern is configured, which every request is matched against first. */
+    @Param({"false", "true"})
+    private boolean ignorePattern;
+
+    private AuthenticationFilter filter;
+
+    private MockHttpServletRequest authenticated;
+
+    private MockHttpServletRequest staticResource;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        this.filter = new AuthenticationFilter();
+        this.filter.setIgnoreInitConfiguration(true);
+        this.filter.setServerName("https://app.example.org");
+        this.filter.setCasServerLoginUrl("https://cas.example.org/cas/login");
+        if (this.ignorePattern) {
+            final var matcher = new RegexUrlPatternMatcherStrategy();
+            matcher.setPattern("/(static|health)/.*|.*\\.(css|js|png)$");
+            this.filter.setIgnoreUrlPatternMatcherStrategyClass(matcher);
+        }
+        this.filter.init();
+
+        final var session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, new AssertionImpl("casuser"));
+        this.authenticated = new MockHttpServletRequest("GET", "/app/secure/page");
+        this.authenticated.setSession(session);
+        this.authenticated.setQueryString("id=42&view=full");
+        this.staticResource = new MockHttpServletRequest("GET", "/app/static/main.css");
+        this.response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void authenticated(final Blackhole blackhole) throws Exception {
+        this.filter.doFilter(this.authenticated, this.response, chain(blackhole));
+    }
+
+    @Benchmark
+    public void staticResource(final Blackhole blackhole) throws Exception {
+        final var redirected = new MockHttpServletResponse();
+        this.filter.doFilter(this.staticResource, redirected, chain(blackhole));
+        blackhole.consume(redirected.getRedirectedUrl());
+    }
+
+    private static FilterChain chain(final Blackhole blackhole) {
+        return (request, response) -> blackhole.consume(request);
+    }
+}
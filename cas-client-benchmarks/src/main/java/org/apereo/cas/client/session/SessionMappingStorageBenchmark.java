@@ -0,0 +1,111 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the {@link SessionMappingStorage} implementations under contention: every operation maps a session
+ * to a service ticket, as on login, then removes it by ticket, as on a back-channel logout.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar SessionMappingStorageBenchmark</code>,
+ * adding <code>-t</code> to change the number of threads.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class SessionMappingStorageBenchmark {
+
+    private static final int SESSIONS_PER_THREAD = 1024;
+
+    @Param({"hashMap", "concurrent", "bounded"})
+    private String storageType;
+
+    private SessionMappingStorage storage;
+
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        this.storage = switch (this.storageType) {
+            case "hashMap" -> new HashMapBackedSessionMappingStorage();
+            case "concurrent" -> new ConcurrentSessionMappingStorage();
+            default -> {
+                final var bounded = new BoundedSessionMappingStorage();
+                bounded.setMaxSize(100000);
+                yield bounded;
+            }
+        };
+    }
+
+    @Benchmark
+    public Object loginThenLogout(final Sessions sessions) {
+        final var index = sessions.next();
+        this.storage.addSessionById(sessions.tickets[index], sessions.sessions[index]);
+        return this.storage.removeSessionByMappingId(sessions.tickets[index]);
+    }
+
+    /**
+     * Sessions and tickets owned by one benchmark thread, so that threads contend on the storage only.
+     */
+    @State(Scope.Thread)
+    public static class Sessions {
+
+        private final MockHttpSession[] sessions = new MockHttpSession[SESSIONS_PER_THREAD];
+
+        private final String[] tickets = new String[SESSIONS_PER_THREAD];
+
+        private int counter;
+
+        @Setup
+        public void setUp(final SessionMappingStorageBenchmark benchmark) {
+            final var thread = benchmark.threads.incrementAndGet();
+            for (var i = 0; i < SESSIONS_PER_THREAD; i++) {
+                this.sessions[i] = new MockHttpSession(null, "session-" + thread + '-' + i);
+                this.tickets[i] = "ST-" + thread + '-' + i + "-cas.example.org";
+            }
+        }
+
+        int next() {
+            this.counter = (this.counter + 1) & (SESSIONS_PER_THREAD - 1);
+            return this.counter;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Measures {@link SingleSignOutHandler#process} on a back-channel logout request, sent in clear or deflated and
+ * base64 encoded as CAS does for front-channel logouts. The session index is not mapped, so only reading the
+ * message is measured, not invalidating the session.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar SingleSignOutBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleSignOutBenchmark {
+
+    @Param({"false", "true"})
+    private boolean compressed;
+
+    private SingleSignOutHandler handler;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.handler = new SingleSignOutHandler();
+        this.handler.init();
+
+        final var message = "<samlp:LogoutRequest xmlns:samlp=\"urn:oasis:names:tc:SAML:2.0:protocol\" "
+                            + "ID=\"LR-1-a2b3c4d5e6f7g8h9i0\" Version=\"2.0\" IssueInstant=\"2026-01-01T00:00:00Z\">"
+                            + "<saml:NameID xmlns:saml=\"urn:oasis:names:tc:SAML:2.0:assertion\">casuser</saml:NameID>"
+                            + "<samlp:SessionIndex>ST-1-a2b3c4d5e6f7g8h9i0-cas.example.org</samlp:SessionIndex>"
+                            + "</samlp:LogoutRequest>";
+        this.request = new MockHttpServletRequest("POST", "/app/logout");
+        this.request.setParameter("logoutRequest", this.compressed ? deflate(message) : message);
+        this.response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean process() {
+        return this.handler.process(this.request, this.response);
+    }
+
+    private static String deflate(final String message) throws Exception {
+        final var bytes = new ByteArrayOutputStream();
+        try (var deflater = new DeflaterOutputStream(bytes)) {
+            deflater.write(message.getBytes(StandardCharsets.UTF_8));
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the service URL sent to the CAS server, which every unauthenticated request and every
+ * ticket validation goes through, and the {@link URIBuilder} it relies on to parse and format URLs.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar ServiceUrlBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceUrlBenchmark {
+
+    /** Number of parameters besides the ticket in the query string. */
+    @Param({"0", "4", "16"})
+    private int parameters;
+
+    @Param({"true", "false"})
+    private boolean encode;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private String url;
+
+    @Setup
+    public void setUp() {
+        final var query = new StringBuilder("ticket=ST-1-a2b3c4d5e6f7g8h9i0-cas.example.org");
+        for (var i = 0; i < this.parameters; i++) {
+            query.append("&param").append(i).append("=value%20").append(i);
+        }
+        this.request = new MockHttpServletRequest("GET", "/app/secure/page");
+        this.request.setScheme("https");
+        this.request.setServerName("app.example.org");
+        this.request.setServerPort(443);
+        this.request.addHeader("Host", "app.example.org");
+        this.request.setQueryString(query.toString());
+        this.response = new MockHttpServletResponse();
+        this.url = "https://app.example.org/app/secure/page?" + query;
+    }
+
+    @Benchmark
+    public String constructServiceUrl() {
+        return WebUtils.constructServiceUrl(this.request, this.response, null,
+            "https://app2.example.org https://app.example.org", "service", "ticket", this.encode);
+    }
+
+    @Benchmark
+    public String parseAndFormatUrl() {
+        return new URIBuilder(this.url, this.encode).toString();
+    }
+
+    @Benchmark
+    public String buildFromQueryString() {
+        return new URIBuilder("https://app.example.org/app/secure/page", this.encode)
+            .setParameters(this.request.getQueryString())
+            .toString();
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.proxy.Cas20ProxyRetriever;
+import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization a replicated session performs on every write, for the {@link AssertionImpl} the
+ * validation filters store by default and for a {@link CompactAssertion}. Both hold a proxying principal with a few
+ * attributes and a multi-valued group membership, as validated by a <code>Cas20ProxyReceivingTicketValidationFilter</code>.
+ * The serialized sizes are reported as the <code>serializedBytes</code> secondary result of the serialization
+ * benchmarks.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar AssertionSerializationBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssertionSerializationBenchmark {
+
+    /** Number of groups the principal is a member of. */
+    @Param({"5", "500"})
+    private int groups;
+
+    private AssertionImpl assertion;
+
+    private CompactAssertion compactAssertion;
+
+    private byte[] serializedAssertion;
+
+    private byte[] serializedCompactAssertion;
+
+    @Setup
+    public void setUp() throws Exception {
+        final var memberOf = new LinkedList<String>();
+        for (var i = 0; i < this.groups; i++) {
+            memberOf.add("cn=group" + i + ",ou=groups,dc=example,dc=org");
+        }
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("mail", "alice@example.org");
+        attributes.put("displayName", "Alice Example");
+        attributes.put("memberOf", memberOf);
+        final var retriever = new Cas20ProxyRetriever("https://cas.example.org/cas", "UTF-8", new HttpsURLConnectionFactory());
+        final var now = new Date();
+        this.assertion = new AssertionImpl(new AttributePrincipalImpl("alice", attributes, "PGT-1-abcdefghijklmnopqrstuvwxyz",
+            retriever), now, new Date(now.getTime() + 28800000L), now, Map.of("authenticationMethod", "mfa"));
+        this.compactAssertion = CompactAssertion.of(this.assertion);
+        this.serializedAssertion = serialize(this.assertion);
+        this.serializedCompactAssertion = serialize(this.compactAssertion);
+    }
+
+    @Benchmark
+    public byte[] serializeAssertionImpl(final SizeCounter counter) throws IOException {
+        final var bytes = serialize(this.assertion);
+        counter.serializedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] serializeCompactAssertion(final SizeCounter counter) throws IOException {
+        final var bytes = serialize(this.compactAssertion);
+        counter.serializedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object deserializeAssertionImpl() throws Exception {
+        return deserialize(this.serializedAssertion);
+    }
+
+    @Benchmark
+    public Object deserializeCompactAssertion() throws Exception {
+        return deserialize(this.serializedCompactAssertion);
+    }
+
+    /**
+     * Reports the size of the serialized assertion alongside the serialization time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SizeCounter {
+
+        public long serializedBytes;
+    }
+
+    private static byte[] serialize(final Object object) throws IOException {
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(final byte[] bytes) throws Exception {
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures checking a proxy chain against the allowed proxy chains of a {@link Cas20ProxyTicketValidator}, half
+ * of them exact URLs and half regular expressions. The matching chain is the last one allowed, so that every
+ * allowed chain is tried.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar ProxyListBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProxyListBenchmark {
+
+    /** Number of allowed proxy chains. */
+    @Param({"10", "100", "1000"})
+    private int chains;
+
+    private ProxyList proxyList;
+
+    private String[] matching;
+
+    private String[] notMatching;
+
+    @Setup
+    public void setUp() {
+        final var allowed = new ArrayList<String[]>(this.chains);
+        for (var i = 0; i < this.chains; i++) {
+            if (i % 2 == 0) {
+                allowed.add(new String[]{"https://proxy" + i + ".example.org/pgtCallback",
+                    "https://app" + i + ".example.org/pgtCallback"});
+            } else {
+                allowed.add(new String[]{"^https://proxy" + i + "\\.example\\.org/.*",
+                    "^https://app" + i + "\\.example\\.org/.*"});
+            }
+        }
+        this.proxyList = new ProxyList(allowed);
+        final var last = this.chains - 1;
+        this.matching = new String[]{"https://proxy" + last + ".example.org/pgtCallback",
+            "https://app" + last + ".example.org/pgtCallback"};
+        this.notMatching = new String[]{"https://proxy.example.com/pgtCallback", "https://app.example.com/pgtCallback"};
+    }
+
+    @Benchmark
+    public boolean matchingChain() {
+        return this.proxyList.contains(this.matching);
+    }
+
+    @Benchmark
+    public boolean unknownChain() {
+        return this.proxyList.contains(this.notMatching);
+    }
+}
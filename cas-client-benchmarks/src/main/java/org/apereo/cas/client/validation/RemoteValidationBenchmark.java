@@ -0,0 +1,85 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.ssl.HttpClientTransport;
+import org.apereo.cas.client.ssl.HttpURLConnectionTransport;
+import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a complete service ticket validation, from building the validation URL to the {@link Assertion},
+ * against a CAS server stub running in the same JVM, with both HTTP transports.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar RemoteValidationBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RemoteValidationBenchmark {
+
+    @Param({"httpClient", "urlConnection"})
+    private String transport;
+
+    private StubCasServer server;
+
+    private Cas30ServiceTicketValidator validator;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.server = new StubCasServer(ResponseParsingBenchmark.createXmlResponse(5), 8);
+        this.validator = new Cas30ServiceTicketValidator(this.server.getUrlPrefix());
+        if ("urlConnection".equals(this.transport)) {
+            this.validator.setHttpTransport(new HttpURLConnectionTransport(new HttpsURLConnectionFactory()));
+        } else {
+            this.validator.setHttpTransport(new HttpClientTransport());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.server.close();
+    }
+
+    @Benchmark
+    public Assertion validate() throws TicketValidationException {
+        return this.validator.validate("ST-1-a2b3c4d5e6f7g8h9i0-cas.example.org", "https://app.example.org/app/");
+    }
+}
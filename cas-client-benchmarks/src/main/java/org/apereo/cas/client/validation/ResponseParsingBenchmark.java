@@ -0,0 +1,107 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.validation.json.Cas30JsonServiceTicketValidator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning a successful <code>serviceValidate</code> response into an {@link Assertion}, for the XML
+ * and JSON formats, with a handful of attributes and with a large group membership.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar ResponseParsingBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseParsingBenchmark {
+
+    /** Number of values of the multi-valued attribute. */
+    @Param({"5", "500"})
+    private int attributes;
+
+    private AbstractUrlBasedTicketValidator xmlValidator;
+
+    private AbstractUrlBasedTicketValidator jsonValidator;
+
+    private String xmlResponse;
+
+    private String jsonResponse;
+
+    @Setup
+    public void setUp() {
+        this.xmlValidator = new Cas30ServiceTicketValidator("https://cas.example.org/cas");
+        this.jsonValidator = new Cas30JsonServiceTicketValidator("https://cas.example.org/cas");
+        this.xmlResponse = createXmlResponse(this.attributes);
+        this.jsonResponse = createJsonResponse(this.attributes);
+    }
+
+    @Benchmark
+    public Assertion xml() throws TicketValidationException {
+        return this.xmlValidator.parseResponseFromServer(this.xmlResponse);
+    }
+
+    @Benchmark
+    public Assertion json() throws TicketValidationException {
+        return this.jsonValidator.parseResponseFromServer(this.jsonResponse);
+    }
+
+    static String createXmlResponse(final int attributes) {
+        final var xml = new StringBuilder(256 + attributes * 64);
+        xml.append("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>")
+            .append("<cas:user>casuser</cas:user><cas:attributes>")
+            .append("<cas:mail>casuser@example.org</cas:mail>")
+            .append("<cas:displayName>CAS User</cas:displayName>");
+        for (var i = 0; i < attributes; i++) {
+            xml.append("<cas:memberOf>cn=group").append(i).append(",ou=groups,dc=example,dc=org</cas:memberOf>");
+        }
+        return xml.append("</cas:attributes></cas:authenticationSuccess></cas:serviceResponse>").toString();
+    }
+
+    static String createJsonResponse(final int attributes) {
+        final var json = new StringBuilder(256 + attributes * 48);
+        json.append("{\"serviceResponse\":{\"authenticationSuccess\":{\"user\":\"casuser\",\"attributes\":{")
+            .append("\"mail\":[\"casuser@example.org\"],\"displayName\":[\"CAS User\"],\"memberOf\":[");
+        for (var i = 0; i < attributes; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"cn=group").append(i).append(",ou=groups,dc=example,dc=org\"");
+        }
+        return json.append("]}}}}").toString();
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.XmlUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a CAS 3.0 <code>serviceValidate</code> response in one streaming pass with the former
+ * approach of one parse per element of interest.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar ServiceValidationResponseBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceValidationResponseBenchmark {
+
+    /** Approximate size of the response in bytes. */
+    @Param({"1024", "10240", "102400"})
+    private int size;
+
+    private String response;
+
+    @Setup
+    public void setUp() {
+        this.response = createResponse(this.size);
+    }
+
+    @Benchmark
+    public ServiceValidationResponse singlePass() throws Exception {
+        return ServiceValidationResponse.parse(this.response);
+    }
+
+    @Benchmark
+    public void multiPass(final Blackhole blackhole) {
+        blackhole.consume(XmlUtils.getTextForElement(this.response, "authenticationFailure"));
+        blackhole.consume(XmlUtils.getTextForElement(this.response, "user"));
+        blackhole.consume(XmlUtils.getTextForElements(this.response, Cas20ServiceTicketValidator.PGT_ATTRIBUTE));
+        blackhole.consume(XmlUtils.getTextForElements(this.response, "proxy"));
+        blackhole.consume(XmlUtils.newDocument(this.response).getElementsByTagName("cas:attribute").getLength());
+    }
+
+    static String createResponse(final int size) {
+        final var xml = new StringBuilder(size + 512);
+        xml.append("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>")
+            .append("<cas:user>casuser</cas:user>")
+            .append("<cas:proxyGrantingTicket>PGTIOU-84678-8a9d2sfa23casd</cas:proxyGrantingTicket>")
+            .append("<cas:attributes>");
+        for (var i = 0; xml.length() < size; i++) {
+            xml.append("<cas:memberOf>cn=group").append(i).append(",ou=groups,dc=example,dc=org</cas:memberOf>");
+        }
+        return xml.append("</cas:attributes></cas:authenticationSuccess></cas:serviceResponse>").toString();
+    }
+}
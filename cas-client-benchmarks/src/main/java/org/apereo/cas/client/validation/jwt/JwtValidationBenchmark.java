@@ -0,0 +1,130 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CasJWTTicketValidator#validate(String, String)} on a signed service ticket, and on a signed
+ * ticket nested in an encrypted one as issued by CAS by default, with and without caching results.
+ * <p>
+ * Run with <code>java -jar cas-client-benchmarks/target/benchmarks.jar JwtValidationBenchmark</code>.
+ *
+ * @since 4.1.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String ENCRYPTION_KEY = "GR7E6uL9djKBSH59BN8boYQ68gQgzwehIIp6s1QicPc";
+
+    private static final String SIGNING_KEY = "vTRQaUu8oDlMrsuhsgNgtk6yie2O6XwRsnDS1POstAQkA1_5TI8-mwrqo1wQ1VahGXLgjCtOb9PLOplmvFzvQA";
+
+    private static final String ISSUER = "https://cas.example.org/cas";
+
+    private static final String SERVICE = "https://app.example.org";
+
+    @Param({"false", "true"})
+    private boolean encrypted;
+
+    /** Whether validation results are cached, so that the same JWT is only verified once. */
+    @Param({"false", "true"})
+    private boolean cacheResults;
+
+    private CasJWTTicketValidator validator;
+
+    private String ticket;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.validator = new CasJWTTicketValidator();
+        this.validator.setSigningKey(SIGNING_KEY);
+        this.validator.setEncryptionKey(ENCRYPTION_KEY);
+        this.validator.setExpectedIssuer(ISSUER);
+        this.validator.setExpectedAudience(SERVICE);
+        this.validator.setCacheResults(this.cacheResults);
+        this.ticket = createTicket(this.encrypted);
+        this.validator.validate(this.ticket, SERVICE);
+    }
+
+    @Benchmark
+    public Assertion validate() throws TicketValidationException {
+        return this.validator.validate(this.ticket, SERVICE);
+    }
+
+    static String createTicket(final boolean encrypted) throws Exception {
+        final var now = System.currentTimeMillis();
+        final var claims = new JWTClaimsSet.Builder()
+            .subject("casuser")
+            .issuer(ISSUER)
+            .audience(SERVICE)
+            .jwtID("ST-1-" + UUID.randomUUID())
+            .issueTime(new Date(now))
+            .expirationTime(new Date(now + TimeUnit.DAYS.toMillis(1)))
+            .claim("mail", "casuser@example.org")
+            .build();
+        final var signed = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.HS512).type(JOSEObjectType.JWT).build(), claims);
+        signed.sign(new MACSigner(SIGNING_KEY.getBytes(StandardCharsets.UTF_8)));
+        if (!encrypted) {
+            return signed.serialize();
+        }
+        final var header = new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A128CBC_HS256)
+            .type(JOSEObjectType.JWT)
+            .contentType("JWT")
+            .build();
+        final var jwe = new JWEObject(header, new Payload(signed));
+        jwe.encrypt(new DirectEncrypter(Base64.getDecoder().decode(ENCRYPTION_KEY)));
+        return jwe.serialize();
+    }
+}
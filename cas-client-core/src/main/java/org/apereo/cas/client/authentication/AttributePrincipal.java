@@ -20,7 +20,10 @@ package org.apereo.cas.client.authentication;
 
 import java.io.Serializable;
 import java.security.Principal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Extension to the standard Java Principal that includes a way to retrieve proxy tickets for a particular user
@@ -43,6 +46,27 @@ public interface AttributePrincipal extends Principal, Serializable {
      */
     String getProxyTicketFor(String service);
 
+    /**
+     * Retrieves CAS proxy tickets for several services at once.
+     * <p>
+     * The default implementation retrieves the tickets one after the other on the calling thread.
+     *
+     * @param services the services we wish to proxy this user to.
+     * @return the future proxy tickets, keyed by service in the order of the services, completed exceptionally if a
+     * ticket cannot be retrieved.
+     */
+    default Map<String, CompletableFuture<String>> getProxyTicketsFor(final Collection<String> services) {
+        final Map<String, CompletableFuture<String>> tickets = new LinkedHashMap<>();
+        for (final var service : services) {
+            try {
+                tickets.put(service, CompletableFuture.completedFuture(getProxyTicketFor(service)));
+            } catch (final RuntimeException e) {
+                tickets.put(service, CompletableFuture.failedFuture(e));
+            }
+        }
+        return tickets;
+    }
+
     /**
      * The Map of key/value pairs associated with this principal.
      * @return the map of key/value pairs associated with this principal.
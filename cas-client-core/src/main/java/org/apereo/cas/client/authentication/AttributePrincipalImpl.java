@@ -25,8 +25,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serial;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Concrete implementation of the AttributePrincipal interface.
@@ -42,6 +45,12 @@ public class AttributePrincipalImpl extends SimplePrincipal implements Attribute
     @Serial
     private static final long serialVersionUID = -1443182634624927187L;
 
+    /** Number of proxy tickets requested at the same time by {@link #getProxyTicketsFor(Collection)}. */
+    public static final int DEFAULT_MAX_CONCURRENT_PROXY_REQUESTS = 4;
+
+    /** Milliseconds within which {@link #getProxyTicketsFor(Collection)} must retrieve all proxy tickets. */
+    public static final long DEFAULT_PROXY_REQUESTS_TIMEOUT = 5000L;
+
     /** Map of key/value pairs about this principal. */
     private final Map<String, Object> attributes;
 
@@ -110,6 +119,39 @@ public class AttributePrincipalImpl extends SimplePrincipal implements Attribute
         return null;
     }
 
+    /**
+     * Requests the proxy tickets in parallel, with at most {@link #DEFAULT_MAX_CONCURRENT_PROXY_REQUESTS} requests in
+     * flight for the proxy granting ticket, provided the {@link ProxyRetriever} supports asynchronous retrieval.
+     */
+    @Override
+    public Map<String, CompletableFuture<String>> getProxyTicketsFor(final Collection<String> services) {
+        return getProxyTicketsFor(services, DEFAULT_MAX_CONCURRENT_PROXY_REQUESTS, DEFAULT_PROXY_REQUESTS_TIMEOUT);
+    }
+
+    /**
+     * Retrieves CAS proxy tickets for several services in parallel.
+     *
+     * @param services              the services we wish to proxy this user to.
+     * @param maxConcurrentRequests the maximum number of requests to the CAS server in flight for the proxy granting
+     *                              ticket of this principal, across concurrent calls.
+     * @param timeout               milliseconds after which the tickets not retrieved yet complete exceptionally
+     *                              with a {@link java.util.concurrent.TimeoutException}; 0 or less waits indefinitely.
+     * @return the future proxy tickets, keyed by service in the order of the services.
+     */
+    public Map<String, CompletableFuture<String>> getProxyTicketsFor(final Collection<String> services,
+                                                                     final int maxConcurrentRequests, final long timeout) {
+        if (proxyGrantingTicket != null) {
+            return this.proxyRetriever.getProxyTicketIdsFor(this.proxyGrantingTicket, services, maxConcurrentRequests, timeout);
+        }
+
+        LOGGER.debug("No ProxyGrantingTicket was supplied, so no Proxy Ticket can be retrieved.");
+        final Map<String, CompletableFuture<String>> tickets = new LinkedHashMap<>();
+        for (final var service : services) {
+            tickets.put(service, CompletableFuture.completedFuture(null));
+        }
+        return tickets;
+    }
+
     @Override
     public Map<String, Object> getAttributes() {
         return this.attributes;
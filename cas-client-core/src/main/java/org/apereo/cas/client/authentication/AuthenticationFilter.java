@@ -21,6 +21,7 @@ package org.apereo.cas.client.authentication;
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.ReflectUtils;
 import org.apereo.cas.client.validation.Assertion;
@@ -35,7 +36,9 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
 
 /**
  * Filter implementation to intercept all requests and attempt to authenticate
@@ -43,7 +46,9 @@ import java.util.Map;
  * <p>
  * This filter allows you to specify the following parameters (at either the context-level or the filter-level):
  * <ul>
- * <li><code>casServerLoginUrl</code> - the url to log into CAS, i.e. https://cas.rutgers.edu/login</li>
+ * <li><code>casServerLoginUrl</code> - the url to log into CAS, i.e. https://cas.rutgers.edu/login. Several urls of
+ * the same CAS deployment may be given, separated by whitespace: users are sent to the one whose server is preferred
+ * for back-channel calls, see {@link CasServerEndpoints}.</li>
  * <li><code>renew</code> - true/false on whether to use renew or not.</li>
  * <li><code>gateway</code> - true/false on whether to use gateway or not.</li>
  * <li><code>method</code> - the method used by the CAS server to send the user back to the application (redirect or post).</li>
@@ -64,6 +69,7 @@ public class AuthenticationFilter extends AbstractCasFilter {
         PATTERN_MATCHER_TYPES.put("REGEX", RegexUrlPatternMatcherStrategy.class);
         PATTERN_MATCHER_TYPES.put("FULL_REGEX", EntireRegionRegexUrlPatternMatcherStrategy.class);
         PATTERN_MATCHER_TYPES.put("EXACT", ExactUrlPatternMatcherStrategy.class);
+        PATTERN_MATCHER_TYPES.put("PATH", PathPatternUrlPatternMatcherStrategy.class);
     }
 
     /**
@@ -71,6 +77,18 @@ public class AuthenticationFilter extends AbstractCasFilter {
      */
     private String casServerLoginUrl;
 
+    /**
+     * All the login URLs, when several are configured.
+     */
+    private List<String> casServerLoginUrls;
+
+    /**
+     * The servers of {@link #casServerLoginUrls}, in the same order, when several are configured.
+     */
+    private CasServerEndpoints casServerEndpoints;
+
+    private CasServerEndpoints.Registry casServerEndpointRegistry;
+
     /**
      * Whether to send the renew request or not.
      */
@@ -114,6 +132,7 @@ public class AuthenticationFilter extends AbstractCasFilter {
 
     @Override
     protected void initInternal(final FilterConfig filterConfig) throws ServletException {
+        setCasServerEndpointRegistry(CasServerEndpoints.Registry.of(filterConfig.getServletContext()));
         if (!isIgnoreInitConfiguration()) {
             super.initInternal(filterConfig);
 
@@ -143,6 +162,9 @@ public class AuthenticationFilter extends AbstractCasFilter {
                         logger.error("Could not instantiate class [{}]", ignoreUrlPatternType, e);
                     }
                 }
+                if (this.ignoreUrlPatternMatcherStrategyClass instanceof final PathPatternUrlPatternMatcherStrategy strategy) {
+                    strategy.setIncludeQuery(getBoolean(ConfigurationKeys.IGNORE_URL_INCLUDE_QUERY));
+                }
                 if (this.ignoreUrlPatternMatcherStrategyClass != null) {
                     this.ignoreUrlPatternMatcherStrategyClass.setPattern(ignorePattern);
                 }
@@ -204,7 +226,7 @@ public class AuthenticationFilter extends AbstractCasFilter {
 
         logger.debug("Constructed service url: {}", modifiedServiceUrl);
 
-        final var urlToRedirectTo = CommonUtils.constructRedirectUrl(this.casServerLoginUrl,
+        final var urlToRedirectTo = CommonUtils.constructRedirectUrl(selectCasServerLoginUrl(),
             getProtocol().getServiceParameterName(), modifiedServiceUrl, this.renew, this.gateway, this.method);
 
         logger.debug("redirecting to \"{}\"", urlToRedirectTo);
@@ -223,12 +245,53 @@ public class AuthenticationFilter extends AbstractCasFilter {
         this.method = method;
     }
 
+    private String selectCasServerLoginUrl() {
+        if (this.casServerEndpoints == null) {
+            return this.casServerLoginUrl;
+        }
+        final var preferred = this.casServerEndpoints.preferred().getUrl();
+        return this.casServerLoginUrls.get(this.casServerEndpoints.getUrls().indexOf(preferred));
+    }
+
     public final void setCasServerUrlPrefix(final String casServerUrlPrefix) {
-        setCasServerLoginUrl(CommonUtils.addTrailingSlash(casServerUrlPrefix) + "login");
+        final var loginUrls = new StringJoiner(" ");
+        for (final var prefix : CasServerEndpoints.of(casServerUrlPrefix).getUrls()) {
+            loginUrls.add(prefix + "login");
+        }
+        setCasServerLoginUrl(loginUrls.toString());
     }
 
     public final void setCasServerLoginUrl(final String casServerLoginUrl) {
         this.casServerLoginUrl = casServerLoginUrl;
+        this.casServerLoginUrls = null;
+        this.casServerEndpoints = null;
+        if (casServerLoginUrl == null) {
+            return;
+        }
+        final var loginUrls = casServerLoginUrl.trim().split("\\s+");
+        if (loginUrls.length > 1) {
+            final var prefixes = new StringJoiner(" ");
+            for (final var loginUrl : loginUrls) {
+                prefixes.add(loginUrl.endsWith("/login") ? loginUrl.substring(0, loginUrl.length() - "login".length()) : loginUrl);
+            }
+            this.casServerLoginUrl = loginUrls[0];
+            this.casServerLoginUrls = List.of(loginUrls);
+            this.casServerEndpoints = this.casServerEndpointRegistry != null
+                ? this.casServerEndpointRegistry.endpoints(prefixes.toString()) : CasServerEndpoints.of(prefixes.toString());
+        }
+    }
+
+    /**
+     * Sends users to the CAS server preferred by the other users of the registry, i.e. the ticket validator of the
+     * application, when several login URLs are configured.
+     *
+     * @param casServerEndpointRegistry the registry of the application.
+     */
+    public final void setCasServerEndpointRegistry(final CasServerEndpoints.Registry casServerEndpointRegistry) {
+        this.casServerEndpointRegistry = casServerEndpointRegistry;
+        if (this.casServerEndpoints != null) {
+            this.casServerEndpoints = casServerEndpointRegistry.endpoints(this.casServerEndpoints.toString());
+        }
     }
 
     public final void setGatewayStorage(final GatewayResolver gatewayStorage) {
@@ -244,6 +307,9 @@ public class AuthenticationFilter extends AbstractCasFilter {
         if (this.ignoreUrlPatternMatcherStrategyClass == null) {
             return false;
         }
+        if (this.ignoreUrlPatternMatcherStrategyClass instanceof final PathPatternUrlPatternMatcherStrategy strategy) {
+            return strategy.matches(request);
+        }
 
         final var urlBuffer = request.getRequestURL();
         if (request.getQueryString() != null) {
@@ -0,0 +1,241 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * {@link UrlPatternMatcherStrategy} matching many patterns at once against the path of the request, relative to
+ * the context path. The pattern is a list of entries separated by whitespace, each one optionally prefixed by its
+ * type:
+ * <ul>
+ * <li><code>exact:/health</code> matches that path only,</li>
+ * <li><code>prefix:/static/</code> matches every path starting with <code>/static/</code>,</li>
+ * <li><code>glob:/**&#47;*.css</code> matches paths against a glob, where <code>*</code> and <code>?</code> stop
+ * at <code>/</code>, <code>**</code> does not, and <code>**&#47;</code> also matches no directory at all,</li>
+ * <li><code>regex:^/api/v[0-9]+/public</code> matches paths using <code>Matcher#find()</code>.</li>
+ * </ul>
+ * Entries without a type are globs when they hold <code>*</code> or <code>?</code>, and exact paths otherwise.
+ * <p>
+ * Exact and prefix entries are compiled into a character trie, globs and regular expressions into a single
+ * pattern, so that the cost of a lookup does not grow with the number of entries. When called with the request,
+ * the path is matched in place within {@link HttpServletRequest#getRequestURI()} without allocating; the query
+ * string is only considered when {@link #setIncludeQuery(boolean) includeQuery} is enabled.
+ *
+ * @since 4.1.2
+ */
+public final class PathPatternUrlPatternMatcherStrategy implements UrlPatternMatcherStrategy {
+
+    /**
+     * Back references would point to the wrong group once patterns are combined.
+     */
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+
+    private Node trie = new Node();
+
+    private Pattern[] patterns = new Pattern[0];
+
+    private boolean includeQuery;
+
+    /**
+     * Matches the given string as a path.
+     */
+    @Override
+    public boolean matches(final String url) {
+        return matches(url, 0);
+    }
+
+    /**
+     * @param request the request to match.
+     * @return true if the path of the request, relative to the context path, matches one of the entries.
+     */
+    public boolean matches(final HttpServletRequest request) {
+        final var uri = request.getRequestURI();
+        if (uri == null) {
+            return false;
+        }
+        final var contextPath = request.getContextPath();
+        final var offset = contextPath != null && uri.startsWith(contextPath) ? contextPath.length() : 0;
+        final var query = this.includeQuery ? request.getQueryString() : null;
+        if (query != null) {
+            return matches(uri.substring(offset) + '?' + query, 0);
+        }
+        return matches(uri, offset);
+    }
+
+    private boolean matches(final String path, final int offset) {
+        if (this.trie.matches(path, offset)) {
+            return true;
+        }
+        for (final var pattern : this.patterns) {
+            if (pattern.matcher(path).region(offset, path.length()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void setPattern(final String pattern) {
+        final var trie = new Node();
+        final List<String> expressions = new ArrayList<>();
+        for (final var entry : pattern.trim().split("\\s+")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (entry.startsWith("exact:")) {
+                trie.add(entry.substring(6), false);
+            } else if (entry.startsWith("prefix:")) {
+                trie.add(entry.substring(7), true);
+            } else if (entry.startsWith("glob:")) {
+                expressions.add(globToRegex(entry.substring(5)));
+            } else if (entry.startsWith("regex:")) {
+                expressions.add(Pattern.compile(entry.substring(6)).pattern());
+            } else if (entry.indexOf('*') >= 0 || entry.indexOf('?') >= 0) {
+                expressions.add(globToRegex(entry));
+            } else {
+                trie.add(entry, false);
+            }
+        }
+        this.trie = trie;
+        this.patterns = compile(expressions);
+    }
+
+    /**
+     * @param includeQuery whether the query string is appended to the path before matching it.
+     */
+    public void setIncludeQuery(final boolean includeQuery) {
+        this.includeQuery = includeQuery;
+    }
+
+    private static Pattern[] compile(final List<String> expressions) {
+        if (expressions.isEmpty()) {
+            return new Pattern[0];
+        }
+        if (expressions.stream().anyMatch(expression -> BACK_REFERENCE.matcher(expression).find()
+                                                         || expression.indexOf('#') >= 0)) {
+            return expressions.stream().map(Pattern::compile).toArray(Pattern[]::new);
+        }
+        final var combined = new StringBuilder();
+        for (final var expression : expressions) {
+            if (combined.length() > 0) {
+                combined.append('|');
+            }
+            combined.append("(?:").append(expression).append(')');
+        }
+        return new Pattern[]{Pattern.compile(combined.toString())};
+    }
+
+    private static String globToRegex(final String glob) {
+        final var regex = new StringBuilder("^");
+        var literalStart = 0;
+        for (var i = 0; i < glob.length(); i++) {
+            final var c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                continue;
+            }
+            if (literalStart < i) {
+                regex.append(Pattern.quote(glob.substring(literalStart, i)));
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+            } else if (glob.startsWith("**/", i)) {
+                // any number of directories, including none
+                regex.append("(?:.*/)?");
+                i += 2;
+            } else if (glob.startsWith("**", i)) {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+            literalStart = i + 1;
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.append('$').toString();
+    }
+
+    /**
+     * Node of the trie of exact and prefix entries; children are kept sorted by character.
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private boolean exact;
+
+        private boolean prefix;
+
+        void add(final String path, final boolean isPrefix) {
+            var node = this;
+            for (var i = 0; i < path.length(); i++) {
+                node = node.childOrCreate(path.charAt(i));
+            }
+            if (isPrefix) {
+                node.prefix = true;
+            } else {
+                node.exact = true;
+            }
+        }
+
+        boolean matches(final String path, final int offset) {
+            var node = this;
+            for (var i = offset; i < path.length(); i++) {
+                if (node.prefix) {
+                    return true;
+                }
+                final var index = Arrays.binarySearch(node.keys, path.charAt(i));
+                if (index < 0) {
+                    return false;
+                }
+                node = node.children[index];
+            }
+            return node.exact || node.prefix;
+        }
+
+        private Node childOrCreate(final char key) {
+            var index = Arrays.binarySearch(this.keys, key);
+            if (index >= 0) {
+                return this.children[index];
+            }
+            index = -index - 1;
+            final var child = new Node();
+            final var keys = new char[this.keys.length + 1];
+            final var children = new Node[this.children.length + 1];
+            System.arraycopy(this.keys, 0, keys, 0, index);
+            System.arraycopy(this.children, 0, children, 0, index);
+            keys[index] = key;
+            children[index] = child;
+            System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+            System.arraycopy(this.children, index, children, index + 1, this.children.length - index);
+            this.keys = keys;
+            this.children = children;
+            return child;
+        }
+    }
+}
@@ -19,12 +19,18 @@
 package org.apereo.cas.client.configuration;
 
 import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.authentication.AuthenticationFilter;
 import org.apereo.cas.client.authentication.AuthenticationRedirectStrategy;
 import org.apereo.cas.client.authentication.DefaultGatewayResolverImpl;
 import org.apereo.cas.client.authentication.GatewayResolver;
+import org.apereo.cas.client.metrics.MetricsRecorder;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
+import org.apereo.cas.client.session.BoundedSessionMappingStorage;
+import org.apereo.cas.client.session.SessionMappingRegistry;
+import org.apereo.cas.client.validation.AbstractTicketValidationFilter;
 import org.apereo.cas.client.validation.Cas20ServiceTicketValidator;
+import org.apereo.cas.client.validation.Cas30ProxyReceivingTicketValidationFilter;
 
 import javax.net.ssl.HostnameVerifier;
 
@@ -68,6 +74,7 @@ public interface ConfigurationKeys {
     ConfigurationKey<Boolean> DISABLE_XML_SCHEMA_VALIDATION = new ConfigurationKey<>("disableXmlSchemaValidation", Boolean.FALSE);
     ConfigurationKey<String> IGNORE_PATTERN = new ConfigurationKey<>("ignorePattern", null);
     ConfigurationKey<String> IGNORE_URL_PATTERN_TYPE = new ConfigurationKey<>("ignoreUrlPatternType", "REGEX");
+    ConfigurationKey<Boolean> IGNORE_URL_INCLUDE_QUERY = new ConfigurationKey<>("ignoreUrlIncludeQuery", Boolean.FALSE);
     ConfigurationKey<Class<? extends HostnameVerifier>> HOSTNAME_VERIFIER = new ConfigurationKey<>("hostnameVerifier", null);
     ConfigurationKey<String> HOSTNAME_VERIFIER_CONFIG = new ConfigurationKey<>("hostnameVerifierConfig", null);
     ConfigurationKey<Boolean> EXCEPTION_ON_VALIDATION_FAILURE = new ConfigurationKey<>("exceptionOnValidationFailure", Boolean.TRUE);
@@ -86,4 +93,38 @@ public interface ConfigurationKeys {
     ConfigurationKey<String> RELAY_STATE_PARAMETER_NAME = new ConfigurationKey<>("relayStateParameterName", "RelayState");
     ConfigurationKey<String> LOGOUT_CALLBACK_PATH = new ConfigurationKey<>("logoutCallbackPath", null);
     ConfigurationKey<String> JSONP_CALLBACK_PARAMETER_NAME = new ConfigurationKey<>("jsonpCallbackParameterName", "callback");
+    ConfigurationKey<Integer> HTTP_MAX_CONNECTIONS = new ConfigurationKey<>("httpMaxConnections", 50);
+    ConfigurationKey<Long> HTTP_IDLE_TIMEOUT = new ConfigurationKey<>("httpIdleTimeout", 30000L);
+    ConfigurationKey<Long> HTTP_CONNECT_TIMEOUT = new ConfigurationKey<>("httpConnectTimeout", 10000L);
+    ConfigurationKey<Long> HTTP_READ_TIMEOUT = new ConfigurationKey<>("httpReadTimeout", 30000L);
+    ConfigurationKey<Long> HTTP_CONNECTION_WAIT_TIMEOUT = new ConfigurationKey<>("httpConnectionWaitTimeout", 30000L);
+    ConfigurationKey<Long> HTTP_MAX_RESPONSE_SIZE = new ConfigurationKey<>("httpMaxResponseSize", 10485760L);
+    ConfigurationKey<Boolean> VIRTUAL_THREADS = new ConfigurationKey<>("virtualThreads", Boolean.FALSE);
+    ConfigurationKey<Boolean> ASYNC_VALIDATION = new ConfigurationKey<>("asyncValidation", Boolean.FALSE);
+    ConfigurationKey<Boolean> COMPACT_ASSERTION = new ConfigurationKey<>("compactAssertion", Boolean.FALSE);
+    ConfigurationKey<Boolean> COALESCE_VALIDATION = new ConfigurationKey<>("coalesceValidation", Boolean.FALSE);
+    ConfigurationKey<Long> COALESCE_VALIDATION_TTL = new ConfigurationKey<>("coalesceValidationTtl", 5000L);
+    ConfigurationKey<Integer> COALESCE_VALIDATION_MAX_SIZE = new ConfigurationKey<>("coalesceValidationMaxSize", 10000);
+    ConfigurationKey<Integer> MAX_CONCURRENT_VALIDATIONS = new ConfigurationKey<>("maxConcurrentValidations", 0);
+    ConfigurationKey<Boolean> CIRCUIT_BREAKER = new ConfigurationKey<>("circuitBreaker", Boolean.FALSE);
+    ConfigurationKey<Integer> CIRCUIT_BREAKER_WINDOW_SIZE = new ConfigurationKey<>("circuitBreakerWindowSize", 20);
+    ConfigurationKey<Integer> CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD = new ConfigurationKey<>("circuitBreakerFailureRateThreshold", 50);
+    ConfigurationKey<Long> CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD = new ConfigurationKey<>("circuitBreakerSlowCallThreshold", 5000L);
+    ConfigurationKey<Integer> CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD = new ConfigurationKey<>("circuitBreakerSlowCallRateThreshold", 80);
+    ConfigurationKey<Long> CIRCUIT_BREAKER_OPEN_DURATION = new ConfigurationKey<>("circuitBreakerOpenDuration", 30000L);
+    ConfigurationKey<Integer> SESSION_MAPPING_MAX_SIZE = new ConfigurationKey<>("sessionMappingMaxSize", 0);
+    ConfigurationKey<Long> SESSION_MAPPING_IDLE_TIMEOUT = new ConfigurationKey<>("sessionMappingIdleTimeout", 0L);
+    ConfigurationKey<Long> SESSION_MAPPING_TIME_TO_LIVE = new ConfigurationKey<>("sessionMappingTimeToLive", 0L);
+    ConfigurationKey<Boolean> SESSION_MAPPING_WEAK_REFERENCES = new ConfigurationKey<>("sessionMappingWeakReferences", Boolean.FALSE);
+    ConfigurationKey<Class<? extends BoundedSessionMappingStorage.EvictionListener>> SESSION_MAPPING_EVICTION_LISTENER_CLASS =
+        new ConfigurationKey<>("sessionMappingEvictionListenerClass", null);
+    ConfigurationKey<Class<? extends SessionMappingRegistry>> SESSION_MAPPING_REGISTRY_CLASS =
+        new ConfigurationKey<>("sessionMappingRegistryClass", null);
+    ConfigurationKey<String> SESSION_MAPPING_NODE_URL = new ConfigurationKey<>("sessionMappingNodeUrl", null);
+    ConfigurationKey<Class<? extends AbstractTicketValidationFilter>> TICKET_VALIDATION_FILTER_CLASS =
+        new ConfigurationKey<>("ticketValidationFilterClass", Cas30ProxyReceivingTicketValidationFilter.class);
+    ConfigurationKey<Class<? extends AuthenticationFilter>> AUTHENTICATION_FILTER_CLASS =
+        new ConfigurationKey<>("authenticationFilterClass", AuthenticationFilter.class);
+    ConfigurationKey<Class<? extends MetricsRecorder>> METRICS_RECORDER_CLASS =
+        new ConfigurationKey<>("metricsRecorderClass", null);
 }
@@ -0,0 +1,64 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jaas;
+
+import org.apereo.cas.client.validation.Assertion;
+
+/**
+ * Cache of the assertions validated by {@link CasLoginModule}, keyed by ticket, so that JAAS providers that
+ * periodically re-authenticate can do so with an already used ticket. The cache is shared by all module instances
+ * and must be thread-safe.
+ * <p>
+ * Implementations named by the <code>cacheClass</code> module option need a public no-argument constructor.
+ *
+ * @since 4.1.2
+ */
+public interface AssertionCache {
+
+    /**
+     * @param ticket the ticket.
+     * @return the assertion cached for the ticket, or null if there is none or it has expired.
+     */
+    Assertion get(TicketCredential ticket);
+
+    /**
+     * Caches the assertion validated for the ticket.
+     *
+     * @param ticket    the ticket.
+     * @param assertion the assertion.
+     */
+    void put(TicketCredential ticket, Assertion assertion);
+
+    /**
+     * Removes the assertion cached for the ticket, if any.
+     *
+     * @param ticket the ticket.
+     */
+    void remove(TicketCredential ticket);
+
+    /**
+     * Removes expired assertions. Called periodically by {@link CasLoginModule}.
+     */
+    void evictExpired();
+
+    /**
+     * @return the number of cached assertions.
+     */
+    int size();
+}
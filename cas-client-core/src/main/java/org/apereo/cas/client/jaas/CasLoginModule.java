@@ -20,6 +20,7 @@ package org.apereo.cas.client.jaas;
 
 import org.apereo.cas.client.authentication.SimplePrincipal;
 import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.MaintenanceScheduler;
 import org.apereo.cas.client.util.ReflectUtils;
 import org.apereo.cas.client.validation.Assertion;
 import org.apereo.cas.client.validation.TicketValidator;
@@ -41,13 +42,16 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.security.Principal;
+import java.util.AbstractMap;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * JAAS login module that delegates to a CAS {@link TicketValidator} component
@@ -82,6 +86,9 @@ import java.util.concurrent.TimeUnit;
  * <li>cacheTimeout (optional) - Assertion cache timeout in minutes.</li>
  * <li>cacheTimeoutUnit (optional) - Assertion cache timeout unit.  Must be one of {@link TimeUnit} enumeration
  *     names, e.g. DAYS, HOURS, MINUTES, SECONDS, MILLISECONDS. Default unit is MINUTES.</li>
+ * <li>cacheMaxSize (optional) - Maximum number of cached assertions, 0 for no limit. Default is 10000.</li>
+ * <li>cacheClass (optional) - Fully-qualified class name of the {@link AssertionCache} implementation.
+ *     Default is {@link ConcurrentAssertionCache}.</li>
  * </ul>
  *
  * <p>
@@ -138,12 +145,36 @@ public class CasLoginModule implements LoginModule {
     public static final TimeUnit DEFAULT_CACHE_TIMEOUT_UNIT = TimeUnit.MINUTES;
 
     /**
-     * Stores mapping of ticket to assertion to support JAAS providers that
-     * attempt to periodically re-authenticate to renew principal.  Since
-     * CAS tickets are one-time-use, a cached assertion must be provided on
-     * re-authentication.
+     * Default maximum number of cached assertions.
      */
-    protected static final Map<TicketCredential, Assertion> ASSERTION_CACHE = new HashMap<>();
+    public static final int DEFAULT_CACHE_MAX_SIZE = 10000;
+
+    /**
+     * Assertion caches shared by all module instances, one per cache configuration.
+     */
+    private static final Map<String, AssertionCache> ASSERTION_CACHES = new ConcurrentHashMap<>();
+
+    /**
+     * View of the assertion caches for subclasses written against the former single cache: lookups and removals
+     * apply to all caches, assertions are put into the cache of the default configuration.
+     *
+     * @deprecated the cache is configured with the <code>cacheClass</code>, <code>cacheTimeout</code> and
+     * <code>cacheMaxSize</code> options and no longer accessed directly.
+     */
+    @Deprecated
+    protected static final Map<TicketCredential, Assertion> ASSERTION_CACHE = new AssertionCacheView();
+
+    /** Longest period between two runs of the assertion cache clean-up. */
+    private static final long MAX_CACHE_CLEANUP_PERIOD = 60000L;
+
+    private static final ReentrantLock CACHE_CLEANUP_LOCK = new ReentrantLock();
+
+    /** Assertion cache clean-up registered with the {@link MaintenanceScheduler}, guarded by the lock above. */
+    private static MaintenanceScheduler.ScheduledTask cacheCleanupTask;
+
+    /** Period of the clean-up, the shortest required by any cache, guarded by the lock above. */
+    private static long cacheCleanupPeriod = MAX_CACHE_CLEANUP_PERIOD;
+
 
     /**
      * Logger instance
@@ -220,6 +251,24 @@ public class CasLoginModule implements LoginModule {
      */
     protected TimeUnit cacheTimeoutUnit = DEFAULT_CACHE_TIMEOUT_UNIT;
 
+    /**
+     * Maximum number of cached assertions.
+     */
+    protected int cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+
+    /**
+     * Fully-qualified class name of the assertion cache implementation.
+     */
+    protected String cacheClass = ConcurrentAssertionCache.class.getName();
+
+    /**
+     * Stores mapping of ticket to assertion to support JAAS providers that
+     * attempt to periodically re-authenticate to renew principal.  Since
+     * CAS tickets are one-time-use, a cached assertion must be provided on
+     * re-authentication.
+     */
+    protected AssertionCache assertionCache;
+
     /**
      * Attempts to do simple type conversion from a string value to the type expected
      * by the given property.
@@ -267,6 +316,8 @@ public class CasLoginModule implements LoginModule {
      *                 <li>cacheTimeout (optional) - assertion cache timeout in minutes.</li>
      *                 <li>cacheTimeoutUnit (optional) - Assertion cache timeout unit.  Must be one of {@link TimeUnit} enumeration
      *                     names, e.g. DAYS, HOURS, MINUTES, SECONDS, MILLISECONDS. Default unit is MINUTES.</li>
+     *                 <li>cacheMaxSize (optional) - maximum number of cached assertions, 0 for no limit.</li>
+     *                 <li>cacheClass (optional) - fully-qualified class name of the {@link AssertionCache} implementation.</li>
      *                </ul>
      */
     @Override
@@ -315,11 +366,18 @@ public class CasLoginModule implements LoginModule {
             } else if ("cacheTimeoutUnit".equals(key)) {
                 this.cacheTimeoutUnit = Enum.valueOf(TimeUnit.class, (String) options.get(key));
                 logger.debug("Set cacheTimeoutUnit={}", this.cacheTimeoutUnit);
+            } else if ("cacheMaxSize".equals(key)) {
+                this.cacheMaxSize = Integer.parseInt((String) options.get(key));
+                logger.debug("Set cacheMaxSize={}", this.cacheMaxSize);
+            } else if ("cacheClass".equals(key)) {
+                this.cacheClass = (String) options.get(key);
+                logger.debug("Set cacheClass={}", this.cacheClass);
             }
         }
 
         if (this.cacheAssertions) {
-            cleanCache();
+            this.assertionCache = getAssertionCache(this.cacheClass, this.cacheTimeoutUnit.toMillis(this.cacheTimeout),
+                this.cacheMaxSize);
         }
 
         CommonUtils.assertNotNull(ticketValidatorClass, "ticketValidatorClass is required.");
@@ -356,7 +414,7 @@ public class CasLoginModule implements LoginModule {
                     : this.service;
 
                 if (this.cacheAssertions) {
-                    this.assertion = ASSERTION_CACHE.get(ticket);
+                    this.assertion = this.assertionCache.get(ticket);
                     if (this.assertion != null) {
                         logger.debug("Assertion found in cache.");
                     }
@@ -417,7 +475,7 @@ public class CasLoginModule implements LoginModule {
 
                 if (this.cacheAssertions) {
                     logger.debug("Caching assertion for principal {}", this.assertion.getPrincipal());
-                    ASSERTION_CACHE.put(this.ticket, this.assertion);
+                    this.assertionCache.put(this.ticket, this.assertion);
                 }
             } else {
                 // Login must have failed if there is no assertion defined
@@ -456,7 +514,7 @@ public class CasLoginModule implements LoginModule {
         if (this.cacheAssertions) {
             for (final var ticket : this.subject.getPrivateCredentials(TicketCredential.class)) {
                 logger.debug("Removing cached assertion for {}", ticket);
-                ASSERTION_CACHE.remove(ticket);
+                this.assertionCache.remove(ticket);
             }
         }
 
@@ -582,21 +640,95 @@ public class CasLoginModule implements LoginModule {
     }
 
     /**
-     * Removes expired entries from the assertion cache.
-     */
-    private void cleanCache() {
-        logger.debug("Cleaning assertion cache of size {}", ASSERTION_CACHE.size());
-        final var iter = ASSERTION_CACHE.entrySet().iterator();
-        final var cutoff = Calendar.getInstance();
-        cutoff.setTimeInMillis(System.currentTimeMillis() - this.cacheTimeoutUnit.toMillis(this.cacheTimeout));
-        while (iter.hasNext()) {
-            final var assertion = iter.next().getValue();
-            final var created = Calendar.getInstance();
-            created.setTime(assertion.getValidFromDate());
-            if (created.before(cutoff)) {
-                logger.debug("Removing expired assertion for principal {}", assertion.getPrincipal());
-                iter.remove();
+     * Returns the cache shared by modules configured alike, creating it on first use. Also registers the periodic
+     * eviction of expired assertions from all caches with the {@link MaintenanceScheduler}, again if it has been
+     * cancelled in the meantime, and shortens its period when this cache expires assertions sooner.
+     */
+    private static AssertionCache getAssertionCache(final String className, final long timeoutMillis, final int maxSize) {
+        final var cache = ASSERTION_CACHES.computeIfAbsent(className + ':' + timeoutMillis + ':' + maxSize, key -> {
+            final AssertionCache newCache = ReflectUtils.newInstance(ReflectUtils.<AssertionCache>loadClass(className));
+            if (newCache instanceof final ConcurrentAssertionCache concurrentCache) {
+                concurrentCache.setTimeToLive(timeoutMillis);
+                concurrentCache.setMaxSize(maxSize);
+            }
+            return newCache;
+        });
+        scheduleCacheCleanup(timeoutMillis > 0 ? Math.min(timeoutMillis, MAX_CACHE_CLEANUP_PERIOD)
+            : MAX_CACHE_CLEANUP_PERIOD);
+        return cache;
+    }
+
+    private static void scheduleCacheCleanup(final long periodMillis) {
+        CACHE_CLEANUP_LOCK.lock();
+        try {
+            final var running = cacheCleanupTask != null && !cacheCleanupTask.isCancelled();
+            if (running && periodMillis >= cacheCleanupPeriod) {
+                return;
+            }
+            if (running) {
+                cacheCleanupTask.cancel();
             }
+            cacheCleanupPeriod = Math.min(cacheCleanupPeriod, periodMillis);
+            cacheCleanupTask = MaintenanceScheduler.schedule("assertion cache clean-up",
+                CasLoginModule::evictExpiredAssertions, cacheCleanupPeriod);
+        } finally {
+            CACHE_CLEANUP_LOCK.unlock();
+        }
+    }
+
+    private static void evictExpiredAssertions() {
+        for (final var cache : ASSERTION_CACHES.values()) {
+            cache.evictExpired();
+        }
+    }
+
+    private static final class AssertionCacheView extends AbstractMap<TicketCredential, Assertion> {
+
+        @Override
+        public Assertion get(final Object key) {
+            if (key instanceof final TicketCredential ticket) {
+                for (final var cache : ASSERTION_CACHES.values()) {
+                    final var assertion = cache.get(ticket);
+                    if (assertion != null) {
+                        return assertion;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Assertion put(final TicketCredential key, final Assertion value) {
+            final var previous = get(key);
+            getAssertionCache(ConcurrentAssertionCache.class.getName(),
+                DEFAULT_CACHE_TIMEOUT_UNIT.toMillis(DEFAULT_CACHE_TIMEOUT), DEFAULT_CACHE_MAX_SIZE).put(key, value);
+            return previous;
+        }
+
+        @Override
+        public Assertion remove(final Object key) {
+            final var previous = get(key);
+            if (key instanceof final TicketCredential ticket) {
+                for (final var cache : ASSERTION_CACHES.values()) {
+                    cache.remove(ticket);
+                }
+            }
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return ASSERTION_CACHES.values().stream().mapToInt(AssertionCache::size).sum();
+        }
+
+        @Override
+        public Set<Entry<TicketCredential, Assertion>> entrySet() {
+            throw new UnsupportedOperationException("Assertion caches cannot be iterated");
         }
     }
 }
@@ -0,0 +1,225 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jaas;
+
+import org.apereo.cas.client.validation.Assertion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Default {@link AssertionCache}: a concurrent map bounded in size, with assertions expiring a fixed time after they
+ * were cached.
+ * <p>
+ * Since every assertion lives for the same time, insertion order is also expiry order. Cached entries are queued in
+ * that order, so expired or surplus entries are removed from the head of the queue in constant time per entry
+ * instead of scanning the whole cache. Entries removed or replaced in the meantime stay queued until they reach the
+ * head and are then skipped, or until the queue holds twice as many entries as the cache, when they are purged from
+ * the queue so that it does not grow with the rate of logins and logouts.
+ *
+ * @since 4.1.2
+ */
+public final class ConcurrentAssertionCache implements AssertionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentAssertionCache.class);
+
+    /** Queue length below which removed entries are never purged. */
+    private static final int MIN_COMPACTION_THRESHOLD = 64;
+
+    private final ConcurrentHashMap<TicketCredential, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+
+    /** Length of the queue, which {@link ConcurrentLinkedQueue#size()} only computes by traversing it. */
+    private final AtomicInteger queueLength = new AtomicInteger();
+
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private long timeToLive = CasLoginModule.DEFAULT_CACHE_TIMEOUT_UNIT.toMillis(CasLoginModule.DEFAULT_CACHE_TIMEOUT);
+
+    private int maxSize = CasLoginModule.DEFAULT_CACHE_MAX_SIZE;
+
+    @Override
+    public Assertion get(final TicketCredential ticket) {
+        final var entry = this.entries.get(ticket);
+        if (entry == null) {
+            this.missCount.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            evict(entry);
+            this.missCount.increment();
+            return null;
+        }
+        this.hitCount.increment();
+        return entry.assertion;
+    }
+
+    @Override
+    public void put(final TicketCredential ticket, final Assertion assertion) {
+        final var now = System.currentTimeMillis();
+        final var entry = new Entry(ticket, assertion, this.timeToLive > 0 ? now + this.timeToLive : Long.MAX_VALUE);
+        this.entries.put(ticket, entry);
+        this.expiryQueue.offer(entry);
+        this.queueLength.incrementAndGet();
+        evictExpired(now);
+        if (this.maxSize > 0) {
+            while (this.entries.size() > this.maxSize) {
+                final var eldest = this.expiryQueue.poll();
+                if (eldest == null) {
+                    break;
+                }
+                this.queueLength.decrementAndGet();
+                evict(eldest);
+            }
+        }
+        if (this.queueLength.get() > 2 * Math.max(this.entries.size(), MIN_COMPACTION_THRESHOLD)) {
+            compact();
+        }
+    }
+
+    @Override
+    public void remove(final TicketCredential ticket) {
+        this.entries.remove(ticket);
+    }
+
+    @Override
+    public void evictExpired() {
+        evictExpired(System.currentTimeMillis());
+    }
+
+    private void evictExpired(final long now) {
+        var head = this.expiryQueue.peek();
+        while (head != null && head.isExpired(now)) {
+            if (this.expiryQueue.remove(head)) {
+                this.queueLength.decrementAndGet();
+                evict(head);
+            }
+            head = this.expiryQueue.peek();
+        }
+    }
+
+    /**
+     * Drops the queued entries that were removed from or replaced in the cache. Threads finding the queue already
+     * being compacted carry on.
+     */
+    private void compact() {
+        if (!this.compactionLock.tryLock()) {
+            return;
+        }
+        try {
+            final var iterator = this.expiryQueue.iterator();
+            while (iterator.hasNext()) {
+                final var entry = iterator.next();
+                if (this.entries.get(entry.ticket) != entry) {
+                    iterator.remove();
+                    this.queueLength.decrementAndGet();
+                }
+            }
+        } finally {
+            this.compactionLock.unlock();
+        }
+    }
+
+    private void evict(final Entry entry) {
+        if (this.entries.remove(entry.ticket, entry)) {
+            this.evictionCount.increment();
+            LOGGER.debug("Evicted cached assertion for principal {}", entry.assertion.getPrincipal());
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the number of lookups that found an assertion.
+     */
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * @return the number of lookups that found no assertion, or an expired one.
+     */
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * @return the number of assertions removed because they expired or the cache was full.
+     */
+    public long getEvictionCount() {
+        return this.evictionCount.sum();
+    }
+
+    /**
+     * @return the number of queued entries, including those removed from the cache and not purged yet.
+     */
+    int getQueueLength() {
+        return this.queueLength.get();
+    }
+
+    /**
+     * @param timeToLive milliseconds an assertion stays cached; 0 or less keeps assertions until evicted for size.
+     */
+    public void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param maxSize maximum number of cached assertions, the oldest being evicted first; 0 or less for no limit.
+     */
+    public void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    private static final class Entry {
+
+        private final TicketCredential ticket;
+
+        private final Assertion assertion;
+
+        private final long expiresAt;
+
+        private Entry(final TicketCredential ticket, final Assertion assertion, final long expiresAt) {
+            this.ticket = ticket;
+            this.assertion = assertion;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= this.expiresAt;
+        }
+    }
+}
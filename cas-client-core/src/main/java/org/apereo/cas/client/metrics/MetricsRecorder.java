@@ -0,0 +1,151 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import org.apereo.cas.client.session.SessionMappingStorage;
+import org.apereo.cas.client.validation.CircuitBreakerTicketValidator;
+
+/**
+ * Receives measurements from the client: ticket validations, HTTP exchanges with the CAS server, single sign-out
+ * requests and proxy granting ticket storage. Every method does nothing by default, so implementations only
+ * override what they record. Methods are called on request threads and must return quickly.
+ * <p>
+ * A recorder is given to a filter with {@link org.apereo.cas.client.util.AbstractConfigurationFilter#setMetricsRecorder}
+ * or the <code>metricsRecorderClass</code> init parameter, and the filter hands it to the components it creates.
+ *
+ * @since 4.1.2
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Recorder that discards every measurement, used unless another one is configured.
+     */
+    MetricsRecorder NOOP = new MetricsRecorder() {
+    };
+
+    /**
+     * Records a ticket validation, from sending the request to the CAS server to building the assertion.
+     *
+     * @param validator     simple class name of the ticket validator.
+     * @param durationNanos duration of the validation.
+     * @param failure       the reason validation failed, or null if it succeeded. Failures reported by the CAS
+     *                      server are {@link org.apereo.cas.client.validation.TicketValidationException}s carrying
+     *                      the failure code of the response.
+     */
+    default void recordValidation(final String validator, final long durationNanos, final Throwable failure) {
+    }
+
+    /**
+     * Records the time spent parsing a validation response.
+     *
+     * @param validator     simple class name of the ticket validator, which determines the response format.
+     * @param durationNanos duration of the parsing.
+     */
+    default void recordResponseParsing(final String validator, final long durationNanos) {
+    }
+
+    /**
+     * Records the time spent obtaining a connection to the CAS server: establishing it with
+     * {@link org.apereo.cas.client.ssl.HttpURLConnectionTransport}, or waiting for a free connection of the pool with
+     * {@link org.apereo.cas.client.ssl.HttpClientTransport}, which establishes connections while sending requests.
+     *
+     * @param host          the CAS server host.
+     * @param durationNanos duration of the connection.
+     */
+    default void recordHttpConnect(final String host, final long durationNanos) {
+    }
+
+    /**
+     * Records the time spent waiting for and reading the response of the CAS server, once connected.
+     *
+     * @param host          the CAS server host.
+     * @param durationNanos duration of the exchange.
+     */
+    default void recordHttpRead(final String host, final long durationNanos) {
+    }
+
+    /**
+     * Records a single sign-out request received from the CAS server.
+     *
+     * @param sessionFound whether a session was mapped to the logged out ticket.
+     */
+    default void recordLogout(final boolean sessionFound) {
+    }
+
+    /**
+     * Called once a session mapping storage is in use, i.e. to expose its {@link SessionMappingStorage#size()}.
+     *
+     * @param name    name of the filter using the storage.
+     * @param storage the storage.
+     */
+    default void registerSessionMappingStorage(final String name, final SessionMappingStorage storage) {
+    }
+
+    /**
+     * Called once a ticket validator is protected by a circuit breaker, i.e. to expose its
+     * {@link CircuitBreakerTicketValidator#getState()}.
+     *
+     * @param name           name of the filter validating tickets through the circuit breaker.
+     * @param circuitBreaker the circuit breaker.
+     */
+    default void registerCircuitBreaker(final String name, final CircuitBreakerTicketValidator circuitBreaker) {
+    }
+
+    /**
+     * Records a validation rejected without contacting the CAS server.
+     *
+     * @param rejection the reason of the rejection.
+     */
+    default void recordValidationRejected(final ValidationRejection rejection) {
+    }
+
+    /**
+     * Records an operation on a proxy granting ticket storage.
+     *
+     * @param event the operation.
+     */
+    default void recordProxyGrantingTicket(final ProxyGrantingTicketEvent event) {
+    }
+
+    /**
+     * Reasons for a {@link CircuitBreakerTicketValidator} or a JWT validator to reject a validation.
+     */
+    enum ValidationRejection {
+        /** The circuit to the CAS server is open. */
+        CIRCUIT_OPEN,
+        /** The maximum number of concurrent validations was reached. */
+        TOO_MANY_VALIDATIONS,
+        /** The JWT ids remembered to reject replays have all yet to expire and fill the cache. */
+        REPLAY_CACHE_FULL
+    }
+
+    /**
+     * Operations on a proxy granting ticket storage.
+     */
+    enum ProxyGrantingTicketEvent {
+        /** A ticket was received from the CAS server and saved. */
+        SAVED,
+        /** A ticket was found for an IOU. */
+        RETRIEVED,
+        /** No ticket was found for an IOU. */
+        MISSED,
+        /** A ticket was removed after it was never retrieved. */
+        EXPIRED
+    }
+}
@@ -19,6 +19,8 @@
 package org.apereo.cas.client.proxy;
 
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.metrics.MetricsRecorder.ProxyGrantingTicketEvent;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKeyFactory;
@@ -42,6 +44,8 @@ public abstract class AbstractEncryptedProxyGrantingTicketStorageImpl implements
 
     private String cipherAlgorithm = ConfigurationKeys.CIPHER_ALGORITHM.getDefaultValue();
 
+    private MetricsRecorder metricsRecorder = MetricsRecorder.NOOP;
+
     public final void setSecretKey(final String key) throws NoSuchAlgorithmException, InvalidKeyException,
         InvalidKeySpecException {
         this.key = SecretKeyFactory.getInstance(this.cipherAlgorithm).generateSecret(new DESedeKeySpec(key.getBytes()));
@@ -60,14 +64,25 @@ public abstract class AbstractEncryptedProxyGrantingTicketStorageImpl implements
         this.cipherAlgorithm = cipherAlgorithm;
     }
 
+    /**
+     * @param metricsRecorder the recorder of the operations on this storage.
+     */
+    public final void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.NOOP;
+    }
+
     @Override
     public final void save(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
         saveInternal(proxyGrantingTicketIou, encrypt(proxyGrantingTicket));
+        this.metricsRecorder.recordProxyGrantingTicket(ProxyGrantingTicketEvent.SAVED);
     }
 
     @Override
     public final String retrieve(final String proxyGrantingTicketIou) {
-        return decrypt(retrieveInternal(proxyGrantingTicketIou));
+        final var proxyGrantingTicket = decrypt(retrieveInternal(proxyGrantingTicketIou));
+        this.metricsRecorder.recordProxyGrantingTicket(proxyGrantingTicket != null
+            ? ProxyGrantingTicketEvent.RETRIEVED : ProxyGrantingTicketEvent.MISSED);
+        return proxyGrantingTicket;
     }
 
     protected abstract void saveInternal(String proxyGrantingTicketIou, String proxyGrantingTicket);
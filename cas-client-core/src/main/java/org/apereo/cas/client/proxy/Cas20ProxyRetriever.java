@@ -18,7 +18,9 @@
  */
 package org.apereo.cas.client.proxy;
 
+import org.apereo.cas.client.ssl.HttpTransport;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.XmlUtils;
 
@@ -28,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import java.io.Serial;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of a ProxyRetriever that follows the CAS 2.0 specification.
@@ -36,7 +39,9 @@ import java.net.URLEncoder;
  * document</a>.
  * <p/>
  * In general, this class will make a call to the CAS server with some specified
- * parameters and receive an XML response to parse.
+ * parameters and receive an XML response to parse. When several CAS server URLs are
+ * given, separated by whitespace, requests are balanced across them as described in
+ * {@link CasServerEndpoints}.
  *
  * @author Scott Battaglia
  * @since 3.0
@@ -50,18 +55,21 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
     private static final Logger logger = LoggerFactory.getLogger(Cas20ProxyRetriever.class);
 
     /**
-     * Url to CAS server.
+     * Urls to CAS server.
      */
-    private final String casServerUrl;
+    private CasServerEndpoints casServerUrls;
 
     private final String encoding;
 
     /** Url connection factory to use when communicating with the server **/
     private final HttpURLConnectionFactory urlConnectionFactory;
 
+    /** Transport to use when communicating with the server, takes precedence over the url connection factory **/
+    private final HttpTransport httpTransport;
+
     @Deprecated
     public Cas20ProxyRetriever(final String casServerUrl, final String encoding) {
-        this(casServerUrl, encoding, null);
+        this(casServerUrl, encoding, (HttpURLConnectionFactory) null);
     }
 
     /**
@@ -74,9 +82,26 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
     public Cas20ProxyRetriever(final String casServerUrl, final String encoding,
                                final HttpURLConnectionFactory urlFactory) {
         CommonUtils.assertNotNull(casServerUrl, "casServerUrl cannot be null.");
-        this.casServerUrl = casServerUrl;
+        this.casServerUrls = CasServerEndpoints.of(casServerUrl);
         this.encoding = encoding;
         this.urlConnectionFactory = urlFactory;
+        this.httpTransport = null;
+    }
+
+    /**
+     * Constructor sharing the transport, and therefore the connection pool, of a ticket validator.
+     *
+     * @param casServerUrl the URL to the CAS server (i.e. http://localhost/cas/)
+     * @param encoding the encoding to use.
+     * @param httpTransport transport to use when retrieving proxy responses from the server
+     */
+    public Cas20ProxyRetriever(final String casServerUrl, final String encoding, final HttpTransport httpTransport) {
+        CommonUtils.assertNotNull(casServerUrl, "casServerUrl cannot be null.");
+        CommonUtils.assertNotNull(httpTransport, "httpTransport cannot be null.");
+        this.casServerUrls = CasServerEndpoints.of(casServerUrl);
+        this.encoding = encoding;
+        this.urlConnectionFactory = null;
+        this.httpTransport = httpTransport;
     }
 
     @Override
@@ -84,14 +109,48 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
         CommonUtils.assertNotNull(proxyGrantingTicketId, "proxyGrantingTicketId cannot be null.");
         CommonUtils.assertNotNull(targetService, "targetService cannot be null.");
 
-        final var url = constructUrl(proxyGrantingTicketId, targetService);
-        final String response;
+        final var response = this.casServerUrls.call(casServerUrl -> {
+            final var url = constructUrl(casServerUrl, proxyGrantingTicketId, targetService);
+            if (this.httpTransport != null) {
+                return this.httpTransport.get(url, this.encoding);
+            }
+            if (this.urlConnectionFactory != null) {
+                return CommonUtils.getResponseFromServer(url, this.urlConnectionFactory, this.encoding);
+            }
+            return CommonUtils.getResponseFromServer(url, this.encoding);
+        });
+        return parseProxyTicket(response);
+    }
 
-        if (this.urlConnectionFactory != null) {
-            response = CommonUtils.getResponseFromServer(url, this.urlConnectionFactory, this.encoding);
-        } else {
-            response = CommonUtils.getResponseFromServer(url, this.encoding);
+    /**
+     * Retrieves the proxy ticket through the asynchronous API of the {@link HttpTransport}, when this retriever was
+     * created with one, so that several tickets can be requested in parallel.
+     */
+    @Override
+    public CompletableFuture<String> getProxyTicketIdForAsync(final String proxyGrantingTicketId, final String targetService) {
+        if (this.httpTransport == null) {
+            return ProxyRetriever.super.getProxyTicketIdForAsync(proxyGrantingTicketId, targetService);
         }
+        CommonUtils.assertNotNull(proxyGrantingTicketId, "proxyGrantingTicketId cannot be null.");
+        CommonUtils.assertNotNull(targetService, "targetService cannot be null.");
+
+        return this.casServerUrls.callAsync(casServerUrl ->
+                this.httpTransport.getAsync(constructUrl(casServerUrl, proxyGrantingTicketId, targetService), this.encoding))
+            .thenApply(Cas20ProxyRetriever::parseProxyTicket);
+    }
+
+    /**
+     * Shares the measurements of the CAS server URLs with the other users of the registry, i.e. the ticket validator
+     * of the application.
+     *
+     * @param registry the registry of the application.
+     */
+    public void setCasServerEndpointRegistry(final CasServerEndpoints.Registry registry) {
+        CommonUtils.assertNotNull(registry, "registry cannot be null.");
+        this.casServerUrls = registry.endpoints(this.casServerUrls.toString());
+    }
+
+    private static String parseProxyTicket(final String response) {
         final var error = XmlUtils.getTextForElement(response, "proxyFailure");
 
         if (CommonUtils.isNotEmpty(error)) {
@@ -104,9 +163,9 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
         return ticket;
     }
 
-    private URL constructUrl(final String proxyGrantingTicketId, final String targetService) {
+    private static URL constructUrl(final String casServerUrl, final String proxyGrantingTicketId, final String targetService) {
         try {
-            return new URL(this.casServerUrl + (this.casServerUrl.endsWith("/") ? "" : "/") + "proxy" + "?pgt="
+            return new URL(casServerUrl + "proxy" + "?pgt="
                            + proxyGrantingTicketId + "&targetService=" + URLEncoder.encode(targetService, "UTF-8"));
         } catch (final Exception e) {
             throw new RuntimeException(e);
@@ -18,6 +18,8 @@
  */
 package org.apereo.cas.client.proxy;
 
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.metrics.MetricsRecorder.ProxyGrantingTicketEvent;
 import org.apereo.cas.client.util.CommonUtils;
 
 import org.slf4j.Logger;
@@ -59,6 +61,8 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
      */
     private final long timeout;
 
+    private MetricsRecorder metricsRecorder = MetricsRecorder.NOOP;
+
     /**
      * Constructor set the timeout to the default value.
      */
@@ -76,6 +80,13 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
         this.timeout = timeout;
     }
 
+    /**
+     * @param metricsRecorder the recorder of the operations on this storage.
+     */
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.NOOP;
+    }
+
     @Override
     public void save(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
         final var holder = new ProxyGrantingTicketHolder(proxyGrantingTicket);
@@ -83,6 +94,7 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
         logger.debug("Saving ProxyGrantingTicketIOU and ProxyGrantingTicket combo: [{}, {}]", proxyGrantingTicketIou,
             proxyGrantingTicket);
         this.cache.put(proxyGrantingTicketIou, holder);
+        this.metricsRecorder.recordProxyGrantingTicket(ProxyGrantingTicketEvent.SAVED);
     }
 
     /**
@@ -95,14 +107,14 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
             return null;
         }
 
-        final var holder = this.cache.get(proxyGrantingTicketIou);
+        final var holder = this.cache.remove(proxyGrantingTicketIou);
 
         if (holder == null) {
             logger.info("No Proxy Ticket found for [{}].", proxyGrantingTicketIou);
+            this.metricsRecorder.recordProxyGrantingTicket(ProxyGrantingTicketEvent.MISSED);
             return null;
         }
-
-        this.cache.remove(proxyGrantingTicketIou);
+        this.metricsRecorder.recordProxyGrantingTicket(ProxyGrantingTicketEvent.RETRIEVED);
 
         logger.debug("Returned ProxyGrantingTicket of [{}]", holder.getProxyGrantingTicket());
         return holder.getProxyGrantingTicket();
@@ -115,8 +127,8 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
     @Override
     public void cleanUp() {
         for (final var holder : this.cache.entrySet()) {
-            if (holder.getValue().isExpired(this.timeout)) {
-                this.cache.remove(holder.getKey());
+            if (holder.getValue().isExpired(this.timeout) && this.cache.remove(holder.getKey(), holder.getValue())) {
+                this.metricsRecorder.recordProxyGrantingTicket(ProxyGrantingTicketEvent.EXPIRED);
             }
         }
     }
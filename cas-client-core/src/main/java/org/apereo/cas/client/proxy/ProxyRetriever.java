@@ -19,6 +19,9 @@
 package org.apereo.cas.client.proxy;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface to abstract the retrieval of a proxy ticket to make the
@@ -38,4 +41,41 @@ public interface ProxyRetriever extends Serializable {
      * @return the ProxyTicket Id if Granted, null otherwise.
      */
     String getProxyTicketIdFor(String proxyGrantingTicketId, String targetService);
+
+    /**
+     * Retrieves a proxy ticket for a specific targetService without blocking the calling thread.
+     * <p>
+     * The default implementation retrieves the ticket on the calling thread and returns a completed future.
+     *
+     * @param proxyGrantingTicketId the ProxyGrantingTicketId
+     * @param targetService         the service we want to proxy.
+     * @return the future ProxyTicket Id if Granted, null otherwise.
+     */
+    default CompletableFuture<String> getProxyTicketIdForAsync(final String proxyGrantingTicketId, final String targetService) {
+        try {
+            return CompletableFuture.completedFuture(getProxyTicketIdFor(proxyGrantingTicketId, targetService));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Retrieves proxy tickets for several target services at once, through {@link #getProxyTicketIdForAsync(String,
+     * String)}. At most <code>maxConcurrentRequests</code> requests for the proxy granting ticket are in flight at a
+     * time, including those of concurrent calls for the same ticket; the others are issued as earlier ones complete.
+     *
+     * @param proxyGrantingTicketId the ProxyGrantingTicketId
+     * @param targetServices        the services we want to proxy.
+     * @param maxConcurrentRequests the maximum number of requests in flight for the proxy granting ticket, unless
+     *                              requests of another call for the same ticket are still pending or in flight, in
+     *                              which case the limit of that call applies.
+     * @param timeout               milliseconds after which the tickets not retrieved yet complete exceptionally with a
+     *                              {@link java.util.concurrent.TimeoutException}; 0 or less waits indefinitely.
+     * @return the future ProxyTicket Ids, in the order of the target services.
+     */
+    default Map<String, CompletableFuture<String>> getProxyTicketIdsFor(final String proxyGrantingTicketId,
+                                                                        final Collection<String> targetServices,
+                                                                        final int maxConcurrentRequests, final long timeout) {
+        return ProxyTicketRequests.submit(this, proxyGrantingTicketId, targetServices, maxConcurrentRequests, timeout);
+    }
 }
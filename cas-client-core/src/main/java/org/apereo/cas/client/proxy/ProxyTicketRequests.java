@@ -0,0 +1,164 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Retrieves proxy tickets with bounded concurrency per proxy granting ticket: the requests of all batches for the
+ * same proxy granting ticket wait in one queue, and each completion issues the next pending request, skipping
+ * tickets whose deadline has already passed. The queue exists while requests are pending or in flight, and its
+ * limit is the one of the batch that created it.
+ *
+ * @since 4.1.2
+ */
+final class ProxyTicketRequests {
+
+    /** Queues of the proxy granting tickets with requests pending or in flight. */
+    private static final Map<String, ProxyTicketRequests> QUEUES = new ConcurrentHashMap<>();
+
+    private final String proxyGrantingTicketId;
+
+    private final int maxConcurrentRequests;
+
+    private final Queue<Request> pending = new ArrayDeque<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int inFlight;
+
+    private ProxyTicketRequests(final String proxyGrantingTicketId, final int maxConcurrentRequests) {
+        this.proxyGrantingTicketId = proxyGrantingTicketId;
+        this.maxConcurrentRequests = Math.max(maxConcurrentRequests, 1);
+    }
+
+    static Map<String, CompletableFuture<String>> submit(final ProxyRetriever proxyRetriever,
+                                                         final String proxyGrantingTicketId,
+                                                         final Collection<String> targetServices,
+                                                         final int maxConcurrentRequests, final long timeout) {
+        final Map<String, CompletableFuture<String>> tickets = new LinkedHashMap<>();
+        final List<Request> requests = new ArrayList<>();
+        for (final var targetService : targetServices) {
+            tickets.computeIfAbsent(targetService, service -> {
+                final var ticket = new CompletableFuture<String>();
+                requests.add(new Request(proxyRetriever, service, ticket));
+                return timeout > 0 ? ticket.orTimeout(timeout, TimeUnit.MILLISECONDS) : ticket;
+            });
+        }
+        if (!requests.isEmpty()) {
+            // enqueue within compute so that the queue cannot be discarded as idle meanwhile
+            QUEUES.compute(proxyGrantingTicketId, (key, queue) -> {
+                final var requestQueue = queue != null ? queue : new ProxyTicketRequests(key, maxConcurrentRequests);
+                requestQueue.enqueue(requests);
+                return requestQueue;
+            }).drain();
+        }
+        return Collections.unmodifiableMap(tickets);
+    }
+
+    private void enqueue(final List<Request> requests) {
+        this.lock.lock();
+        try {
+            this.pending.addAll(requests);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void drain() {
+        var request = poll();
+        while (request != null) {
+            issue(request);
+            request = poll();
+        }
+    }
+
+    /**
+     * @return the next pending request, counted in flight, or null if there is none or no request may be issued.
+     */
+    private Request poll() {
+        this.lock.lock();
+        try {
+            if (this.inFlight >= this.maxConcurrentRequests) {
+                return null;
+            }
+            var request = this.pending.poll();
+            while (request != null && request.ticket.isDone()) {
+                request = this.pending.poll();
+            }
+            if (request != null) {
+                this.inFlight++;
+            }
+            return request;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void issue(final Request request) {
+        CompletableFuture<String> response;
+        try {
+            response = request.proxyRetriever.getProxyTicketIdForAsync(this.proxyGrantingTicketId, request.targetService);
+        } catch (final RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((proxyTicket, failure) -> {
+            if (failure == null) {
+                request.ticket.complete(proxyTicket);
+            } else {
+                request.ticket.completeExceptionally(failure);
+            }
+            release();
+        });
+    }
+
+    private void release() {
+        this.lock.lock();
+        try {
+            this.inFlight--;
+        } finally {
+            this.lock.unlock();
+        }
+        drain();
+        QUEUES.computeIfPresent(this.proxyGrantingTicketId, (key, queue) -> queue == this && isIdle() ? null : queue);
+    }
+
+    private boolean isIdle() {
+        this.lock.lock();
+        try {
+            return this.inFlight == 0 && this.pending.isEmpty();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private record Request(ProxyRetriever proxyRetriever, String targetService, CompletableFuture<String> ticket) {
+    }
+}
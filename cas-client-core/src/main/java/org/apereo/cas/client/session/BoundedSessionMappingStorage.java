@@ -0,0 +1,362 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link SessionMappingStorage} that keeps memory bounded on long-lived nodes, for containers that do not always
+ * fire <code>sessionDestroyed</code>, i.e. when a node is partitioned from its session store or sessions are
+ * migrated by a replication layer.
+ * <p>
+ * Mappings are evicted when
+ * <ul>
+ * <li>more than {@link #setMaxSize(int) maxSize} sessions are mapped: the oldest mappings go first,</li>
+ * <li>the session has not been accessed for {@link #setIdleTimeout(long) idleTimeout} milliseconds,
+ * according to {@link HttpSession#getLastAccessedTime()},</li>
+ * <li>the mapping is older than {@link #setTimeToLive(long) timeToLive} milliseconds,</li>
+ * <li>the session has been invalidated, or collected when {@link #setWeakReferences(boolean) weakReferences}
+ * are enabled.</li>
+ * </ul>
+ * Expired mappings are swept while sessions are added, at most once every {@link #setSweepInterval(long)
+ * sweepInterval} milliseconds, or on demand through {@link #evictExpired()}. Updates to both maps follow the
+ * same scheme as {@link ConcurrentSessionMappingStorage}.
+ *
+ * @since 4.1.2
+ */
+public final class BoundedSessionMappingStorage implements SessionMappingStorage {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Maps the ID from the CAS server to the Session.
+     */
+    private final Map<String, Entry> managedSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Maps the Session ID to the key from the CAS Server.
+     */
+    private final Map<String, String> idToSessionKeyMapping = new ConcurrentHashMap<>();
+
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Orders mappings by insertion, as several may be created within the same millisecond.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private int maxSize;
+
+    private long idleTimeout;
+
+    private long timeToLive;
+
+    private long sweepInterval = 60000L;
+
+    private boolean weakReferences;
+
+    private EvictionListener evictionListener;
+
+    private volatile long lastSweep = System.currentTimeMillis();
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final var removed = new Entry[1];
+        this.managedSessions.computeIfPresent(mappingId, (id, entry) -> {
+            this.idToSessionKeyMapping.remove(entry.sessionId, id);
+            removed[0] = entry;
+            return null;
+        });
+        return removed[0] != null ? removed[0].get() : null;
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        logger.debug("Attempting to remove Session=[{}]", sessionId);
+
+        var mappingId = this.idToSessionKeyMapping.get(sessionId);
+        if (mappingId == null) {
+            logger.debug("No mapping for session found.  Ignoring.");
+            return;
+        }
+        while (mappingId != null) {
+            final var removed = new boolean[1];
+            this.managedSessions.compute(mappingId, (id, entry) -> {
+                this.idToSessionKeyMapping.remove(sessionId, id);
+                if (entry != null && sessionId.equals(entry.sessionId)) {
+                    removed[0] = true;
+                    return null;
+                }
+                return entry;
+            });
+            if (removed[0]) {
+                logger.debug("Found mapping for session.  Session Removed.");
+                return;
+            }
+            mappingId = this.idToSessionKeyMapping.get(sessionId);
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        final var entry = new Entry(session, this.weakReferences, this.sequence.incrementAndGet());
+        final var previousId = new String[1];
+        this.managedSessions.compute(mappingId, (id, existing) -> {
+            if (existing != null && !existing.sessionId.equals(entry.sessionId)) {
+                this.idToSessionKeyMapping.remove(existing.sessionId, id);
+            }
+            previousId[0] = this.idToSessionKeyMapping.put(entry.sessionId, id);
+            return entry;
+        });
+        if (previousId[0] != null && !previousId[0].equals(mappingId)) {
+            this.managedSessions.computeIfPresent(previousId[0],
+                (id, existing) -> existing.sessionId.equals(entry.sessionId)
+                    && !id.equals(this.idToSessionKeyMapping.get(entry.sessionId)) ? null : existing);
+        }
+
+        final var now = System.currentTimeMillis();
+        if ((this.maxSize > 0 && this.managedSessions.size() > this.maxSize) || now - this.lastSweep >= this.sweepInterval) {
+            sweep(now);
+        }
+    }
+
+    /**
+     * Evicts the mappings of expired, invalidated or collected sessions, then the oldest mappings while more than
+     * {@link #setMaxSize(int) maxSize} sessions are mapped. Only one thread sweeps at a time; concurrent calls return
+     * immediately.
+     */
+    public void evictExpired() {
+        sweep(System.currentTimeMillis());
+    }
+
+    private void sweep(final long now) {
+        if (!this.sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            this.lastSweep = now;
+            for (final var mapping : this.managedSessions.entrySet()) {
+                final var cause = expiryCause(mapping.getValue(), now);
+                if (cause != null) {
+                    evict(mapping.getKey(), mapping.getValue(), cause);
+                }
+            }
+            if (this.maxSize > 0 && this.managedSessions.size() > this.maxSize) {
+                evictOldest(this.managedSessions.size() - this.maxSize * 9 / 10);
+            }
+        } finally {
+            this.sweepLock.unlock();
+        }
+    }
+
+    /**
+     * Evicts down to 90% of the maximum size, so that a full storage is not swept again on every login.
+     */
+    private void evictOldest(final int count) {
+        final var oldest = new PriorityQueue<Map.Entry<String, Entry>>(count + 1,
+            Comparator.comparingLong((Map.Entry<String, Entry> mapping) -> mapping.getValue().sequence).reversed());
+        for (final var mapping : this.managedSessions.entrySet()) {
+            oldest.offer(Map.entry(mapping.getKey(), mapping.getValue()));
+            if (oldest.size() > count) {
+                oldest.poll();
+            }
+        }
+        for (final var mapping : oldest) {
+            evict(mapping.getKey(), mapping.getValue(), EvictionCause.SIZE);
+        }
+    }
+
+    private EvictionCause expiryCause(final Entry entry, final long now) {
+        final var session = entry.get();
+        if (session == null) {
+            return EvictionCause.COLLECTED;
+        }
+        if (this.timeToLive > 0 && now - entry.created >= this.timeToLive) {
+            return EvictionCause.EXPIRED;
+        }
+        final long lastAccessedTime;
+        try {
+            lastAccessedTime = session.getLastAccessedTime();
+        } catch (final IllegalStateException e) {
+            return EvictionCause.INVALIDATED;
+        }
+        if (this.idleTimeout > 0 && now - lastAccessedTime >= this.idleTimeout) {
+            return EvictionCause.IDLE;
+        }
+        return null;
+    }
+
+    private void evict(final String mappingId, final Entry entry, final EvictionCause cause) {
+        final var evicted = new boolean[1];
+        this.managedSessions.computeIfPresent(mappingId, (id, existing) -> {
+            if (existing != entry) {
+                return existing;
+            }
+            this.idToSessionKeyMapping.remove(entry.sessionId, id);
+            evicted[0] = true;
+            return null;
+        });
+        if (!evicted[0]) {
+            return;
+        }
+        this.evictions.increment();
+        logger.debug("Evicted mapping for session [{}]: {}", entry.sessionId, cause);
+        if (this.evictionListener != null) {
+            try {
+                this.evictionListener.onEviction(mappingId, entry.sessionId, cause);
+            } catch (final RuntimeException e) {
+                logger.warn("Eviction listener failed for session [{}]", entry.sessionId, e);
+            }
+        }
+    }
+
+    @Override
+    public String getMappingId(final String sessionId) {
+        return this.idToSessionKeyMapping.get(sessionId);
+    }
+
+    @Override
+    public int size() {
+        return this.managedSessions.size();
+    }
+
+    /**
+     * @return the number of mappings evicted since startup.
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @param maxSize maximum number of mapped sessions; 0 or less means unbounded.
+     */
+    public void setMaxSize(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param idleTimeout milliseconds after the last access of a session when its mapping is evicted; 0 or less
+     *                    disables idle eviction.
+     */
+    public void setIdleTimeout(final long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @param timeToLive milliseconds after which a mapping is evicted regardless of activity; 0 or less disables
+     *                   absolute expiry.
+     */
+    public void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getSweepInterval() {
+        return this.sweepInterval;
+    }
+
+    /**
+     * @param sweepInterval minimum number of milliseconds between two sweeps triggered by new sessions.
+     */
+    public void setSweepInterval(final long sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    /**
+     * Holds sessions through weak references, so that sessions dropped by the container without a
+     * <code>sessionDestroyed</code> event can be collected. Only enable this when the container keeps the very
+     * {@link HttpSession} instance handed to requests reachable for the life of the session; session facades
+     * created per request, as some session-replication layers do, would be collected right after login.
+     *
+     * @param weakReferences whether to hold sessions weakly.
+     */
+    public void setWeakReferences(final boolean weakReferences) {
+        this.weakReferences = weakReferences;
+    }
+
+    public void setEvictionListener(final EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Reasons for a mapping to be evicted.
+     */
+    public enum EvictionCause {
+        /** The storage held more than its maximum size. */
+        SIZE,
+        /** The session was not accessed within the idle timeout. */
+        IDLE,
+        /** The mapping outlived its time to live. */
+        EXPIRED,
+        /** The session was invalidated without notifying the storage. */
+        INVALIDATED,
+        /** The session was garbage collected. */
+        COLLECTED
+    }
+
+    /**
+     * Notified after a mapping has been evicted. Called on the thread performing the sweep.
+     */
+    @FunctionalInterface
+    public interface EvictionListener {
+
+        /**
+         * @param mappingId the id the session was keyed under.
+         * @param sessionId the id of the session.
+         * @param cause     why the mapping was evicted.
+         */
+        void onEviction(String mappingId, String sessionId, EvictionCause cause);
+    }
+
+    private static final class Entry {
+
+        private final String sessionId;
+
+        private final long created = System.currentTimeMillis();
+
+        private final long sequence;
+
+        private final HttpSession session;
+
+        private final WeakReference<HttpSession> reference;
+
+        Entry(final HttpSession session, final boolean weak, final long sequence) {
+            this.sessionId = session.getId();
+            this.sequence = sequence;
+            this.session = weak ? null : session;
+            this.reference = weak ? new WeakReference<>(session) : null;
+        }
+
+        HttpSession get() {
+            return this.session != null ? this.session : this.reference.get();
+        }
+    }
+}
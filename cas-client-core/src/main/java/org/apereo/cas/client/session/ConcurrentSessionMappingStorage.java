@@ -0,0 +1,158 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SessionMappingStorage} built on {@link ConcurrentHashMap}s, so that logins, session expiry and logout
+ * requests for different tickets do not contend on a single monitor.
+ * <p>
+ * Both maps are only ever updated while holding the bin lock of the mapping id in the session map, which
+ * {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)} provides. Updates for the same
+ * mapping id are therefore serialized, while updates for other mapping ids proceed in parallel, and the
+ * mapping id &rarr; session and session id &rarr; mapping id maps never disagree.
+ *
+ * @since 4.1.2
+ */
+public final class ConcurrentSessionMappingStorage implements SessionMappingStorage {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Maps the ID from the CAS server to the Session.
+     */
+    private final Map<String, HttpSession> managedSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Maps the Session ID to the key from the CAS Server.
+     */
+    private final Map<String, String> idToSessionKeyMapping = new ConcurrentHashMap<>();
+
+    private final LongAdder additions = new LongAdder();
+
+    private final LongAdder removals = new LongAdder();
+
+    private final LongAdder retries = new LongAdder();
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final var removed = new HttpSession[1];
+        this.managedSessions.computeIfPresent(mappingId, (id, session) -> {
+            this.idToSessionKeyMapping.remove(session.getId(), id);
+            removed[0] = session;
+            return null;
+        });
+        if (removed[0] != null) {
+            this.removals.increment();
+        }
+        return removed[0];
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        logger.debug("Attempting to remove Session=[{}]", sessionId);
+
+        var mappingId = this.idToSessionKeyMapping.get(sessionId);
+        if (mappingId == null) {
+            logger.debug("No mapping for session found.  Ignoring.");
+            return;
+        }
+        while (mappingId != null) {
+            final var removed = new boolean[1];
+            this.managedSessions.compute(mappingId, (id, session) -> {
+                this.idToSessionKeyMapping.remove(sessionId, id);
+                if (session != null && sessionId.equals(session.getId())) {
+                    removed[0] = true;
+                    return null;
+                }
+                // the mapping id now belongs to another session, only the stale reverse mapping is dropped
+                return session;
+            });
+            if (removed[0]) {
+                this.removals.increment();
+                logger.debug("Found mapping for session.  Session Removed.");
+                return;
+            }
+            // the session may have been mapped again concurrently
+            mappingId = this.idToSessionKeyMapping.get(sessionId);
+            if (mappingId != null) {
+                this.retries.increment();
+            }
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        final var sessionId = session.getId();
+        final var previousId = new String[1];
+        this.managedSessions.compute(mappingId, (id, existing) -> {
+            if (existing != null && !existing.getId().equals(sessionId)) {
+                this.idToSessionKeyMapping.remove(existing.getId(), id);
+            }
+            previousId[0] = this.idToSessionKeyMapping.put(sessionId, id);
+            return session;
+        });
+        if (previousId[0] != null && !previousId[0].equals(mappingId)) {
+            // the session logged in again with a new ticket: the old ticket must no longer resolve to it. Sessions are
+            // compared by id, as containers may hand out several objects for the same session
+            this.managedSessions.computeIfPresent(previousId[0], (id, existing) -> existing.getId().equals(sessionId)
+                && !id.equals(this.idToSessionKeyMapping.get(sessionId)) ? null : existing);
+        }
+        this.additions.increment();
+    }
+
+    @Override
+    public String getMappingId(final String sessionId) {
+        return this.idToSessionKeyMapping.get(sessionId);
+    }
+
+    @Override
+    public int size() {
+        return this.managedSessions.size();
+    }
+
+    /**
+     * @return the number of mappings recorded since startup.
+     */
+    public long getAdditionCount() {
+        return this.additions.sum();
+    }
+
+    /**
+     * @return the number of mappings removed since startup, by mapping id or session id.
+     */
+    public long getRemovalCount() {
+        return this.removals.sum();
+    }
+
+    /**
+     * @return the number of updates that had to be repeated or repaired because another thread changed the
+     * mapping of the same session concurrently.
+     */
+    public long getContentionCount() {
+        return this.retries.sum();
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link SessionMappingStorage} for clusters whose load balancer does not route the CAS server's logout requests to
+ * the node that recorded the ticket.
+ * <p>
+ * Sessions stay in a local storage, while the node and session id of every ticket are published to a shared
+ * {@link SessionMappingRegistry}. A logout request for a ticket unknown to this node is looked up in the registry and
+ * handed to a {@link RemoteLogoutHandler}, by default an {@link HttpRemoteLogoutHandler} forwarding it to the owning
+ * node. Failures of the shared store are logged and never fail a login or a logout.
+ *
+ * @since 4.1.2
+ */
+public final class DistributedSessionMappingStorage implements SessionMappingStorage {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final SessionMappingRegistry registry;
+
+    private final String node;
+
+    private SessionMappingStorage localStorage = new ConcurrentSessionMappingStorage();
+
+    private RemoteLogoutHandler remoteLogoutHandler = new HttpRemoteLogoutHandler();
+
+    /**
+     * @param registry the store shared by all nodes.
+     * @param node     the URL at which the {@link SingleSignOutFilter} of this node can be reached directly,
+     *                 bypassing the load balancer. It also identifies this node in the registry.
+     */
+    public DistributedSessionMappingStorage(final SessionMappingRegistry registry, final String node) {
+        CommonUtils.assertNotNull(registry, "registry cannot be null.");
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(node), "node cannot be blank.");
+        this.registry = registry;
+        this.node = node;
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final var session = this.localStorage.removeSessionByMappingId(mappingId);
+        if (session != null) {
+            unregister(mappingId);
+            return session;
+        }
+
+        final SessionLocation location;
+        try {
+            location = this.registry.lookup(mappingId);
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to look up the session of ticket [{}] in the shared store: {}", mappingId, e.getMessage());
+            return null;
+        }
+        if (location == null) {
+            logger.debug("No node recorded a session for ticket [{}]", mappingId);
+        } else if (this.node.equals(location.node())) {
+            // recorded by this node but gone locally, i.e. already destroyed
+            unregister(mappingId);
+        } else {
+            this.remoteLogoutHandler.logout(mappingId, location);
+        }
+        return null;
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        final var mappingId = this.localStorage.getMappingId(sessionId);
+        this.localStorage.removeBySessionById(sessionId);
+        if (mappingId != null) {
+            unregister(mappingId);
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        this.localStorage.addSessionById(mappingId, session);
+        try {
+            this.registry.register(mappingId, new SessionLocation(this.node, session.getId()));
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to publish the session of ticket [{}] to the shared store: {}", mappingId, e.getMessage());
+        }
+    }
+
+    private void unregister(final String mappingId) {
+        try {
+            this.registry.unregister(mappingId);
+        } catch (final RuntimeException e) {
+            logger.debug("Unable to remove ticket [{}] from the shared store: {}", mappingId, e.getMessage());
+        }
+    }
+
+    @Override
+    public String getMappingId(final String sessionId) {
+        return this.localStorage.getMappingId(sessionId);
+    }
+
+    @Override
+    public int size() {
+        return this.localStorage.size();
+    }
+
+    public String getNode() {
+        return this.node;
+    }
+
+    public SessionMappingStorage getLocalStorage() {
+        return this.localStorage;
+    }
+
+    /**
+     * @param localStorage storage of the sessions held by this node, i.e. a {@link BoundedSessionMappingStorage}.
+     */
+    public void setLocalStorage(final SessionMappingStorage localStorage) {
+        CommonUtils.assertNotNull(localStorage, "localStorage cannot be null.");
+        this.localStorage = localStorage;
+    }
+
+    public void setRemoteLogoutHandler(final RemoteLogoutHandler remoteLogoutHandler) {
+        CommonUtils.assertNotNull(remoteLogoutHandler, "remoteLogoutHandler cannot be null.");
+        this.remoteLogoutHandler = remoteLogoutHandler;
+    }
+}
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * HashMap backed implementation of SessionMappingStorage.
@@ -47,38 +48,78 @@ public final class HashMapBackedSessionMappingStorage implements SessionMappingS
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * Guards both maps. A lock rather than a monitor, so that virtual threads waiting for it do not pin their
+     * carrier thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
     @Override
-    public synchronized HttpSession removeSessionByMappingId(final String mappingId) {
-        final var session = MANAGED_SESSIONS.get(mappingId);
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        lock.lock();
+        try {
+            final var session = MANAGED_SESSIONS.get(mappingId);
 
-        if (session != null) {
-            removeBySessionById(session.getId());
-        }
+            if (session != null) {
+                removeBySessionById(session.getId());
+            }
 
-        return session;
+            return session;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized void removeBySessionById(final String sessionId) {
+    public void removeBySessionById(final String sessionId) {
         logger.debug("Attempting to remove Session=[{}]", sessionId);
 
-        final var key = ID_TO_SESSION_KEY_MAPPING.get(sessionId);
+        lock.lock();
+        try {
+            final var key = ID_TO_SESSION_KEY_MAPPING.get(sessionId);
 
-        if (logger.isDebugEnabled()) {
-            if (key != null) {
-                logger.debug("Found mapping for session.  Session Removed.");
-            } else {
-                logger.debug("No mapping for session found.  Ignoring.");
+            if (logger.isDebugEnabled()) {
+                if (key != null) {
+                    logger.debug("Found mapping for session.  Session Removed.");
+                } else {
+                    logger.debug("No mapping for session found.  Ignoring.");
+                }
             }
+            MANAGED_SESSIONS.remove(key);
+            ID_TO_SESSION_KEY_MAPPING.remove(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        lock.lock();
+        try {
+            ID_TO_SESSION_KEY_MAPPING.put(session.getId(), mappingId);
+            MANAGED_SESSIONS.put(mappingId, session);
+        } finally {
+            lock.unlock();
         }
-        MANAGED_SESSIONS.remove(key);
-        ID_TO_SESSION_KEY_MAPPING.remove(sessionId);
     }
 
     @Override
-    public synchronized void addSessionById(final String mappingId, final HttpSession session) {
-        ID_TO_SESSION_KEY_MAPPING.put(session.getId(), mappingId);
-        MANAGED_SESSIONS.put(mappingId, session);
+    public String getMappingId(final String sessionId) {
+        lock.lock();
+        try {
+            return ID_TO_SESSION_KEY_MAPPING.get(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return MANAGED_SESSIONS.size();
+        } finally {
+            lock.unlock();
+        }
     }
 }
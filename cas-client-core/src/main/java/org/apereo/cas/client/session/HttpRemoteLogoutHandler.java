@@ -0,0 +1,98 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.ssl.HttpTransport;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link RemoteLogoutHandler} forwarding the logout to the node holding the session, as a back-channel logout request
+ * POSTed to the node URL recorded in the {@link SessionLocation}. The owning node then handles it like any logout
+ * request coming from the CAS server.
+ * <p>
+ * Requests are sent asynchronously so the CAS server does not wait for the other node; failures are logged.
+ *
+ * @since 4.1.2
+ */
+public final class HttpRemoteLogoutHandler implements RemoteLogoutHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpRemoteLogoutHandler.class);
+
+    private static final Map<String, String> HEADERS = Map.of("Content-Type", "application/x-www-form-urlencoded");
+
+    private final HttpTransport httpTransport;
+
+    private String logoutParameterName = ConfigurationKeys.LOGOUT_PARAMETER_NAME.getDefaultValue();
+
+    public HttpRemoteLogoutHandler() {
+        this(CommonUtils.newHttpTransport(null));
+    }
+
+    public HttpRemoteLogoutHandler(final HttpTransport httpTransport) {
+        CommonUtils.assertNotNull(httpTransport, "httpTransport cannot be null.");
+        this.httpTransport = httpTransport;
+    }
+
+    @Override
+    public void logout(final String mappingId, final SessionLocation location) {
+        final var body = this.logoutParameterName + '=' + URLEncoder.encode(createLogoutRequest(mappingId), StandardCharsets.UTF_8);
+        try {
+            final var url = URI.create(location.node()).toURL();
+            LOGGER.debug("Forwarding logout of session [{}] to [{}]", location.sessionId(), location.node());
+            this.httpTransport.postAsync(url, HEADERS, body, StandardCharsets.UTF_8.name()).whenComplete((response, e) -> {
+                if (e != null) {
+                    LOGGER.warn("Unable to forward logout of session [{}] to [{}]: {}", location.sessionId(), location.node(),
+                        e.getMessage());
+                }
+            });
+        } catch (final MalformedURLException | IllegalArgumentException e) {
+            LOGGER.warn("Invalid node URL [{}] for session [{}]", location.node(), location.sessionId(), e);
+        }
+    }
+
+    /**
+     * @param logoutParameterName name of the request parameter the owning node reads the logout request from.
+     */
+    public void setLogoutParameterName(final String logoutParameterName) {
+        this.logoutParameterName = logoutParameterName;
+    }
+
+    private static String createLogoutRequest(final String mappingId) {
+        return "<samlp:LogoutRequest xmlns:samlp=\"urn:oasis:names:tc:SAML:2.0:protocol\" ID=\"" + UUID.randomUUID()
+               + "\" Version=\"2.0\" IssueInstant=\"" + Instant.now() + "\">"
+               + "<saml:NameID xmlns:saml=\"urn:oasis:names:tc:SAML:2.0:assertion\">@NOT_USED@</saml:NameID>"
+               + "<samlp:SessionIndex>" + escape(mappingId) + "</samlp:SessionIndex></samlp:LogoutRequest>";
+    }
+
+    private static String escape(final String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
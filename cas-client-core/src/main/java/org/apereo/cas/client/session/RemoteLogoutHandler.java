@@ -0,0 +1,35 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+/**
+ * Ends a session held by another node of the cluster, on behalf of a logout request received by this node.
+ *
+ * @see DistributedSessionMappingStorage
+ * @since 4.1.2
+ */
+@FunctionalInterface
+public interface RemoteLogoutHandler {
+
+    /**
+     * @param mappingId the id the session is keyed under, i.e. the service ticket.
+     * @param location  the node and session id the ticket was recorded with.
+     */
+    void logout(String mappingId, SessionLocation location);
+}
@@ -0,0 +1,64 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+/**
+ * Node and session id of a session recorded in a {@link SessionMappingRegistry}.
+ * <p>
+ * Locations are exchanged as plain strings (see {@link #encode()}) rather than serialized objects, so that a shared
+ * store never hands Java-serialized data to the client.
+ *
+ * @param node      identifies the node holding the session: the URL at which its
+ *                  {@link SingleSignOutFilter} can be reached directly.
+ * @param sessionId the id of the session on that node.
+ * @since 4.1.2
+ */
+public record SessionLocation(String node, String sessionId) {
+
+    private static final char SEPARATOR = ' ';
+
+    public SessionLocation {
+        CommonUtils.assertNotNull(node, "node cannot be null.");
+        CommonUtils.assertNotNull(sessionId, "sessionId cannot be null.");
+    }
+
+    /**
+     * @return the location as a single string, parsed back by {@link #decode(String)}.
+     */
+    public String encode() {
+        return this.sessionId + SEPARATOR + this.node;
+    }
+
+    /**
+     * @param value a string produced by {@link #encode()}.
+     * @return the location, or null if the value is null or malformed.
+     */
+    public static SessionLocation decode(final String value) {
+        if (value == null) {
+            return null;
+        }
+        final var index = value.indexOf(SEPARATOR);
+        if (index <= 0 || index == value.length() - 1) {
+            return null;
+        }
+        return new SessionLocation(value.substring(index + 1), value.substring(0, index));
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+/**
+ * Shared store recording which node of a cluster holds the session of each CAS ticket, so that a logout request
+ * received by any node can reach the session. Implementations are expected to expire entries on their own, and
+ * must tolerate being called concurrently.
+ *
+ * @see DistributedSessionMappingStorage
+ * @since 4.1.2
+ */
+public interface SessionMappingRegistry {
+
+    /**
+     * Records the location of the session created for a ticket.
+     *
+     * @param mappingId the id the session is keyed under, i.e. the service ticket.
+     * @param location  the node and session id.
+     */
+    void register(String mappingId, SessionLocation location);
+
+    /**
+     * @param mappingId the id the session is keyed under.
+     * @return the location of the session, or null if unknown.
+     */
+    SessionLocation lookup(String mappingId);
+
+    /**
+     * Forgets the location of the session created for a ticket.
+     *
+     * @param mappingId the id the session is keyed under.
+     */
+    void unregister(String mappingId);
+}
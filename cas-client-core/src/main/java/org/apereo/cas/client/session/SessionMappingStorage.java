@@ -51,4 +51,19 @@ public interface SessionMappingStorage {
      */
     void addSessionById(String mappingId, HttpSession session);
 
+    /**
+     * @param sessionId the id of the session.
+     * @return the id the session is currently keyed under, or null if it is not mapped or the storage cannot tell.
+     */
+    default String getMappingId(final String sessionId) {
+        return null;
+    }
+
+    /**
+     * @return the number of sessions currently mapped, or -1 if the storage does not track it.
+     */
+    default int size() {
+        return -1;
+    }
+
 }
@@ -20,6 +20,8 @@ package org.apereo.cas.client.session;
 
 import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.util.AbstractConfigurationFilter;
+import org.apereo.cas.client.util.MaintenanceScheduler;
+import org.apereo.cas.client.util.ReflectUtils;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -45,6 +47,9 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
 
     private final AtomicBoolean handlerInitialized = new AtomicBoolean(false);
 
+    /** Periodic eviction of expired mappings, registered when a bounded storage is configured. */
+    private MaintenanceScheduler.ScheduledTask evictionTask;
+
     static SingleSignOutHandler getSingleSignOutHandler() {
         return HANDLER;
     }
@@ -59,11 +64,65 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
             setLogoutCallbackPath(getString(ConfigurationKeys.LOGOUT_CALLBACK_PATH));
             HANDLER.setArtifactParameterOverPost(getBoolean(ConfigurationKeys.ARTIFACT_PARAMETER_OVER_POST));
             HANDLER.setEagerlyCreateSessions(getBoolean(ConfigurationKeys.EAGERLY_CREATE_SESSIONS));
+            configureBoundedSessionMappingStorage();
+            configureDistributedSessionMappingStorage();
         }
+        HANDLER.setMetricsRecorder(getMetricsRecorder());
         HANDLER.init();
+        getMetricsRecorder().registerSessionMappingStorage(filterConfig.getFilterName(), HANDLER.getSessionMappingStorage());
         handlerInitialized.set(true);
     }
 
+    /**
+     * Replaces the default session mapping storage with a {@link BoundedSessionMappingStorage} when a maximum size,
+     * a timeout or an eviction listener is configured.
+     */
+    private void configureBoundedSessionMappingStorage() {
+        final var maxSize = getInt(ConfigurationKeys.SESSION_MAPPING_MAX_SIZE);
+        final var idleTimeout = getLong(ConfigurationKeys.SESSION_MAPPING_IDLE_TIMEOUT);
+        final var timeToLive = getLong(ConfigurationKeys.SESSION_MAPPING_TIME_TO_LIVE);
+        final Class<? extends BoundedSessionMappingStorage.EvictionListener> listenerClass =
+            getClass(ConfigurationKeys.SESSION_MAPPING_EVICTION_LISTENER_CLASS);
+        if (maxSize <= 0 && idleTimeout <= 0 && timeToLive <= 0 && listenerClass == null) {
+            return;
+        }
+        final var storage = new BoundedSessionMappingStorage();
+        storage.setMaxSize(maxSize);
+        storage.setIdleTimeout(idleTimeout);
+        storage.setTimeToLive(timeToLive);
+        storage.setWeakReferences(getBoolean(ConfigurationKeys.SESSION_MAPPING_WEAK_REFERENCES));
+        if (listenerClass != null) {
+            storage.setEvictionListener(ReflectUtils.newInstance(listenerClass));
+        }
+        logger.debug("Using bounded session mapping storage with maxSize={}, idleTimeout={}, timeToLive={}",
+            maxSize, idleTimeout, timeToLive);
+        HANDLER.setSessionMappingStorage(storage);
+        // sweeps also run on new sessions, but mappings must expire when no one logs in
+        this.evictionTask = MaintenanceScheduler.schedule("session mapping eviction", storage::evictExpired,
+            storage.getSweepInterval());
+    }
+
+    /**
+     * Publishes sessions to a shared {@link SessionMappingRegistry} when one is configured, so that logout requests
+     * reaching another node are forwarded to this one.
+     */
+    private void configureDistributedSessionMappingStorage() {
+        final Class<? extends SessionMappingRegistry> registryClass = getClass(ConfigurationKeys.SESSION_MAPPING_REGISTRY_CLASS);
+        if (registryClass == null) {
+            return;
+        }
+        final var nodeUrl = getString(ConfigurationKeys.SESSION_MAPPING_NODE_URL);
+        final var storage = new DistributedSessionMappingStorage(ReflectUtils.newInstance(registryClass), nodeUrl);
+        final var current = HANDLER.getSessionMappingStorage();
+        storage.setLocalStorage(current instanceof final DistributedSessionMappingStorage distributed
+            ? distributed.getLocalStorage() : current);
+        final var remoteLogoutHandler = new HttpRemoteLogoutHandler();
+        remoteLogoutHandler.setLogoutParameterName(getString(ConfigurationKeys.LOGOUT_PARAMETER_NAME));
+        storage.setRemoteLogoutHandler(remoteLogoutHandler);
+        logger.debug("Publishing sessions of node [{}] to [{}]", nodeUrl, registryClass.getName());
+        HANDLER.setSessionMappingStorage(storage);
+    }
+
     public static void setArtifactParameterName(final String name) {
         HANDLER.setArtifactParameterName(name);
     }
@@ -105,6 +164,8 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
 
     @Override
     public void destroy() {
-        // nothing to do
+        if (this.evictionTask != null) {
+            this.evictionTask.cancel();
+        }
     }
 }
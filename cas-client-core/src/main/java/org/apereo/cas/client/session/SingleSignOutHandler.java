@@ -22,6 +22,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.util.JSONPObject;
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.metrics.MetricsRecorder;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.WebUtils;
 import org.apereo.cas.client.util.XmlUtils;
@@ -38,6 +39,7 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.Inflater;
 
 /**
@@ -59,8 +61,10 @@ public final class SingleSignOutHandler {
 
     private final ObjectMapper mapper = new ObjectMapper();
 
+    private final ReentrantLock initLock = new ReentrantLock();
+
     /** Mapping of token IDs and session IDs to HTTP sessions */
-    private SessionMappingStorage sessionMappingStorage = new HashMapBackedSessionMappingStorage();
+    private SessionMappingStorage sessionMappingStorage = new ConcurrentSessionMappingStorage();
 
     /** The name of the artifact parameter.  This is used to capture the session identifier. */
     private String artifactParameterName = Protocol.CAS2.getArtifactParameterName();
@@ -83,7 +87,9 @@ public final class SingleSignOutHandler {
 
     private boolean eagerlyCreateSessions = true;
 
-    private List<String> safeParameters;
+    private volatile List<String> safeParameters;
+
+    private MetricsRecorder metricsRecorder = MetricsRecorder.NOOP;
 
     private static boolean isServlet30() {
         try {
@@ -144,21 +150,36 @@ public final class SingleSignOutHandler {
         this.eagerlyCreateSessions = eagerlyCreateSessions;
     }
 
+    /**
+     * @param metricsRecorder the recorder of logout requests.
+     */
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.NOOP;
+    }
+
     /**
      * Initializes the component for use.
      */
-    public synchronized void init() {
-        if (this.safeParameters == null) {
-            CommonUtils.assertNotNull(this.artifactParameterName, "artifactParameterName cannot be null.");
-            CommonUtils.assertNotNull(this.logoutParameterName, "logoutParameterName cannot be null.");
-            CommonUtils.assertNotNull(this.sessionMappingStorage, "sessionMappingStorage cannot be null.");
-            CommonUtils.assertNotNull(this.relayStateParameterName, "relayStateParameterName cannot be null.");
-
-            if (this.artifactParameterOverPost) {
-                this.safeParameters = Arrays.asList(this.logoutParameterName, this.artifactParameterName);
-            } else {
-                this.safeParameters = Collections.singletonList(this.logoutParameterName);
+    public void init() {
+        if (this.safeParameters != null) {
+            return;
+        }
+        this.initLock.lock();
+        try {
+            if (this.safeParameters == null) {
+                CommonUtils.assertNotNull(this.artifactParameterName, "artifactParameterName cannot be null.");
+                CommonUtils.assertNotNull(this.logoutParameterName, "logoutParameterName cannot be null.");
+                CommonUtils.assertNotNull(this.sessionMappingStorage, "sessionMappingStorage cannot be null.");
+                CommonUtils.assertNotNull(this.relayStateParameterName, "relayStateParameterName cannot be null.");
+
+                if (this.artifactParameterOverPost) {
+                    this.safeParameters = Arrays.asList(this.logoutParameterName, this.artifactParameterName);
+                } else {
+                    this.safeParameters = Collections.singletonList(this.logoutParameterName);
+                }
             }
+        } finally {
+            this.initLock.unlock();
         }
     }
 
@@ -339,6 +360,7 @@ public final class SingleSignOutHandler {
         final var token = XmlUtils.getTextForElement(logoutMessage, "SessionIndex");
         if (CommonUtils.isNotBlank(token)) {
             final var session = this.sessionMappingStorage.removeSessionByMappingId(token);
+            this.metricsRecorder.recordLogout(session != null);
 
             if (session != null) {
                 final var sessionID = session.getId();
@@ -0,0 +1,106 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+/**
+ * Trust manager that checks the server certificate chain with a delegate and then applies a
+ * {@link HostnameVerifier} to the peer host.
+ * <p>
+ * Clients such as {@link java.net.http.HttpClient} have no notion of a {@link HostnameVerifier}; folding the
+ * check into the trust manager lets them honor the verifiers configured for {@link HttpsURLConnectionFactory}.
+ * A <code>null</code> delegate trusts any certificate chain.
+ *
+ * @since 4.1.2
+ */
+final class HostnameVerifyingTrustManager extends X509ExtendedTrustManager {
+
+    private static final X509Certificate[] NO_ISSUERS = new X509Certificate[0];
+
+    private final X509ExtendedTrustManager delegate;
+
+    private final HostnameVerifier hostnameVerifier;
+
+    HostnameVerifyingTrustManager(final X509ExtendedTrustManager delegate, final HostnameVerifier hostnameVerifier) {
+        this.delegate = delegate;
+        this.hostnameVerifier = hostnameVerifier;
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final Socket socket)
+        throws CertificateException {
+        checkServerTrusted(chain, authType);
+        if (socket instanceof SSLSocket) {
+            final var session = ((SSLSocket) socket).getHandshakeSession();
+            verifyHostname(session != null ? session.getPeerHost() : null, session);
+        }
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine)
+        throws CertificateException {
+        checkServerTrusted(chain, authType);
+        verifyHostname(engine.getPeerHost(), engine.getHandshakeSession());
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+        if (this.delegate != null) {
+            this.delegate.checkServerTrusted(chain, authType);
+        }
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final Socket socket)
+        throws CertificateException {
+        checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine)
+        throws CertificateException {
+        checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+        if (this.delegate != null) {
+            this.delegate.checkClientTrusted(chain, authType);
+        }
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return this.delegate != null ? this.delegate.getAcceptedIssuers() : NO_ISSUERS;
+    }
+
+    private void verifyHostname(final String host, final SSLSession session) throws CertificateException {
+        if (this.hostnameVerifier != null && !this.hostnameVerifier.verify(host, session)) {
+            throw new CertificateException("Host name " + host + " was rejected by " + this.hostnameVerifier);
+        }
+    }
+}
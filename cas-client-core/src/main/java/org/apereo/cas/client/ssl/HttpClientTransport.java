@@ -0,0 +1,659 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.Serial;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link HttpTransport} backed by a shared {@link HttpClient}, which keeps connections to the CAS server
+ * alive between calls (HTTP/1.1 keep-alive, or a single multiplexed connection when the server speaks HTTP/2).
+ * <p>
+ * The pool is bounded by <code>maxConnections</code>: no more than that many exchanges are in flight at once, and
+ * callers beyond the limit wait up to <code>connectionWaitTimeout</code> milliseconds for a slot; asynchronous calls
+ * are queued without holding a thread. Once the
+ * transport has seen no traffic for <code>idleTimeout</code> milliseconds its pooled connections are released
+ * and a fresh client is built on the next call.
+ * <p>
+ * TLS settings, including client certificates and host name verification, are taken from the
+ * {@link HttpsURLConnectionFactory} this transport is created with.
+ * <p>
+ * {@link HttpClient} does not report when connections are established, so the connect time reported to the
+ * {@link MetricsRecorder} is the wait for a free connection of the pool, and the read time also covers connecting to
+ * the server when no pooled connection is available.
+ * <p>
+ * When {@link #setVirtualThreads(boolean) virtual threads} are enabled, the client runs its tasks, and the
+ * continuations of asynchronous calls, on virtual threads rather than on its own pool of platform threads.
+ *
+ * @since 4.1.2
+ */
+public final class HttpClientTransport implements HttpTransport {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientTransport.class);
+
+    private final HttpsURLConnectionFactory connectionFactory;
+
+    private int maxConnections = ConfigurationKeys.HTTP_MAX_CONNECTIONS.getDefaultValue();
+
+    private long idleTimeout = ConfigurationKeys.HTTP_IDLE_TIMEOUT.getDefaultValue();
+
+    private long connectTimeout = ConfigurationKeys.HTTP_CONNECT_TIMEOUT.getDefaultValue();
+
+    private long readTimeout = ConfigurationKeys.HTTP_READ_TIMEOUT.getDefaultValue();
+
+    private long connectionWaitTimeout = ConfigurationKeys.HTTP_CONNECTION_WAIT_TIMEOUT.getDefaultValue();
+
+    private long maxResponseSize = ConfigurationKeys.HTTP_MAX_RESPONSE_SIZE.getDefaultValue();
+
+    private boolean virtualThreads = ConfigurationKeys.VIRTUAL_THREADS.getDefaultValue();
+
+    /**
+     * Guards the lazy creation of the client and the connection permits. A lock rather than a monitor, so that
+     * virtual threads waiting for it do not pin their carrier thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private transient volatile HttpClient httpClient;
+
+    private transient volatile ConnectionPermits permits;
+
+    private transient volatile long lastUsed;
+
+    private transient MetricsRecorder metricsRecorder;
+
+    public HttpClientTransport() {
+        this(new HttpsURLConnectionFactory());
+    }
+
+    public HttpClientTransport(final HttpsURLConnectionFactory connectionFactory) {
+        CommonUtils.assertNotNull(connectionFactory, "connectionFactory cannot be null.");
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public String get(final URL url, final String encoding) {
+        return getBody(url, encoding).asString();
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(final URL url, final String encoding) {
+        return getBodyAsync(url, encoding).thenApply(HttpResponseBody::asString);
+    }
+
+    @Override
+    public HttpResponseBody getBody(final URL url, final String encoding) {
+        final var request = newRequest(url).GET().build();
+        return send(url, request, encoding);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponseBody> getBodyAsync(final URL url, final String encoding) {
+        final var request = newRequest(url).GET().build();
+        return sendAsync(url, request, encoding);
+    }
+
+    @Override
+    public String post(final URL url, final Map<String, String> headers, final String body, final String encoding) {
+        final var builder = newRequest(url).POST(HttpRequest.BodyPublishers.ofString(body, toCharset(encoding)));
+        headers.forEach(builder::header);
+        return send(url, builder.build(), encoding).asString();
+    }
+
+    @Override
+    public CompletableFuture<String> postAsync(final URL url, final Map<String, String> headers, final String body,
+                                               final String encoding) {
+        final var builder = newRequest(url).POST(HttpRequest.BodyPublishers.ofString(body, toCharset(encoding)));
+        headers.forEach(builder::header);
+        return sendAsync(url, builder.build(), encoding).thenApply(HttpResponseBody::asString);
+    }
+
+    /**
+     * @param maxConnections the maximum number of concurrent exchanges, and therefore pooled connections.
+     */
+    public void setMaxConnections(final int maxConnections) {
+        CommonUtils.assertTrue(maxConnections > 0, "maxConnections must be greater than zero.");
+        this.lock.lock();
+        try {
+            this.maxConnections = maxConnections;
+            final var permits = this.permits;
+            if (permits != null) {
+                permits.resize(maxConnections);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @param idleTimeout milliseconds without traffic after which pooled connections are released; 0 keeps them.
+     */
+    public void setIdleTimeout(final long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @param connectTimeout milliseconds to wait for a connection to be established; 0 waits indefinitely.
+     */
+    public void setConnectTimeout(final long connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * @param readTimeout milliseconds to wait for the server to respond; 0 waits indefinitely.
+     */
+    public void setReadTimeout(final long readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * @param connectionWaitTimeout milliseconds to wait for a connection when <code>maxConnections</code> exchanges
+     *                              are in flight; 0 waits indefinitely.
+     */
+    public void setConnectionWaitTimeout(final long connectionWaitTimeout) {
+        this.connectionWaitTimeout = connectionWaitTimeout;
+    }
+
+    /**
+     * @param maxResponseSize maximum number of bytes accepted in a response; 0 or less for no limit.
+     */
+    public void setMaxResponseSize(final long maxResponseSize) {
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    /**
+     * @param virtualThreads whether the client runs its tasks on virtual threads.
+     */
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @param metricsRecorder the recorder of the time spent connecting to and reading from the CAS server.
+     */
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    /**
+     * The recorder is not serialized, so it is only kept by the instance it was given to.
+     */
+    private MetricsRecorder metricsRecorder() {
+        final var recorder = this.metricsRecorder;
+        return recorder != null ? recorder : MetricsRecorder.NOOP;
+    }
+
+    private HttpRequest.Builder newRequest(final URL url) {
+        try {
+            final var builder = HttpRequest.newBuilder(url.toURI());
+            if (this.readTimeout > 0) {
+                builder.timeout(Duration.ofMillis(this.readTimeout));
+            }
+            return builder;
+        } catch (final URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private HttpResponseBody send(final URL url, final HttpRequest request, final String encoding) {
+        final var permits = getPermits();
+        releaseIfIdle(permits);
+
+        final var waitStart = System.nanoTime();
+        try {
+            if (!permits.acquire(this.connectionWaitTimeout)) {
+                throw new RuntimeException("Timed out waiting for a connection to " + url.getHost());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a connection to " + url.getHost(), e);
+        }
+        final var start = System.nanoTime();
+        metricsRecorder().recordHttpConnect(url.getHost(), start - waitStart);
+        try {
+            return readBody(url, getHttpClient().send(request, bodyHandler(encoding)));
+        } catch (final IOException e) {
+            throw toRuntimeException(url, e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a response from " + url.getHost(), e);
+        } finally {
+            final var end = System.nanoTime();
+            this.lastUsed = end;
+            permits.release();
+            metricsRecorder().recordHttpRead(url.getHost(), end - start);
+        }
+    }
+
+    /**
+     * Sends the request once a connection permit is available, without blocking the calling thread
+     * while waiting for either the permit or the response.
+     */
+    private CompletableFuture<HttpResponseBody> sendAsync(final URL url, final HttpRequest request, final String encoding) {
+        final var permits = getPermits();
+        releaseIfIdle(permits);
+
+        final var result = new CompletableFuture<HttpResponseBody>();
+        final var waitStart = System.nanoTime();
+        permits.acquireAsync(this.connectionWaitTimeout).whenComplete((granted, timeout) -> {
+            if (timeout != null) {
+                result.completeExceptionally(
+                    new RuntimeException("Timed out waiting for a connection to " + url.getHost(), timeout));
+                return;
+            }
+            final var start = System.nanoTime();
+            metricsRecorder().recordHttpConnect(url.getHost(), start - waitStart);
+            try {
+                getHttpClient().sendAsync(request, bodyHandler(encoding)).whenComplete((response, failure) -> {
+                    final var end = System.nanoTime();
+                    this.lastUsed = end;
+                    permits.release();
+                    metricsRecorder().recordHttpRead(url.getHost(), end - start);
+                    try {
+                        if (failure != null) {
+                            throw toRuntimeException(url, failure instanceof CompletionException ? failure.getCause() : failure);
+                        }
+                        result.complete(readBody(url, response));
+                    } catch (final IOException e) {
+                        result.completeExceptionally(toRuntimeException(url, e));
+                    } catch (final RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (final IOException e) {
+                permits.release();
+                result.completeExceptionally(toRuntimeException(url, e));
+            } catch (final RuntimeException e) {
+                // the exchange was never started
+                permits.release();
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Collects the body into a single array, sized from the <code>Content-Length</code> header when the server
+     * sends one. The character set is the given encoding, or else the one declared in the
+     * <code>Content-Type</code> header, defaulting to UTF-8.
+     */
+    private HttpResponse.BodyHandler<HttpResponseBody> bodyHandler(final String encoding) {
+        final var maxSize = this.maxResponseSize;
+        return info -> new BoundedBodySubscriber(info.headers().firstValueAsLong("Content-Length").orElse(-1L), maxSize,
+            CommonUtils.isEmpty(encoding) ? contentTypeCharset(info.headers()) : Charset.forName(encoding));
+    }
+
+    private static Charset contentTypeCharset(final HttpHeaders headers) {
+        final var contentType = headers.firstValue("Content-Type").orElse("");
+        for (final var parameter : contentType.split(";")) {
+            final var trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                try {
+                    return Charset.forName(trimmed.substring(8).replace("\"", ""));
+                } catch (final IllegalArgumentException e) {
+                    LOGGER.debug("Ignoring unsupported charset in [{}]", contentType);
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static HttpResponseBody readBody(final URL url, final HttpResponse<HttpResponseBody> response) throws IOException {
+        if (response.statusCode() >= 400) {
+            throw new IOException("Server returned HTTP response code: " + response.statusCode() + " for URL: " + url);
+        }
+        return response.body();
+    }
+
+    private static RuntimeException toRuntimeException(final URL url, final Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof SSLException) {
+            LOGGER.error("SSL error getting response from host: {} : Error Message: {}", url.getHost(), e.getMessage(), e);
+        } else {
+            LOGGER.error("Error getting response from host: [{}] with path: [{}] and protocol: [{}] Error Message: {}",
+                url.getHost(), url.getPath(), url.getProtocol(), e.getMessage(), e);
+        }
+        return new RuntimeException(e);
+    }
+
+    /**
+     * Drops the current client once it has been idle for longer than the idle timeout. All permits are held
+     * while doing so, which guarantees no exchange is using the client that gets shut down.
+     */
+    private void releaseIfIdle(final ConnectionPermits permits) {
+        if (this.idleTimeout <= 0 || this.httpClient == null || !isIdle()) {
+            return;
+        }
+        final var acquired = permits.tryAcquireAll();
+        if (acquired > 0) {
+            try {
+                final var client = this.httpClient;
+                if (client != null && isIdle()) {
+                    LOGGER.debug("Releasing connections idle for more than {} ms", this.idleTimeout);
+                    this.httpClient = null;
+                    client.shutdownNow();
+                }
+            } finally {
+                permits.release(acquired);
+            }
+        }
+    }
+
+    private boolean isIdle() {
+        return System.nanoTime() - this.lastUsed > TimeUnit.MILLISECONDS.toNanos(this.idleTimeout);
+    }
+
+    private ConnectionPermits getPermits() {
+        var permits = this.permits;
+        if (permits == null) {
+            this.lock.lock();
+            try {
+                permits = this.permits;
+                if (permits == null) {
+                    permits = new ConnectionPermits(this.maxConnections);
+                    this.permits = permits;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return permits;
+    }
+
+    /**
+     * Returns the shared client, rebuilding it when the connection factory hands out a new SSL context,
+     * i.e. after the key store has been reloaded.
+     */
+    private HttpClient getHttpClient() throws IOException {
+        final var sslContext = getSSLContext();
+        var client = this.httpClient;
+        if (client == null || client.sslContext() != sslContext) {
+            this.lock.lock();
+            try {
+                client = this.httpClient;
+                if (client == null || client.sslContext() != sslContext) {
+                    client = buildHttpClient(sslContext);
+                    this.httpClient = client;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return client;
+    }
+
+    private SSLContext getSSLContext() throws IOException {
+        try {
+            return this.connectionFactory.getSSLContext();
+        } catch (final IOException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new IOException("Unable to initialize the SSL context", e);
+        }
+    }
+
+    private HttpClient buildHttpClient(final SSLContext sslContext) {
+        final var builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .sslContext(sslContext);
+        if (this.connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(this.connectTimeout));
+        }
+        if (this.virtualThreads) {
+            builder.executor(VirtualThreads.executor());
+        }
+        return builder.build();
+    }
+
+    private static Charset toCharset(final String encoding) {
+        return CommonUtils.isEmpty(encoding) ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+    }
+
+    /**
+     * Copies the buffers handed over by the client into a byte array, and cancels the exchange as soon as the body
+     * grows past the maximum size instead of reading the rest of it.
+     */
+    private static final class BoundedBodySubscriber implements HttpResponse.BodySubscriber<HttpResponseBody> {
+
+        private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+        private final CompletableFuture<HttpResponseBody> result = new CompletableFuture<>();
+
+        private final long limit;
+
+        private final Charset charset;
+
+        private byte[] buffer;
+
+        private int length;
+
+        private Flow.Subscription subscription;
+
+        BoundedBodySubscriber(final long contentLength, final long maxSize, final Charset charset) {
+            this.limit = maxSize > 0 ? Math.min(maxSize, Integer.MAX_VALUE - 8) : Integer.MAX_VALUE - 8;
+            this.charset = charset;
+            this.buffer = new byte[contentLength >= 0 && contentLength <= this.limit
+                ? (int) contentLength : (int) Math.min(this.limit, DEFAULT_BUFFER_SIZE)];
+        }
+
+        @Override
+        public CompletionStage<HttpResponseBody> getBody() {
+            return this.result;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final List<ByteBuffer> items) {
+            if (this.result.isDone()) {
+                return;
+            }
+            for (final var item : items) {
+                final var remaining = item.remaining();
+                if ((long) this.length + remaining > this.limit) {
+                    this.subscription.cancel();
+                    this.result.completeExceptionally(
+                        new IOException("Response exceeds the maximum size of " + this.limit + " bytes"));
+                    return;
+                }
+                if (this.length + remaining > this.buffer.length) {
+                    final var capacity = Math.max((long) this.length + remaining, this.buffer.length * 2L);
+                    this.buffer = Arrays.copyOf(this.buffer, (int) Math.min(this.limit, capacity));
+                }
+                item.get(this.buffer, this.length, remaining);
+                this.length += remaining;
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            this.result.complete(new HttpResponseBody(this.buffer, this.length, this.charset));
+        }
+    }
+
+    /**
+     * Bounds the number of concurrent exchanges. Asynchronous callers that find no permit available are queued
+     * and granted one as soon as it is released, instead of blocking a thread. The number of permits follows
+     * <code>maxConnections</code> when it changes after the first call: exchanges in flight still release the permit
+     * they hold, shrinking the pool once they complete.
+     */
+    private static final class ConnectionPermits {
+
+        private final ResizableSemaphore semaphore;
+
+        private final Queue<CompletableFuture<Void>> waiting = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Guards the size, so that all permits can be acquired at once while it changes.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int size;
+
+        ConnectionPermits(final int permits) {
+            this.semaphore = new ResizableSemaphore(permits);
+            this.size = permits;
+        }
+
+        /**
+         * @param timeout milliseconds to wait for a permit; 0 waits indefinitely.
+         * @return whether a permit was acquired before the timeout.
+         */
+        boolean acquire(final long timeout) throws InterruptedException {
+            if (timeout <= 0) {
+                this.semaphore.acquire();
+                return true;
+            }
+            return this.semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * @return the number of permits acquired, i.e. all of them, or 0 when some are in use.
+         */
+        int tryAcquireAll() {
+            this.lock.lock();
+            try {
+                return this.semaphore.tryAcquire(this.size) ? this.size : 0;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * @param timeout milliseconds to wait for a permit; 0 waits indefinitely.
+         * @return a future completed once a permit is granted, or failed with a {@link TimeoutException}.
+         */
+        CompletableFuture<Void> acquireAsync(final long timeout) {
+            final var permit = new CompletableFuture<Void>();
+            this.waiting.add(permit);
+            if (timeout > 0) {
+                permit.orTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .whenComplete((granted, failure) -> {
+                        if (failure != null) {
+                            this.waiting.remove(permit);
+                        }
+                    });
+            }
+            startWaiting();
+            return permit;
+        }
+
+        void resize(final int size) {
+            this.lock.lock();
+            try {
+                final var delta = size - this.size;
+                this.size = size;
+                if (delta < 0) {
+                    this.semaphore.reducePermits(-delta);
+                } else if (delta > 0) {
+                    release(delta);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        void release() {
+            release(1);
+        }
+
+        void release(final int permits) {
+            this.semaphore.release(permits);
+            startWaiting();
+        }
+
+        /**
+         * Grants released permits to queued callers. Completing their future runs their exchange on this thread,
+         * but a failure of the exchange fails its own future, not the thread releasing the permit.
+         */
+        private void startWaiting() {
+            while (!this.waiting.isEmpty() && this.semaphore.tryAcquire()) {
+                final var permit = this.waiting.poll();
+                if (permit == null || !permit.complete(null)) {
+                    // none left, or timed out meanwhile
+                    this.semaphore.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Exposes {@link Semaphore#reducePermits(int)}, which lets permits in use be taken away once released.
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(final int permits) {
+            super(permits);
+        }
+
+        @Override
+        public void reducePermits(final int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Body of a response from the CAS server, held as the bytes received, so that parsers can read it as a stream
+ * without first decoding it into a {@link String}.
+ *
+ * @since 4.1.2
+ */
+public final class HttpResponseBody {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final byte[] content;
+
+    private final int length;
+
+    private final Charset charset;
+
+    /**
+     * @param content the bytes received; only the first <code>length</code> ones are part of the body.
+     * @param length  the length of the body.
+     * @param charset the character set of the body.
+     */
+    public HttpResponseBody(final byte[] content, final int length, final Charset charset) {
+        this.content = content;
+        this.length = length;
+        this.charset = charset;
+    }
+
+    /**
+     * @param content the body as text.
+     * @param charset the character set to encode it with.
+     * @return the body.
+     */
+    public static HttpResponseBody of(final String content, final Charset charset) {
+        final var bytes = content.getBytes(charset);
+        return new HttpResponseBody(bytes, bytes.length, charset);
+    }
+
+    /**
+     * Reads the given stream to its end and closes it. The buffer is sized from the declared content length when
+     * there is one, so that the body is read into a single array without copies.
+     *
+     * @param in            the stream to read.
+     * @param contentLength the declared length of the body, or -1 if unknown.
+     * @param maxSize       the maximum number of bytes to accept; 0 or less for no limit.
+     * @param charset       the character set of the body.
+     * @return the body.
+     * @throws IOException if the stream cannot be read, or holds more than <code>maxSize</code> bytes.
+     */
+    public static HttpResponseBody read(final InputStream in, final long contentLength, final long maxSize,
+                                        final Charset charset) throws IOException {
+        final var limit = maxSize > 0 ? Math.min(maxSize, MAX_ARRAY_SIZE) : MAX_ARRAY_SIZE;
+        if (contentLength > limit) {
+            in.close();
+            throw new IOException("Response of " + contentLength + " bytes exceeds the maximum size of " + limit + " bytes");
+        }
+        try (in) {
+            var buffer = new byte[contentLength >= 0 ? (int) contentLength : (int) Math.min(limit, DEFAULT_BUFFER_SIZE)];
+            var length = 0;
+            while (true) {
+                if (length == buffer.length) {
+                    // a declared length was reached, or the buffer is full: check for more before growing
+                    final var next = in.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if (length + 1L > limit) {
+                        throw new IOException("Response exceeds the maximum size of " + limit + " bytes");
+                    }
+                    buffer = Arrays.copyOf(buffer, (int) Math.min(limit, Math.max(buffer.length * 2L, DEFAULT_BUFFER_SIZE)));
+                    buffer[length++] = (byte) next;
+                }
+                final var read = in.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+            return new HttpResponseBody(buffer, length, charset);
+        }
+    }
+
+    /**
+     * @return a new stream over the body; it does not need to be closed.
+     */
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(this.content, 0, this.length);
+    }
+
+    /**
+     * @return a read-only view of the body.
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(this.content, 0, this.length).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the body decoded with its character set.
+     */
+    public String asString() {
+        return new String(this.content, 0, this.length, this.charset);
+    }
+
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+    /**
+     * @return the length of the body in bytes.
+     */
+    public int length() {
+        return this.length;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport used to exchange back-channel messages (ticket validation, proxy ticket requests)
+ * with the CAS server.
+ * <p>
+ * Implementations are expected to be thread-safe and to reuse connections across calls.
+ * Failures to reach the server are reported as {@link RuntimeException}s, in the same way
+ * {@link org.apereo.cas.client.util.CommonUtils#getResponseFromServer(URL, HttpURLConnectionFactory, String)} does.
+ *
+ * @since 4.1.2
+ * @see HttpClientTransport
+ * @see HttpURLConnectionTransport
+ */
+public interface HttpTransport extends Serializable {
+
+    /**
+     * Issues a GET request to the given url and returns the response body.
+     *
+     * @param url the url to contact.
+     * @param encoding the encoding of the response, or null to use the default.
+     * @return the response body.
+     */
+    String get(URL url, String encoding);
+
+    /**
+     * Issues a GET request to the given url and returns the response body as received, for parsers that read
+     * bytes rather than text.
+     * <p>
+     * The default implementation encodes the text returned by {@link #get(URL, String)}.
+     *
+     * @param url the url to contact.
+     * @param encoding the encoding of the response, or null to use the default.
+     * @return the response body.
+     */
+    default HttpResponseBody getBody(final URL url, final String encoding) {
+        final var charset = CommonUtils.isEmpty(encoding) ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return HttpResponseBody.of(get(url, encoding), charset);
+    }
+
+    /**
+     * Issues a POST request to the given url and returns the response body.
+     *
+     * @param url the url to contact.
+     * @param headers the request headers, i.e. Content-Type.
+     * @param body the request body.
+     * @param encoding the encoding of both the request and response, or null to use the default.
+     * @return the response body.
+     */
+    String post(URL url, Map<String, String> headers, String body, String encoding);
+
+    /**
+     * Issues a GET request to the given url without blocking the calling thread.
+     * <p>
+     * The default implementation performs the request on the calling thread and returns a completed future.
+     *
+     * @param url the url to contact.
+     * @param encoding the encoding of the response, or null to use the default.
+     * @return the future response body, completed exceptionally if the server cannot be reached.
+     */
+    default CompletableFuture<String> getAsync(final URL url, final String encoding) {
+        try {
+            return CompletableFuture.completedFuture(get(url, encoding));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Issues a GET request to the given url without blocking the calling thread, and returns the response body as
+     * received.
+     * <p>
+     * The default implementation encodes the text returned by {@link #getAsync(URL, String)}.
+     *
+     * @param url the url to contact.
+     * @param encoding the encoding of the response, or null to use the default.
+     * @return the future response body, completed exceptionally if the server cannot be reached.
+     */
+    default CompletableFuture<HttpResponseBody> getBodyAsync(final URL url, final String encoding) {
+        final var charset = CommonUtils.isEmpty(encoding) ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return getAsync(url, encoding).thenApply(body -> HttpResponseBody.of(body, charset));
+    }
+
+    /**
+     * Issues a POST request to the given url without blocking the calling thread.
+     * <p>
+     * The default implementation performs the request on the calling thread and returns a completed future.
+     *
+     * @param url the url to contact.
+     * @param headers the request headers, i.e. Content-Type.
+     * @param body the request body.
+     * @param encoding the encoding of both the request and response, or null to use the default.
+     * @return the future response body, completed exceptionally if the server cannot be reached.
+     */
+    default CompletableFuture<String> postAsync(final URL url, final Map<String, String> headers, final String body,
+                                                final String encoding) {
+        try {
+            return CompletableFuture.completedFuture(post(url, headers, body, encoding));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.http.HttpConnectTimeoutException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link HttpTransport} built on {@link HttpURLConnection}s prepared by an arbitrary {@link HttpURLConnectionFactory}.
+ * <p>
+ * Connections are not disconnected once the response has been read, so the JDK keep-alive cache can hand the
+ * underlying socket to the next request for the same host. This transport is used when a custom
+ * {@link HttpURLConnectionFactory} is configured, since such factories may customize connections in ways
+ * {@link HttpClientTransport} cannot reproduce.
+ * <p>
+ * Connections block the calling thread. Asynchronous requests run on the calling thread too, unless
+ * {@link #setVirtualThreads(boolean) virtual threads} are enabled.
+ *
+ * @since 4.1.2
+ */
+public final class HttpURLConnectionTransport implements HttpTransport {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpURLConnectionTransport.class);
+
+    private final HttpURLConnectionFactory connectionFactory;
+
+    private long connectTimeout = ConfigurationKeys.HTTP_CONNECT_TIMEOUT.getDefaultValue();
+
+    private long readTimeout = ConfigurationKeys.HTTP_READ_TIMEOUT.getDefaultValue();
+
+    private long maxResponseSize = ConfigurationKeys.HTTP_MAX_RESPONSE_SIZE.getDefaultValue();
+
+    private boolean virtualThreads = ConfigurationKeys.VIRTUAL_THREADS.getDefaultValue();
+
+    private transient MetricsRecorder metricsRecorder;
+
+    public HttpURLConnectionTransport(final HttpURLConnectionFactory connectionFactory) {
+        CommonUtils.assertNotNull(connectionFactory, "connectionFactory cannot be null.");
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public String get(final URL url, final String encoding) {
+        return getBody(url, encoding).asString();
+    }
+
+    @Override
+    public HttpResponseBody getBody(final URL url, final String encoding) {
+        HttpURLConnection conn = null;
+        try {
+            conn = openConnection(url);
+            connect(conn, url);
+            return readResponse(conn, url, encoding);
+        } catch (final SSLException e) {
+            LOGGER.error("SSL error getting response from host: {} : Error Message: {}", url.getHost(), e.getMessage(), e);
+            throw new RuntimeException(e);
+        } catch (final IOException e) {
+            LOGGER.error("Error getting response from host: [{}] with path: [{}] and protocol: [{}] Error Message: {}",
+                url.getHost(), url.getPath(), url.getProtocol(), e.getMessage(), e);
+            discardErrorStream(conn);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String post(final URL url, final Map<String, String> headers, final String body, final String encoding) {
+        HttpURLConnection conn = null;
+        try {
+            conn = openConnection(url);
+            conn.setRequestMethod("POST");
+            headers.forEach(conn::setRequestProperty);
+            conn.setUseCaches(false);
+            conn.setDoInput(true);
+            conn.setDoOutput(true);
+            connect(conn, url);
+            try (var out = conn.getOutputStream()) {
+                out.write(body.getBytes(toCharset(encoding)));
+            }
+            return readResponse(conn, url, encoding).asString();
+        } catch (final IOException e) {
+            discardErrorStream(conn);
+            throw new RuntimeException("IO error sending HTTP request to " + url.getPath(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> getAsync(final URL url, final String encoding) {
+        return this.virtualThreads
+            ? VirtualThreads.supplyAsync(() -> get(url, encoding))
+            : HttpTransport.super.getAsync(url, encoding);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponseBody> getBodyAsync(final URL url, final String encoding) {
+        return this.virtualThreads
+            ? VirtualThreads.supplyAsync(() -> getBody(url, encoding))
+            : HttpTransport.super.getBodyAsync(url, encoding);
+    }
+
+    @Override
+    public CompletableFuture<String> postAsync(final URL url, final Map<String, String> headers, final String body,
+                                               final String encoding) {
+        return this.virtualThreads
+            ? VirtualThreads.supplyAsync(() -> post(url, headers, body, encoding))
+            : HttpTransport.super.postAsync(url, headers, body, encoding);
+    }
+
+    /**
+     * @param connectTimeout milliseconds to wait for a connection to be established; 0 waits indefinitely.
+     */
+    public void setConnectTimeout(final long connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * @param readTimeout milliseconds to wait for the server to respond; 0 waits indefinitely.
+     */
+    public void setReadTimeout(final long readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * @param maxResponseSize maximum number of bytes accepted in a response; 0 or less for no limit.
+     */
+    public void setMaxResponseSize(final long maxResponseSize) {
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    /**
+     * @param virtualThreads whether asynchronous requests run on virtual threads instead of the calling thread.
+     */
+    public void setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * @param metricsRecorder the recorder of the time spent connecting to and reading from the CAS server.
+     */
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    /**
+     * The recorder is not serialized, so it is only kept by the instance it was given to.
+     */
+    private MetricsRecorder metricsRecorder() {
+        final var recorder = this.metricsRecorder;
+        return recorder != null ? recorder : MetricsRecorder.NOOP;
+    }
+
+    private HttpURLConnection openConnection(final URL url) throws IOException {
+        final var conn = this.connectionFactory.buildHttpURLConnection(url.openConnection());
+        if (conn.getConnectTimeout() == 0) {
+            conn.setConnectTimeout((int) Math.min(Integer.MAX_VALUE, this.connectTimeout));
+        }
+        if (conn.getReadTimeout() == 0) {
+            conn.setReadTimeout((int) Math.min(Integer.MAX_VALUE, this.readTimeout));
+        }
+        return conn;
+    }
+
+    /**
+     * Reports connect timeouts as {@link HttpConnectTimeoutException}s, as {@link HttpClientTransport} does, since
+     * the {@link SocketTimeoutException} thrown does not tell them from read timeouts.
+     */
+    private void connect(final HttpURLConnection conn, final URL url) throws IOException {
+        final var start = System.nanoTime();
+        try {
+            conn.connect();
+        } catch (final SocketTimeoutException e) {
+            final var timeout = new HttpConnectTimeoutException(e.getMessage());
+            timeout.initCause(e);
+            throw timeout;
+        } finally {
+            metricsRecorder().recordHttpConnect(url.getHost(), System.nanoTime() - start);
+        }
+    }
+
+    private HttpResponseBody readResponse(final HttpURLConnection conn, final URL url, final String encoding) throws IOException {
+        final var start = System.nanoTime();
+        try {
+            return HttpResponseBody.read(conn.getInputStream(), conn.getContentLengthLong(), this.maxResponseSize,
+                toCharset(encoding));
+        } finally {
+            metricsRecorder().recordHttpRead(url.getHost(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reads and closes the error stream so the connection can still be reused by the keep-alive cache.
+     */
+    private static void discardErrorStream(final HttpURLConnection conn) {
+        if (conn == null) {
+            return;
+        }
+        try (InputStream err = conn.getErrorStream()) {
+            if (err != null) {
+                err.transferTo(OutputStream.nullOutputStream());
+            }
+        } catch (final IOException e) {
+            conn.disconnect();
+        }
+    }
+
+    private static Charset toCharset(final String encoding) {
+        return CommonUtils.isEmpty(encoding) ? Charset.defaultCharset() : Charset.forName(encoding);
+    }
+}
@@ -25,11 +25,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,10 +40,19 @@ import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.net.HttpURLConnection;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
 import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
-import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * An implementation of the {@link HttpURLConnectionFactory} whose responsible to configure
@@ -71,6 +82,22 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
      */
     private Properties sslConfiguration = new Properties();
 
+    /**
+     * Socket factory shared by all connections so TLS sessions can be resumed. Built lazily.
+     */
+    private transient volatile CachedSSLMaterial<SSLSocketFactory> sslSocketFactory;
+
+    /**
+     * SSL context shared by {@link HttpClientTransport} instances. Built lazily.
+     */
+    private transient volatile CachedSSLMaterial<SSLContext> sslContext;
+
+    /**
+     * Guards the reloading of the SSL material, which reads the key store from disk. A lock rather than a monitor,
+     * so that virtual threads waiting for it do not pin their carrier thread.
+     */
+    private transient ReentrantLock sslLock = new ReentrantLock();
+
     public HttpsURLConnectionFactory() {
     }
 
@@ -81,6 +108,7 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
 
     public final void setSSLConfiguration(final Properties config) {
         this.sslConfiguration = config;
+        invalidateSSLMaterial();
     }
 
     /**
@@ -92,6 +120,7 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
      */
     public final void setHostnameVerifier(final HostnameVerifier verifier) {
         this.hostnameVerifier = verifier;
+        invalidateSSLMaterial();
     }
 
     @Override
@@ -137,7 +166,7 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
     private HttpURLConnection configureHttpsConnectionIfNeeded(final URLConnection conn) {
         if (conn instanceof HttpsURLConnection) {
             final var httpsConnection = (HttpsURLConnection) conn;
-            final var socketFactory = this.createSSLSocketFactory();
+            final var socketFactory = getSSLSocketFactory();
             if (socketFactory != null) {
                 httpsConnection.setSSLSocketFactory(socketFactory);
             }
@@ -151,10 +180,121 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
         return (HttpURLConnection) conn;
     }
 
-    private boolean isIgnoreSslFailures() {
+    boolean isIgnoreSslFailures() {
         return this.sslConfiguration.getProperty("ignoreSslFailures", "false").equalsIgnoreCase("true");
     }
 
+    /**
+     * Returns the shared {@link SSLSocketFactory}, building it on first use and rebuilding it once the
+     * key store has changed on disk.
+     *
+     * @return the {@link SSLSocketFactory}, or null to use the default one.
+     */
+    private SSLSocketFactory getSSLSocketFactory() {
+        var cached = this.sslSocketFactory;
+        if (cached == null || cached.shouldCheck(getKeyStoreReloadInterval())) {
+            this.sslLock.lock();
+            try {
+                cached = this.sslSocketFactory;
+                if (cached == null || cached.shouldCheck(getKeyStoreReloadInterval())) {
+                    cached = refresh(cached, this::createSSLSocketFactory);
+                    this.sslSocketFactory = cached;
+                }
+            } catch (final GeneralSecurityException | IOException e) {
+                throw new IllegalStateException("Unable to create the SSL socket factory: " + e.getMessage(), e);
+            } finally {
+                this.sslLock.unlock();
+            }
+        }
+        return cached.getValue();
+    }
+
+    /**
+     * Returns the shared {@link SSLContext} created by {@link #createSSLContext()}, building it on first use
+     * and rebuilding it once the key store has changed on disk.
+     *
+     * @return the {@link SSLContext}
+     * @throws GeneralSecurityException if the context or its key material cannot be initialized.
+     * @throws IOException if the key store cannot be read.
+     */
+    SSLContext getSSLContext() throws GeneralSecurityException, IOException {
+        var cached = this.sslContext;
+        if (cached == null || cached.shouldCheck(getKeyStoreReloadInterval())) {
+            this.sslLock.lock();
+            try {
+                cached = this.sslContext;
+                if (cached == null || cached.shouldCheck(getKeyStoreReloadInterval())) {
+                    cached = refresh(cached, this::createSSLContext);
+                    this.sslContext = cached;
+                }
+            } finally {
+                this.sslLock.unlock();
+            }
+        }
+        return cached.getValue();
+    }
+
+    /**
+     * Builds the SSL material if the key store has changed since <code>cached</code> was built. Should the key store
+     * no longer load, for instance while it is being rewritten, the previous material is kept until the key store
+     * changes again.
+     */
+    private <T> CachedSSLMaterial<T> refresh(final CachedSSLMaterial<T> cached, final SSLMaterialFactory<T> factory)
+        throws GeneralSecurityException, IOException {
+        final var fingerprint = getKeyStoreFingerprint();
+        if (cached == null) {
+            return new CachedSSLMaterial<>(factory.create(), fingerprint);
+        }
+        if (cached.matches(fingerprint)) {
+            cached.checked();
+            return cached;
+        }
+        LOGGER.info("Key store {} has changed, reloading", getKeyStorePath());
+        try {
+            return new CachedSSLMaterial<>(factory.create(), fingerprint);
+        } catch (final GeneralSecurityException | IOException | RuntimeException e) {
+            LOGGER.error("Unable to reload key store {}, keeping the previous key material", getKeyStorePath(), e);
+            return new CachedSSLMaterial<>(cached.getValue(), fingerprint);
+        }
+    }
+
+    private void invalidateSSLMaterial() {
+        this.sslSocketFactory = null;
+        this.sslContext = null;
+    }
+
+    private String getKeyStorePath() {
+        return this.sslConfiguration.getProperty("keyStorePath");
+    }
+
+    /**
+     * @return milliseconds between checks of the key store for changes, <code>keyStoreReloadInterval</code>
+     * in the SSL configuration; a negative value disables reloading.
+     */
+    private long getKeyStoreReloadInterval() {
+        return Long.parseLong(this.sslConfiguration.getProperty("keyStoreReloadInterval", "5000"));
+    }
+
+    /**
+     * Identifies the current version of the key store file by the SHA-256 hash of its content, which unlike its
+     * modification time also tells apart two versions written within the same timestamp granularity.
+     */
+    private String getKeyStoreFingerprint() {
+        final var keyStorePath = getKeyStorePath();
+        if (keyStorePath == null) {
+            return "";
+        }
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(Paths.get(keyStorePath)));
+            return HexFormat.of().formatHex(digest);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (final IOException e) {
+            LOGGER.debug("Unable to read key store {}: {}", keyStorePath, e.getMessage());
+            return "missing";
+        }
+    }
+
     /**
      * Creates a {@link SSLSocketFactory} based on the configuration specified
      * <p>
@@ -165,52 +305,92 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
      * keyStorePath=/var/secure/location/.keystore
      * keyStorePass=changeit
      * certificatePassword=aGoodPass
+     * keyStoreReloadInterval=5000
      * </pre>
-     * @return the {@link SSLSocketFactory}
+     * @return the {@link SSLSocketFactory}, or null to use the default one.
+     * @throws GeneralSecurityException if the context or its key material cannot be initialized.
+     * @throws IOException if the key store cannot be read.
      */
-    private SSLSocketFactory createSSLSocketFactory() {
-        InputStream keyStoreIS = null;
+    private SSLSocketFactory createSSLSocketFactory() throws GeneralSecurityException, IOException {
+        final var sslContext = SSLContext.getInstance(this.sslConfiguration.getProperty("protocol", "SSL"));
+        if (isIgnoreSslFailures()) {
+            sslContext.init(null, new TrustManager[]{new HostnameVerifyingTrustManager(null, null)}, new SecureRandom());
+            return sslContext.getSocketFactory();
+        }
 
-        try {
-            final var sslContext = SSLContext.getInstance(this.sslConfiguration.getProperty("protocol", "SSL"));
-            if (isIgnoreSslFailures()) {
-                final var trustAllCerts = new TrustManager[]{new X509TrustManager() {
-                    public void checkClientTrusted(final X509Certificate[] certs, final String authType) {
-                    }
-
-                    public void checkServerTrusted(final X509Certificate[] certs, final String authType) {
-                    }
-
-                    public X509Certificate[] getAcceptedIssuers() {
-                        return null;
-                    }
-                }};
-                sslContext.init(null, trustAllCerts, new SecureRandom());
-                return sslContext.getSocketFactory();
-            }
+        final var keyManagers = createKeyManagers();
+        if (keyManagers != null) {
+            sslContext.init(keyManagers, null, null);
+            return sslContext.getSocketFactory();
+        }
+        return null;
+    }
 
-            if (this.sslConfiguration.getProperty("keyStoreType") != null) {
-                final var keyStore = KeyStore.getInstance(this.sslConfiguration.getProperty("keyStoreType"));
-                if (this.sslConfiguration.getProperty("keyStorePath") != null) {
-                    keyStoreIS = new FileInputStream(this.sslConfiguration.getProperty("keyStorePath"));
-                    if (this.sslConfiguration.getProperty("keyStorePass") != null) {
-                        keyStore.load(keyStoreIS, this.sslConfiguration.getProperty("keyStorePass").toCharArray());
-                        LOGGER.debug("Keystore has {} keys", keyStore.size());
-                        final var keyManager = KeyManagerFactory.getInstance(this.sslConfiguration
-                            .getProperty("keyManagerType", "SunX509"));
-                        keyManager.init(keyStore, this.sslConfiguration.getProperty("certificatePassword").toCharArray());
-                        sslContext.init(keyManager.getKeyManagers(), null, null);
-                        return sslContext.getSocketFactory();
-                    }
-                }
-            }
+    /**
+     * Creates the {@link SSLContext} for clients that have no notion of a {@link HostnameVerifier},
+     * such as {@link HttpClientTransport}. A configured verifier is applied by the trust managers instead,
+     * and certificate and host name checks are skipped entirely when <code>ignoreSslFailures</code> is set.
+     *
+     * @return the {@link SSLContext}
+     * @throws GeneralSecurityException if the context or its key material cannot be initialized.
+     * @throws IOException if the key store cannot be read.
+     */
+    private SSLContext createSSLContext() throws GeneralSecurityException, IOException {
+        final var sslContext = SSLContext.getInstance(this.sslConfiguration.getProperty("protocol", "SSL"));
+        if (isIgnoreSslFailures()) {
+            sslContext.init(null, new TrustManager[]{new HostnameVerifyingTrustManager(null, null)}, new SecureRandom());
+            return sslContext;
+        }
 
-        } catch (final Exception e) {
-            LOGGER.error(e.getMessage(), e);
+        final var keyManagers = createKeyManagers();
+        final var customVerifier = isDefaultHostnameVerifier() ? null : this.hostnameVerifier;
+        if (keyManagers == null && customVerifier == null) {
+            return SSLContext.getDefault();
+        }
+
+        TrustManager[] trustManagers = null;
+        if (customVerifier != null) {
+            trustManagers = new TrustManager[]{new HostnameVerifyingTrustManager(getDefaultTrustManager(), customVerifier)};
+        }
+        sslContext.init(keyManagers, trustManagers, null);
+        return sslContext;
+    }
+
+    private boolean isDefaultHostnameVerifier() {
+        return this.hostnameVerifier == null || this.hostnameVerifier == HttpsURLConnection.getDefaultHostnameVerifier();
+    }
+
+    private KeyManager[] createKeyManagers() throws GeneralSecurityException, IOException {
+        if (this.sslConfiguration.getProperty("keyStoreType") == null
+            || this.sslConfiguration.getProperty("keyStorePath") == null
+            || this.sslConfiguration.getProperty("keyStorePass") == null) {
+            return null;
+        }
+
+        InputStream keyStoreIS = null;
+        try {
+            final var keyStore = KeyStore.getInstance(this.sslConfiguration.getProperty("keyStoreType"));
+            keyStoreIS = new FileInputStream(this.sslConfiguration.getProperty("keyStorePath"));
+            keyStore.load(keyStoreIS, this.sslConfiguration.getProperty("keyStorePass").toCharArray());
+            LOGGER.debug("Keystore has {} keys", keyStore.size());
+            final var keyManager = KeyManagerFactory.getInstance(this.sslConfiguration
+                .getProperty("keyManagerType", "SunX509"));
+            keyManager.init(keyStore, this.sslConfiguration.getProperty("certificatePassword").toCharArray());
+            return keyManager.getKeyManagers();
         } finally {
             CommonUtils.closeQuietly(keyStoreIS);
         }
-        return null;
+    }
+
+    private static X509ExtendedTrustManager getDefaultTrustManager() throws GeneralSecurityException {
+        final var factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        factory.init((KeyStore) null);
+        for (final var trustManager : factory.getTrustManagers()) {
+            if (trustManager instanceof X509ExtendedTrustManager) {
+                return (X509ExtendedTrustManager) trustManager;
+            }
+        }
+        throw new KeyStoreException("No X509 trust manager is available");
     }
 
     @Serial
@@ -235,5 +415,49 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
         }
 
         this.sslConfiguration = (Properties) in.readObject();
+        this.sslLock = new ReentrantLock();
+    }
+
+    /**
+     * Builds an SSL object from the current configuration.
+     */
+    @FunctionalInterface
+    private interface SSLMaterialFactory<T> {
+
+        T create() throws GeneralSecurityException, IOException;
+    }
+
+    /**
+     * SSL object built from the key store, along with the key store version it was built from.
+     */
+    private static final class CachedSSLMaterial<T> {
+
+        private final T value;
+
+        private final String fingerprint;
+
+        private volatile long lastChecked = System.nanoTime();
+
+        CachedSSLMaterial(final T value, final String fingerprint) {
+            this.value = value;
+            this.fingerprint = fingerprint;
+        }
+
+        T getValue() {
+            return this.value;
+        }
+
+        boolean shouldCheck(final long interval) {
+            return !this.fingerprint.isEmpty() && interval >= 0
+                && System.nanoTime() - this.lastChecked >= TimeUnit.MILLISECONDS.toNanos(interval);
+        }
+
+        boolean matches(final String currentFingerprint) {
+            return Objects.equals(this.fingerprint, currentFingerprint);
+        }
+
+        void checked() {
+            this.lastChecked = System.nanoTime();
+        }
     }
 }
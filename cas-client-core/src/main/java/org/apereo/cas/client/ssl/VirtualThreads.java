@@ -0,0 +1,60 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking back-channel calls on virtual threads, so that thousands of calls waiting on the CAS server do not
+ * hold as many platform threads.
+ *
+ * @since 4.1.2
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return the executor starting a new virtual thread per task, shared by all transports.
+     */
+    static ExecutorService executor() {
+        return Holder.EXECUTOR;
+    }
+
+    /**
+     * Runs a blocking call on a new virtual thread.
+     *
+     * @param call the blocking call.
+     * @param <T>  the type of the result.
+     * @return the future result, completed exceptionally with the runtime exception thrown by the call, if any.
+     */
+    static <T> CompletableFuture<T> supplyAsync(final Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, Holder.EXECUTOR);
+    }
+
+    private static final class Holder {
+
+        private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cas-client-", 0).factory());
+    }
+}
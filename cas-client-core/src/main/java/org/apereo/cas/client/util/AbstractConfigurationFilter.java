@@ -19,8 +19,10 @@
 package org.apereo.cas.client.util;
 
 import org.apereo.cas.client.configuration.ConfigurationKey;
+import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.configuration.ConfigurationStrategy;
 import org.apereo.cas.client.configuration.ConfigurationStrategyName;
+import org.apereo.cas.client.metrics.MetricsRecorder;
 
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterConfig;
@@ -45,11 +47,19 @@ public abstract class AbstractConfigurationFilter implements Filter {
 
     private ConfigurationStrategy configurationStrategy;
 
+    private MetricsRecorder metricsRecorder;
+
     @Override
     public void init(final FilterConfig filterConfig) throws ServletException {
         final var configurationStrategyName = filterConfig.getServletContext().getInitParameter(CONFIGURATION_STRATEGY_KEY);
         this.configurationStrategy = ReflectUtils.newInstance(ConfigurationStrategyName.resolveToConfigurationStrategy(configurationStrategyName));
         this.configurationStrategy.init(filterConfig, getClass());
+        if (this.metricsRecorder == null && !this.ignoreInitConfiguration) {
+            final Class<? extends MetricsRecorder> recorderClass = getClass(ConfigurationKeys.METRICS_RECORDER_CLASS);
+            if (recorderClass != null) {
+                this.metricsRecorder = ReflectUtils.newInstance(recorderClass);
+            }
+        }
     }
 
     protected final boolean getBoolean(final ConfigurationKey<Boolean> configurationKey) {
@@ -79,4 +89,20 @@ public abstract class AbstractConfigurationFilter implements Filter {
     public final void setIgnoreInitConfiguration(final boolean ignoreInitConfiguration) {
         this.ignoreInitConfiguration = ignoreInitConfiguration;
     }
+
+    /**
+     * @return the recorder receiving the measurements of this filter and of the components it creates.
+     */
+    public final MetricsRecorder getMetricsRecorder() {
+        return this.metricsRecorder != null ? this.metricsRecorder : MetricsRecorder.NOOP;
+    }
+
+    /**
+     * @param metricsRecorder the recorder receiving the measurements of this filter and of the components it
+     *                        creates; null to discard them unless the <code>metricsRecorderClass</code> init
+     *                        parameter names one.
+     */
+    public final void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+    }
 }
@@ -22,6 +22,9 @@ import org.apereo.cas.client.validation.Assertion;
 
 /**
  * Static holder that places Assertion in a ThreadLocal.
+ * <p>
+ * Clearing the holder removes the thread local value rather than setting it to null, so that threads do not keep
+ * an entry for it once the request is over.
  *
  * @author Scott Battaglia
  * @since 3.0
@@ -55,6 +58,6 @@ public class AssertionHolder {
      * Clear the ThreadLocal.
      */
     public static void clear() {
-        threadLocal.set(null);
+        threadLocal.remove();
     }
 }
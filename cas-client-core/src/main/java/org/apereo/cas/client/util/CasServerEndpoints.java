@@ -0,0 +1,443 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import jakarta.servlet.ServletContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLHandshakeException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Several CAS server URL prefixes serving the same CAS deployment, i.e. one per data center, across which
+ * back-channel calls are balanced.
+ * <p>
+ * Calls go to the healthy endpoint with the lowest latency, measured as an exponentially weighted moving average
+ * of past calls. An endpoint that cannot be connected to is marked unhealthy for a back-off period that doubles
+ * with every consecutive failure, from {@value #MIN_BACKOFF} up to {@value #MAX_BACKOFF} milliseconds, and the call
+ * fails over to the next endpoint. Other failures are not retried, as the request, and the one-time ticket it
+ * carries, may have reached the server. Endpoints are probed passively: an endpoint that has not been measured yet
+ * gets the next call, and once the back-off of an unhealthy endpoint has elapsed, a single call is sent to it to find
+ * out whether it recovered. A single URL is called directly, without any measurement.
+ * <p>
+ * Measurements belong to the instance, unless it is obtained from a {@link Registry}: the filters of an application
+ * share the registry of their {@link ServletContext}, so that its validators, proxy retrievers and login redirects
+ * agree on the preferred endpoint.
+ *
+ * @since 4.1.2
+ */
+public final class CasServerEndpoints implements Serializable {
+
+    /**
+     * Back-off in milliseconds after the first failure of an endpoint.
+     */
+    public static final long MIN_BACKOFF = 1000L;
+
+    /**
+     * Maximum back-off in milliseconds after consecutive failures of an endpoint.
+     */
+    public static final long MAX_BACKOFF = 60000L;
+
+    /**
+     * Weight of the latest measurement in the moving average.
+     */
+    private static final double ALPHA = 0.3;
+
+    @Serial
+    private static final long serialVersionUID = -4620187712563340874L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CasServerEndpoints.class);
+
+    private final List<String> urls;
+
+    /**
+     * Measurements by URL, possibly shared with other instances through a {@link Registry}.
+     */
+    private final transient Map<String, Endpoint> endpoints;
+
+    private CasServerEndpoints(final List<String> urls, final Map<String, Endpoint> endpoints) {
+        this.urls = urls;
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * @param urls one or more URL prefixes, separated by whitespace. A trailing slash is added to each of them.
+     * @return the endpoints, in the configured order, measured on their own.
+     */
+    public static CasServerEndpoints of(final String urls) {
+        return new CasServerEndpoints(parse(urls), new ConcurrentHashMap<>());
+    }
+
+    private static List<String> parse(final String urls) {
+        CommonUtils.assertNotNull(urls, "urls cannot be null.");
+        final var list = new ArrayList<String>();
+        for (final var url : urls.trim().split("\\s+")) {
+            list.add(CommonUtils.addTrailingSlash(url));
+        }
+        return List.copyOf(list);
+    }
+
+    /**
+     * Tells whether a call failed before its request could reach the server, in which case it is safe to send it to
+     * another endpoint.
+     *
+     * @param failure the failure of the call, or any exception it caused.
+     * @return whether the server could not be connected to.
+     */
+    public static boolean isConnectFailure(final Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException
+                || cause instanceof UnknownHostException || cause instanceof NoRouteToHostException
+                || cause instanceof SSLHandshakeException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the URL prefixes, in the configured order.
+     */
+    public List<String> getUrls() {
+        return this.urls;
+    }
+
+    /**
+     * @return the endpoint the next call would go to, without claiming a probe of an unhealthy endpoint.
+     */
+    public Endpoint preferred() {
+        if (this.urls.size() == 1) {
+            return endpoint(this.urls.get(0));
+        }
+        return order(false).get(0);
+    }
+
+    /**
+     * Orders the endpoints to try for a call: an unhealthy endpoint due for a probe first, then healthy endpoints by
+     * increasing latency, then the remaining unhealthy endpoints by the end of their back-off. Endpoints not
+     * measured yet count as the fastest, so that each of them is tried once.
+     *
+     * @return the endpoints, in the order they should be tried.
+     */
+    public List<Endpoint> candidates() {
+        if (this.urls.size() == 1) {
+            return List.of(endpoint(this.urls.get(0)));
+        }
+        return order(true);
+    }
+
+    private List<Endpoint> order(final boolean probe) {
+        final var now = System.nanoTime();
+        final var healthy = new ArrayList<Ranked>(this.urls.size());
+        final var unhealthy = new ArrayList<Ranked>(this.urls.size());
+        Endpoint probed = null;
+        for (final var url : this.urls) {
+            final var endpoint = endpoint(url);
+            if (endpoint.isHealthy()) {
+                final var latency = endpoint.latency;
+                healthy.add(new Ranked(endpoint, Double.isNaN(latency) ? 0 : latency));
+            } else if (probe && probed == null && endpoint.tryProbe(now)) {
+                probed = endpoint;
+            } else {
+                unhealthy.add(new Ranked(endpoint, endpoint.retryAt - now));
+            }
+        }
+        healthy.sort(Comparator.comparingDouble(Ranked::rank));
+        unhealthy.sort(Comparator.comparingDouble(Ranked::rank));
+        final var ordered = new ArrayList<Endpoint>(this.urls.size());
+        if (probed != null) {
+            ordered.add(probed);
+        }
+        healthy.forEach(ranked -> ordered.add(ranked.endpoint()));
+        unhealthy.forEach(ranked -> ordered.add(ranked.endpoint()));
+        return ordered;
+    }
+
+    /**
+     * Calls the endpoints in the order of {@link #candidates()} until one of them succeeds. A failure to connect, see
+     * {@link #isConnectFailure(Throwable)}, marks the endpoint as failed and the next endpoint is tried; any other
+     * failure is thrown right away.
+     *
+     * @param call the call to make, given the URL prefix of an endpoint.
+     * @param <T>  the type of the result.
+     * @return the result of the first successful call.
+     * @throws RuntimeException the failure of the call, or of the last endpoint tried if none could be connected to.
+     */
+    public <T> T call(final Function<String, T> call) {
+        if (this.urls.size() == 1) {
+            return call.apply(this.urls.get(0));
+        }
+        RuntimeException failure = null;
+        for (final var endpoint : candidates()) {
+            final var start = System.nanoTime();
+            try {
+                final var result = call.apply(endpoint.getUrl());
+                endpoint.recordSuccess(System.nanoTime() - start);
+                return result;
+            } catch (final RuntimeException e) {
+                if (failure != null) {
+                    e.addSuppressed(failure);
+                }
+                if (!isConnectFailure(e)) {
+                    throw e;
+                }
+                endpoint.recordFailure();
+                LOGGER.warn("Unable to connect to CAS server [{}]: {}", endpoint.getUrl(), e.getMessage());
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Asynchronous variant of {@link #call(Function)}: the next endpoint is tried when the future returned for the
+     * previous one completes exceptionally.
+     *
+     * @param call the call to make, given the URL prefix of an endpoint.
+     * @param <T>  the type of the result.
+     * @return the future result of the first successful call.
+     */
+    public <T> CompletableFuture<T> callAsync(final Function<String, CompletableFuture<T>> call) {
+        if (this.urls.size() == 1) {
+            try {
+                return call.apply(this.urls.get(0));
+            } catch (final RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        final var result = new CompletableFuture<T>();
+        callAsync(call, candidates(), 0, null, result);
+        return result;
+    }
+
+    private static <T> void callAsync(final Function<String, CompletableFuture<T>> call, final List<Endpoint> candidates,
+                                      final int index, final Throwable previous, final CompletableFuture<T> result) {
+        final var endpoint = candidates.get(index);
+        final var start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.apply(endpoint.getUrl());
+        } catch (final RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                endpoint.recordSuccess(System.nanoTime() - start);
+                result.complete(value);
+                return;
+            }
+            final var failure = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+            if (previous != null) {
+                failure.addSuppressed(previous);
+            }
+            if (!isConnectFailure(failure)) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            endpoint.recordFailure();
+            LOGGER.warn("Unable to connect to CAS server [{}]: {}", endpoint.getUrl(), failure.getMessage());
+            if (index + 1 < candidates.size()) {
+                callAsync(call, candidates, index + 1, failure, result);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private Endpoint endpoint(final String url) {
+        return this.endpoints.computeIfAbsent(url, Endpoint::new);
+    }
+
+    /**
+     * Measurements are not serialized: a deserialized instance starts measuring on its own.
+     */
+    @Serial
+    private Object readResolve() {
+        return new CasServerEndpoints(this.urls, new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", this.urls);
+    }
+
+    /**
+     * Measurements shared by the endpoints it hands out, kept per URL.
+     */
+    public static final class Registry {
+
+        private static final String ATTRIBUTE = Registry.class.getName();
+
+        private static final ReentrantLock LOCK = new ReentrantLock();
+
+        private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+        /**
+         * @param context the context of the application.
+         * @return the registry of the application, created on first use.
+         */
+        public static Registry of(final ServletContext context) {
+            LOCK.lock();
+            try {
+                var registry = (Registry) context.getAttribute(ATTRIBUTE);
+                if (registry == null) {
+                    registry = new Registry();
+                    context.setAttribute(ATTRIBUTE, registry);
+                }
+                return registry;
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        /**
+         * @param urls one or more URL prefixes, separated by whitespace. A trailing slash is added to each of them.
+         * @return the endpoints, in the configured order, sharing the measurements of this registry.
+         */
+        public CasServerEndpoints endpoints(final String urls) {
+            return new CasServerEndpoints(parse(urls), this.endpoints);
+        }
+    }
+
+    /**
+     * Snapshot of the measurements an endpoint is ordered by, as they may change while sorting.
+     */
+    private record Ranked(Endpoint endpoint, double rank) {
+    }
+
+    /**
+     * Measurements of a single CAS server URL prefix.
+     */
+    public static final class Endpoint {
+
+        private final String url;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * Moving average of the call durations in nanoseconds, NaN until the first successful call.
+         */
+        private volatile double latency = Double.NaN;
+
+        private volatile int failures;
+
+        /**
+         * {@link System#nanoTime()} at which the next probe may be sent, while {@link #failures} is not 0.
+         */
+        private volatile long retryAt;
+
+        private Endpoint(final String url) {
+            this.url = url;
+        }
+
+        public String getUrl() {
+            return this.url;
+        }
+
+        /**
+         * @return the moving average of the call durations in milliseconds, or NaN if no call succeeded yet.
+         */
+        public double getLatency() {
+            return this.latency / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @return whether the last call to this endpoint succeeded, or no call failed yet.
+         */
+        public boolean isHealthy() {
+            return this.failures == 0;
+        }
+
+        /**
+         * @param durationNanos how long the successful call took.
+         */
+        public void recordSuccess(final long durationNanos) {
+            this.lock.lock();
+            try {
+                final var current = this.latency;
+                this.latency = Double.isNaN(current) ? durationNanos : current + ALPHA * (durationNanos - current);
+                if (this.failures != 0) {
+                    LOGGER.info("CAS server [{}] recovered", this.url);
+                    this.failures = 0;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Marks this endpoint unhealthy and starts a back-off, doubled on every consecutive failure.
+         */
+        public void recordFailure() {
+            this.lock.lock();
+            try {
+                final var count = this.failures + 1;
+                this.failures = count;
+                this.retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff(count));
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Claims the probe of an unhealthy endpoint whose back-off has elapsed, pushing the next probe back by another
+         * back-off period so that concurrent calls keep avoiding it until the outcome of the probe is known.
+         */
+        private boolean tryProbe(final long now) {
+            if (now - this.retryAt < 0 || !this.lock.tryLock()) {
+                return false;
+            }
+            try {
+                if (this.failures == 0 || now - this.retryAt < 0) {
+                    return false;
+                }
+                this.retryAt = now + TimeUnit.MILLISECONDS.toNanos(backoff(this.failures));
+                return true;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private static long backoff(final int failures) {
+            return Math.min(MIN_BACKOFF << Math.min(failures - 1, 16), MAX_BACKOFF);
+        }
+
+        @Override
+        public String toString() {
+            return this.url;
+        }
+    }
+}
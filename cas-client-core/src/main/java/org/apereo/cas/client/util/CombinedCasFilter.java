@@ -0,0 +1,152 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.authentication.AuthenticationFilter;
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.validation.AbstractTicketValidationFilter;
+import org.apereo.cas.client.validation.Assertion;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+
+/**
+ * Replaces the chain of {@link AuthenticationFilter}, ticket validation filter, {@link HttpServletRequestWrapperFilter}
+ * and {@link AssertionThreadLocalFilter} with a single filter.
+ * <p>
+ * Requests of an authenticated session that cannot carry a ticket, i.e. neither the query string mentions the
+ * artifact parameter nor the body is a form, take a fast path: the assertion is read from the session once, and the
+ * request is wrapped and the assertion made available through {@link AssertionHolder} in one step. Any other request
+ * goes through the authentication and the validation filters, in that order, as it would in the separate chain.
+ * <p>
+ * The delegates are instantiated from <code>authenticationFilterClass</code> and
+ * <code>ticketValidationFilterClass</code> unless they have been set, and all of them are initialized with the
+ * configuration of this filter, so the options of the four filters are configured in one place.
+ *
+ * @since 4.1.2
+ */
+public final class CombinedCasFilter extends AbstractConfigurationFilter {
+
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private static final String MULTIPART_CONTENT_TYPE = "multipart/";
+
+    private final HttpServletRequestWrapperFilter requestWrapperFilter = new HttpServletRequestWrapperFilter();
+
+    private AuthenticationFilter authenticationFilter;
+
+    private AbstractTicketValidationFilter ticketValidationFilter;
+
+    private String artifactParameterName;
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+        if (this.authenticationFilter == null) {
+            this.authenticationFilter = ReflectUtils.newInstance(getClass(ConfigurationKeys.AUTHENTICATION_FILTER_CLASS));
+        }
+        if (this.ticketValidationFilter == null) {
+            this.ticketValidationFilter = ReflectUtils.newInstance(getClass(ConfigurationKeys.TICKET_VALIDATION_FILTER_CLASS));
+        }
+        this.authenticationFilter.setMetricsRecorder(getMetricsRecorder());
+        this.ticketValidationFilter.setMetricsRecorder(getMetricsRecorder());
+        this.authenticationFilter.init(filterConfig);
+        this.ticketValidationFilter.init(filterConfig);
+        this.requestWrapperFilter.init(filterConfig);
+        this.artifactParameterName = this.ticketValidationFilter.getProtocol().getArtifactParameterName();
+    }
+
+    @Override
+    public void doFilter(final ServletRequest servletRequest, final ServletResponse servletResponse,
+                         final FilterChain filterChain) throws IOException, ServletException {
+        final var request = (HttpServletRequest) servletRequest;
+        final var session = request.getSession(false);
+        final var assertion = session != null ? (Assertion) session.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION) : null;
+
+        if (assertion != null && !mayCarryTicket(request)) {
+            this.ticketValidationFilter.attachProxyRetriever(assertion);
+            proceed(request, servletResponse, filterChain, assertion);
+            return;
+        }
+
+        this.authenticationFilter.doFilter(request, servletResponse,
+            (authenticatedRequest, authenticatedResponse) -> this.ticketValidationFilter.doFilter(authenticatedRequest,
+                authenticatedResponse, (validatedRequest, validatedResponse) -> {
+                    final var httpRequest = (HttpServletRequest) validatedRequest;
+                    final var validatedSession = httpRequest.getSession(false);
+                    final var validatedAssertion = (Assertion) (validatedSession == null
+                        ? httpRequest.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION)
+                        : validatedSession.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION));
+                    proceed(httpRequest, validatedResponse, filterChain, validatedAssertion);
+                }));
+    }
+
+    private void proceed(final HttpServletRequest request, final ServletResponse response, final FilterChain filterChain,
+                         final Assertion assertion) throws IOException, ServletException {
+        final var wrappedRequest = this.requestWrapperFilter.wrap(request, assertion == null ? null : assertion.getPrincipal());
+        try {
+            AssertionHolder.setAssertion(assertion);
+            filterChain.doFilter(wrappedRequest, response);
+        } finally {
+            AssertionHolder.clear();
+        }
+    }
+
+    /**
+     * Errs on the side of caution: a query string merely containing the artifact parameter name, or any form post,
+     * sends the request through the delegates.
+     */
+    private boolean mayCarryTicket(final HttpServletRequest request) {
+        final var queryString = request.getQueryString();
+        if (queryString != null && queryString.contains(this.artifactParameterName)) {
+            return true;
+        }
+        if (!"POST".equalsIgnoreCase(request.getMethod())) {
+            return false;
+        }
+        final var contentType = request.getContentType();
+        return contentType != null && (contentType.regionMatches(true, 0, FORM_CONTENT_TYPE, 0, FORM_CONTENT_TYPE.length())
+            || contentType.regionMatches(true, 0, MULTIPART_CONTENT_TYPE, 0, MULTIPART_CONTENT_TYPE.length()));
+    }
+
+    @Override
+    public void destroy() {
+        if (this.authenticationFilter != null) {
+            this.authenticationFilter.destroy();
+        }
+        if (this.ticketValidationFilter != null) {
+            this.ticketValidationFilter.destroy();
+        }
+        this.requestWrapperFilter.destroy();
+    }
+
+    public void setAuthenticationFilter(final AuthenticationFilter authenticationFilter) {
+        this.authenticationFilter = authenticationFilter;
+    }
+
+    public void setTicketValidationFilter(final AbstractTicketValidationFilter ticketValidationFilter) {
+        this.ticketValidationFilter = ticketValidationFilter;
+    }
+}
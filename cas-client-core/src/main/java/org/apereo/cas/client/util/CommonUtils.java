@@ -18,7 +18,12 @@
  */
 package org.apereo.cas.client.util;
 
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.ssl.HttpClientTransport;
+import org.apereo.cas.client.ssl.HttpResponseBody;
+import org.apereo.cas.client.ssl.HttpTransport;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
+import org.apereo.cas.client.ssl.HttpURLConnectionTransport;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
 import org.apereo.cas.client.validation.ProxyList;
 import org.apereo.cas.client.validation.ProxyListEditor;
@@ -29,11 +34,11 @@ import org.slf4j.LoggerFactory;
 import javax.net.ssl.SSLException;
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.util.Collection;
 
 /**
@@ -229,23 +234,18 @@ public final class CommonUtils {
                                                final String encoding) {
 
         HttpURLConnection conn = null;
-        InputStreamReader in = null;
         try {
             conn = factory.buildHttpURLConnection(constructedUrl.openConnection());
-
-            if (CommonUtils.isEmpty(encoding)) {
-                in = new InputStreamReader(conn.getInputStream());
-            } else {
-                in = new InputStreamReader(conn.getInputStream(), encoding);
+            // keep timeouts set by the factory, rather than waiting indefinitely for the CAS server otherwise
+            if (conn.getConnectTimeout() == 0) {
+                conn.setConnectTimeout(ConfigurationKeys.HTTP_CONNECT_TIMEOUT.getDefaultValue().intValue());
             }
-
-            final var builder = new StringBuilder(255);
-            int byteRead;
-            while ((byteRead = in.read()) != -1) {
-                builder.append((char) byteRead);
+            if (conn.getReadTimeout() == 0) {
+                conn.setReadTimeout(ConfigurationKeys.HTTP_READ_TIMEOUT.getDefaultValue().intValue());
             }
-
-            return builder.toString();
+            final var charset = CommonUtils.isEmpty(encoding) ? Charset.defaultCharset() : Charset.forName(encoding);
+            return HttpResponseBody.read(conn.getInputStream(), conn.getContentLengthLong(),
+                ConfigurationKeys.HTTP_MAX_RESPONSE_SIZE.getDefaultValue(), charset).asString();
         } catch (final RuntimeException e) {
             throw e;
         } catch (final SSLException e) {
@@ -256,13 +256,30 @@ public final class CommonUtils {
                 constructedUrl.getHost(), constructedUrl.getPath(), constructedUrl.getProtocol(), e.getMessage(), e);
             throw new RuntimeException(e);
         } finally {
-            closeQuietly(in);
             if (conn != null) {
                 conn.disconnect();
             }
         }
     }
 
+    /**
+     * Creates the {@link HttpTransport} matching the given connection factory. {@link HttpsURLConnectionFactory}
+     * settings are carried over to a pooled {@link HttpClientTransport}; any other factory is used as is through
+     * an {@link HttpURLConnectionTransport}.
+     *
+     * @param factory connection factory to prepare the URL connection instance, may be null.
+     * @return the transport.
+     */
+    public static HttpTransport newHttpTransport(final HttpURLConnectionFactory factory) {
+        if (factory == null) {
+            return new HttpClientTransport();
+        }
+        if (factory instanceof HttpsURLConnectionFactory) {
+            return new HttpClientTransport((HttpsURLConnectionFactory) factory);
+        }
+        return new HttpURLConnectionTransport(factory);
+    }
+
     public static ProxyList createProxyList(final String proxies) {
         if (CommonUtils.isBlank(proxies)) {
             return new ProxyList();
@@ -69,8 +69,14 @@ public final class HttpServletRequestWrapperFilter extends AbstractConfiguration
                          final FilterChain filterChain) throws IOException, ServletException {
         final var principal = retrievePrincipalFromSessionOrRequest(servletRequest);
 
-        filterChain.doFilter(new CasHttpServletRequestWrapper((HttpServletRequest) servletRequest, principal),
-            servletResponse);
+        filterChain.doFilter(wrap((HttpServletRequest) servletRequest, principal), servletResponse);
+    }
+
+    /**
+     * Wraps the request so that it answers with the given principal; used by {@link CombinedCasFilter}.
+     */
+    HttpServletRequest wrap(final HttpServletRequest request, final AttributePrincipal principal) {
+        return new CasHttpServletRequestWrapper(request, principal);
     }
 
     @Override
@@ -0,0 +1,243 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single daemon thread running the periodic maintenance of the library, i.e. cleaning up expired proxy granting
+ * tickets or cached assertions, instead of one timer thread per filter.
+ * <p>
+ * The thread is started when the first task is scheduled and stopped once the last task is cancelled, which filters
+ * do in {@link jakarta.servlet.Filter#destroy()}. Each task belongs to the context class loader of the thread that
+ * scheduled it, so that {@link MaintenanceSchedulerListener} only cancels the tasks of the web application being
+ * undeployed when the library is shared by several applications. Each run is delayed by the task period plus or minus a random
+ * jitter of 10%, so that tasks of many applications deployed together do not fire in lockstep.
+ *
+ * @since 4.1.2
+ */
+public final class MaintenanceScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaintenanceScheduler.class);
+
+    private static final double JITTER = 0.1;
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static final Set<ScheduledTask> TASKS = new HashSet<>();
+
+    private static ScheduledThreadPoolExecutor executor;
+
+    private MaintenanceScheduler() {
+        // static utility
+    }
+
+    /**
+     * Runs the given task periodically, the first time after about one period.
+     *
+     * @param name         name of the task, for logging.
+     * @param task         the task; exceptions are logged and do not prevent later runs.
+     * @param periodMillis milliseconds between two runs, before jitter.
+     * @return the handle to cancel the task with.
+     */
+    public static ScheduledTask schedule(final String name, final Runnable task, final long periodMillis) {
+        CommonUtils.assertNotNull(task, "task cannot be null.");
+        CommonUtils.assertTrue(periodMillis > 0, "periodMillis must be positive.");
+        final var scheduledTask = new ScheduledTask(name, task, periodMillis,
+            Thread.currentThread().getContextClassLoader());
+        LOCK.lock();
+        try {
+            if (executor == null) {
+                executor = newExecutor();
+                LOGGER.debug("Started maintenance scheduler");
+            }
+            TASKS.add(scheduledTask);
+            scheduledTask.scheduleNext();
+        } finally {
+            LOCK.unlock();
+        }
+        return scheduledTask;
+    }
+
+    /**
+     * Cancels the tasks scheduled by threads running with the given context class loader, typically those of a
+     * web application being undeployed. The scheduler thread stops with the last task.
+     *
+     * @param owner the context class loader the tasks were scheduled with.
+     */
+    public static void shutdown(final ClassLoader owner) {
+        LOCK.lock();
+        try {
+            for (final var task : Set.copyOf(TASKS)) {
+                if (task.owner == owner) {
+                    task.cancelInternal();
+                }
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Cancels all tasks and stops the scheduler thread. Tasks scheduled afterwards start it again.
+     */
+    public static void shutdown() {
+        LOCK.lock();
+        try {
+            for (final var task : TASKS) {
+                task.cancelled = true;
+            }
+            TASKS.clear();
+            stop();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * @return true if the scheduler thread is running.
+     */
+    public static boolean isRunning() {
+        LOCK.lock();
+        try {
+            return executor != null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            LOGGER.debug("Stopped maintenance scheduler");
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor newExecutor() {
+        final var classLoader = MaintenanceScheduler.class.getClassLoader();
+        final var scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final var thread = new Thread(runnable, "cas-client-maintenance");
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static long jitter(final long periodMillis) {
+        final var spread = (long) (periodMillis * JITTER);
+        return spread == 0 ? periodMillis : periodMillis + ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+    }
+
+    /**
+     * Handle of a task registered with the {@link MaintenanceScheduler}.
+     */
+    public static final class ScheduledTask {
+
+        private final String name;
+
+        private final Runnable task;
+
+        private final long periodMillis;
+
+        private final ClassLoader owner;
+
+        private volatile boolean cancelled;
+
+        private ScheduledFuture<?> future;
+
+        private ScheduledTask(final String name, final Runnable task, final long periodMillis,
+                              final ClassLoader owner) {
+            this.name = name;
+            this.task = task;
+            this.periodMillis = periodMillis;
+            this.owner = owner;
+        }
+
+        /**
+         * Stops running the task. The scheduler thread stops with the last task.
+         */
+        public void cancel() {
+            LOCK.lock();
+            try {
+                cancelInternal();
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        private void run() {
+            if (this.cancelled) {
+                return;
+            }
+            try {
+                this.task.run();
+            } catch (final RuntimeException e) {
+                LOGGER.warn("Maintenance task [{}] failed: {}", this.name, e.getMessage(), e);
+            }
+            LOCK.lock();
+            try {
+                scheduleNext();
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        /**
+         * Called while holding the scheduler lock.
+         */
+        private void cancelInternal() {
+            if (this.cancelled) {
+                return;
+            }
+            this.cancelled = true;
+            if (this.future != null) {
+                this.future.cancel(false);
+            }
+            TASKS.remove(this);
+            if (TASKS.isEmpty()) {
+                stop();
+            }
+        }
+
+        /**
+         * Called while holding the scheduler lock.
+         */
+        private void scheduleNext() {
+            if (!this.cancelled && executor != null) {
+                this.future = executor.schedule(this::run, jitter(this.periodMillis), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * Cancels the {@link MaintenanceScheduler} tasks of the web application when it is undeployed, so that no task
+ * outlives the application class loader, while the tasks of other applications sharing the library keep running.
+ * Declare it in <code>web.xml</code> next to the CAS filters.
+ *
+ * @since 4.1.2
+ */
+public final class MaintenanceSchedulerListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(final ServletContextEvent event) {
+        // the scheduler starts with the first task
+    }
+
+    @Override
+    public void contextDestroyed(final ServletContextEvent event) {
+        MaintenanceScheduler.shutdown(event.getServletContext().getClassLoader());
+    }
+}
@@ -27,21 +27,32 @@ import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Thread local XPath expression.
+ * <p>
+ * Virtual threads are typically started per task, so caching a compiled expression per thread would compile it on
+ * every evaluation. They borrow compiled expressions from a small shared pool instead.
  *
  * @author Marvin S. Addison
  * @since 3.4
  */
 public class ThreadLocalXPathExpression extends ThreadLocal<XPathExpression> implements XPathExpression {
 
+    /** Maximum number of compiled expressions kept for virtual threads. */
+    private static final int MAX_POOLED = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
     /** XPath expression */
     private final String expression;
 
     /** Namespace context. */
     private final NamespaceContext context;
 
+    /** Compiled expressions shared by virtual threads. */
+    private final BlockingQueue<XPathExpression> pool = new ArrayBlockingQueue<>(MAX_POOLED);
+
     /**
      * Creates a new instance from an XPath expression and namespace context.
      *
@@ -55,22 +66,22 @@ public class ThreadLocalXPathExpression extends ThreadLocal<XPathExpression> imp
 
     @Override
     public Object evaluate(final Object o, final QName qName) throws XPathExpressionException {
-        return get().evaluate(o, qName);
+        return evaluate(compiled -> compiled.evaluate(o, qName));
     }
 
     @Override
     public String evaluate(final Object o) throws XPathExpressionException {
-        return get().evaluate(o);
+        return evaluate(compiled -> compiled.evaluate(o));
     }
 
     @Override
     public Object evaluate(final InputSource inputSource, final QName qName) throws XPathExpressionException {
-        return get().evaluate(inputSource, qName);
+        return evaluate(compiled -> compiled.evaluate(inputSource, qName));
     }
 
     @Override
     public String evaluate(final InputSource inputSource) throws XPathExpressionException {
-        return get().evaluate(inputSource);
+        return evaluate(compiled -> compiled.evaluate(inputSource));
     }
 
     /**
@@ -99,6 +110,21 @@ public class ThreadLocalXPathExpression extends ThreadLocal<XPathExpression> imp
         return (NodeList) evaluate(o, XPathConstants.NODESET);
     }
 
+    private <T> T evaluate(final Evaluation<T> evaluation) throws XPathExpressionException {
+        if (!Thread.currentThread().isVirtual()) {
+            return evaluation.evaluate(get());
+        }
+        var compiled = this.pool.poll();
+        if (compiled == null) {
+            compiled = initialValue();
+        }
+        try {
+            return evaluation.evaluate(compiled);
+        } finally {
+            this.pool.offer(compiled);
+        }
+    }
+
     @Override
     protected XPathExpression initialValue() {
         try {
@@ -109,4 +135,9 @@ public class ThreadLocalXPathExpression extends ThreadLocal<XPathExpression> imp
             throw new IllegalArgumentException("Invalid XPath expression");
         }
     }
+
+    @FunctionalInterface
+    private interface Evaluation<T> {
+        T evaluate(XPathExpression expression) throws XPathExpressionException;
+    }
 }
@@ -28,14 +28,25 @@ import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Common utilities for easily parsing XML without duplicating logic.
@@ -50,6 +61,40 @@ public final class XmlUtils {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(XmlUtils.class);
 
+    /**
+     * Shared StAX factory, hardened against external entities and DTDs. Factories are thread-safe once configured.
+     */
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXMLInputFactory();
+
+    /**
+     * Shared DOM factory, hardened against external entities and DTDs. Looking up a factory goes through the JAXP
+     * service loader, so it is done once.
+     */
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+
+    /**
+     * Shared SAX factory, hardened against external entities and DTDs.
+     */
+    private static final SAXParserFactory SAX_PARSER_FACTORY = createSAXParserFactory();
+
+    /**
+     * Maximum number of idle parsers kept by each pool.
+     */
+    private static final int MAX_POOLED_PARSERS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final ParserPool<DocumentBuilder> DOCUMENT_BUILDERS =
+        new ParserPool<>(DOCUMENT_BUILDER_FACTORY::newDocumentBuilder, DocumentBuilder::reset);
+
+    private static final ParserPool<SAXParser> SAX_PARSERS =
+        new ParserPool<>(SAX_PARSER_FACTORY::newSAXParser, SAXParser::reset);
+
+    /**
+     * Handler left on pooled readers so they do not retain the handler of their last use.
+     */
+    private static final DefaultHandler NO_OP_HANDLER = new DefaultHandler();
+
+    private XmlUtils() {
+    }
 
     /**
      * Creates a new namespace-aware DOM document object by parsing the given XML.
@@ -59,6 +104,53 @@ public final class XmlUtils {
      * @return DOM document.
      */
     public static Document newDocument(final String xml) {
+        final DocumentBuilder builder;
+        try {
+            builder = DOCUMENT_BUILDERS.borrow();
+        } catch (final Exception e) {
+            throw new RuntimeException("XML parsing error: " + e);
+        }
+        try {
+            return builder.parse(new InputSource(new StringReader(xml)));
+        } catch (final Exception e) {
+            throw new RuntimeException("XML parsing error: " + e);
+        } finally {
+            DOCUMENT_BUILDERS.release(builder);
+        }
+    }
+
+    /**
+     * Creates a namespace-aware streaming reader over the given XML. DTDs and external entities are not supported.
+     *
+     * @param xml XML content.
+     * @return the stream reader, to be closed by the caller.
+     * @throws XMLStreamException if the reader cannot be created.
+     */
+    public static XMLStreamReader newXMLStreamReader(final String xml) throws XMLStreamException {
+        return XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+    }
+
+    /**
+     * Creates a namespace-aware streaming reader over the given XML bytes. DTDs and external entities are not supported.
+     *
+     * @param xml     XML content.
+     * @param charset the character set of the content, overriding the one of the XML declaration.
+     * @return the stream reader, to be closed by the caller.
+     * @throws XMLStreamException if the reader cannot be created.
+     */
+    public static XMLStreamReader newXMLStreamReader(final InputStream xml, final Charset charset) throws XMLStreamException {
+        return XML_INPUT_FACTORY.createXMLStreamReader(xml, charset.name());
+    }
+
+    private static XMLInputFactory createXMLInputFactory() {
+        final var factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
         final var factory = DocumentBuilderFactory.newInstance();
         final Map<String, Boolean> features = new HashMap<>();
         features.put(XMLConstants.FEATURE_SECURE_PROCESSING, true);
@@ -73,33 +165,54 @@ public final class XmlUtils {
         }
         factory.setExpandEntityReferences(false);
         factory.setNamespaceAware(true);
+        return factory;
+    }
+
+    private static SAXParserFactory createSAXParserFactory() {
         try {
-            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+            final var factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            return factory;
         } catch (final Exception e) {
-            throw new RuntimeException("XML parsing error: " + e);
+            throw new IllegalStateException("Unable to configure SAXParserFactory", e);
         }
     }
 
     /**
      * Get an instance of an XML reader from the XMLReaderFactory.
      *
-     * @return the XMLReader.
+     * @return the XMLReader, owned by the caller.
      */
     public static XMLReader getXmlReader() {
         try {
-            final var factory = SAXParserFactory.newInstance();
-            factory.setNamespaceAware(true);
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            return factory.newSAXParser().getXMLReader();
+            return SAX_PARSER_FACTORY.newSAXParser().getXMLReader();
         } catch (final Exception e) {
             throw new RuntimeException("Unable to create XMLReader", e);
         }
     }
 
+    /**
+     * Parses the given XML with a pooled SAX parser.
+     */
+    private static void parse(final String xml, final DefaultHandler handler) throws Exception {
+        final var parser = SAX_PARSERS.borrow();
+        try {
+            final var reader = parser.getXMLReader();
+            reader.setContentHandler(handler);
+            reader.setErrorHandler(handler);
+            reader.parse(new InputSource(new StringReader(xml)));
+        } finally {
+            final var reader = parser.getXMLReader();
+            reader.setContentHandler(NO_OP_HANDLER);
+            reader.setErrorHandler(NO_OP_HANDLER);
+            SAX_PARSERS.release(parser);
+        }
+    }
 
     /**
      * Retrieve the text for a group of elements. Each text element is an entry
@@ -112,7 +225,6 @@ public final class XmlUtils {
      */
     public static List<String> getTextForElements(final String xmlAsString, final String element) {
         final List<String> elements = new ArrayList<>(2);
-        final var reader = getXmlReader();
 
         final var handler = new DefaultHandler() {
 
@@ -145,11 +257,8 @@ public final class XmlUtils {
             }
         };
 
-        reader.setContentHandler(handler);
-        reader.setErrorHandler(handler);
-
         try {
-            reader.parse(new InputSource(new StringReader(xmlAsString)));
+            parse(xmlAsString, handler);
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
             return null;
@@ -167,7 +276,6 @@ public final class XmlUtils {
      * @return the text value of the element.
      */
     public static String getTextForElement(final String xmlAsString, final String element) {
-        final var reader = getXmlReader();
         final var builder = new StringBuilder();
 
         final var handler = new DefaultHandler() {
@@ -197,11 +305,8 @@ public final class XmlUtils {
             }
         };
 
-        reader.setContentHandler(handler);
-        reader.setErrorHandler(handler);
-
         try {
-            reader.parse(new InputSource(new StringReader(xmlAsString)));
+            parse(xmlAsString, handler);
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
             return null;
@@ -209,4 +314,52 @@ public final class XmlUtils {
 
         return builder.toString();
     }
+
+    /**
+     * Bounded pool of parsers. JAXP parsers are not thread-safe but can be reset and reused, which saves building
+     * the parser configuration on every call. Parsers are not bound to threads, so the pool suits virtual threads.
+     */
+    private static final class ParserPool<T> {
+
+        private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        private final ParserFactory<T> factory;
+
+        private final Consumer<T> reset;
+
+        ParserPool(final ParserFactory<T> factory, final Consumer<T> reset) {
+            this.factory = factory;
+            this.reset = reset;
+        }
+
+        T borrow() throws Exception {
+            final var parser = this.idle.poll();
+            if (parser != null) {
+                this.idleCount.decrementAndGet();
+                return parser;
+            }
+            return this.factory.create();
+        }
+
+        void release(final T parser) {
+            try {
+                this.reset.accept(parser);
+            } catch (final RuntimeException e) {
+                LOGGER.debug("Discarding XML parser that could not be reset", e);
+                return;
+            }
+            if (this.idleCount.incrementAndGet() <= MAX_POOLED_PARSERS) {
+                this.idle.offer(parser);
+            } else {
+                this.idleCount.decrementAndGet();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParserFactory<T> {
+        T create() throws Exception;
+    }
 }
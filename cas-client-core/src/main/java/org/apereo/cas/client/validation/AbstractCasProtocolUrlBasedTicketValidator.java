@@ -18,9 +18,10 @@
  */
 package org.apereo.cas.client.validation;
 
-import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.ssl.HttpResponseBody;
 
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Abstract class that knows the protocol for validating a CAS ticket.
@@ -40,6 +41,22 @@ public abstract class AbstractCasProtocolUrlBasedTicketValidator extends Abstrac
      */
     @Override
     protected final String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
-        return CommonUtils.getResponseFromServer(validationUrl, getURLConnectionFactory(), getEncoding());
+        return getHttpTransport().get(validationUrl, getEncoding());
+    }
+
+    @Override
+    protected final CompletableFuture<String> retrieveResponseFromServerAsync(final URL validationUrl, final String ticket) {
+        return getHttpTransport().getAsync(validationUrl, getEncoding());
+    }
+
+    @Override
+    protected final HttpResponseBody retrieveResponseBodyFromServer(final URL validationUrl, final String ticket) {
+        return getHttpTransport().getBody(validationUrl, getEncoding());
+    }
+
+    @Override
+    protected final CompletableFuture<HttpResponseBody> retrieveResponseBodyFromServerAsync(final URL validationUrl,
+                                                                                            final String ticket) {
+        return getHttpTransport().getBodyAsync(validationUrl, getEncoding());
     }
 }
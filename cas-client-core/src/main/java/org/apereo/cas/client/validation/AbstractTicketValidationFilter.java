@@ -20,10 +20,17 @@ package org.apereo.cas.client.validation;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.proxy.ProxyRetriever;
+import org.apereo.cas.client.ssl.HttpClientTransport;
+import org.apereo.cas.client.ssl.HttpTransport;
+import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
+import org.apereo.cas.client.ssl.HttpURLConnectionTransport;
 import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.ReflectUtils;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
@@ -36,6 +43,7 @@ import javax.net.ssl.HostnameVerifier;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.CompletionException;
 
 /**
  * The filter that handles all the work of validating ticket requests.
@@ -49,6 +57,24 @@ import java.util.Properties;
  * <li><code>useSession</code> - store any of the useful information in a session attribute. (default: true)</li>
  * <li><code>hostnameVerifier</code> - name of class implementing a {@link HostnameVerifier}.</li>
  * <li><code>hostnameVerifierConfig</code> - name of configuration class (constructor argument of verifier).</li>
+ * <li><code>asyncValidation</code> - validate tickets in an asynchronous request, handing the container thread back
+ * while waiting for the CAS server. The filter must be mapped with <code>async-supported</code> and for the
+ * <code>ASYNC</code> dispatcher, as must the filters following it. (default: false)</li>
+ * <li><code>compactAssertion</code> - store a {@link CompactAssertion}, which serializes to a fraction of the size,
+ * for sessions replicated across nodes. (default: false)</li>
+ * <li><code>coalesceValidation</code> - share one validation between concurrent requests presenting the same
+ * ticket for the same service, see {@link CoalescingTicketValidator}. (default: false)</li>
+ * <li><code>coalesceValidationTtl</code> - milliseconds during which a validation outcome is shared. (default: 5000)</li>
+ * <li><code>coalesceValidationMaxSize</code> - maximum number of validation outcomes remembered. (default: 10000)</li>
+ * <li><code>maxConcurrentValidations</code> - maximum number of validations in progress, further ones are rejected,
+ * see {@link CircuitBreakerTicketValidator}. (default: 0, unbounded)</li>
+ * <li><code>circuitBreaker</code> - reject validations for a while once the CAS server fails or slows down, see
+ * {@link CircuitBreakerTicketValidator} for the <code>circuitBreakerWindowSize</code>,
+ * <code>circuitBreakerFailureRateThreshold</code>, <code>circuitBreakerSlowCallThreshold</code>,
+ * <code>circuitBreakerSlowCallRateThreshold</code> and <code>circuitBreakerOpenDuration</code> settings.
+ * (default: false)</li>
+ * <li><code>metricsRecorderClass</code> - name of class implementing a {@link org.apereo.cas.client.metrics.MetricsRecorder}
+ * receiving the measurements of the filter, unless one is set with {@link #setMetricsRecorder}.</li>
  * </ul>
  *
  * @author Scott Battaglia
@@ -76,6 +102,15 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
      */
     private boolean useSession = true;
 
+    /** Whether tickets are validated in an asynchronous request when the container supports it. */
+    private boolean asyncValidation = false;
+
+    /** Whether the assertion is stored as a {@link CompactAssertion}. */
+    private boolean compactAssertion = false;
+
+    /** Retriever attached to compact assertions read back from the session, which do not serialize it. */
+    private ProxyRetriever proxyRetriever;
+
     protected AbstractTicketValidationFilter(final Protocol protocol) {
         super(protocol);
     }
@@ -91,13 +126,45 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         setExceptionOnValidationFailure(getBoolean(ConfigurationKeys.EXCEPTION_ON_VALIDATION_FAILURE));
         setRedirectAfterValidation(getBoolean(ConfigurationKeys.REDIRECT_AFTER_VALIDATION));
         setUseSession(getBoolean(ConfigurationKeys.USE_SESSION));
+        setAsyncValidation(getBoolean(ConfigurationKeys.ASYNC_VALIDATION));
+        setCompactAssertion(getBoolean(ConfigurationKeys.COMPACT_ASSERTION));
 
         if (!this.useSession && this.redirectAfterValidation) {
             logger.warn("redirectAfterValidation parameter may not be true when useSession parameter is false. Resetting it to false in order to prevent infinite redirects.");
             setRedirectAfterValidation(false);
         }
 
-        setTicketValidator(getTicketValidator(filterConfig));
+        var validator = getTicketValidator(filterConfig);
+        if (validator instanceof final AbstractUrlBasedTicketValidator urlBasedValidator) {
+            urlBasedValidator.setCasServerEndpointRegistry(CasServerEndpoints.Registry.of(filterConfig.getServletContext()));
+            urlBasedValidator.setMetricsRecorder(getMetricsRecorder());
+        }
+        if (this.compactAssertion && this.proxyRetriever == null
+            && validator instanceof final Cas20ServiceTicketValidator cas20Validator) {
+            setProxyRetriever(cas20Validator.getProxyRetriever());
+        }
+        final var maxConcurrentValidations = getInt(ConfigurationKeys.MAX_CONCURRENT_VALIDATIONS);
+        if (validator != null && (getBoolean(ConfigurationKeys.CIRCUIT_BREAKER) || maxConcurrentValidations > 0)) {
+            final var circuitBreaker = new CircuitBreakerTicketValidator(validator);
+            circuitBreaker.setEnabled(getBoolean(ConfigurationKeys.CIRCUIT_BREAKER));
+            circuitBreaker.setMaxConcurrentValidations(maxConcurrentValidations);
+            circuitBreaker.setWindowSize(getInt(ConfigurationKeys.CIRCUIT_BREAKER_WINDOW_SIZE));
+            circuitBreaker.setFailureRateThreshold(getInt(ConfigurationKeys.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD));
+            circuitBreaker.setSlowCallThreshold(getLong(ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD));
+            circuitBreaker.setSlowCallRateThreshold(getInt(ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD));
+            circuitBreaker.setOpenDuration(getLong(ConfigurationKeys.CIRCUIT_BREAKER_OPEN_DURATION));
+            circuitBreaker.setMetricsRecorder(getMetricsRecorder());
+            getMetricsRecorder().registerCircuitBreaker(filterConfig.getFilterName(), circuitBreaker);
+            validator = circuitBreaker;
+        }
+        if (validator != null && getBoolean(ConfigurationKeys.COALESCE_VALIDATION)) {
+            final var coalescingValidator = new CoalescingTicketValidator(validator);
+            coalescingValidator.setTimeToLive(getLong(ConfigurationKeys.COALESCE_VALIDATION_TTL));
+            coalescingValidator.setMaxSize(getInt(ConfigurationKeys.COALESCE_VALIDATION_MAX_SIZE));
+            setTicketValidator(coalescingValidator);
+        } else {
+            setTicketValidator(validator);
+        }
         super.initInternal(filterConfig);
     }
 
@@ -111,27 +178,29 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
 
         final var request = (HttpServletRequest) servletRequest;
         final var response = (HttpServletResponse) servletResponse;
+
+        if (request.getDispatcherType() == DispatcherType.ASYNC && request.getAttribute(CONST_CAS_ASSERTION) != null) {
+            logger.debug("Resuming request after asynchronous ticket validation.");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        attachProxyRetriever(request);
         final var ticket = retrieveTicketFromRequest(request);
 
         if (CommonUtils.isNotBlank(ticket)) {
             logger.debug("Attempting to validate ticket: {}", ticket);
 
+            if (this.asyncValidation && request.isAsyncSupported()) {
+                validateAsync(request, response, ticket);
+                return;
+            }
+
             try {
                 final var assertion = this.ticketValidator.validate(ticket,
                     constructServiceUrl(request, response));
 
-                logger.debug("Successfully authenticated user: {}", assertion.getPrincipal().getName());
-
-                request.setAttribute(CONST_CAS_ASSERTION, assertion);
-
-                if (this.useSession) {
-                    request.getSession().setAttribute(CONST_CAS_ASSERTION, assertion);
-                }
-                onSuccessfulValidation(request, response, assertion);
-
-                if (this.redirectAfterValidation) {
-                    logger.debug("Redirecting after successful ticket validation.");
-                    response.sendRedirect(constructServiceUrl(request, response));
+                if (!handleSuccessfulValidation(request, response, assertion)) {
                     return;
                 }
             } catch (final TicketValidationException e) {
@@ -153,6 +222,88 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
 
     }
 
+    private void attachProxyRetriever(final HttpServletRequest request) {
+        final var session = request.getSession(false);
+        if (session != null) {
+            attachProxyRetriever((Assertion) session.getAttribute(CONST_CAS_ASSERTION));
+        }
+    }
+
+    /**
+     * Attaches the retriever of this filter to a compact assertion deserialized from the session, e.g. after it was
+     * replicated from another node, so that it requests proxy tickets from the CAS server of this filter.
+     *
+     * @param assertion the assertion read from the session, or null.
+     */
+    public void attachProxyRetriever(final Assertion assertion) {
+        if (this.proxyRetriever != null && assertion instanceof final CompactAssertion compactAssertion) {
+            compactAssertion.attachProxyRetriever(this.proxyRetriever);
+        }
+    }
+
+    /**
+     * Validates the ticket in an asynchronous request. Once the CAS server has answered, the request is either
+     * redirected, dispatched back through the filter chain, or answered with an error.
+     */
+    private void validateAsync(final HttpServletRequest request, final HttpServletResponse response,
+                               final String ticket) {
+        final var asyncContext = request.startAsync(request, response);
+        // the validation is bounded by the HTTP timeouts of the ticket validator
+        asyncContext.setTimeout(0);
+
+        this.ticketValidator.validateAsync(ticket, constructServiceUrl(request, response))
+            .whenComplete((assertion, failure) -> {
+                try {
+                    if (failure == null) {
+                        if (handleSuccessfulValidation(request, response, assertion)) {
+                            asyncContext.dispatch();
+                            return;
+                        }
+                    } else {
+                        final var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                        if (cause instanceof TicketValidationException) {
+                            logger.debug(cause.getMessage(), cause);
+                            onFailedValidation(request, response);
+                            response.sendError(this.exceptionOnValidationFailure
+                                ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+                                : HttpServletResponse.SC_FORBIDDEN, cause.getMessage());
+                        } else {
+                            logger.error("Unable to validate ticket {}", ticket, cause);
+                            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        }
+                    }
+                } catch (final IOException | RuntimeException e) {
+                    logger.error("Unable to complete the response after ticket validation", e);
+                }
+                asyncContext.complete();
+            });
+    }
+
+    /**
+     * Stores the assertion and notifies subclasses of the successful validation.
+     *
+     * @return true if the request should continue through the filter chain, false if it has been redirected.
+     */
+    private boolean handleSuccessfulValidation(final HttpServletRequest request, final HttpServletResponse response,
+                                               final Assertion assertion) throws IOException {
+        logger.debug("Successfully authenticated user: {}", assertion.getPrincipal().getName());
+
+        final var storedAssertion = this.compactAssertion ? CompactAssertion.of(assertion) : assertion;
+        request.setAttribute(CONST_CAS_ASSERTION, storedAssertion);
+
+        if (this.useSession) {
+            request.getSession().setAttribute(CONST_CAS_ASSERTION, storedAssertion);
+        }
+        onSuccessfulValidation(request, response, assertion);
+
+        if (this.redirectAfterValidation) {
+            logger.debug("Redirecting after successful ticket validation.");
+            response.sendRedirect(constructServiceUrl(request, response));
+            return false;
+        }
+        return true;
+    }
+
     public final void setTicketValidator(final TicketValidator ticketValidator) {
         this.ticketValidator = ticketValidator;
     }
@@ -169,6 +320,22 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         this.useSession = useSession;
     }
 
+    public final void setAsyncValidation(final boolean asyncValidation) {
+        this.asyncValidation = asyncValidation;
+    }
+
+    public final void setCompactAssertion(final boolean compactAssertion) {
+        this.compactAssertion = compactAssertion;
+    }
+
+    /**
+     * @param proxyRetriever the retriever requesting proxy tickets for compact assertions read back from the session.
+     *                       Defaults to the one of the ticket validator when <code>compactAssertion</code> is enabled.
+     */
+    public final void setProxyRetriever(final ProxyRetriever proxyRetriever) {
+        this.proxyRetriever = proxyRetriever;
+    }
+
     /**
      * Template method to return the appropriate validator.
      *
@@ -221,6 +388,35 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         return null;
     }
 
+    /**
+     * Creates the {@link HttpTransport} to use for back-channel calls to the CAS server, configured
+     * with the connection pool and timeout settings of this filter.
+     * @param factory the connection factory holding the SSL settings.
+     * @return the transport.
+     */
+    protected HttpTransport getHttpTransport(final HttpURLConnectionFactory factory) {
+        final var transport = CommonUtils.newHttpTransport(factory);
+        if (transport instanceof HttpClientTransport) {
+            final var clientTransport = (HttpClientTransport) transport;
+            clientTransport.setMaxConnections(getInt(ConfigurationKeys.HTTP_MAX_CONNECTIONS));
+            clientTransport.setIdleTimeout(getLong(ConfigurationKeys.HTTP_IDLE_TIMEOUT));
+            clientTransport.setConnectTimeout(getLong(ConfigurationKeys.HTTP_CONNECT_TIMEOUT));
+            clientTransport.setReadTimeout(getLong(ConfigurationKeys.HTTP_READ_TIMEOUT));
+            clientTransport.setConnectionWaitTimeout(getLong(ConfigurationKeys.HTTP_CONNECTION_WAIT_TIMEOUT));
+            clientTransport.setMaxResponseSize(getLong(ConfigurationKeys.HTTP_MAX_RESPONSE_SIZE));
+            clientTransport.setVirtualThreads(getBoolean(ConfigurationKeys.VIRTUAL_THREADS));
+            clientTransport.setMetricsRecorder(getMetricsRecorder());
+        } else if (transport instanceof HttpURLConnectionTransport) {
+            final var connectionTransport = (HttpURLConnectionTransport) transport;
+            connectionTransport.setConnectTimeout(getLong(ConfigurationKeys.HTTP_CONNECT_TIMEOUT));
+            connectionTransport.setReadTimeout(getLong(ConfigurationKeys.HTTP_READ_TIMEOUT));
+            connectionTransport.setMaxResponseSize(getLong(ConfigurationKeys.HTTP_MAX_RESPONSE_SIZE));
+            connectionTransport.setVirtualThreads(getBoolean(ConfigurationKeys.VIRTUAL_THREADS));
+            connectionTransport.setMetricsRecorder(getMetricsRecorder());
+        }
+        return transport;
+    }
+
     /**
      * Pre-process the request before the normal filter process starts.  This could be useful for pre-empting code.
      *
@@ -18,19 +18,28 @@
  */
 package org.apereo.cas.client.validation;
 
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.ssl.HttpResponseBody;
+import org.apereo.cas.client.ssl.HttpTransport;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.util.CommonUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Abstract validator implementation for tickets that must be validated against a server.
@@ -49,12 +58,24 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
      */
     private final String casServerUrlPrefix;
 
+    /**
+     * All the prefixes given to the constructor, which validation requests are balanced across.
+     */
+    private CasServerEndpoints casServerEndpoints;
+
     /**
      * URLConnection factory instance to use when making validation requests to the CAS server.
      * Defaults to {@link HttpsURLConnectionFactory}
      */
     private HttpURLConnectionFactory urlConnectionFactory = new HttpsURLConnectionFactory();
 
+    /**
+     * Transport used to contact the CAS server. Derived from the {@link #urlConnectionFactory} unless set explicitly.
+     */
+    private HttpTransport httpTransport = CommonUtils.newHttpTransport(this.urlConnectionFactory);
+
+    private MetricsRecorder metricsRecorder = MetricsRecorder.NOOP;
+
     /**
      * Whether the request include a renew or not.
      */
@@ -70,34 +91,99 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
     /**
      * Constructs a new TicketValidator with the casServerUrlPrefix.
      *
-     * @param casServerUrlPrefix the location of the CAS server.
+     * @param casServerUrlPrefix the location of the CAS server. Several prefixes of the same CAS deployment may be
+     *                           given, separated by whitespace: validation requests then go to the fastest healthy
+     *                           one and fail over to the others on connection errors, see {@link CasServerEndpoints}.
      */
     protected AbstractUrlBasedTicketValidator(final String casServerUrlPrefix) {
         CommonUtils.assertNotNull(casServerUrlPrefix, "casServerUrlPrefix cannot be null.");
-        this.casServerUrlPrefix = CommonUtils.addTrailingSlash(casServerUrlPrefix);
+        this.casServerEndpoints = CasServerEndpoints.of(casServerUrlPrefix);
+        this.casServerUrlPrefix = this.casServerEndpoints.getUrls().get(0);
     }
 
     @Override
     public final Assertion validate(final String ticket, final String service) throws TicketValidationException {
-        final var validationUrl = constructValidationUrl(ticket, service);
-        logger.debug("Constructing validation url: {}", validationUrl);
+        final var start = System.nanoTime();
+        try {
+            final var assertion = retrieveAndParseResponse(ticket, service);
+            recordValidation(start, null);
+            return assertion;
+        } catch (final TicketValidationException | RuntimeException e) {
+            recordValidation(start, e);
+            throw e;
+        }
+    }
 
+    private Assertion retrieveAndParseResponse(final String ticket, final String service) throws TicketValidationException {
         try {
             logger.debug("Retrieving response from server.");
-            final var serverResponse = retrieveResponseFromServer(new URL(validationUrl), ticket);
+            final var serverResponse = this.casServerEndpoints.call(
+                prefix -> retrieveResponseBodyFromServer(toValidationUrl(prefix, ticket, service), ticket));
 
             if (serverResponse == null) {
                 throw new TicketValidationException("The CAS server returned no response.");
             }
 
-            logger.debug("Server response: {}", serverResponse);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Server response: {}", serverResponse.asString());
+            }
+
+            return parseResponse(serverResponse);
+        } catch (final UncheckedIOException e) {
+            if (e.getCause() instanceof MalformedURLException) {
+                throw new TicketValidationException(e.getCause());
+            }
+            throw e;
+        }
+    }
 
+    @Override
+    public final CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        final var start = System.nanoTime();
+
+        logger.debug("Retrieving response from server asynchronously.");
+        final var result = new CompletableFuture<Assertion>();
+        this.casServerEndpoints.callAsync(
+            prefix -> retrieveResponseBodyFromServerAsync(toValidationUrl(prefix, ticket, service), ticket)
+        ).whenComplete((serverResponse, failure) -> {
+            try {
+                if (failure != null) {
+                    final var cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    result.completeExceptionally(cause instanceof UncheckedIOException
+                                                 && cause.getCause() instanceof MalformedURLException
+                        ? new TicketValidationException(cause.getCause()) : cause);
+                    return;
+                }
+                if (serverResponse == null) {
+                    throw new TicketValidationException("The CAS server returned no response.");
+                }
+
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Server response: {}", serverResponse.asString());
+                }
+
+                result.complete(parseResponse(serverResponse));
+            } catch (final TicketValidationException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((assertion, failure) -> recordValidation(start, failure));
+        return result;
+    }
+
+    private Assertion parseResponse(final HttpResponseBody serverResponse) throws TicketValidationException {
+        final var start = System.nanoTime();
+        try {
             return parseResponseFromServer(serverResponse);
-        } catch (final MalformedURLException e) {
-            throw new TicketValidationException(e);
+        } finally {
+            this.metricsRecorder.recordResponseParsing(getClass().getSimpleName(), System.nanoTime() - start);
         }
     }
 
+    private void recordValidation(final long start, final Throwable failure) {
+        this.metricsRecorder.recordValidation(getClass().getSimpleName(), System.nanoTime() - start, failure);
+    }
+
     /**
      * Template method for ticket validators that need to provide additional parameters to the validation url.
      *
@@ -113,14 +199,28 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
      */
     protected abstract String getUrlSuffix();
 
+    private URL toValidationUrl(final String casServerUrlPrefix, final String ticket, final String service) {
+        final var validationUrl = constructValidationUrl(casServerUrlPrefix, ticket, service);
+        logger.debug("Constructing validation url: {}", validationUrl);
+        try {
+            return new URL(validationUrl);
+        } catch (final MalformedURLException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
-     * Constructs the URL to send the validation request to.
+     * Constructs the URL to send the validation request to, against the first CAS server URL prefix.
      *
      * @param ticket the ticket to be validated.
      * @param serviceUrl the service identifier.
      * @return the fully constructed URL.
      */
     protected final String constructValidationUrl(final String ticket, final String serviceUrl) {
+        return constructValidationUrl(this.casServerUrlPrefix, ticket, serviceUrl);
+    }
+
+    private String constructValidationUrl(final String casServerUrlPrefix, final String ticket, final String serviceUrl) {
         final Map<String, String> urlParameters = new HashMap<>();
 
         logger.debug("Placing URL parameters in map.");
@@ -140,12 +240,12 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
         }
 
         final var suffix = getUrlSuffix();
-        final var buffer = new StringBuilder(urlParameters.size() * 10 + this.casServerUrlPrefix.length()
+        final var buffer = new StringBuilder(urlParameters.size() * 10 + casServerUrlPrefix.length()
                                              + suffix.length() + 1);
 
         var i = 0;
 
-        buffer.append(this.casServerUrlPrefix);
+        buffer.append(casServerUrlPrefix);
         buffer.append(suffix);
 
         for (final var entry : urlParameters.entrySet()) {
@@ -193,6 +293,18 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
      */
     protected abstract Assertion parseResponseFromServer(final String response) throws TicketValidationException;
 
+    /**
+     * Parses the response from the server into a CAS Assertion, without decoding it into a {@link String} first.
+     * The default implementation decodes the response and calls {@link #parseResponseFromServer(String)}.
+     *
+     * @param response the response from the server, in any format.
+     * @return the CAS assertion if one could be parsed from the response.
+     * @throws TicketValidationException if an Assertion could not be created.
+     */
+    protected Assertion parseResponseFromServer(final HttpResponseBody response) throws TicketValidationException {
+        return parseResponseFromServer(response.asString());
+    }
+
     /**
      * Contacts the CAS Server to retrieve the response for the ticket validation.
      *
@@ -203,6 +315,54 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
 
     protected abstract String retrieveResponseFromServer(URL validationUrl, String ticket);
 
+    /**
+     * Contacts the CAS Server to retrieve the response for the ticket validation without blocking
+     * the calling thread. The default implementation calls {@link #retrieveResponseFromServer(URL, String)}
+     * on the calling thread.
+     *
+     * @param validationUrl the url to send the validation request to.
+     * @param ticket the ticket to validate.
+     * @return the future response from the CAS server.
+     */
+    protected CompletableFuture<String> retrieveResponseFromServerAsync(final URL validationUrl, final String ticket) {
+        try {
+            return CompletableFuture.completedFuture(retrieveResponseFromServer(validationUrl, ticket));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Contacts the CAS Server to retrieve the undecoded response for the ticket validation. The default
+     * implementation encodes the result of {@link #retrieveResponseFromServer(URL, String)}.
+     *
+     * @param validationUrl the url to send the validation request to.
+     * @param ticket the ticket to validate.
+     * @return the response from the CAS server.
+     */
+    protected HttpResponseBody retrieveResponseBodyFromServer(final URL validationUrl, final String ticket) {
+        return toBody(retrieveResponseFromServer(validationUrl, ticket));
+    }
+
+    /**
+     * Asynchronous variant of {@link #retrieveResponseBodyFromServer(URL, String)}. The default implementation
+     * encodes the result of {@link #retrieveResponseFromServerAsync(URL, String)}.
+     *
+     * @param validationUrl the url to send the validation request to.
+     * @param ticket the ticket to validate.
+     * @return the future response from the CAS server.
+     */
+    protected CompletableFuture<HttpResponseBody> retrieveResponseBodyFromServerAsync(final URL validationUrl,
+                                                                                      final String ticket) {
+        return retrieveResponseFromServerAsync(validationUrl, ticket).thenApply(this::toBody);
+    }
+
+    private HttpResponseBody toBody(final String response) {
+        return response != null
+            ? HttpResponseBody.of(response, CommonUtils.isEmpty(this.encoding) ? StandardCharsets.UTF_8 : Charset.forName(this.encoding))
+            : null;
+    }
+
     protected final String getEncoding() {
         return this.encoding;
     }
@@ -237,5 +397,39 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
 
     public void setURLConnectionFactory(final HttpURLConnectionFactory urlConnectionFactory) {
         this.urlConnectionFactory = urlConnectionFactory;
+        this.httpTransport = CommonUtils.newHttpTransport(urlConnectionFactory);
+    }
+
+    protected HttpTransport getHttpTransport() {
+        return this.httpTransport;
+    }
+
+    /**
+     * Overrides the transport derived from the URL connection factory, i.e. to share one connection pool
+     * between several validators.
+     *
+     * @param httpTransport the transport to use when contacting the CAS server.
+     */
+    public void setHttpTransport(final HttpTransport httpTransport) {
+        CommonUtils.assertNotNull(httpTransport, "httpTransport cannot be null.");
+        this.httpTransport = httpTransport;
+    }
+
+    /**
+     * @param metricsRecorder the recorder of validations and of the time spent parsing responses.
+     */
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.NOOP;
+    }
+
+    /**
+     * Shares the measurements of the CAS server prefixes with the other users of the registry, i.e. the login
+     * redirects of the application.
+     *
+     * @param registry the registry of the application.
+     */
+    public void setCasServerEndpointRegistry(final CasServerEndpoints.Registry registry) {
+        CommonUtils.assertNotNull(registry, "registry cannot be null.");
+        this.casServerEndpoints = registry.endpoints(this.casServerEndpoints.toString());
     }
 }
@@ -49,6 +49,7 @@ public class Cas10TicketValidationFilter extends AbstractTicketValidationFilter
         final HttpURLConnectionFactory factory = new HttpsURLConnectionFactory(getHostnameVerifier(),
             getSSLConfig());
         validator.setURLConnectionFactory(factory);
+        validator.setHttpTransport(getHttpTransport(factory));
         validator.setEncoding(getString(ConfigurationKeys.ENCODING));
 
         return validator;
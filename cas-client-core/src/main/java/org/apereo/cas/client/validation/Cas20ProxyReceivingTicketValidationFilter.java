@@ -28,6 +28,7 @@ import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
 import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.MaintenanceScheduler;
 import org.apereo.cas.client.util.WebUtils;
 import org.apereo.cas.client.util.PrivateKeyUtils;
 import org.apereo.cas.client.util.ReflectUtils;
@@ -71,13 +72,26 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
             ConfigurationKeys.CAS_SERVER_LOGIN_URL.getName(), ConfigurationKeys.GATEWAY.getName(), ConfigurationKeys.AUTHENTICATION_REDIRECT_STRATEGY_CLASS.getName(),
             ConfigurationKeys.GATEWAY_STORAGE_CLASS.getName(), ConfigurationKeys.CAS_SERVER_URL_PREFIX.getName(), ConfigurationKeys.ENCODING.getName(),
             ConfigurationKeys.TOLERANCE.getName(), ConfigurationKeys.IGNORE_PATTERN.getName(), ConfigurationKeys.IGNORE_URL_PATTERN_TYPE.getName(),
+            ConfigurationKeys.IGNORE_URL_INCLUDE_QUERY.getName(),
+            ConfigurationKeys.TICKET_VALIDATION_FILTER_CLASS.getName(), ConfigurationKeys.AUTHENTICATION_FILTER_CLASS.getName(),
+            ConfigurationKeys.METRICS_RECORDER_CLASS.getName(),
             ConfigurationKeys.HOSTNAME_VERIFIER.getName(), ConfigurationKeys.HOSTNAME_VERIFIER_CONFIG.getName(),
             ConfigurationKeys.EXCEPTION_ON_VALIDATION_FAILURE.getName(), ConfigurationKeys.REDIRECT_AFTER_VALIDATION.getName(), ConfigurationKeys.USE_SESSION.getName(),
             ConfigurationKeys.SECRET_KEY.getName(), ConfigurationKeys.CIPHER_ALGORITHM.getName(), ConfigurationKeys.PROXY_RECEPTOR_URL.getName(),
             ConfigurationKeys.PROXY_GRANTING_TICKET_STORAGE_CLASS.getName(), ConfigurationKeys.MILLIS_BETWEEN_CLEAN_UPS.getName(), ConfigurationKeys.ACCEPT_ANY_PROXY.getName(),
             ConfigurationKeys.ALLOWED_PROXY_CHAINS.getName(), ConfigurationKeys.TICKET_VALIDATOR_CLASS.getName(),
             ConfigurationKeys.PROXY_CALLBACK_URL.getName(), ConfigurationKeys.RELAY_STATE_PARAMETER_NAME.getName(), ConfigurationKeys.METHOD.getName(),
-            ConfigurationKeys.PRIVATE_KEY_PATH.getName(), ConfigurationKeys.PRIVATE_KEY_ALGORITHM.getName()
+            ConfigurationKeys.PRIVATE_KEY_PATH.getName(), ConfigurationKeys.PRIVATE_KEY_ALGORITHM.getName(),
+            ConfigurationKeys.HTTP_MAX_CONNECTIONS.getName(), ConfigurationKeys.HTTP_IDLE_TIMEOUT.getName(),
+            ConfigurationKeys.HTTP_CONNECT_TIMEOUT.getName(), ConfigurationKeys.HTTP_READ_TIMEOUT.getName(),
+            ConfigurationKeys.HTTP_CONNECTION_WAIT_TIMEOUT.getName(),
+            ConfigurationKeys.HTTP_MAX_RESPONSE_SIZE.getName(), ConfigurationKeys.VIRTUAL_THREADS.getName(),
+            ConfigurationKeys.ASYNC_VALIDATION.getName(), ConfigurationKeys.COMPACT_ASSERTION.getName(), ConfigurationKeys.COALESCE_VALIDATION.getName(),
+            ConfigurationKeys.COALESCE_VALIDATION_TTL.getName(), ConfigurationKeys.COALESCE_VALIDATION_MAX_SIZE.getName(),
+            ConfigurationKeys.MAX_CONCURRENT_VALIDATIONS.getName(), ConfigurationKeys.CIRCUIT_BREAKER.getName(),
+            ConfigurationKeys.CIRCUIT_BREAKER_WINDOW_SIZE.getName(), ConfigurationKeys.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD.getName(),
+            ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD.getName(), ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD.getName(),
+            ConfigurationKeys.CIRCUIT_BREAKER_OPEN_DURATION.getName()
         };
 
     protected Class<? extends Cas20ServiceTicketValidator> defaultServiceTicketValidatorClass;
@@ -93,6 +107,11 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
 
     private TimerTask timerTask;
 
+    /**
+     * Clean-up task registered with the shared {@link MaintenanceScheduler} when no timer is set.
+     */
+    private MaintenanceScheduler.ScheduledTask cleanUpTask;
+
     private int millisBetweenCleanUps;
 
     private PrivateKey privateKey;
@@ -124,14 +143,15 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
         super.init();
         CommonUtils.assertNotNull(this.proxyGrantingTicketStorage, "proxyGrantingTicketStorage cannot be null.");
 
-        if (this.timer == null) {
-            this.timer = new Timer(true);
-        }
-
         if (this.timerTask == null) {
             this.timerTask = new CleanUpTimerTask(this.proxyGrantingTicketStorage);
         }
-        this.timer.schedule(this.timerTask, this.millisBetweenCleanUps, this.millisBetweenCleanUps);
+        if (this.timer != null) {
+            this.timer.schedule(this.timerTask, this.millisBetweenCleanUps, this.millisBetweenCleanUps);
+        } else {
+            this.cleanUpTask = MaintenanceScheduler.schedule("proxy granting ticket clean-up", this.timerTask,
+                this.millisBetweenCleanUps);
+        }
     }
 
     @Override
@@ -160,6 +180,12 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
             }
         }
 
+        if (this.proxyGrantingTicketStorage instanceof final ProxyGrantingTicketStorageImpl storage) {
+            storage.setMetricsRecorder(getMetricsRecorder());
+        } else if (this.proxyGrantingTicketStorage instanceof final AbstractEncryptedProxyGrantingTicketStorageImpl storage) {
+            storage.setMetricsRecorder(getMetricsRecorder());
+        }
+
         this.millisBetweenCleanUps = getInt(ConfigurationKeys.MILLIS_BETWEEN_CLEAN_UPS);
 
         this.privateKey = buildPrivateKey(getString(ConfigurationKeys.PRIVATE_KEY_PATH), getString(ConfigurationKeys.PRIVATE_KEY_ALGORITHM));
@@ -196,8 +222,10 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
         final HttpURLConnectionFactory factory = new HttpsURLConnectionFactory(getHostnameVerifier(),
             getSSLConfig());
         validator.setURLConnectionFactory(factory);
+        final var transport = getHttpTransport(factory);
+        validator.setHttpTransport(transport);
 
-        validator.setProxyRetriever(new Cas20ProxyRetriever(casServerUrlPrefix, getString(ConfigurationKeys.ENCODING), factory));
+        validator.setProxyRetriever(new Cas20ProxyRetriever(casServerUrlPrefix, getString(ConfigurationKeys.ENCODING), transport));
         validator.setRenew(getBoolean(ConfigurationKeys.RENEW));
         validator.setEncoding(getString(ConfigurationKeys.ENCODING));
 
@@ -245,7 +273,12 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
     @Override
     public void destroy() {
         super.destroy();
-        this.timer.cancel();
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
+        if (this.cleanUpTask != null) {
+            this.cleanUpTask.cancel();
+        }
     }
 
     public final void setProxyReceptorUrl(final String proxyReceptorUrl) {
@@ -256,6 +289,11 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
         this.proxyGrantingTicketStorage = storage;
     }
 
+    /**
+     * @param timer dedicated timer to run the clean-up task on.
+     * @deprecated the clean-up task runs on the shared {@link MaintenanceScheduler} unless a timer is set.
+     */
+    @Deprecated
     public void setTimer(final Timer timer) {
         this.timer = timer;
     }
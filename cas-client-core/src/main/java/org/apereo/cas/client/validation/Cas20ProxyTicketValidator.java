@@ -56,11 +56,27 @@ public class Cas20ProxyTicketValidator extends Cas20ServiceTicketValidator {
         return "proxyValidate";
     }
 
+    /**
+     * Checks the proxy chain of the response against the allowed proxy chains.
+     */
+    @Override
+    protected void customParseResponse(final ServiceValidationResponse response, final Assertion assertion)
+        throws TicketValidationException {
+        validateProxyChain(response.getProxies());
+    }
+
+    /**
+     * @deprecated no longer called while validating; override
+     * {@link #customParseResponse(ServiceValidationResponse, Assertion)}, which does not parse the response again.
+     */
+    @Deprecated
     @Override
     protected void customParseResponse(final String response, final Assertion assertion)
         throws TicketValidationException {
-        final var proxies = parseProxiesFromResponse(response);
+        validateProxyChain(parseProxiesFromResponse(response));
+    }
 
+    private void validateProxyChain(final List<String> proxies) throws TicketValidationException {
         if (proxies == null) {
             throw new InvalidProxyChainTicketValidationException(
                 "Invalid proxy chain: No proxy could be retrieved from response. "
@@ -92,6 +108,11 @@ public class Cas20ProxyTicketValidator extends Cas20ServiceTicketValidator {
         throw new InvalidProxyChainTicketValidationException("Invalid proxy chain: " + proxies.toString());
     }
 
+    /**
+     * @deprecated no longer called while validating; proxies are read along with the rest of the response, see
+     * {@link ServiceValidationResponse#getProxies()}.
+     */
+    @Deprecated
     protected List<String> parseProxiesFromResponse(final String response) {
         return XmlUtils.getTextForElements(response, "proxy");
     }
@@ -110,7 +131,7 @@ public class Cas20ProxyTicketValidator extends Cas20ServiceTicketValidator {
 
     /**
      * Set to determine whether empty proxy chains are allowed.
-     * @see #customParseResponse(String, Assertion)
+     * @see #customParseResponse(ServiceValidationResponse, Assertion)
      * @param allowEmptyProxyChain whether to allow empty proxy chains or not.  True if so, false otherwise.
      */
     public final void setAllowEmptyProxyChain(final boolean allowEmptyProxyChain) {
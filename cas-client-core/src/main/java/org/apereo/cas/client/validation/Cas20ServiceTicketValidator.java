@@ -23,23 +23,16 @@ import org.apereo.cas.client.authentication.AttributePrincipalImpl;
 import org.apereo.cas.client.proxy.Cas20ProxyRetriever;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.proxy.ProxyRetriever;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.XmlUtils;
 
 import org.apache.commons.codec.binary.Base64;
-import org.xml.sax.Attributes;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
 import javax.crypto.Cipher;
-import javax.xml.parsers.SAXParserFactory;
-import java.io.StringReader;
+import javax.xml.stream.XMLStreamException;
 import java.security.PrivateKey;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -74,7 +67,7 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
      */
     public Cas20ServiceTicketValidator(final String casServerUrlPrefix) {
         super(casServerUrlPrefix);
-        this.proxyRetriever = new Cas20ProxyRetriever(casServerUrlPrefix, getEncoding(), getURLConnectionFactory());
+        this.proxyRetriever = new Cas20ProxyRetriever(casServerUrlPrefix, getEncoding(), getHttpTransport());
     }
 
     public PrivateKey getPrivateKey() {
@@ -102,21 +95,27 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
 
     @Override
     protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
-        final var error = parseAuthenticationFailureFromResponse(response);
+        try {
+            return toAssertion(ServiceValidationResponse.parse(response));
+        } catch (final XMLStreamException e) {
+            throw new TicketValidationException("Unable to parse the response from the CAS server.", e);
+        }
+    }
 
-        if (CommonUtils.isNotBlank(error)) {
-            throw new TicketValidationException(error);
+    private Assertion toAssertion(final ServiceValidationResponse serviceResponse) throws TicketValidationException {
+        if (serviceResponse.isFailure() && CommonUtils.isNotBlank(serviceResponse.getFailureMessage())) {
+            throw new TicketValidationException(serviceResponse.getFailureMessage(), serviceResponse.getFailureCode());
         }
 
-        final var principal = parsePrincipalFromResponse(response);
-        final var proxyGrantingTicket = retrieveProxyGrantingTicket(response);
+        final var principal = serviceResponse.getUser();
+        final var proxyGrantingTicket = retrieveProxyGrantingTicket(serviceResponse);
 
         if (CommonUtils.isEmpty(principal)) {
             throw new TicketValidationException("No principal was found in the response from the CAS server.");
         }
 
         final Assertion assertion;
-        final var attributes = extractCustomAttributes(response);
+        final var attributes = extractCustomAttributes(serviceResponse);
         if (CommonUtils.isNotBlank(proxyGrantingTicket)) {
             attributes.remove(PGT_ATTRIBUTE);
             final AttributePrincipal attributePrincipal = new AttributePrincipalImpl(principal, attributes,
@@ -126,23 +125,46 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
             assertion = new AssertionImpl(new AttributePrincipalImpl(principal, attributes));
         }
 
-        customParseResponse(response, assertion);
+        customParseResponse(serviceResponse, assertion);
 
         return assertion;
     }
 
+    /**
+     * Resolves the proxy granting ticket referenced by the response, either through the
+     * {@link ProxyGrantingTicketStorage} or by decrypting it with the configured private key.
+     *
+     * @param response the parsed response from the CAS server.
+     * @return the proxy granting ticket, or null if there is none.
+     */
+    protected String retrieveProxyGrantingTicket(final ServiceValidationResponse response) {
+        return resolveProxyGrantingTicket(response.getProxyGrantingTicket());
+    }
+
+    /**
+     * @param response the original response from the CAS server.
+     * @return the proxy granting ticket, or null if there is none.
+     * @deprecated no longer called while validating; override
+     * {@link #retrieveProxyGrantingTicket(ServiceValidationResponse)}, which does not parse the response again.
+     */
+    @Deprecated
     protected String retrieveProxyGrantingTicket(final String response) {
-        final var values = XmlUtils.getTextForElements(response, PGT_ATTRIBUTE);
-        for (final var value : values) {
-            if (value != null) {
-                if (value.startsWith(PGTIOU_PREFIX)) {
-                    return retrieveProxyGrantingTicketFromStorage(value);
-                } else {
-                    return retrieveProxyGrantingTicketViaEncryption(value);
-                }
-            }
+        try {
+            return resolveProxyGrantingTicket(ServiceValidationResponse.parse(response).getProxyGrantingTicket());
+        } catch (final XMLStreamException e) {
+            logger.error(e.getMessage(), e);
+            return null;
         }
-        return null;
+    }
+
+    private String resolveProxyGrantingTicket(final String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.startsWith(PGTIOU_PREFIX)) {
+            return retrieveProxyGrantingTicketFromStorage(value);
+        }
+        return retrieveProxyGrantingTicketViaEncryption(value);
     }
 
     protected String retrieveProxyGrantingTicketFromStorage(final String pgtIou) {
@@ -189,36 +211,53 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
      * &lt;cas:attributes&gt;&lt;cas:attribute1&gt;value&lt;/cas:attribute1&gt;&lt;cas:attribute2&gt;value&lt;/cas:attribute2&gt;&lt;/cas:attributes&gt;
      * <p>
      *
-     * This code is here merely for sample/demonstration purposes for those wishing to modify the CAS2 protocol.  You'll
-     * probably want a more robust implementation or to use SAML 1.1
+     * The attributes have already been collected while parsing the response, so this method only hands them out.
      *
+     * @param response the parsed response from the CAS server.
+     * @return the map of attributes.
+     */
+    protected Map<String, Object> extractCustomAttributes(final ServiceValidationResponse response) {
+        return response.getAttributes();
+    }
+
+    /**
      * @param xml the XML to parse.
      * @return the map of attributes.
+     * @deprecated no longer called while validating; override
+     * {@link #extractCustomAttributes(ServiceValidationResponse)}, which does not parse the response again.
      */
+    @Deprecated
     protected Map<String, Object> extractCustomAttributes(final String xml) {
-        final var spf = SAXParserFactory.newInstance();
-        spf.setNamespaceAware(true);
-        spf.setValidating(false);
         try {
-            final var saxParser = spf.newSAXParser();
-            final var xmlReader = saxParser.getXMLReader();
-            final var handler = new CustomAttributeHandler();
-            xmlReader.setContentHandler(handler);
-            xmlReader.parse(new InputSource(new StringReader(xml)));
-            return handler.getAttributes();
-        } catch (final Exception e) {
+            return ServiceValidationResponse.parse(xml).getAttributes();
+        } catch (final XMLStreamException e) {
             logger.error(e.getMessage(), e);
             return Collections.emptyMap();
         }
     }
 
+    /**
+     * Template method if additional custom parsing (such as Proxying) needs to be done.
+     *
+     * @param response the parsed response from the CAS server.
+     * @param assertion the partially constructed assertion.
+     * @throws TicketValidationException if there is a problem constructing the Assertion.
+     */
+    protected void customParseResponse(final ServiceValidationResponse response, final Assertion assertion)
+        throws TicketValidationException {
+        // nothing to do
+    }
+
     /**
      * Template method if additional custom parsing (such as Proxying) needs to be done.
      *
      * @param response the original response from the CAS server.
      * @param assertion the partially constructed assertion.
      * @throws TicketValidationException if there is a problem constructing the Assertion.
+     * @deprecated no longer called while validating; override
+     * {@link #customParseResponse(ServiceValidationResponse, Assertion)}, which does not parse the response again.
      */
+    @Deprecated
     protected void customParseResponse(final String response, final Assertion assertion)
         throws TicketValidationException {
         // nothing to do
@@ -248,66 +287,11 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
         this.proxyRetriever = proxyRetriever;
     }
 
-    private class CustomAttributeHandler extends DefaultHandler {
-
-        private Map<String, Object> attributes;
-
-        private boolean foundAttributes;
-
-        private String currentAttribute;
-
-        private StringBuilder value;
-
-        @Override
-        public void startDocument() throws SAXException {
-            this.attributes = new HashMap<>();
-        }
-
-        @Override
-        public void startElement(final String namespaceURI, final String localName, final String qName,
-                                 final Attributes attributes) throws SAXException {
-            if ("attributes".equals(localName)) {
-                this.foundAttributes = true;
-            } else if (this.foundAttributes) {
-                this.value = new StringBuilder();
-                this.currentAttribute = localName;
-            }
-        }
-
-        @Override
-        public void endElement(final String namespaceURI, final String localName, final String qName)
-            throws SAXException {
-            if ("attributes".equals(localName)) {
-                this.foundAttributes = false;
-                this.currentAttribute = null;
-            } else if (this.foundAttributes) {
-                final var o = this.attributes.get(this.currentAttribute);
-
-                if (o == null) {
-                    this.attributes.put(this.currentAttribute, this.value.toString());
-                } else {
-                    final List<Object> items;
-                    if (o instanceof List) {
-                        items = (List<Object>) o;
-                    } else {
-                        items = new LinkedList<>();
-                        items.add(o);
-                        this.attributes.put(this.currentAttribute, items);
-                    }
-                    items.add(this.value.toString());
-                }
-            }
-        }
-
-        @Override
-        public void characters(final char[] chars, final int start, final int length) throws SAXException {
-            if (this.currentAttribute != null) {
-                value.append(chars, start, length);
-            }
-        }
-
-        public Map<String, Object> getAttributes() {
-            return this.attributes;
+    @Override
+    public void setCasServerEndpointRegistry(final CasServerEndpoints.Registry registry) {
+        super.setCasServerEndpointRegistry(registry);
+        if (this.proxyRetriever instanceof final Cas20ProxyRetriever cas20ProxyRetriever) {
+            cas20ProxyRetriever.setCasServerEndpointRegistry(registry);
         }
     }
 }
@@ -18,12 +18,6 @@
  */
 package org.apereo.cas.client.validation;
 
-import org.apereo.cas.client.util.XmlUtils;
-
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -47,41 +41,17 @@ public class Cas30ServiceTicketValidator extends Cas20ServiceTicketValidator {
      * Custom attribute extractor that will account for inlined CAS attributes.  Useful when CAS is acting as
      * as SAML 2 IdP and returns SAML attributes with names that contains namespaces.
      *
-     * @param xml the XML to parse.
+     * @param response the parsed response from the CAS server.
      * @return - Map of attributes
      */
     @Override
-    protected Map<String, Object> extractCustomAttributes(final String xml) {
-        final var document = XmlUtils.newDocument(xml);
-
+    protected Map<String, Object> extractCustomAttributes(final ServiceValidationResponse response) {
         // Check if attributes are inlined.  If not return default super method results
-        final var attributeList = document.getElementsByTagName("cas:attribute");
-        if (attributeList.getLength() == 0) {
-            return super.extractCustomAttributes(xml);
-        }
-
-        final Map<String, Object> attributes = new HashMap<>();
-
-        for (var i = 0; i < attributeList.getLength(); i++) {
-            final var casAttributeNode = attributeList.item(i);
-            final var nodeAttributes = casAttributeNode.getAttributes();
-            final var name = nodeAttributes.getNamedItem("name").getNodeValue();
-            final var value = nodeAttributes.getNamedItem("value").getTextContent();
-            final var mapValue = attributes.get(name);
-            if (mapValue != null) {
-                if (mapValue instanceof List) {
-                    ((List) mapValue).add(value);
-                } else {
-                    final Deque<Object> list = new LinkedList<>();
-                    list.add(mapValue);
-                    list.add(value);
-                    attributes.put(name, list);
-                }
-            } else {
-                attributes.put(name, value);
-            }
+        final var inlineAttributes = response.getInlineAttributes();
+        if (inlineAttributes.isEmpty()) {
+            return super.extractCustomAttributes(response);
         }
-        return attributes;
+        return inlineAttributes;
     }
 
 }
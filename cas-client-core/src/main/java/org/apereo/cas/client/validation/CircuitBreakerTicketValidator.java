@@ -0,0 +1,369 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link TicketValidator} decorator that protects the application when the CAS server slows down or fails.
+ * <p>
+ * Without it, every request presenting a ticket waits for the CAS server up to the HTTP timeouts, and container
+ * threads pile up. This decorator
+ * <ul>
+ * <li>limits the number of validations in progress to <code>maxConcurrentValidations</code>, rejecting the others
+ * at once;</li>
+ * <li>when the circuit breaker is enabled, keeps the outcome of the last <code>windowSize</code> validations. Once
+ * the window is full and either the share of failures reaches <code>failureRateThreshold</code> percent, or the
+ * share of validations lasting <code>slowCallThreshold</code> milliseconds or more reaches
+ * <code>slowCallRateThreshold</code> percent, the circuit opens: validations are rejected at once for
+ * <code>openDuration</code> milliseconds. A single trial validation is then let through, which closes the circuit
+ * if it succeeds in time and opens it again otherwise.</li>
+ * </ul>
+ * Only errors reaching the CAS server count as failures. A {@link TicketValidationException} means the server
+ * answered, i.e. the ticket was invalid, and counts as a success. Rejected validations fail with a
+ * {@link TicketValidationException} carrying the {@link #CIRCUIT_OPEN} or {@link #TOO_MANY_VALIDATIONS} code.
+ *
+ * @since 4.1.2
+ */
+public final class CircuitBreakerTicketValidator implements TicketValidator {
+
+    /** Code of the exception rejecting validations while the circuit is open. */
+    public static final String CIRCUIT_OPEN = "CIRCUIT_OPEN";
+
+    /** Code of the exception rejecting validations beyond <code>maxConcurrentValidations</code>. */
+    public static final String TOO_MANY_VALIDATIONS = "TOO_MANY_VALIDATIONS";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakerTicketValidator.class);
+
+    private final TicketValidator delegate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private boolean enabled = true;
+
+    private int failureRateThreshold = ConfigurationKeys.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD.getDefaultValue();
+
+    private long slowCallThreshold = ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD.getDefaultValue();
+
+    private int slowCallRateThreshold = ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD.getDefaultValue();
+
+    private long openDuration = ConfigurationKeys.CIRCUIT_BREAKER_OPEN_DURATION.getDefaultValue();
+
+    private Semaphore bulkhead;
+
+    private int maxConcurrentValidations;
+
+    private volatile State state = State.CLOSED;
+
+    /** Outcomes of the last validations, as a ring buffer. */
+    private boolean[] failures;
+
+    private boolean[] slowCalls;
+
+    private int position;
+
+    private int recorded;
+
+    private int failureCount;
+
+    private int slowCallCount;
+
+    private long openedAt;
+
+    private boolean trialInProgress;
+
+    private MetricsRecorder metricsRecorder = MetricsRecorder.NOOP;
+
+    public CircuitBreakerTicketValidator(final TicketValidator delegate) {
+        CommonUtils.assertNotNull(delegate, "delegate cannot be null.");
+        this.delegate = delegate;
+        setWindowSize(ConfigurationKeys.CIRCUIT_BREAKER_WINDOW_SIZE.getDefaultValue());
+    }
+
+    @Override
+    public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        final var permission = acquirePermission();
+        final var start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return this.delegate.validate(ticket, service);
+        } catch (final TicketValidationException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            release(permission, start, failure);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        final Permission permission;
+        try {
+            permission = acquirePermission();
+        } catch (final TicketValidationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final var start = System.nanoTime();
+        final CompletableFuture<Assertion> validation;
+        try {
+            validation = this.delegate.validateAsync(ticket, service);
+        } catch (final RuntimeException e) {
+            release(permission, start, e);
+            throw e;
+        }
+        return validation.whenComplete((assertion, failure) ->
+            release(permission, start, failure instanceof CompletionException ? failure.getCause() : failure));
+    }
+
+    /**
+     * @return the state of the circuit.
+     */
+    public State getState() {
+        return this.state;
+    }
+
+    /**
+     * @return the number of validations in progress, or 0 when their number is not limited.
+     */
+    public int getConcurrentValidations() {
+        return this.bulkhead == null ? 0 : this.maxConcurrentValidations - this.bulkhead.availablePermits();
+    }
+
+    /**
+     * @param enabled whether the circuit may open; when disabled only the number of concurrent validations is limited.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param windowSize the number of validation outcomes the failure and slow call rates are computed over.
+     */
+    public void setWindowSize(final int windowSize) {
+        CommonUtils.assertTrue(windowSize > 0, "windowSize must be greater than zero.");
+        this.lock.lock();
+        try {
+            this.failures = new boolean[windowSize];
+            this.slowCalls = new boolean[windowSize];
+            resetWindow();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @param failureRateThreshold percentage of failed validations opening the circuit.
+     */
+    public void setFailureRateThreshold(final int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    /**
+     * @param slowCallThreshold milliseconds from which a validation counts as slow.
+     */
+    public void setSlowCallThreshold(final long slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    /**
+     * @param slowCallRateThreshold percentage of slow validations opening the circuit.
+     */
+    public void setSlowCallRateThreshold(final int slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    /**
+     * @param openDuration milliseconds during which validations are rejected once the circuit has opened.
+     */
+    public void setOpenDuration(final long openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * @param metricsRecorder the recorder of rejected validations.
+     */
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.NOOP;
+    }
+
+    /**
+     * Validations in progress when the limit changes still count against the previous limit, and may exceed the new
+     * one until they complete.
+     *
+     * @param maxConcurrentValidations the maximum number of validations in progress; 0 or less means unbounded.
+     */
+    public void setMaxConcurrentValidations(final int maxConcurrentValidations) {
+        this.maxConcurrentValidations = maxConcurrentValidations;
+        this.bulkhead = maxConcurrentValidations > 0 ? new Semaphore(maxConcurrentValidations) : null;
+    }
+
+    /**
+     * @return the permission to validate, to hand back to {@link #release(Permission, long, Throwable)}.
+     */
+    private Permission acquirePermission() throws TicketValidationException {
+        var trial = false;
+        if (this.enabled && this.state != State.CLOSED) {
+            this.lock.lock();
+            try {
+                if (this.state == State.OPEN
+                    && System.nanoTime() - this.openedAt >= TimeUnit.MILLISECONDS.toNanos(this.openDuration)) {
+                    transitionTo(State.HALF_OPEN);
+                }
+                if (this.state == State.OPEN || (this.state == State.HALF_OPEN && this.trialInProgress)) {
+                    throw reject(MetricsRecorder.ValidationRejection.CIRCUIT_OPEN, CIRCUIT_OPEN,
+                        "Ticket validation rejected: the CAS server is unavailable.");
+                }
+                if (this.state == State.HALF_OPEN) {
+                    this.trialInProgress = true;
+                    trial = true;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        final var semaphore = this.bulkhead;
+        if (semaphore != null && !semaphore.tryAcquire()) {
+            if (trial) {
+                this.lock.lock();
+                try {
+                    this.trialInProgress = false;
+                } finally {
+                    this.lock.unlock();
+                }
+            }
+            throw reject(MetricsRecorder.ValidationRejection.TOO_MANY_VALIDATIONS, TOO_MANY_VALIDATIONS,
+                "Ticket validation rejected: too many validations in progress.");
+        }
+        return new Permission(semaphore, trial);
+    }
+
+    private TicketValidationException reject(final MetricsRecorder.ValidationRejection rejection, final String code,
+                                             final String message) {
+        this.metricsRecorder.recordValidationRejected(rejection);
+        LOGGER.debug(message);
+        return new TicketValidationException(message, code);
+    }
+
+    private void release(final Permission permission, final long start, final Throwable failure) {
+        if (permission.bulkhead() != null) {
+            permission.bulkhead().release();
+        }
+        if (this.enabled) {
+            record(permission.trial(), failure != null && !(failure instanceof TicketValidationException),
+                System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(this.slowCallThreshold));
+        }
+    }
+
+    private void record(final boolean trial, final boolean failed, final boolean slow) {
+        this.lock.lock();
+        try {
+            if (this.state == State.HALF_OPEN) {
+                if (!trial) {
+                    // validations started before the circuit opened
+                    return;
+                }
+                this.trialInProgress = false;
+                if (failed || slow) {
+                    open();
+                } else {
+                    resetWindow();
+                    transitionTo(State.CLOSED);
+                }
+                return;
+            }
+            if (this.state == State.OPEN) {
+                // validations started before the circuit opened
+                return;
+            }
+            if (this.recorded == this.failures.length) {
+                this.failureCount -= this.failures[this.position] ? 1 : 0;
+                this.slowCallCount -= this.slowCalls[this.position] ? 1 : 0;
+            } else {
+                this.recorded++;
+            }
+            this.failures[this.position] = failed;
+            this.slowCalls[this.position] = slow;
+            this.failureCount += failed ? 1 : 0;
+            this.slowCallCount += slow ? 1 : 0;
+            this.position = (this.position + 1) % this.failures.length;
+
+            if (this.recorded == this.failures.length
+                && (this.failureCount * 100 >= this.failureRateThreshold * this.recorded
+                    || this.slowCallCount * 100 >= this.slowCallRateThreshold * this.recorded)) {
+                LOGGER.warn("Opening the circuit to the CAS server: {} failed and {} slow validations out of the last {}",
+                    this.failureCount, this.slowCallCount, this.recorded);
+                open();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void open() {
+        this.openedAt = System.nanoTime();
+        transitionTo(State.OPEN);
+    }
+
+    private void resetWindow() {
+        Arrays.fill(this.failures, false);
+        Arrays.fill(this.slowCalls, false);
+        this.position = 0;
+        this.recorded = 0;
+        this.failureCount = 0;
+        this.slowCallCount = 0;
+    }
+
+    private void transitionTo(final State newState) {
+        if (this.state != newState) {
+            LOGGER.info("Circuit to the CAS server is now {}", newState);
+            this.state = newState;
+        }
+    }
+
+    /**
+     * Permission to validate: the semaphore the permit was taken from, if any, as it is replaced when the limit
+     * changes, and whether the validation is the trial of a half-open circuit.
+     */
+    private record Permission(Semaphore bulkhead, boolean trial) {
+    }
+
+    /**
+     * States of the circuit.
+     */
+    public enum State {
+        /** Validations go through. */
+        CLOSED,
+        /** Validations are rejected. */
+        OPEN,
+        /** A single trial validation goes through. */
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link TicketValidator} decorator that coalesces concurrent validations of the same ticket for the same service.
+ * <p>
+ * Browsers submitting a form twice, or load balancers retrying a request, can present the same service ticket more
+ * than once. The CAS server consumes the ticket on the first validation, so every further attempt would fail with
+ * <code>INVALID_TICKET</code>. This decorator lets all callers presenting the same (ticket, service) pair share a
+ * single call to the CAS server and its outcome, be it an {@link Assertion} or a {@link TicketValidationException}.
+ * Any other failure, such as the CAS server being unreachable, is handed to the callers already waiting but is not
+ * remembered, so the next attempt validates the ticket again.
+ * <p>
+ * Outcomes are remembered for <code>timeToLive</code> milliseconds after the validation started, and at most
+ * <code>maxSize</code> of them are kept. A ticket presented again within that window is answered from memory, so the
+ * window should stay short.
+ *
+ * @since 4.1.2
+ */
+public final class CoalescingTicketValidator implements TicketValidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingTicketValidator.class);
+
+    private final TicketValidator delegate;
+
+    private final Map<ValidationKey, Validation> validations = new ConcurrentHashMap<>();
+
+    private long timeToLive = ConfigurationKeys.COALESCE_VALIDATION_TTL.getDefaultValue();
+
+    private int maxSize = ConfigurationKeys.COALESCE_VALIDATION_MAX_SIZE.getDefaultValue();
+
+    private volatile long lastPurge = System.nanoTime();
+
+    public CoalescingTicketValidator(final TicketValidator delegate) {
+        CommonUtils.assertNotNull(delegate, "delegate cannot be null.");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        final var future = coalesce(ticket, service, () -> {
+            try {
+                return CompletableFuture.completedFuture(this.delegate.validate(ticket, service));
+            } catch (final TicketValidationException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TicketValidationException("Interrupted while waiting for the validation of ticket " + ticket);
+        } catch (final ExecutionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof TicketValidationException) {
+                throw (TicketValidationException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new TicketValidationException(cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        return coalesce(ticket, service, () -> this.delegate.validateAsync(ticket, service));
+    }
+
+    /**
+     * @param timeToLive milliseconds during which the outcome of a validation is shared.
+     */
+    public void setTimeToLive(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param maxSize the maximum number of validation outcomes to remember.
+     */
+    public void setMaxSize(final int maxSize) {
+        CommonUtils.assertTrue(maxSize > 0, "maxSize must be greater than zero.");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the number of validation outcomes currently remembered, including those still in progress.
+     */
+    public int size() {
+        return this.validations.size();
+    }
+
+    private CompletableFuture<Assertion> coalesce(final String ticket, final String service,
+                                                  final Supplier<CompletableFuture<Assertion>> validation) {
+        final var key = new ValidationKey(ticket, service);
+        final var now = System.nanoTime();
+        final var candidate = new Validation(now);
+
+        while (true) {
+            final var existing = this.validations.putIfAbsent(key, candidate);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.isExpired(now, this.timeToLive)) {
+                LOGGER.debug("Joining validation of ticket {} already in progress or completed", ticket);
+                return existing.result.copy();
+            }
+            if (this.validations.replace(key, existing, candidate)) {
+                break;
+            }
+        }
+
+        purgeIfNeeded(now);
+        final CompletableFuture<Assertion> future;
+        try {
+            future = validation.get();
+        } catch (final RuntimeException e) {
+            complete(key, candidate, null, e);
+            return candidate.result.copy();
+        }
+        future.whenComplete((assertion, failure) -> complete(key, candidate, assertion,
+            failure instanceof CompletionException ? failure.getCause() : failure));
+        return candidate.result.copy();
+    }
+
+    /**
+     * Hands the outcome to the callers sharing the validation. Only assertions and ticket validation failures are
+     * remembered; any other failure is dropped right away so that the ticket can be validated again.
+     */
+    private void complete(final ValidationKey key, final Validation validation, final Assertion assertion,
+                          final Throwable failure) {
+        if (failure == null) {
+            validation.result.complete(assertion);
+            return;
+        }
+        if (!(failure instanceof TicketValidationException)) {
+            this.validations.remove(key, validation);
+        }
+        validation.result.completeExceptionally(failure);
+    }
+
+    /**
+     * Drops expired outcomes periodically, and whenever the map has grown beyond its maximum size. Validations
+     * still in progress are never dropped.
+     */
+    private void purgeIfNeeded(final long now) {
+        final var overflow = this.validations.size() > this.maxSize;
+        if (!overflow && now - this.lastPurge < TimeUnit.MILLISECONDS.toNanos(this.timeToLive)) {
+            return;
+        }
+        this.lastPurge = now;
+        this.validations.values().removeIf(v -> v.isExpired(now, this.timeToLive));
+
+        final var iterator = this.validations.values().iterator();
+        while (this.validations.size() > this.maxSize && iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private record ValidationKey(String ticket, String service) {
+    }
+
+    private static final class Validation {
+
+        private final long started;
+
+        private final CompletableFuture<Assertion> result = new CompletableFuture<>();
+
+        Validation(final long started) {
+            this.started = started;
+        }
+
+        boolean isExpired(final long now, final long timeToLive) {
+            return this.result.isDone() && now - this.started >= TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        }
+    }
+}
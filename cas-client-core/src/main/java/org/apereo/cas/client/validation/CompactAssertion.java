@@ -0,0 +1,367 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.authentication.AttributePrincipal;
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.authentication.SimplePrincipal;
+import org.apereo.cas.client.proxy.ProxyRetriever;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link Assertion} meant to be stored in replicated sessions, which are serialized on every write.
+ * <p>
+ * Instead of the default serialization of the object graph of {@link AssertionImpl}, this class writes its own
+ * binary encoding: dates as epoch milliseconds, strings and lists of attribute values inline, and other values
+ * through {@link ObjectOutput#writeObject(Object)}. Attribute names are interned when read, and attributes are kept
+ * in immutable collections.
+ * <p>
+ * The {@link ProxyRetriever} of the principal is not serialized. On the node that validated the ticket, proxy
+ * tickets are still requested through the original principal; once deserialized, they are requested through the
+ * retriever attached with {@link #attachProxyRetriever(ProxyRetriever)}, which the ticket validation filter does
+ * when it finds the assertion in the session.
+ *
+ * @since 4.1.2
+ */
+public final class CompactAssertion implements Assertion, Externalizable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactAssertion.class);
+
+    private static final byte VERSION = 1;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final byte NULL = 0;
+
+    private static final byte STRING = 1;
+
+    private static final byte LIST = 2;
+
+    private static final byte OBJECT = 3;
+
+    /**
+     * Longest string guaranteed to fit {@link ObjectOutput#writeUTF(String)}, at three bytes per character.
+     */
+    private static final int MAX_UTF_LENGTH = 65535 / 3;
+
+    private long validFromDate;
+
+    private long validUntilDate;
+
+    private long authenticationDate;
+
+    private Map<String, Object> attributes;
+
+    private Map<String, Serializable> context;
+
+    private CompactPrincipal principal;
+
+    /**
+     * Only meant for deserialization.
+     */
+    public CompactAssertion() {
+    }
+
+    private CompactAssertion(final Assertion assertion) {
+        CommonUtils.assertNotNull(assertion.getPrincipal(), "principal cannot be null.");
+        CommonUtils.assertNotNull(assertion.getValidFromDate(), "validFromDate cannot be null.");
+        this.validFromDate = assertion.getValidFromDate().getTime();
+        this.validUntilDate = toMillis(assertion.getValidUntilDate());
+        this.authenticationDate = toMillis(assertion.getAuthenticationDate());
+        this.attributes = compact(assertion.getAttributes());
+        this.context = compact(assertion.getContext());
+        this.principal = new CompactPrincipal(assertion.getPrincipal());
+    }
+
+    /**
+     * @param assertion the assertion to copy.
+     * @return a compact copy of the assertion, or the assertion itself if it already is compact.
+     */
+    public static CompactAssertion of(final Assertion assertion) {
+        return assertion instanceof final CompactAssertion compactAssertion ? compactAssertion : new CompactAssertion(assertion);
+    }
+
+    /**
+     * Attaches the retriever requesting proxy tickets once the assertion has been deserialized. Has no effect
+     * before, when proxy tickets are requested through the original principal.
+     *
+     * @param retriever the retriever.
+     */
+    public void attachProxyRetriever(final ProxyRetriever retriever) {
+        if (this.principal.origin == null && this.principal.proxyRetriever != retriever) {
+            this.principal.proxyRetriever = retriever;
+        }
+    }
+
+    @Override
+    public Date getValidFromDate() {
+        return toDate(this.validFromDate);
+    }
+
+    @Override
+    public Date getValidUntilDate() {
+        return toDate(this.validUntilDate);
+    }
+
+    @Override
+    public Date getAuthenticationDate() {
+        return toDate(this.authenticationDate);
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return this.attributes;
+    }
+
+    @Override
+    public AttributePrincipal getPrincipal() {
+        return this.principal;
+    }
+
+    @Override
+    public Map<String, Serializable> getContext() {
+        return this.context;
+    }
+
+    @Override
+    public boolean isValid() {
+        final var now = System.currentTimeMillis();
+        return this.validFromDate <= now && (this.validUntilDate == NO_DATE || this.validUntilDate >= now);
+    }
+
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeLong(this.validFromDate);
+        out.writeLong(this.validUntilDate);
+        out.writeLong(this.authenticationDate);
+        writeValue(out, this.principal.getName());
+        writeValue(out, this.principal.proxyGrantingTicket);
+        writeMap(out, this.principal.attributes);
+        writeMap(out, this.attributes);
+        writeMap(out, this.context);
+    }
+
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final var version = in.readByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unsupported version " + version);
+        }
+        this.validFromDate = in.readLong();
+        this.validUntilDate = in.readLong();
+        this.authenticationDate = in.readLong();
+        final var name = (String) readValue(in);
+        final var proxyGrantingTicket = (String) readValue(in);
+        this.principal = new CompactPrincipal(name, readMap(in), proxyGrantingTicket);
+        this.attributes = readMap(in);
+        this.context = readMap(in);
+    }
+
+    private static long toMillis(final Date date) {
+        return date == null ? NO_DATE : date.getTime();
+    }
+
+    private static Date toDate(final long millis) {
+        return millis == NO_DATE ? null : new Date(millis);
+    }
+
+    private static <V> Map<String, V> compact(final Map<String, ? extends V> map) {
+        if (map == null || map.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final var copy = new HashMap<String, V>(map.size() * 4 / 3 + 1);
+        for (final var entry : map.entrySet()) {
+            copy.put(entry.getKey(), compactValue(entry.getValue()));
+        }
+        return immutable(copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V compactValue(final V value) {
+        return value instanceof final List<?> list ? (V) immutable(list) : value;
+    }
+
+    private static <V> Map<String, V> immutable(final Map<String, V> map) {
+        return map.containsValue(null) ? Collections.unmodifiableMap(map) : Map.copyOf(map);
+    }
+
+    /**
+     * Immutable lists created by <code>List.copyOf</code> reject null elements, which attributes may hold.
+     */
+    private static <E> List<E> immutable(final List<E> list) {
+        for (final var element : list) {
+            if (element == null) {
+                return Collections.unmodifiableList(new ArrayList<>(list));
+            }
+        }
+        return List.copyOf(list);
+    }
+
+    private static void writeMap(final ObjectOutput out, final Map<String, ?> map) throws IOException {
+        out.writeInt(map.size());
+        for (final var entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Map<String, V> readMap(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final var size = in.readInt();
+        if (size == 0) {
+            return Collections.emptyMap();
+        }
+        final var map = new HashMap<String, V>(size * 4 / 3 + 1);
+        for (var i = 0; i < size; i++) {
+            map.put(in.readUTF().intern(), (V) readValue(in));
+        }
+        return immutable(map);
+    }
+
+    private static void writeValue(final ObjectOutput out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof final String string && string.length() <= MAX_UTF_LENGTH) {
+            out.writeByte(STRING);
+            out.writeUTF(string);
+        } else if (value instanceof final List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (final var element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            out.writeByte(OBJECT);
+            out.writeObject(value);
+        }
+    }
+
+    private static Object readValue(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final var type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case LIST:
+                final var size = in.readInt();
+                final var list = new ArrayList<>(size);
+                for (var i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return immutable(list);
+            case OBJECT:
+                return in.readObject();
+            default:
+                throw new InvalidObjectException("Unknown value type " + type);
+        }
+    }
+
+    /**
+     * Principal of a {@link CompactAssertion}, which is serialized by the assertion itself.
+     */
+    private static final class CompactPrincipal extends SimplePrincipal implements AttributePrincipal {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Object> attributes;
+
+        private final String proxyGrantingTicket;
+
+        /** The principal this one was copied from, which requests proxy tickets until serialization. */
+        private final transient AttributePrincipal origin;
+
+        /** Retriever requesting proxy tickets after deserialization. */
+        private transient volatile ProxyRetriever proxyRetriever;
+
+        CompactPrincipal(final AttributePrincipal principal) {
+            super(principal.getName());
+            this.attributes = compact(principal.getAttributes());
+            this.proxyGrantingTicket = principal instanceof final AttributePrincipalImpl impl
+                ? impl.getProxyGrantingTicket() : null;
+            this.origin = principal;
+        }
+
+        CompactPrincipal(final String name, final Map<String, Object> attributes, final String proxyGrantingTicket) {
+            super(name);
+            this.attributes = attributes;
+            this.proxyGrantingTicket = proxyGrantingTicket;
+            this.origin = null;
+        }
+
+        @Override
+        public String getProxyTicketFor(final String service) {
+            if (this.origin != null) {
+                return this.origin.getProxyTicketFor(service);
+            }
+            if (this.proxyGrantingTicket == null) {
+                LOGGER.debug("No ProxyGrantingTicket was supplied, so no Proxy Ticket can be retrieved.");
+                return null;
+            }
+            final var retriever = this.proxyRetriever;
+            if (retriever == null) {
+                LOGGER.warn("No ProxyRetriever is configured for deserialized assertions, so no Proxy Ticket can be retrieved.");
+                return null;
+            }
+            return retriever.getProxyTicketIdFor(this.proxyGrantingTicket, service);
+        }
+
+        @Override
+        public Map<String, CompletableFuture<String>> getProxyTicketsFor(final Collection<String> services) {
+            if (this.origin != null) {
+                return this.origin.getProxyTicketsFor(services);
+            }
+            final var retriever = this.proxyRetriever;
+            if (this.proxyGrantingTicket == null || retriever == null) {
+                return AttributePrincipal.super.getProxyTicketsFor(services);
+            }
+            return retriever.getProxyTicketIdsFor(this.proxyGrantingTicket, services,
+                AttributePrincipalImpl.DEFAULT_MAX_CONCURRENT_PROXY_REQUESTS, AttributePrincipalImpl.DEFAULT_PROXY_REQUESTS_TIMEOUT);
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return this.attributes;
+        }
+    }
+}
@@ -27,10 +27,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Holding class for the proxy list to make Spring configuration easier.
+ * <p>
+ * Links starting with <code>^</code> are regular expressions, any other link must match exactly. Chains are compiled
+ * when the list is created: chains are grouped by length, chains made of exact links only are looked up in a hash
+ * set, and other chains are indexed by their first link when it is exact. For each position, the regular
+ * expressions of all chains are combined into a single pattern, so that a proxied link matching none of them rejects
+ * the whole chain at once. The outcome is then remembered for the last <code>cacheSize</code> proxy chains seen.
  *
  * @author Scott Battaglia
  * @version $Revision$ $Date$
@@ -38,28 +54,46 @@ import java.util.List;
  */
 public final class ProxyList {
 
+    /**
+     * Default number of proxy chains whose outcome is remembered.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    /**
+     * Back references would point to the wrong group once patterns are combined.
+     */
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final List<List<UrlPatternMatcherStrategy>> proxyChains;
+    private final List<List<String>> proxyChains = new ArrayList<>();
 
-    public ProxyList(final Iterable<String[]> proxyChains) {
-        CommonUtils.assertNotNull(proxyChains, "List of proxy chains cannot be null.");
+    private final Map<Integer, CompiledChains> chainsByLength = new HashMap<>();
 
-        this.proxyChains = new ArrayList<>();
+    private final int cacheSize;
 
-        for (final var list : proxyChains) {
-            final List<UrlPatternMatcherStrategy> chain = new ArrayList<>();
+    private final Map<List<String>, Boolean> outcomes = new ConcurrentHashMap<>();
 
-            for (final var item : list) {
-                if (item.startsWith("^")) {
-                    chain.add(new RegexUrlPatternMatcherStrategy(item));
-                } else {
-                    chain.add(new ExactUrlPatternMatcherStrategy(item));
-                }
-            }
+    private final Queue<List<String>> insertionQueue = new ConcurrentLinkedQueue<>();
+
+    public ProxyList(final Iterable<String[]> proxyChains) {
+        this(proxyChains, DEFAULT_CACHE_SIZE);
+    }
 
-            this.proxyChains.add(chain);
+    /**
+     * @param proxyChains the allowed proxy chains.
+     * @param cacheSize   the number of proxy chains whose outcome is remembered; 0 disables the cache.
+     */
+    public ProxyList(final Iterable<String[]> proxyChains, final int cacheSize) {
+        CommonUtils.assertNotNull(proxyChains, "List of proxy chains cannot be null.");
+        this.cacheSize = cacheSize;
+
+        final Map<Integer, List<String[]>> grouped = new HashMap<>();
+        for (final var list : proxyChains) {
+            this.proxyChains.add(List.of(list));
+            grouped.computeIfAbsent(list.length, length -> new ArrayList<>()).add(list);
         }
+        grouped.forEach((length, chains) -> this.chainsByLength.put(length, new CompiledChains(length, chains)));
     }
 
     public ProxyList() {
@@ -67,37 +101,153 @@ public final class ProxyList {
     }
 
     public boolean contains(final String[] proxiedList) {
-        StringBuilder loggingOutput;
+        final var key = List.of(proxiedList);
+        final var cached = this.outcomes.get(key);
+        if (cached != null) {
+            return cached;
+        }
 
-        for (final var proxyChain : this.proxyChains) {
-            loggingOutput = new StringBuilder();
+        final var chains = this.chainsByLength.get(proxiedList.length);
+        final var matched = chains != null && chains.contains(proxiedList);
+        if (matched) {
+            logger.debug("Proxy chain matched: {}", key);
+        } else {
+            logger.debug("No proxy chain matched the allowedProxyChains list: {}", key);
+        }
+        remember(key, matched);
+        return matched;
+    }
 
-            if (proxyChain.size() == proxiedList.length) {
-                for (var linkIndex = 0; linkIndex < proxyChain.size(); linkIndex++) {
-                    final var linkToTest = proxiedList[linkIndex];
-                    loggingOutput.append(linkToTest);
+    private void remember(final List<String> key, final boolean matched) {
+        if (this.cacheSize <= 0 || this.outcomes.putIfAbsent(key, matched) != null) {
+            return;
+        }
+        this.insertionQueue.offer(key);
+        while (this.outcomes.size() > this.cacheSize) {
+            final var eldest = this.insertionQueue.poll();
+            if (eldest == null) {
+                break;
+            }
+            this.outcomes.remove(eldest);
+        }
+    }
 
-                    if (proxyChain.get(linkIndex).matches(linkToTest)) {
-                        //If we are at the last link, we found a good proxyChain.
-                        if (linkIndex == proxyChain.size() - 1) {
-                            logger.info("Proxy chain matched: {}", loggingOutput.toString());
-                            return true;
-                        }
+    public String toString() {
+        return this.proxyChains.toString();
+    }
+
+    /**
+     * The allowed chains of a given length.
+     */
+    private static final class CompiledChains {
+
+        private final Set<List<String>> exactChains = new HashSet<>();
+
+        private final Map<String, List<UrlPatternMatcherStrategy[]>> chainsByFirstLink = new HashMap<>();
+
+        private final List<UrlPatternMatcherStrategy[]> chainsWithPatternFirstLink = new ArrayList<>();
 
+        private final List<Set<String>> exactLinks = new ArrayList<>();
+
+        /**
+         * Combined pattern of each position, null if there is no pattern at that position.
+         */
+        private final Pattern[] patternLinks;
+
+        /**
+         * Whether a link can be rejected by looking at its position alone.
+         */
+        private final boolean[] filtered;
+
+        CompiledChains(final int length, final List<String[]> chains) {
+            this.patternLinks = new Pattern[length];
+            this.filtered = new boolean[length];
+            final List<List<String>> patterns = new ArrayList<>(length);
+            for (var i = 0; i < length; i++) {
+                this.exactLinks.add(new HashSet<>());
+                patterns.add(new ArrayList<>());
+                this.filtered[i] = true;
+            }
+
+            for (final var chain : chains) {
+                final var compiled = new UrlPatternMatcherStrategy[length];
+                var exact = true;
+                for (var i = 0; i < length; i++) {
+                    final var link = chain[i];
+                    if (link.startsWith("^")) {
+                        exact = false;
+                        compiled[i] = new RegexUrlPatternMatcherStrategy(link);
+                        patterns.get(i).add(link);
+                        if (link.indexOf('#') >= 0 || BACK_REFERENCE.matcher(link).find()) {
+                            this.filtered[i] = false;
+                        }
                     } else {
-                        logger.warn("Proxy chain did not match at {}. Skipping to next allowedProxyChain", loggingOutput.toString());
-                        break;
+                        compiled[i] = new ExactUrlPatternMatcherStrategy(link);
+                        this.exactLinks.get(i).add(link);
                     }
-                    loggingOutput.append("->");
+                }
+                if (exact) {
+                    this.exactChains.add(List.of(chain));
+                } else if (length > 0 && !chain[0].startsWith("^")) {
+                    this.chainsByFirstLink.computeIfAbsent(chain[0], link -> new ArrayList<>()).add(compiled);
+                } else {
+                    this.chainsWithPatternFirstLink.add(compiled);
+                }
+            }
+
+            for (var i = 0; i < length; i++) {
+                if (this.filtered[i] && !patterns.get(i).isEmpty()) {
+                    this.patternLinks[i] = combine(patterns.get(i));
+                    this.filtered[i] = this.patternLinks[i] != null;
                 }
             }
         }
 
-        logger.warn("No proxy chain matched the allowedProxyChains list.");
-        return false;
-    }
+        private static Pattern combine(final List<String> patterns) {
+            final var combined = new StringBuilder();
+            for (final var pattern : patterns) {
+                if (combined.length() > 0) {
+                    combined.append('|');
+                }
+                combined.append("(?:").append(pattern).append(')');
+            }
+            try {
+                return Pattern.compile(combined.toString());
+            } catch (final PatternSyntaxException e) {
+                return null;
+            }
+        }
 
-    public String toString() {
-        return this.proxyChains.toString();
+        boolean contains(final String[] proxiedList) {
+            if (this.exactChains.contains(Arrays.asList(proxiedList))) {
+                return true;
+            }
+            for (var i = 0; i < proxiedList.length; i++) {
+                if (this.filtered[i] && !this.exactLinks.get(i).contains(proxiedList[i])
+                    && (this.patternLinks[i] == null || !this.patternLinks[i].matcher(proxiedList[i]).find())) {
+                    return false;
+                }
+            }
+            if (proxiedList.length > 0 && matchesAny(this.chainsByFirstLink.get(proxiedList[0]), proxiedList)) {
+                return true;
+            }
+            return matchesAny(this.chainsWithPatternFirstLink, proxiedList);
+        }
+
+        private static boolean matchesAny(final List<UrlPatternMatcherStrategy[]> chains, final String[] proxiedList) {
+            if (chains == null) {
+                return false;
+            }
+            for (final var chain : chains) {
+                var matches = true;
+                for (var i = 0; i < chain.length && matches; i++) {
+                    matches = chain[i].matches(proxiedList[i]);
+                }
+                if (matches) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
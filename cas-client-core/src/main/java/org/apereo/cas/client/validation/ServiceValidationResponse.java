@@ -0,0 +1,285 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.ssl.HttpResponseBody;
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.XmlUtils;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structured view of a CAS 2.0/3.0 <code>serviceValidate</code> or <code>proxyValidate</code> response,
+ * read in a single streaming pass.
+ * <p>
+ * Attributes are collected in both forms found in the wild: child elements of <code>cas:attributes</code>
+ * (see {@link #getAttributes()}), and inlined <code>&lt;cas:attribute name="..." value="..."/&gt;</code>
+ * elements (see {@link #getInlineAttributes()}). Multi-valued attributes are returned as lists.
+ *
+ * @since 4.1.2
+ */
+public final class ServiceValidationResponse {
+
+    private static final String ATTRIBUTES = "attributes";
+
+    private static final String INLINE_ATTRIBUTE = "attribute";
+
+    private final HttpResponseBody body;
+
+    private String xml;
+
+    private final List<String> proxies = new ArrayList<>(2);
+
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    private final Map<String, Object> inlineAttributes = new HashMap<>();
+
+    private boolean failure;
+
+    private String failureCode;
+
+    private String failureDescription;
+
+    private String user;
+
+    private String proxyGrantingTicket;
+
+    private ServiceValidationResponse(final String xml, final HttpResponseBody body) {
+        this.xml = xml;
+        this.body = body;
+    }
+
+    /**
+     * Reads the given CAS response.
+     *
+     * @param xml the XML response of the CAS server.
+     * @return the structured response.
+     * @throws XMLStreamException if the response is not well-formed XML.
+     */
+    public static ServiceValidationResponse parse(final String xml) throws XMLStreamException {
+        final var response = new ServiceValidationResponse(xml, null);
+        final var reader = XmlUtils.newXMLStreamReader(xml);
+        try {
+            response.read(reader);
+        } finally {
+            reader.close();
+        }
+        return response;
+    }
+
+    /**
+     * Reads the given CAS response straight from its bytes. The response is only decoded into a {@link String}
+     * if {@link #getXml()} is called.
+     *
+     * @param body the response of the CAS server.
+     * @return the structured response.
+     * @throws XMLStreamException if the response is not well-formed XML.
+     */
+    public static ServiceValidationResponse parse(final HttpResponseBody body) throws XMLStreamException {
+        final var response = new ServiceValidationResponse(null, body);
+        final var reader = XmlUtils.newXMLStreamReader(body.asInputStream(), body.getCharset());
+        try {
+            response.read(reader);
+        } finally {
+            reader.close();
+        }
+        return response;
+    }
+
+    private void read(final XMLStreamReader reader) throws XMLStreamException {
+        final var text = new StringBuilder();
+        var inAttributes = false;
+        String captured = null;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    final var name = reader.getLocalName();
+                    if (INLINE_ATTRIBUTE.equals(name)) {
+                        final var attributeName = reader.getAttributeValue(null, "name");
+                        if (attributeName != null) {
+                            final var value = reader.getAttributeValue(null, "value");
+                            addValue(this.inlineAttributes, attributeName, value != null ? value : "");
+                        }
+                    }
+                    if (inAttributes) {
+                        captured = name;
+                        text.setLength(0);
+                    } else if (ATTRIBUTES.equals(name)) {
+                        inAttributes = true;
+                        captured = null;
+                    } else if (isCapturedOutsideAttributes(name)) {
+                        if ("authenticationFailure".equals(name)) {
+                            this.failure = true;
+                            this.failureCode = reader.getAttributeValue(null, "code");
+                        }
+                        captured = name;
+                        text.setLength(0);
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    if (captured != null) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    final var name = reader.getLocalName();
+                    if (inAttributes && ATTRIBUTES.equals(name)) {
+                        inAttributes = false;
+                        captured = null;
+                    } else if (name.equals(captured)) {
+                        final var value = text.toString();
+                        if (inAttributes) {
+                            addValue(this.attributes, name, value);
+                            if (Cas20ServiceTicketValidator.PGT_ATTRIBUTE.equals(name) && this.proxyGrantingTicket == null) {
+                                this.proxyGrantingTicket = value;
+                            }
+                        } else {
+                            assign(name, value);
+                        }
+                        captured = null;
+                    }
+                }
+                default -> {
+                    // comments, processing instructions and document events carry nothing of interest
+                }
+            }
+        }
+    }
+
+    private static boolean isCapturedOutsideAttributes(final String name) {
+        return switch (name) {
+            case "authenticationFailure", "user", "proxy", Cas20ServiceTicketValidator.PGT_ATTRIBUTE -> true;
+            default -> false;
+        };
+    }
+
+    private void assign(final String name, final String value) {
+        switch (name) {
+            case "authenticationFailure" -> this.failureDescription = value;
+            case "user" -> {
+                if (this.user == null) {
+                    this.user = value;
+                }
+            }
+            case "proxy" -> this.proxies.add(value);
+            default -> {
+                if (this.proxyGrantingTicket == null) {
+                    this.proxyGrantingTicket = value;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addValue(final Map<String, Object> map, final String name, final String value) {
+        final var existing = map.get(name);
+        if (existing == null) {
+            map.put(name, value);
+        } else if (existing instanceof List) {
+            ((List<Object>) existing).add(value);
+        } else {
+            final List<Object> values = new LinkedList<>();
+            values.add(existing);
+            values.add(value);
+            map.put(name, values);
+        }
+    }
+
+    /**
+     * @return the response as received from the CAS server.
+     */
+    public String getXml() {
+        if (this.xml == null) {
+            this.xml = this.body.asString();
+        }
+        return this.xml;
+    }
+
+    /**
+     * @return true if the response holds an <code>authenticationFailure</code>.
+     */
+    public boolean isFailure() {
+        return this.failure;
+    }
+
+    /**
+     * @return the <code>code</code> of the authentication failure, i.e. <code>INVALID_TICKET</code>.
+     */
+    public String getFailureCode() {
+        return this.failureCode;
+    }
+
+    /**
+     * @return the text of the authentication failure.
+     */
+    public String getFailureDescription() {
+        return this.failureDescription;
+    }
+
+    /**
+     * @return the authenticated user, or null if the response holds none.
+     */
+    public String getUser() {
+        return this.user;
+    }
+
+    /**
+     * @return the raw <code>proxyGrantingTicket</code> value: a PGTIOU or an encrypted proxy granting ticket.
+     */
+    public String getProxyGrantingTicket() {
+        return this.proxyGrantingTicket;
+    }
+
+    /**
+     * @return the proxies the ticket went through, in order, possibly empty.
+     */
+    public List<String> getProxies() {
+        return Collections.unmodifiableList(this.proxies);
+    }
+
+    /**
+     * @return the attributes given as child elements of <code>cas:attributes</code>. The map belongs to the caller.
+     */
+    public Map<String, Object> getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * @return the attributes given as inlined <code>cas:attribute</code> elements. The map belongs to the caller.
+     */
+    public Map<String, Object> getInlineAttributes() {
+        return this.inlineAttributes;
+    }
+
+    /**
+     * @return the message to report for an authentication failure.
+     */
+    String getFailureMessage() {
+        return CommonUtils.isNotBlank(this.failureDescription) ? this.failureDescription : this.failureCode;
+    }
+}
@@ -35,13 +35,29 @@ public class TicketValidationException extends Exception {
     @Serial
     private static final long serialVersionUID = -7036248720402711806L;
 
+    /**
+     * Failure code returned by the CAS server, if any.
+     */
+    private final String code;
+
     /**
      * Constructs an exception with the supplied message.
      *
      * @param string the message
      */
     public TicketValidationException(final String string) {
+        this(string, (String) null);
+    }
+
+    /**
+     * Constructs an exception for a failure reported by the CAS server.
+     *
+     * @param string the message
+     * @param code the failure code returned by the CAS server, i.e. INVALID_TICKET
+     */
+    public TicketValidationException(final String string, final String code) {
         super(string);
+        this.code = code;
     }
 
     /**
@@ -52,6 +68,7 @@ public class TicketValidationException extends Exception {
      */
     public TicketValidationException(final String string, final Throwable throwable) {
         super(string, throwable);
+        this.code = null;
     }
 
     /**
@@ -60,5 +77,13 @@ public class TicketValidationException extends Exception {
      */
     public TicketValidationException(final Throwable throwable) {
         super(throwable);
+        this.code = null;
+    }
+
+    /**
+     * @return the failure code returned by the CAS server, or null if validation failed for another reason.
+     */
+    public String getCode() {
+        return this.code;
     }
 }
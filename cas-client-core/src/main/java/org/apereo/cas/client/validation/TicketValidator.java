@@ -18,6 +18,8 @@
  */
 package org.apereo.cas.client.validation;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Contract for a validator that will confirm the validity of a supplied ticket.
  * <p>
@@ -40,4 +42,22 @@ public interface TicketValidator {
      *
      */
     Assertion validate(String ticket, String service) throws TicketValidationException;
+
+    /**
+     * Attempts to validate a ticket for the provided service without blocking the calling thread.
+     * <p>
+     * The default implementation validates on the calling thread and returns a completed future.
+     *
+     * @param ticket the ticket to attempt to validate.
+     * @param service the service this ticket is valid for.
+     * @return the future assertion, completed exceptionally with a {@link TicketValidationException}
+     * if the ticket cannot be validated.
+     */
+    default CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        try {
+            return CompletableFuture.completedFuture(validate(ticket, service));
+        } catch (final TicketValidationException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
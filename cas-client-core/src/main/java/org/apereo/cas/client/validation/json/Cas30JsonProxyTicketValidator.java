@@ -23,7 +23,6 @@ import org.apereo.cas.client.validation.Cas30ProxyTicketValidator;
 import org.apereo.cas.client.validation.TicketValidationException;
 
 import java.util.Collections;
-import java.util.List;
 
 /**
  * This is {@link Cas30JsonProxyTicketValidator} that attempts to parse the CAS validation response
@@ -40,22 +39,11 @@ public class Cas30JsonProxyTicketValidator extends Cas30ProxyTicketValidator {
     @Override
     protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
         try {
-            final var json = new JsonValidationResponseParser().parse(response);
+            final var json = JsonValidationResponseParser.parse(response);
             return json.getAssertion(getProxyGrantingTicketStorage(), getProxyRetriever());
         } catch (final Exception e) {
             logger.warn("Unable parse the JSON response");
             return super.parseResponseFromServer(response);
         }
     }
-
-    @Override
-    protected List<String> parseProxiesFromResponse(final String response) {
-        try {
-            final var json = new JsonValidationResponseParser().parse(response);
-            return json.serviceResponse().authenticationSuccess().getProxies();
-        } catch (final Exception e) {
-            logger.warn("Unable to locate proxies from the JSON response", e);
-            return super.parseProxiesFromResponse(response);
-        }
-    }
 }
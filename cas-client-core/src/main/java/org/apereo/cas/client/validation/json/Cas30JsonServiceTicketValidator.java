@@ -20,6 +20,7 @@ package org.apereo.cas.client.validation.json;
 
 import org.apereo.cas.client.validation.Assertion;
 import org.apereo.cas.client.validation.Cas30ServiceTicketValidator;
+import org.apereo.cas.client.validation.ServiceValidationResponse;
 import org.apereo.cas.client.validation.TicketValidationException;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -46,7 +47,7 @@ public class Cas30JsonServiceTicketValidator extends Cas30ServiceTicketValidator
     @Override
     protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
         try {
-            final var json = new JsonValidationResponseParser().parse(response);
+            final var json = JsonValidationResponseParser.parse(response);
             return json.getAssertion(getProxyGrantingTicketStorage(), getProxyRetriever());
         } catch (final JsonProcessingException e) {
             logger.warn("Unable parse the JSON response. Falling back to XML", e);
@@ -57,7 +58,7 @@ public class Cas30JsonServiceTicketValidator extends Cas30ServiceTicketValidator
     }
 
     @Override
-    protected Map<String, Object> extractCustomAttributes(final String xml) {
+    protected Map<String, Object> extractCustomAttributes(final ServiceValidationResponse response) {
         return Collections.emptyMap();
     }
 }
@@ -21,47 +21,177 @@ package org.apereo.cas.client.validation.json;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.validation.TicketValidationException;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * This is {@link JsonValidationResponseParser}.
+ * This is {@link JsonValidationResponseParser}. Reads CAS 3.0 JSON responses in a single streaming pass, straight
+ * into the principal name, attributes and proxies; unknown properties are skipped.
+ * <p>
+ * Attribute values are read the way Jackson binds untyped content: strings, numbers, booleans, lists and maps.
  *
  * @author Misagh Moayyed
  */
 final class JsonValidationResponseParser {
-    private final ObjectMapper objectMapper;
 
-    public JsonValidationResponseParser() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.findAndRegisterModules();
+    /**
+     * Shared by all validators; readers are immutable and thread-safe.
+     */
+    private static final ObjectReader READER = new ObjectMapper().reader();
+
+    private JsonValidationResponseParser() {
     }
 
-    public TicketValidationJsonResponse parse(final String response) throws TicketValidationException, IOException {
+    static TicketValidationJsonResponse parse(final String response) throws TicketValidationException, IOException {
         if (CommonUtils.isBlank(response)) {
             throw new TicketValidationException("Invalid JSON response; The response is empty");
         }
+        try (var parser = READER.createParser(response)) {
+            return read(parser);
+        }
+    }
 
-        final var json = this.objectMapper.readValue(response, TicketValidationJsonResponse.class);
+    /**
+     * @param response the response; it is not closed.
+     * @param charset  the character set of the response.
+     */
+    static TicketValidationJsonResponse parse(final InputStream response, final Charset charset)
+        throws TicketValidationException, IOException {
+        try (var parser = StandardCharsets.UTF_8.equals(charset)
+            ? READER.createParser(response)
+            : READER.createParser(new InputStreamReader(response, charset))) {
+            return read(parser);
+        }
+    }
 
-        final var serviceResponse = json.serviceResponse();
-        if (serviceResponse.authenticationFailure() != null
-            && serviceResponse.authenticationSuccess() != null) {
-            throw new TicketValidationException("Invalid JSON response; It indicates both a success "
-                                                + "and a failure event, which is indicative of a server error. The actual response is " + response);
+    private static TicketValidationJsonResponse read(final JsonParser parser) throws TicketValidationException, IOException {
+        final var token = parser.nextToken();
+        if (token == null) {
+            throw new TicketValidationException("Invalid JSON response; The response is empty");
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Invalid JSON response; Expected an object but found " + token);
         }
 
-        if (serviceResponse.authenticationFailure() != null) {
-            final var error = json.serviceResponse().authenticationFailure().getCode()
-                              + " - " + serviceResponse.authenticationFailure().getDescription();
-            throw new TicketValidationException(error);
+        TicketValidationJsonResponse success = null;
+        String failureCode = null;
+        String failureDescription = null;
+        var failure = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var name = parser.currentName();
+            if ("serviceResponse".equals(name) && parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final var field = parser.currentName();
+                    final var value = parser.nextToken();
+                    if ("authenticationSuccess".equals(field) && value == JsonToken.START_OBJECT) {
+                        success = readSuccess(parser);
+                    } else if ("authenticationFailure".equals(field) && value == JsonToken.START_OBJECT) {
+                        failure = true;
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            final var property = parser.currentName();
+                            parser.nextToken();
+                            if ("code".equals(property)) {
+                                failureCode = parser.getValueAsString();
+                            } else if ("description".equals(property)) {
+                                failureDescription = parser.getValueAsString();
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.nextToken();
+                parser.skipChildren();
+            }
         }
 
-        final var principal = json.serviceResponse().authenticationSuccess().getUser();
-        if (CommonUtils.isEmpty(principal)) {
+        if (failure && success != null) {
+            throw new TicketValidationException("Invalid JSON response; It indicates both a success "
+                                                + "and a failure event, which is indicative of a server error.");
+        }
+        if (failure) {
+            throw new TicketValidationException(failureCode + " - " + failureDescription, failureCode);
+        }
+        if (success == null || CommonUtils.isEmpty(success.getUser())) {
             throw new TicketValidationException("No principal was found in the response from the CAS server.");
         }
-        return json;
+        return success;
+    }
+
+    private static TicketValidationJsonResponse readSuccess(final JsonParser parser) throws IOException {
+        String user = null;
+        String proxyGrantingTicket = null;
+        List<String> proxies = null;
+        Map<String, Object> attributes = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var name = parser.currentName();
+            final var token = parser.nextToken();
+            switch (name) {
+                case "user" -> user = parser.getValueAsString();
+                case "proxyGrantingTicket" -> proxyGrantingTicket = parser.getValueAsString();
+                case "proxies" -> proxies = readProxies(parser, token);
+                case "attributes" -> attributes = token == JsonToken.START_OBJECT ? readObject(parser) : null;
+                default -> parser.skipChildren();
+            }
+        }
+        return new TicketValidationJsonResponse(user, proxyGrantingTicket, proxies, attributes);
+    }
+
+    private static List<String> readProxies(final JsonParser parser, final JsonToken token) throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        final var proxies = new ArrayList<String>(2);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            proxies.add(parser.getValueAsString());
+            parser.skipChildren();
+        }
+        return proxies;
+    }
+
+    private static Map<String, Object> readObject(final JsonParser parser) throws IOException {
+        final var map = new LinkedHashMap<String, Object>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var name = parser.currentName();
+            parser.nextToken();
+            map.put(name, readValue(parser));
+        }
+        return map;
+    }
+
+    private static Object readValue(final JsonParser parser) throws IOException {
+        return switch (parser.currentToken()) {
+            case START_OBJECT -> readObject(parser);
+            case START_ARRAY -> {
+                final var list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser));
+                }
+                yield list;
+            }
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT -> parser.getEmbeddedObject();
+            default -> null;
+        };
     }
 }
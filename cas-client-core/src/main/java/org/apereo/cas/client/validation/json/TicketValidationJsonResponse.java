@@ -26,124 +26,65 @@ import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.validation.Assertion;
 import org.apereo.cas.client.validation.AssertionImpl;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
-
 import java.util.List;
 import java.util.Map;
 
 /**
- * This is {@link TicketValidationJsonResponse}.
+ * This is {@link TicketValidationJsonResponse}, the successful authentication read from a CAS 3.0 JSON response.
  *
  * @author Misagh Moayyed
  */
-record TicketValidationJsonResponse(TicketValidationJsonResponse.CasServiceResponseAuthentication serviceResponse) {
-    @JsonCreator
-    TicketValidationJsonResponse(
-        @JsonProperty("serviceResponse")
-        final CasServiceResponseAuthentication serviceResponse) {
-        this.serviceResponse = serviceResponse;
-    }
-
-    record CasServiceResponseAuthentication(CasServiceResponseAuthenticationFailure authenticationFailure,
-                                            CasServiceResponseAuthenticationSuccess authenticationSuccess) {
-        @JsonCreator
-        CasServiceResponseAuthentication(
-            @JsonProperty("authenticationFailure")
-            final CasServiceResponseAuthenticationFailure authenticationFailure,
-            @JsonProperty("authenticationSuccess")
-            final CasServiceResponseAuthenticationSuccess authenticationSuccess) {
-            this.authenticationFailure = authenticationFailure;
-            this.authenticationSuccess = authenticationSuccess;
-        }
-    }
-
-    static class CasServiceResponseAuthenticationSuccess {
-        private String user;
-
-        private String proxyGrantingTicket;
-
-        private List proxies;
+final class TicketValidationJsonResponse {
 
-        private Map attributes;
+    private final String user;
 
-        public String getUser() {
-            return this.user;
-        }
-
-        public void setUser(final String user) {
-            this.user = user;
-        }
-
-        public String getProxyGrantingTicket() {
-            return this.proxyGrantingTicket;
-        }
+    private final String proxyGrantingTicket;
 
-        public void setProxyGrantingTicket(final String proxyGrantingTicket) {
-            this.proxyGrantingTicket = proxyGrantingTicket;
-        }
+    private final List<String> proxies;
 
-        public List getProxies() {
-            return this.proxies;
-        }
+    private final Map<String, Object> attributes;
 
-        public void setProxies(final List proxies) {
-            this.proxies = proxies;
-        }
-
-        public Map getAttributes() {
-            return this.attributes;
-        }
-
-        public void setAttributes(final Map attributes) {
-            this.attributes = attributes;
-        }
+    TicketValidationJsonResponse(final String user, final String proxyGrantingTicket, final List<String> proxies,
+                                 final Map<String, Object> attributes) {
+        this.user = user;
+        this.proxyGrantingTicket = proxyGrantingTicket;
+        this.proxies = proxies;
+        this.attributes = attributes;
     }
 
-    static class CasServiceResponseAuthenticationFailure {
-        private String code;
-
-        private String description;
-
-        public String getCode() {
-            return this.code;
-        }
+    public String getUser() {
+        return this.user;
+    }
 
-        public void setCode(final String code) {
-            this.code = code;
-        }
+    public String getProxyGrantingTicket() {
+        return this.proxyGrantingTicket;
+    }
 
-        public String getDescription() {
-            return this.description;
-        }
+    public List<String> getProxies() {
+        return this.proxies;
+    }
 
-        public void setDescription(final String description) {
-            this.description = description;
-        }
+    public Map<String, Object> getAttributes() {
+        return this.attributes;
     }
 
     Assertion getAssertion(final ProxyGrantingTicketStorage proxyGrantingTicketStorage,
                            final ProxyRetriever proxyRetriever) {
-        final var proxyGrantingTicketIou = serviceResponse().authenticationSuccess().getProxyGrantingTicket();
         final String proxyGrantingTicket;
-        if (CommonUtils.isBlank(proxyGrantingTicketIou) || proxyGrantingTicketStorage == null) {
+        if (CommonUtils.isBlank(this.proxyGrantingTicket) || proxyGrantingTicketStorage == null) {
             proxyGrantingTicket = null;
         } else {
-            proxyGrantingTicket = proxyGrantingTicketStorage.retrieve(proxyGrantingTicketIou);
+            proxyGrantingTicket = proxyGrantingTicketStorage.retrieve(this.proxyGrantingTicket);
         }
 
         final Assertion assertion;
-        final Map<String, Object> attributes = serviceResponse().authenticationSuccess().getAttributes();
-        final var principal = serviceResponse().authenticationSuccess().getUser();
         if (CommonUtils.isNotBlank(proxyGrantingTicket)) {
-            final AttributePrincipal attributePrincipal = new AttributePrincipalImpl(principal, attributes,
+            final AttributePrincipal attributePrincipal = new AttributePrincipalImpl(this.user, this.attributes,
                 proxyGrantingTicket, proxyRetriever);
             assertion = new AssertionImpl(attributePrincipal);
         } else {
-            assertion = new AssertionImpl(new AttributePrincipalImpl(principal, attributes));
+            assertion = new AssertionImpl(new AttributePrincipalImpl(this.user, this.attributes));
         }
         return assertion;
     }
 }
-
-
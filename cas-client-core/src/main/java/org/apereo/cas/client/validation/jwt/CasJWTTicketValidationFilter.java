@@ -2,11 +2,15 @@ package org.apereo.cas.client.validation.jwt;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKey;
+import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.validation.AbstractTicketValidationFilter;
 import org.apereo.cas.client.validation.TicketValidator;
 
 import jakarta.servlet.FilterConfig;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class CasJWTTicketValidationFilter extends AbstractTicketValidationFilter {
     protected CasJWTTicketValidationFilter() {
         super(Protocol.CAS3);
@@ -17,6 +21,8 @@ public class CasJWTTicketValidationFilter extends AbstractTicketValidationFilter
         final var validator = new CasJWTTicketValidator();
         validator.setEncryptionKey(getString(new ConfigurationKey<>("encryptionKey")));
         validator.setSigningKey(getString(new ConfigurationKey<>("signingKey")));
+        validator.setEncryptionKeys(parseKeys(getString(new ConfigurationKey<>("encryptionKeys"))));
+        validator.setSigningKeys(parseKeys(getString(new ConfigurationKey<>("signingKeys"))));
         validator.setExpectedIssuer(getString(new ConfigurationKey<>("expectedIssuer")));
         validator.setExpectedAudience(getString(new ConfigurationKey<>("expectedAudience")));
         validator.setEncryptionKeyAlgorithm(getString(new ConfigurationKey<>("encryptionKeyAlgorithm", "AES")));
@@ -25,7 +31,28 @@ public class CasJWTTicketValidationFilter extends AbstractTicketValidationFilter
         validator.setBase64EncryptionKey(getBoolean(new ConfigurationKey<>("base64EncryptionKey", true)));
         validator.setBase64SigningKey(getBoolean(new ConfigurationKey<>("base64SigningKey", true)));
         validator.setMaxClockSkew(getInt(new ConfigurationKey<>("maxClockSkew", 60)));
+        validator.setCacheResults(getBoolean(new ConfigurationKey<>("cacheResults", false)));
+        validator.setRejectReplays(getBoolean(new ConfigurationKey<>("rejectReplays", false)));
+        validator.setCacheMaxSize(getInt(new ConfigurationKey<>("cacheMaxSize", 10000)));
+        validator.setCacheTimeToLive(getLong(new ConfigurationKey<>("cacheTimeToLive", 0L)));
+        validator.setMetricsRecorder(getMetricsRecorder());
         validator.initialize();
         return validator;
     }
+
+    /**
+     * Parses keys listed as <code>keyId:key</code>, separated by commas or whitespace.
+     */
+    private static Map<String, String> parseKeys(final String keys) {
+        final var keysById = new LinkedHashMap<String, String>();
+        if (CommonUtils.isBlank(keys)) {
+            return keysById;
+        }
+        for (final var entry : keys.trim().split("[\\s,]+")) {
+            final var separator = entry.indexOf(':');
+            CommonUtils.assertTrue(separator > 0, "Keys must be listed as keyId:key, but found " + entry);
+            keysById.put(entry.substring(0, separator), entry.substring(separator + 1));
+        }
+        return keysById;
+    }
 }
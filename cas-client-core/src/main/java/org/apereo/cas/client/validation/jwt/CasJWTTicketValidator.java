@@ -18,30 +18,23 @@
  */
 package org.apereo.cas.client.validation.jwt;
 
-import com.nimbusds.jose.EncryptionMethod;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JOSEObjectType;
-import com.nimbusds.jose.JWEAlgorithm;
-import com.nimbusds.jose.JWEHeader;
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.proc.BadJOSEException;
 import com.nimbusds.jose.proc.BadJWEException;
 import com.nimbusds.jose.proc.BadJWSException;
 import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
-import com.nimbusds.jose.proc.JWEDecryptionKeySelector;
-import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.EncryptedJWT;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.JWTParser;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.proc.BadJWTException;
-import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
 import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.validation.Assertion;
 import org.apereo.cas.client.validation.AssertionImpl;
 import org.apereo.cas.client.validation.TicketValidationException;
@@ -52,25 +45,39 @@ import org.slf4j.LoggerFactory;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.util.Base64;
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This is {@link CasJWTTicketValidator} that attempts to parse the CAS service ticket
  * as a JWT.
+ * <p>
+ * Besides a single signing and encryption key, sets of keys indexed by key id may be configured through
+ * {@link #setSigningKeys(Map)} and {@link #setEncryptionKeys(Map)}: a token is then only checked against the key
+ * named by its <code>kid</code> header. Keys may be replaced at any time to rotate them without a restart.
  *
  * @author Misagh Moayyed
  */
 public class CasJWTTicketValidator implements TicketValidator {
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private final ReentrantLock initializationLock = new ReentrantLock();
+
     private String signingKey;
 
     private String encryptionKey;
 
+    private Map<String, String> signingKeys = Map.of();
+
+    private Map<String, String> encryptionKeys = Map.of();
+
     private String expectedIssuer;
 
     private String expectedAudience;
@@ -87,66 +94,196 @@ public class CasJWTTicketValidator implements TicketValidator {
 
     private int maxClockSkew = 60;
 
-    private ConfigurableJWTProcessor<SecurityContext> jwtProcessor;
+    private volatile JWTKeySet signingKeySet;
+
+    private volatile JWTKeySet encryptionKeySet;
+
+    private boolean cacheResults;
+
+    private boolean rejectReplays;
+
+    private int cacheMaxSize = 10000;
+
+    private long cacheTimeToLive;
+
+    private MetricsRecorder metricsRecorder = MetricsRecorder.NOOP;
+
+    private volatile CasJWTProcessor jwtProcessor;
+
+    private volatile JWTValidationCache validationCache;
 
     @Override
     public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        final var start = System.nanoTime();
         try {
-            if (jwtProcessor == null) {
-                initialize();
+            var processor = this.jwtProcessor;
+            if (processor == null) {
+                processor = initializeOnce();
+            }
+
+            final var cache = this.validationCache;
+            final var cacheKey = cache != null && this.cacheResults ? digest(ticket) : null;
+            if (cacheKey != null) {
+                final var cached = cache.get(cacheKey);
+                if (cached != null) {
+                    logger.debug("Found cached assertion for JWT");
+                    recordValidation(start, null);
+                    return cached;
+                }
             }
 
-            final var claimsSet = this.jwtProcessor.process(ticket, null);
+            final var claimsSet = processor.process(ticket, null);
             logger.debug("Validated claims are {}", claimsSet);
 
-            return new AssertionImpl(
+            final var assertion = new AssertionImpl(
                 new AttributePrincipalImpl(claimsSet.getSubject(), claimsSet.getClaims()),
                 claimsSet.getIssueTime(), claimsSet.getExpirationTime(),
                 claimsSet.getIssueTime(), new HashMap<>());
+            if (cache != null && this.rejectReplays) {
+                rejectReplay(cache, claimsSet, assertion);
+            } else if (cacheKey != null) {
+                cache.put(cacheKey, assertion, cacheExpiry(claimsSet));
+            }
+            recordValidation(start, null);
+            return assertion;
+        } catch (final TicketValidationException e) {
+            recordValidation(start, e);
+            throw e;
         } catch (final Exception e) {
-            throw new TicketValidationException(e);
+            final var failure = new TicketValidationException(e);
+            recordValidation(start, failure);
+            throw failure;
         }
     }
 
-    public void initialize() {
-        logger.debug("Initializing JWT processor...");
-        this.jwtProcessor = new CasJWTProcessor();
-        jwtProcessor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(JOSEObjectType.JWT));
-
-        final var jweKeySource = new ImmutableSecret<>(new SecretKeySpec(
-            base64EncryptionKey ? Base64.getDecoder().decode(encryptionKey) : encryptionKey.getBytes(StandardCharsets.UTF_8), encryptionKeyAlgorithm));
-        final var jwsKeySource = new ImmutableSecret<>(new SecretKeySpec(
-            base64SigningKey ? Base64.getDecoder().decode(signingKey) : signingKey.getBytes(StandardCharsets.UTF_8), signingKeyAlgorithm));
-
-        configureKeySelectors(jwtProcessor, jweKeySource, jwsKeySource);
-
-        final var requiredClaimsSet = Set.of(requiredClaims.split(","));
-        final var exactMatchClaims = new JWTClaimsSet.Builder()
-            .issuer(expectedIssuer)
-            .audience(expectedAudience)
-            .build();
-        final var jwtClaimsSetVerifier = new DefaultJWTClaimsVerifier<>(exactMatchClaims, requiredClaimsSet);
-        jwtClaimsSetVerifier.setMaxClockSkew(this.maxClockSkew);
-        jwtProcessor.setJWTClaimsSetVerifier(jwtClaimsSetVerifier);
+    private void rejectReplay(final JWTValidationCache cache, final JWTClaimsSet claimsSet,
+                              final Assertion assertion) throws TicketValidationException {
+        final var id = claimsSet.getJWTID();
+        if (id == null) {
+            throw new TicketValidationException("JWT has no jti claim to detect replays with");
+        }
+        final var expiration = claimsSet.getExpirationTime();
+        if (expiration == null) {
+            // its id would have to be remembered forever, filling the cache for good
+            throw new TicketValidationException("JWT " + id + " has no exp claim to detect replays until");
+        }
+        final var expiresAt = expiration.getTime() + this.maxClockSkew * 1000L;
+        if (cache.get(id) == null && cache.isFull()) {
+            logger.warn("Rejecting JWT {}: the {} JWT ids remembered to detect replays have not expired yet",
+                id, this.cacheMaxSize);
+            this.metricsRecorder.recordValidationRejected(MetricsRecorder.ValidationRejection.REPLAY_CACHE_FULL);
+            throw new TicketValidationException("Too many JWTs to detect replays of JWT " + id);
+        }
+        if (!cache.putIfAbsent(id, assertion, expiresAt)) {
+            throw new TicketValidationException("JWT " + id + " has already been used");
+        }
+    }
+
+    private long cacheExpiry(final JWTClaimsSet claimsSet) {
+        final var expiration = claimsSet.getExpirationTime();
+        var expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        if (this.cacheTimeToLive > 0) {
+            expiresAt = Math.min(expiresAt, System.currentTimeMillis() + this.cacheTimeToLive);
+        }
+        return expiresAt;
+    }
+
+    /**
+     * Keys cached results by a digest of the token rather than its <code>jti</code>, which is only known once the
+     * token has been decrypted and verified, and rather than the token itself, which may take kilobytes.
+     */
+    private static String digest(final String ticket) throws NoSuchAlgorithmException {
+        final var hash = MessageDigest.getInstance("SHA-256").digest(ticket.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private void recordValidation(final long start, final Throwable failure) {
+        this.metricsRecorder.recordValidation(getClass().getSimpleName(), System.nanoTime() - start, failure);
     }
 
-    private static void configureKeySelectors(final ConfigurableJWTProcessor<SecurityContext> jwtProcessor,
-                                              final ImmutableSecret<SecurityContext> jweKeySource,
-                                              final ImmutableSecret<SecurityContext> jwsKeySource) {
-        final var jwsKeySelector = new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwsKeySource) {
-            @Override
-            public List<Key> selectJWSKeys(final JWSHeader jwsHeader, final SecurityContext context) {
-                return List.of(jwsKeySource.getSecretKey());
+    private CasJWTProcessor initializeOnce() {
+        this.initializationLock.lock();
+        try {
+            if (this.jwtProcessor == null) {
+                initialize();
             }
-        };
-        final var jweKeySelector = new JWEDecryptionKeySelector<>(JWEAlgorithm.DIR, EncryptionMethod.A128CBC_HS256, jweKeySource) {
-            @Override
-            public List<Key> selectJWEKeys(final JWEHeader jweHeader, final SecurityContext context) {
-                return List.of(jweKeySource.getSecretKey());
+            return this.jwtProcessor;
+        } finally {
+            this.initializationLock.unlock();
+        }
+    }
+
+    /**
+     * Builds the keys and the JWT processor from the current settings. Called by the validation filter once
+     * configured; otherwise the first validation calls it.
+     */
+    public void initialize() {
+        this.initializationLock.lock();
+        try {
+            logger.debug("Initializing JWT processor...");
+            createKeySets();
+
+            final var processor = new CasJWTProcessor();
+            processor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(JOSEObjectType.JWT));
+
+            final var requiredClaimsSet = Set.of(requiredClaims.split(","));
+            final var exactMatchClaims = new JWTClaimsSet.Builder()
+                .issuer(expectedIssuer)
+                .audience(expectedAudience)
+                .build();
+            final var jwtClaimsSetVerifier = new DefaultJWTClaimsVerifier<>(exactMatchClaims, requiredClaimsSet);
+            jwtClaimsSetVerifier.setMaxClockSkew(this.maxClockSkew);
+            processor.setJWTClaimsSetVerifier(jwtClaimsSetVerifier);
+            this.validationCache = this.cacheResults || this.rejectReplays
+                ? new JWTValidationCache(this.cacheMaxSize, !this.rejectReplays) : null;
+            this.jwtProcessor = processor;
+        } finally {
+            this.initializationLock.unlock();
+        }
+    }
+
+    private void createKeySets() {
+        final var signing = createKeySet(this.signingKey, this.signingKeys, this.base64SigningKey, this.signingKeyAlgorithm);
+        CommonUtils.assertFalse(signing.isEmpty(), "signingKey or signingKeys must be set.");
+        final var encryption = createKeySet(this.encryptionKey, this.encryptionKeys, this.base64EncryptionKey,
+            this.encryptionKeyAlgorithm);
+        CommonUtils.assertFalse(encryption.isEmpty(), "encryptionKey or encryptionKeys must be set.");
+        this.signingKeySet = signing;
+        this.encryptionKeySet = encryption;
+    }
+
+    private static JWTKeySet createKeySet(final String key, final Map<String, String> keysById, final boolean base64,
+                                          final String algorithm) {
+        final var keys = new LinkedHashMap<String, Key>();
+        for (final var entry : keysById.entrySet()) {
+            keys.put(entry.getKey(), createKey(entry.getValue(), base64, algorithm));
+        }
+        return new JWTKeySet(key != null ? createKey(key, base64, algorithm) : null, keys);
+    }
+
+    private static Key createKey(final String key, final boolean base64, final String algorithm) {
+        return new SecretKeySpec(base64 ? Base64.getDecoder().decode(key) : key.getBytes(StandardCharsets.UTF_8), algorithm);
+    }
+
+    /**
+     * Rebuilds the key sets when keys are replaced after initialization, so that the next tokens are checked
+     * against the new keys.
+     */
+    private void rotateKeys() {
+        if (this.jwtProcessor == null) {
+            return;
+        }
+        this.initializationLock.lock();
+        try {
+            createKeySets();
+            final var cache = this.validationCache;
+            if (cache != null && this.cacheResults) {
+                cache.clear();
             }
-        };
-        jwtProcessor.setJWSKeySelector(jwsKeySelector);
-        jwtProcessor.setJWEKeySelector(jweKeySelector);
+            logger.debug("Replaced JWT keys");
+        } finally {
+            this.initializationLock.unlock();
+        }
     }
 
     public void setBase64EncryptionKey(final boolean base64EncryptionKey) {
@@ -179,27 +316,91 @@ public class CasJWTTicketValidator implements TicketValidator {
 
     public void setSigningKey(final String signingKey) {
         this.signingKey = signingKey;
+        rotateKeys();
     }
 
     public void setEncryptionKey(final String encryptionKey) {
         this.encryptionKey = encryptionKey;
+        rotateKeys();
+    }
+
+    /**
+     * @param signingKeys signing keys by key id, used instead of the {@link #setSigningKey(String) signing key} for
+     *                    tokens naming one of these ids.
+     */
+    public void setSigningKeys(final Map<String, String> signingKeys) {
+        this.signingKeys = Map.copyOf(signingKeys);
+        rotateKeys();
+    }
+
+    /**
+     * @param encryptionKeys encryption keys by key id, used instead of the {@link #setEncryptionKey(String)
+     *                       encryption key} for tokens naming one of these ids.
+     */
+    public void setEncryptionKeys(final Map<String, String> encryptionKeys) {
+        this.encryptionKeys = Map.copyOf(encryptionKeys);
+        rotateKeys();
     }
 
     public void setMaxClockSkew(final int maxClockSkew) {
         this.maxClockSkew = maxClockSkew;
     }
 
-    private static class CasJWTProcessor extends DefaultJWTProcessor<SecurityContext> {
+    /**
+     * Caches assertions until their JWT expires, so that a JWT presented again, i.e. on page reloads or retries,
+     * is neither decrypted nor verified again. Cached assertions are dropped when keys are replaced.
+     *
+     * @param cacheResults whether to cache assertions.
+     */
+    public void setCacheResults(final boolean cacheResults) {
+        this.cacheResults = cacheResults;
+    }
+
+    /**
+     * Rejects a JWT whose <code>jti</code> was already validated, until it expires. JWTs without a <code>jti</code>
+     * or an <code>exp</code> claim are rejected. Takes precedence over {@link #setCacheResults(boolean) cacheResults}.
+     *
+     * @param rejectReplays whether to reject JWTs presented more than once.
+     */
+    public void setRejectReplays(final boolean rejectReplays) {
+        this.rejectReplays = rejectReplays;
+    }
+
+    /**
+     * @param cacheMaxSize maximum number of cached assertions, the oldest being evicted first, or of remembered JWT
+     *                     ids, which are only forgotten once expired: new JWTs are rejected while all remembered ids
+     *                     have yet to expire, so it must exceed the number of JWTs issued within their lifetime.
+     */
+    public void setCacheMaxSize(final int cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * @param cacheTimeToLive maximum milliseconds an assertion stays cached, when shorter than the lifetime of its
+     *                        JWT; 0 or less to cache until the JWT expires.
+     */
+    public void setCacheTimeToLive(final long cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
+    /**
+     * @param metricsRecorder the recorder of validations and of the JWTs rejected while the replay cache is full.
+     */
+    public void setMetricsRecorder(final MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : MetricsRecorder.NOOP;
+    }
+
+    private class CasJWTProcessor extends DefaultJWTProcessor<SecurityContext> {
         @Override
         public JWTClaimsSet process(final SignedJWT signedJWT, final SecurityContext context) throws BadJOSEException, JOSEException {
             getJWETypeVerifier().verify(signedJWT.getHeader().getType(), context);
-            final var keyCandidates = getJWSKeySelector().selectJWSKeys(signedJWT.getHeader(), context);
-            if (keyCandidates == null || keyCandidates.isEmpty()) {
+            final var keyCandidates = signingKeySet.select(signedJWT.getHeader().getKeyID());
+            if (keyCandidates.isEmpty()) {
                 throw new BadJOSEException("Signed JWT rejected: Another algorithm expected, or no matching key(s) found");
             }
             var it = keyCandidates.listIterator();
             while (it.hasNext()) {
-                final var verifier = getJWSVerifierFactory().createJWSVerifier(signedJWT.getHeader(), it.next());
+                final var verifier = it.next().verifier(signedJWT.getHeader(), getJWSVerifierFactory());
                 if (verifier == null) {
                     continue;
                 }
@@ -235,14 +436,14 @@ public class CasJWTTicketValidator implements TicketValidator {
         @Override
         public JWTClaimsSet process(final EncryptedJWT encryptedJWT, final SecurityContext context) throws BadJOSEException, JOSEException {
             getJWETypeVerifier().verify(encryptedJWT.getHeader().getType(), context);
-            var keyCandidates = getJWEKeySelector().selectJWEKeys(encryptedJWT.getHeader(), context);
-            if (keyCandidates == null || keyCandidates.isEmpty()) {
+            var keyCandidates = encryptionKeySet.select(encryptedJWT.getHeader().getKeyID());
+            if (keyCandidates.isEmpty()) {
                 throw new BadJOSEException("Encrypted JWT rejected: Another algorithm expected, or no matching key(s) found");
             }
 
             var it = keyCandidates.listIterator();
             while (it.hasNext()) {
-                var decrypter = getJWEDecrypterFactory().createJWEDecrypter(encryptedJWT.getHeader(), it.next());
+                var decrypter = it.next().decrypter(encryptedJWT.getHeader(), getJWEDecrypterFactory());
                 if (decrypter == null) {
                     continue;
                 }
@@ -279,13 +480,13 @@ public class CasJWTTicketValidator implements TicketValidator {
 
         private JWTClaimsSet decryptNestedJwt(final EncryptedJWT encryptedJWT, final SecurityContext context) throws BadJOSEException, JOSEException {
             getJWETypeVerifier().verify(encryptedJWT.getHeader().getType(), context);
-            var keyCandidates = getJWEKeySelector().selectJWEKeys(encryptedJWT.getHeader(), context);
-            if (keyCandidates == null || keyCandidates.isEmpty()) {
+            var keyCandidates = encryptionKeySet.select(encryptedJWT.getHeader().getKeyID());
+            if (keyCandidates.isEmpty()) {
                 throw new BadJOSEException("Encrypted JWT rejected: Another algorithm expected, or no matching key(s) found");
             }
             var it = keyCandidates.listIterator();
             while (it.hasNext()) {
-                var decrypter = getJWEDecrypterFactory().createJWEDecrypter(encryptedJWT.getHeader(), it.next());
+                var decrypter = it.next().decrypter(encryptedJWT.getHeader(), getJWEDecrypterFactory());
                 if (decrypter == null) {
                     continue;
                 }
@@ -0,0 +1,118 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEDecrypter;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.proc.JWEDecrypterFactory;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+
+import java.security.Key;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of keys used to verify or decrypt JWTs, indexed by key id. Each key keeps the verifiers and
+ * decrypters built for it, one per algorithm, as they are thread-safe and costly to create.
+ * <p>
+ * A token naming a key id is only checked against the key registered under that id. Keys registered without an id,
+ * such as the one configured through {@link CasJWTTicketValidator#setSigningKey(String)}, are tried for tokens that
+ * name no id or an id that is not registered.
+ *
+ * @since 4.1.2
+ */
+final class JWTKeySet {
+
+    private final Map<String, List<CachedKey>> keysById;
+
+    private final List<CachedKey> unnamedKeys;
+
+    JWTKeySet(final Key unnamedKey, final Map<String, ? extends Key> keysById) {
+        final var named = new HashMap<String, List<CachedKey>>();
+        for (final var entry : keysById.entrySet()) {
+            named.put(entry.getKey(), List.of(new CachedKey(entry.getValue())));
+        }
+        this.keysById = Collections.unmodifiableMap(named);
+        this.unnamedKeys = unnamedKey != null ? List.of(new CachedKey(unnamedKey)) : List.of();
+    }
+
+    /**
+     * @param keyId the key id named by the token header, may be null.
+     * @return the keys to check the token against, in order.
+     */
+    List<CachedKey> select(final String keyId) {
+        if (keyId != null) {
+            final var keys = this.keysById.get(keyId);
+            if (keys != null) {
+                return keys;
+            }
+        }
+        return this.unnamedKeys;
+    }
+
+    boolean isEmpty() {
+        return this.keysById.isEmpty() && this.unnamedKeys.isEmpty();
+    }
+
+    /**
+     * A key with the verifiers and decrypters created for it so far.
+     */
+    static final class CachedKey {
+
+        private final Key key;
+
+        private final Map<String, JWSVerifier> verifiers = new ConcurrentHashMap<>();
+
+        private final Map<String, JWEDecrypter> decrypters = new ConcurrentHashMap<>();
+
+        CachedKey(final Key key) {
+            this.key = key;
+        }
+
+        Key getKey() {
+            return this.key;
+        }
+
+        JWSVerifier verifier(final JWSHeader header, final JWSVerifierFactory factory) throws JOSEException {
+            final var algorithm = header.getAlgorithm().getName();
+            var verifier = this.verifiers.get(algorithm);
+            if (verifier == null) {
+                verifier = factory.createJWSVerifier(header, this.key);
+                this.verifiers.putIfAbsent(algorithm, verifier);
+            }
+            return verifier;
+        }
+
+        JWEDecrypter decrypter(final JWEHeader header, final JWEDecrypterFactory factory) throws JOSEException {
+            final var algorithm = header.getAlgorithm().getName() + '/' + header.getEncryptionMethod().getName();
+            var decrypter = this.decrypters.get(algorithm);
+            if (decrypter == null) {
+                decrypter = factory.createJWEDecrypter(header, this.key);
+                this.decrypters.putIfAbsent(algorithm, decrypter);
+            }
+            return decrypter;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.apereo.cas.client.validation.Assertion;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of validated JWTs, each kept until it expires. Used by {@link CasJWTTicketValidator} either to return the
+ * assertion of a JWT presented again, or to reject a JWT whose id was already seen.
+ * <p>
+ * When more than <code>maxSize</code> entries are indexed, expired entries are swept and, if that is not enough, the
+ * oldest entries are evicted down to 90% of the size, so that a full cache is not swept again on every addition.
+ * A cache remembering JWT ids to reject replays never evicts unexpired entries, as forgetting such an id would let
+ * its JWT be replayed: it reports when it is full instead.
+ *
+ * @since 4.1.2
+ */
+final class JWTValidationCache {
+
+    /** Milliseconds between two sweeps of a full cache for expired entries. */
+    private static final long SWEEP_INTERVAL = 1000L;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Orders entries by insertion, as several may be added within the same millisecond.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final int maxSize;
+
+    private final boolean evictUnexpired;
+
+    private volatile long lastSweep;
+
+    /**
+     * @param maxSize        maximum number of entries.
+     * @param evictUnexpired whether the oldest entries are evicted even though they have not expired yet.
+     */
+    JWTValidationCache(final int maxSize, final boolean evictUnexpired) {
+        this.maxSize = maxSize;
+        this.evictUnexpired = evictUnexpired;
+    }
+
+    /**
+     * @return the assertion indexed under the key, or null when there is none or it expired.
+     */
+    Assertion get(final String key) {
+        final var entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            this.entries.remove(key, entry);
+            return null;
+        }
+        return entry.assertion;
+    }
+
+    /**
+     * Indexes the assertion under the key until the given time, replacing any previous entry.
+     */
+    void put(final String key, final Assertion assertion, final long expiresAt) {
+        this.entries.put(key, new Entry(assertion, expiresAt, this.sequence.incrementAndGet()));
+        added();
+    }
+
+    /**
+     * Indexes the assertion under the key until the given time, unless an unexpired entry already exists.
+     *
+     * @return whether the assertion was indexed, i.e. the key was not seen before.
+     */
+    boolean putIfAbsent(final String key, final Assertion assertion, final long expiresAt) {
+        final var now = System.currentTimeMillis();
+        final var entry = new Entry(assertion, expiresAt, this.sequence.incrementAndGet());
+        final var added = new boolean[1];
+        this.entries.compute(key, (k, existing) -> {
+            if (existing != null && !existing.isExpired(now)) {
+                return existing;
+            }
+            added[0] = true;
+            return entry;
+        });
+        if (added[0]) {
+            added();
+        }
+        return added[0];
+    }
+
+    /**
+     * Tells whether the cache holds <code>maxSize</code> unexpired entries, in which case entries that are not to
+     * be evicted before they expire cannot be added. A full cache is swept for expired entries at most once per
+     * second. Concurrent additions may still exceed the size by the number of threads adding entries.
+     */
+    boolean isFull() {
+        if (this.maxSize <= 0 || this.entries.size() < this.maxSize) {
+            return false;
+        }
+        final var now = System.currentTimeMillis();
+        if (now - this.lastSweep >= SWEEP_INTERVAL) {
+            sweep(now);
+        }
+        return this.entries.size() >= this.maxSize;
+    }
+
+    void clear() {
+        this.entries.clear();
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Additions to a cache that does not evict unexpired entries are bounded by {@link #isFull()} instead.
+     */
+    private void added() {
+        if (!this.evictUnexpired || this.maxSize <= 0 || this.entries.size() <= this.maxSize) {
+            return;
+        }
+        sweep(System.currentTimeMillis());
+        final var size = this.entries.size();
+        if (size > this.maxSize) {
+            evictOldest(size - this.maxSize * 9 / 10);
+        }
+    }
+
+    private void sweep(final long now) {
+        this.lastSweep = now;
+        this.entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private void evictOldest(final int count) {
+        final var oldest = new PriorityQueue<Map.Entry<String, Entry>>(count + 1,
+            Comparator.comparingLong((Map.Entry<String, Entry> mapping) -> mapping.getValue().sequence).reversed());
+        for (final var mapping : this.entries.entrySet()) {
+            oldest.offer(Map.entry(mapping.getKey(), mapping.getValue()));
+            if (oldest.size() > count) {
+                oldest.poll();
+            }
+        }
+        for (final var mapping : oldest) {
+            this.entries.remove(mapping.getKey(), mapping.getValue());
+        }
+    }
+
+    private static final class Entry {
+
+        private final Assertion assertion;
+
+        private final long expiresAt;
+
+        private final long sequence;
+
+        private Entry(final Assertion assertion, final long expiresAt, final long sequence) {
+            this.assertion = assertion;
+            this.expiresAt = expiresAt;
+            this.sequence = sequence;
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= this.expiresAt;
+        }
+    }
+}
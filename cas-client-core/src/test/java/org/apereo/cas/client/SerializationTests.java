@@ -22,6 +22,7 @@ import org.apereo.cas.client.authentication.AttributePrincipalImpl;
 import org.apereo.cas.client.authentication.SimplePrincipal;
 import org.apereo.cas.client.jaas.AssertionPrincipal;
 import org.apereo.cas.client.validation.AssertionImpl;
+import org.apereo.cas.client.validation.CompactAssertion;
 
 import junit.framework.TestCase;
 import org.junit.Assert;
@@ -70,6 +71,9 @@ public class SerializationTests extends TestCase {
         final var assertionPrincipal = new AssertionPrincipal("assertion", new AssertionImpl(
             attributePrincipal, Collections.<String, Object>singletonMap("authenticationMethod", "username")));
 
-        return new Object[]{simplePrincipal, attributePrincipal, assertionPrincipal,};
+        final var compactAssertionPrincipal = new AssertionPrincipal("compact", CompactAssertion.of(new AssertionImpl(
+            attributePrincipal, Collections.<String, Object>singletonMap("authenticationMethod", "username"))));
+
+        return new Object[]{simplePrincipal, attributePrincipal, assertionPrincipal, compactAssertionPrincipal,};
     }
 }
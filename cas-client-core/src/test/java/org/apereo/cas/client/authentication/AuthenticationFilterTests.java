@@ -19,6 +19,7 @@
 package org.apereo.cas.client.authentication;
 
 import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.validation.AssertionImpl;
 
 import jakarta.servlet.FilterChain;
@@ -30,6 +31,7 @@ import jakarta.servlet.http.HttpSession;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockFilterConfig;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -257,6 +259,31 @@ public final class AuthenticationFilterTests {
         assertNull(response.getRedirectedUrl());
     }
 
+    @Test
+    public void testIgnorePatternsWithPathMatching() throws Exception {
+        final var f = new AuthenticationFilter();
+        final var context = new MockServletContext();
+        context.addInitParameter("casServerLoginUrl", CAS_LOGIN_URL);
+        context.addInitParameter("ignorePattern", "prefix:/static/ exact:/health glob:/**/*.ico");
+        context.addInitParameter("ignoreUrlPatternType", "PATH");
+        context.addInitParameter("service", CAS_SERVICE_URL);
+        f.init(new MockFilterConfig(context));
+
+        for (final var path : new String[]{"/static/site.css", "/health", "/images/favicon.ico"}) {
+            final var request = new MockHttpServletRequest("GET", "/app" + path);
+            request.setContextPath("/app");
+            final var response = new MockHttpServletResponse();
+            f.doFilter(request, response, new MockFilterChain());
+            assertNull(path, response.getRedirectedUrl());
+        }
+
+        final var request = new MockHttpServletRequest("GET", "/app/health/details");
+        request.setContextPath("/app");
+        final var response = new MockHttpServletResponse();
+        f.doFilter(request, response, new MockFilterChain());
+        assertNotNull(response.getRedirectedUrl());
+    }
+
     @Test
     public void testIgnorePatternsWithContainsMatching() throws Exception {
         final var f = new AuthenticationFilter();
@@ -382,6 +409,20 @@ public final class AuthenticationFilterTests {
         System.out.println(response.getRedirectedUrl());
     }
 
+    @Test
+    public void testRedirectsToPreferredLoginUrl() throws Exception {
+        final var failing = "https://preferred-login-a.example.org/cas/";
+        this.filter = new AuthenticationFilter();
+        final var config = new MockFilterConfig();
+        config.addInitParameter("casServerUrlPrefix", failing + " " + CAS_PREFIX);
+        config.addInitParameter("service", CAS_SERVICE_URL);
+        this.filter.init(config);
+
+        // the validation filter of the application shares the measurements of the login redirects
+        CasServerEndpoints.Registry.of(config.getServletContext()).endpoints(failing).preferred().recordFailure();
+        doRedirectTest();
+    }
+
     private void replaceFilterWithPrefixConfiguredFilter() throws ServletException {
         this.filter = new AuthenticationFilter();
         final var config = new MockFilterConfig();
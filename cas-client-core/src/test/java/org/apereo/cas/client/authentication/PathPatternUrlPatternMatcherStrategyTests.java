@@ -0,0 +1,97 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link PathPatternUrlPatternMatcherStrategy}.
+ *
+ * @since 4.1.2
+ */
+public final class PathPatternUrlPatternMatcherStrategyTests {
+
+    private final PathPatternUrlPatternMatcherStrategy strategy = new PathPatternUrlPatternMatcherStrategy();
+
+    @Before
+    public void setUp() {
+        this.strategy.setPattern("exact:/health prefix:/static/ /favicon.ico\n/assets/*.js glob:/docs/**/*.pdf "
+                                 + "regex:^/api/v[0-9]+/public regex:^/(a+)/\\1$");
+    }
+
+    @Test
+    public void matchesExactAndPrefixEntries() {
+        assertTrue(this.strategy.matches("/health"));
+        assertFalse(this.strategy.matches("/health/details"));
+        assertFalse(this.strategy.matches("/heal"));
+        assertTrue(this.strategy.matches("/static/"));
+        assertTrue(this.strategy.matches("/static/css/site.css"));
+        assertFalse(this.strategy.matches("/static"));
+        assertTrue(this.strategy.matches("/favicon.ico"));
+    }
+
+    @Test
+    public void matchesGlobs() {
+        assertTrue(this.strategy.matches("/assets/app.js"));
+        assertFalse(this.strategy.matches("/assets/lib/app.js"));
+        assertTrue(this.strategy.matches("/docs/guide.pdf"));
+        assertTrue(this.strategy.matches("/docs/2024/q1/report.pdf"));
+        assertFalse(this.strategy.matches("/docs/report.pdf.html"));
+    }
+
+    @Test
+    public void matchesRegularExpressions() {
+        assertTrue(this.strategy.matches("/api/v2/public/items"));
+        assertFalse(this.strategy.matches("/api/vx/public"));
+        assertTrue(this.strategy.matches("/aa/aa"));
+        assertFalse(this.strategy.matches("/aa/a"));
+    }
+
+    @Test
+    public void matchesPathRelativeToContext() {
+        final var request = new MockHttpServletRequest("GET", "/app/health");
+        request.setContextPath("/app");
+        request.setQueryString("verbose=true");
+        assertTrue(this.strategy.matches(request));
+
+        final var outside = new MockHttpServletRequest("GET", "/health");
+        outside.setContextPath("/app");
+        assertTrue(this.strategy.matches(outside));
+
+        final var secured = new MockHttpServletRequest("GET", "/app/api/v1/private");
+        secured.setContextPath("/app");
+        assertFalse(this.strategy.matches(secured));
+    }
+
+    @Test
+    public void matchesQueryWhenIncluded() {
+        this.strategy.setPattern("regex:[?&]format=rss");
+        final var request = new MockHttpServletRequest("GET", "/app/feed");
+        request.setContextPath("/app");
+        request.setQueryString("format=rss");
+        assertFalse(this.strategy.matches(request));
+
+        this.strategy.setIncludeQuery(true);
+        assertTrue(this.strategy.matches(request));
+    }
+}
@@ -19,6 +19,7 @@
 package org.apereo.cas.client.jaas;
 
 import org.apereo.cas.client.PublicTestHttpServer;
+import org.apereo.cas.client.util.MaintenanceScheduler;
 import org.apereo.cas.client.validation.Cas20ServiceTicketValidator;
 import org.apereo.cas.client.validation.TicketValidationException;
 
@@ -239,6 +240,18 @@ public class CasLoginModuleTests {
         }
     }
 
+    @Test
+    public void testCacheCleanupIsScheduledAgainAfterShutdown() {
+        options.put("cacheAssertions", "true");
+        module.initialize(subject, new ServiceAndTicketCallbackHandler("service", "ticket"), new HashMap<>(), options);
+        assertTrue(MaintenanceScheduler.isRunning());
+
+        MaintenanceScheduler.shutdown();
+        module.initialize(subject, new ServiceAndTicketCallbackHandler("service", "ticket"), new HashMap<>(), options);
+        assertTrue(MaintenanceScheduler.isRunning());
+        MaintenanceScheduler.shutdown();
+    }
+
     private static boolean hasPrincipalName(final Subject subject, final Class<? extends Principal> principalClass,
                                             final String name) {
         final var principals = subject.getPrincipals(principalClass);
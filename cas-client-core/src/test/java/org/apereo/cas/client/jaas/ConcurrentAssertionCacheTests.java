@@ -0,0 +1,126 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jaas;
+
+import org.apereo.cas.client.validation.AssertionImpl;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link ConcurrentAssertionCache}.
+ *
+ * @since 4.1.2
+ */
+public final class ConcurrentAssertionCacheTests {
+
+    @Test
+    public void cachesAssertions() {
+        final var cache = new ConcurrentAssertionCache();
+        final var ticket = new TicketCredential("ST-1");
+        final var assertion = new AssertionImpl("user");
+        assertNull(cache.get(ticket));
+        cache.put(ticket, assertion);
+        assertSame(assertion, cache.get(new TicketCredential("ST-1")));
+        cache.remove(ticket);
+        assertNull(cache.get(ticket));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void expiresAssertions() throws Exception {
+        final var cache = new ConcurrentAssertionCache();
+        cache.setTimeToLive(50);
+        cache.put(new TicketCredential("ST-1"), new AssertionImpl("user1"));
+        cache.put(new TicketCredential("ST-2"), new AssertionImpl("user2"));
+        Thread.sleep(100);
+        assertNull(cache.get(new TicketCredential("ST-1")));
+        cache.evictExpired();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void evictsOldestBeyondMaxSize() {
+        final var cache = new ConcurrentAssertionCache();
+        cache.setMaxSize(2);
+        cache.put(new TicketCredential("ST-1"), new AssertionImpl("user1"));
+        cache.put(new TicketCredential("ST-2"), new AssertionImpl("user2"));
+        cache.put(new TicketCredential("ST-3"), new AssertionImpl("user3"));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(new TicketCredential("ST-1")));
+        assertNotNull(cache.get(new TicketCredential("ST-3")));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void purgesRemovedEntriesFromQueue() {
+        final var cache = new ConcurrentAssertionCache();
+        cache.put(new TicketCredential("ST-0"), new AssertionImpl("user0"));
+        for (var i = 1; i <= 10000; i++) {
+            final var ticket = new TicketCredential("ST-" + i);
+            cache.put(ticket, new AssertionImpl("user" + i));
+            cache.remove(ticket);
+        }
+        assertEquals(1, cache.size());
+        assertTrue(cache.getQueueLength() <= 2 * 64 + 1);
+        assertNotNull(cache.get(new TicketCredential("ST-0")));
+    }
+
+    @Test
+    public void skipsRemovedEntriesWhenEvicting() {
+        final var cache = new ConcurrentAssertionCache();
+        cache.setMaxSize(2);
+        cache.put(new TicketCredential("ST-1"), new AssertionImpl("user1"));
+        cache.remove(new TicketCredential("ST-1"));
+        cache.put(new TicketCredential("ST-2"), new AssertionImpl("user2"));
+        cache.put(new TicketCredential("ST-3"), new AssertionImpl("user3"));
+        assertEquals(2, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void staysBoundedUnderConcurrentPuts() throws Exception {
+        final var cache = new ConcurrentAssertionCache();
+        cache.setMaxSize(100);
+        final var threads = 8;
+        final var executor = Executors.newFixedThreadPool(threads);
+        final var done = new CountDownLatch(threads);
+        for (var t = 0; t < threads; t++) {
+            final var thread = t;
+            executor.execute(() -> {
+                for (var i = 0; i < 1000; i++) {
+                    cache.put(new TicketCredential("ST-" + thread + '-' + i), new AssertionImpl("user"));
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(cache.size() <= 100);
+        assertEquals(threads * 1000 - cache.size(), cache.getEvictionCount());
+    }
+}
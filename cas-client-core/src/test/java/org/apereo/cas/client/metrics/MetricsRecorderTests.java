@@ -0,0 +1,180 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
+import org.apereo.cas.client.session.SingleSignOutFilter;
+import org.apereo.cas.client.validation.Cas20ServiceTicketValidator;
+import org.apereo.cas.client.validation.Cas30ProxyReceivingTicketValidationFilter;
+import org.apereo.cas.client.validation.CircuitBreakerTicketValidator;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the measurements reported to a {@link MetricsRecorder}.
+ *
+ * @since 4.1.2
+ */
+public final class MetricsRecorderTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8088);
+
+    private final RecordingMetricsRecorder recorder = new RecordingMetricsRecorder();
+
+    @Test
+    public void discardsMeasurementsByDefault() throws Exception {
+        final var filter = new SingleSignOutFilter();
+        filter.init(new MockFilterConfig());
+        assertSame(MetricsRecorder.NOOP, filter.getMetricsRecorder());
+    }
+
+    @Test
+    public void instantiatesConfiguredRecorder() throws Exception {
+        final var config = new MockFilterConfig();
+        config.addInitParameter("metricsRecorderClass", RecordingMetricsRecorder.class.getName());
+        final var filter = new SingleSignOutFilter();
+        filter.init(config);
+        assertTrue(filter.getMetricsRecorder() instanceof RecordingMetricsRecorder);
+    }
+
+    @Test
+    public void filterHandsRecorderToItsComponents() throws Exception {
+        server.content = ("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>"
+                          + "<cas:user>username</cas:user></cas:authenticationSuccess></cas:serviceResponse>").getBytes(server.encoding);
+        final var config = new MockFilterConfig("casValidationFilter");
+        config.addInitParameter("casServerUrlPrefix", "http://localhost:8088");
+        config.addInitParameter("serverName", "localhost:8080");
+        config.addInitParameter("redirectAfterValidation", "false");
+        config.addInitParameter("circuitBreaker", "true");
+        final var filter = new Cas30ProxyReceivingTicketValidationFilter();
+        filter.setMetricsRecorder(this.recorder);
+        filter.init(config);
+        final var request = new MockHttpServletRequest("GET", "/app");
+        request.setQueryString("ticket=ST-1");
+        request.addParameter("ticket", "ST-1");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        filter.destroy();
+
+        assertEquals(List.of("casValidationFilter"), this.recorder.circuitBreakers);
+        assertEquals(List.of("Cas30ServiceTicketValidator:null"), this.recorder.validations);
+        assertEquals(1, this.recorder.connects);
+        assertEquals(1, this.recorder.reads);
+    }
+
+    @Test
+    public void recordsSuccessfulValidation() throws Exception {
+        server.content = ("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>"
+                          + "<cas:user>username</cas:user></cas:authenticationSuccess></cas:serviceResponse>").getBytes(server.encoding);
+        newValidator().validate("ST-1", "service");
+
+        assertEquals(List.of("Cas20ServiceTicketValidator:null"), this.recorder.validations);
+        assertEquals(List.of("Cas20ServiceTicketValidator"), this.recorder.parsings);
+    }
+
+    @Test
+    public void recordsFailureCode() throws Exception {
+        server.content = ("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationFailure "
+                          + "code=\"INVALID_TICKET\">Ticket not recognized</cas:authenticationFailure></cas:serviceResponse>")
+            .getBytes(server.encoding);
+        try {
+            newValidator().validate("ST-1", "service");
+            fail("Validation should have failed.");
+        } catch (final TicketValidationException e) {
+            assertEquals("INVALID_TICKET", e.getCode());
+        }
+        assertEquals(List.of("Cas20ServiceTicketValidator:INVALID_TICKET"), this.recorder.validations);
+    }
+
+    @Test
+    public void recordsProxyGrantingTicketStorage() {
+        final var storage = new ProxyGrantingTicketStorageImpl(-1);
+        storage.setMetricsRecorder(this.recorder);
+        storage.save("PGTIOU-1", "PGT-1");
+        storage.save("PGTIOU-2", "PGT-2");
+        assertEquals("PGT-1", storage.retrieve("PGTIOU-1"));
+        assertNull(storage.retrieve("PGTIOU-1"));
+        storage.cleanUp();
+        assertEquals(List.of(MetricsRecorder.ProxyGrantingTicketEvent.SAVED, MetricsRecorder.ProxyGrantingTicketEvent.SAVED,
+            MetricsRecorder.ProxyGrantingTicketEvent.RETRIEVED, MetricsRecorder.ProxyGrantingTicketEvent.MISSED,
+            MetricsRecorder.ProxyGrantingTicketEvent.EXPIRED), this.recorder.proxyGrantingTickets);
+    }
+
+    private Cas20ServiceTicketValidator newValidator() {
+        final var validator = new Cas20ServiceTicketValidator("http://localhost:8088");
+        validator.setMetricsRecorder(this.recorder);
+        return validator;
+    }
+
+    public static final class RecordingMetricsRecorder implements MetricsRecorder {
+
+        private final List<String> validations = new ArrayList<>();
+
+        private final List<String> parsings = new ArrayList<>();
+
+        private final List<ProxyGrantingTicketEvent> proxyGrantingTickets = new ArrayList<>();
+
+        private final List<String> circuitBreakers = new ArrayList<>();
+
+        private int connects;
+
+        private int reads;
+
+        @Override
+        public void recordValidation(final String validator, final long durationNanos, final Throwable failure) {
+            final var code = failure instanceof final TicketValidationException e ? e.getCode() : null;
+            this.validations.add(validator + ':' + code);
+        }
+
+        @Override
+        public void recordResponseParsing(final String validator, final long durationNanos) {
+            this.parsings.add(validator);
+        }
+
+        @Override
+        public void recordHttpConnect(final String host, final long durationNanos) {
+            this.connects++;
+        }
+
+        @Override
+        public void registerCircuitBreaker(final String name, final CircuitBreakerTicketValidator circuitBreaker) {
+            this.circuitBreakers.add(name);
+        }
+
+        @Override
+        public void recordHttpRead(final String host, final long durationNanos) {
+            this.reads++;
+        }
+
+        @Override
+        public void recordProxyGrantingTicket(final ProxyGrantingTicketEvent event) {
+            this.proxyGrantingTickets.add(event);
+        }
+    }
+}
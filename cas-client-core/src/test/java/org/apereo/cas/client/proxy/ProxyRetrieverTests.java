@@ -0,0 +1,134 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the batched retrieval of proxy tickets of {@link ProxyRetriever}.
+ *
+ * @since 4.1.2
+ */
+public final class ProxyRetrieverTests {
+
+    private final List<String> requested = new ArrayList<>();
+
+    private final Map<String, CompletableFuture<String>> responses = new HashMap<>();
+
+    private final ProxyRetriever retriever = new ProxyRetriever() {
+        @Override
+        public String getProxyTicketIdFor(final String proxyGrantingTicketId, final String targetService) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<String> getProxyTicketIdForAsync(final String proxyGrantingTicketId, final String targetService) {
+            requested.add(targetService);
+            return responses.computeIfAbsent(targetService, service -> new CompletableFuture<>());
+        }
+    };
+
+    @Test
+    public void boundsConcurrentRequests() throws Exception {
+        final var tickets = this.retriever.getProxyTicketIdsFor("PGT-1", List.of("a", "b", "c", "a"), 2, 0);
+
+        assertEquals(List.of("a", "b", "c"), List.copyOf(tickets.keySet()));
+        assertEquals(List.of("a", "b"), this.requested);
+
+        this.responses.get("b").complete("PT-b");
+        assertEquals(List.of("a", "b", "c"), this.requested);
+        assertEquals("PT-b", tickets.get("b").get());
+
+        this.responses.get("a").complete("PT-a");
+        this.responses.get("c").completeExceptionally(new IllegalStateException("unreachable"));
+        assertEquals("PT-a", tickets.get("a").get());
+        try {
+            tickets.get("c").get();
+            fail("Retrieval should have failed.");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void boundsConcurrentRequestsAcrossOverlappingBatches() throws Exception {
+        final var first = this.retriever.getProxyTicketIdsFor("PGT-2", List.of("a", "b"), 2, 0);
+        final var second = this.retriever.getProxyTicketIdsFor("PGT-2", List.of("c", "d"), 2, 0);
+        final var other = this.retriever.getProxyTicketIdsFor("PGT-3", List.of("e"), 2, 0);
+
+        assertEquals(List.of("a", "b", "e"), this.requested);
+
+        this.responses.get("a").complete("PT-a");
+        assertEquals(List.of("a", "b", "e", "c"), this.requested);
+        this.responses.get("c").complete("PT-c");
+        assertEquals(List.of("a", "b", "e", "c", "d"), this.requested);
+        this.responses.get("b").complete("PT-b");
+        this.responses.get("d").complete("PT-d");
+        this.responses.get("e").complete("PT-e");
+
+        assertEquals("PT-b", first.get("b").get());
+        assertEquals("PT-d", second.get("d").get());
+        assertEquals("PT-e", other.get("e").get());
+    }
+
+    @Test
+    public void skipsRequestsPastTimeout() throws Exception {
+        final var tickets = this.retriever.getProxyTicketIdsFor("PGT-1", List.of("a", "b"), 1, 50);
+
+        try {
+            tickets.get("b").get();
+            fail("Retrieval should have timed out.");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(tickets.get("a").isCompletedExceptionally());
+
+        this.responses.get("a").complete("PT-a");
+        assertEquals(List.of("a"), this.requested);
+    }
+
+    @Test
+    public void principalRetrievesSynchronousTicketsInOrder() throws Exception {
+        final var principal = new AttributePrincipalImpl("alice", "PGT-1", (pgt, service) -> pgt + ':' + service);
+
+        final var tickets = principal.getProxyTicketsFor(List.of("a", "b", "c"));
+
+        assertEquals("PGT-1:a", tickets.get("a").get());
+        assertEquals("PGT-1:c", tickets.get("c").get());
+    }
+
+    @Test
+    public void principalWithoutProxyGrantingTicketRetrievesNothing() throws Exception {
+        final var tickets = new AttributePrincipalImpl("alice").getProxyTicketsFor(List.of("a"));
+
+        assertNull(tickets.get("a").get());
+    }
+}
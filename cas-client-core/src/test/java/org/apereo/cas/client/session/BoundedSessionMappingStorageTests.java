@@ -0,0 +1,115 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link BoundedSessionMappingStorage}.
+ *
+ * @since 4.1.2
+ */
+public final class BoundedSessionMappingStorageTests {
+
+    private final BoundedSessionMappingStorage storage = new BoundedSessionMappingStorage();
+
+    private final List<BoundedSessionMappingStorage.EvictionCause> evicted = new ArrayList<>();
+
+    @Test
+    public void removesMappings() {
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+        storage.addSessionById("ST-2", new MockHttpSession());
+
+        assertSame(session, storage.removeSessionByMappingId("ST-1"));
+        storage.removeBySessionById(session.getId());
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    public void evictsOldestBeyondMaxSize() {
+        storage.setMaxSize(10);
+        storage.setEvictionListener((mappingId, sessionId, cause) -> evicted.add(cause));
+        final var first = new MockHttpSession();
+        storage.addSessionById("ST-0", first);
+        for (var i = 1; i <= 10; i++) {
+            storage.addSessionById("ST-" + i, new MockHttpSession());
+        }
+
+        assertEquals(9, storage.size());
+        assertEquals(2, storage.getEvictionCount());
+        assertEquals(List.of(BoundedSessionMappingStorage.EvictionCause.SIZE, BoundedSessionMappingStorage.EvictionCause.SIZE),
+            evicted);
+        assertNull(storage.removeSessionByMappingId("ST-0"));
+    }
+
+    @Test
+    public void evictsExpiredAndInvalidatedSessions() throws Exception {
+        storage.setTimeToLive(60000);
+        storage.setIdleTimeout(60000);
+        storage.setEvictionListener((mappingId, sessionId, cause) -> evicted.add(cause));
+        final var invalidated = new MockHttpSession();
+        storage.addSessionById("ST-1", invalidated);
+        storage.addSessionById("ST-2", new MockHttpSession());
+        invalidated.invalidate();
+
+        storage.evictExpired();
+        assertEquals(List.of(BoundedSessionMappingStorage.EvictionCause.INVALIDATED), evicted);
+        assertEquals(1, storage.size());
+
+        storage.setTimeToLive(1);
+        Thread.sleep(5);
+        storage.evictExpired();
+        assertEquals(BoundedSessionMappingStorage.EvictionCause.EXPIRED, evicted.get(1));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void evictsInvalidatedSessionsWithoutIdleTimeout() {
+        storage.setEvictionListener((mappingId, sessionId, cause) -> evicted.add(cause));
+        final var invalidated = new MockHttpSession();
+        storage.addSessionById("ST-1", invalidated);
+        storage.addSessionById("ST-2", new MockHttpSession());
+        invalidated.invalidate();
+
+        storage.evictExpired();
+        assertEquals(List.of(BoundedSessionMappingStorage.EvictionCause.INVALIDATED), evicted);
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    public void evictsCollectedSessions() throws Exception {
+        storage.setWeakReferences(true);
+        storage.addSessionById("ST-1", new MockHttpSession());
+
+        for (var i = 0; i < 50 && storage.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+            storage.evictExpired();
+        }
+        assertEquals(0, storage.size());
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link ConcurrentSessionMappingStorage}.
+ *
+ * @since 4.1.2
+ */
+public final class ConcurrentSessionMappingStorageTests {
+
+    private final ConcurrentSessionMappingStorage storage = new ConcurrentSessionMappingStorage();
+
+    @Test
+    public void removesByMappingId() {
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+
+        assertSame(session, storage.removeSessionByMappingId("ST-1"));
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertEquals(0, storage.size());
+        assertEquals(1, storage.getAdditionCount());
+        assertEquals(1, storage.getRemovalCount());
+    }
+
+    @Test
+    public void removesBySessionId() {
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+
+        storage.removeBySessionById(session.getId());
+
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void forgetsPreviousTicketOfSession() {
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+        storage.addSessionById("ST-2", session);
+
+        assertEquals(1, storage.size());
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertSame(session, storage.removeSessionByMappingId("ST-2"));
+    }
+
+    @Test
+    public void forgetsPreviousSessionOfTicket() {
+        final var first = new MockHttpSession();
+        final var second = new MockHttpSession();
+        storage.addSessionById("ST-1", first);
+        storage.addSessionById("ST-1", second);
+
+        storage.removeBySessionById(first.getId());
+
+        assertSame(second, storage.removeSessionByMappingId("ST-1"));
+    }
+
+    @Test
+    public void staysConsistentUnderConcurrency() throws Exception {
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (var i = 0; i < 1000; i++) {
+            final var ticket = "ST-" + (i % 50);
+            final var session = new MockHttpSession(null, "session-" + (i % 20));
+            tasks.add(() -> {
+                storage.addSessionById(ticket, session);
+                storage.removeBySessionById(session.getId());
+                return null;
+            });
+        }
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (final var result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        }
+        assertEquals(0, storage.size());
+    }
+}
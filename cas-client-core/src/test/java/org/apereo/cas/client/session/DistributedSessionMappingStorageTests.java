@@ -0,0 +1,184 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.ssl.HttpTransport;
+import org.apereo.cas.client.util.XmlUtils;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.io.Serial;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link DistributedSessionMappingStorage}.
+ *
+ * @since 4.1.2
+ */
+public final class DistributedSessionMappingStorageTests {
+
+    private static final String NODE_A = "http://node-a:8080/app/";
+
+    private static final String NODE_B = "http://node-b:8080/app/";
+
+    private final InMemorySessionMappingRegistry registry = new InMemorySessionMappingRegistry();
+
+    private final List<String> forwarded = new ArrayList<>();
+
+    private final DistributedSessionMappingStorage nodeA = newStorage(NODE_A);
+
+    private final DistributedSessionMappingStorage nodeB = newStorage(NODE_B);
+
+    @Test
+    public void removesLocalSession() {
+        final var session = new MockHttpSession();
+        nodeA.addSessionById("ST-1", session);
+
+        assertEquals(new SessionLocation(NODE_A, session.getId()), registry.lookup("ST-1"));
+        assertSame(session, nodeA.removeSessionByMappingId("ST-1"));
+        assertNull(registry.lookup("ST-1"));
+        assertTrue(forwarded.isEmpty());
+    }
+
+    @Test
+    public void forwardsLogoutToOwningNode() {
+        final var session = new MockHttpSession();
+        nodeA.addSessionById("ST-1", session);
+
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        assertEquals(List.of("ST-1@" + NODE_A), forwarded);
+
+        // the owning node then receives the forwarded logout
+        assertSame(session, nodeA.removeSessionByMappingId("ST-1"));
+        assertNull(registry.lookup("ST-1"));
+    }
+
+    @Test
+    public void unregistersDestroyedSession() {
+        final var session = new MockHttpSession();
+        nodeA.addSessionById("ST-1", session);
+
+        nodeA.removeBySessionById(session.getId());
+        assertNull(registry.lookup("ST-1"));
+        assertEquals(0, nodeA.size());
+
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        assertTrue(forwarded.isEmpty());
+    }
+
+    @Test
+    public void ignoresUnknownTickets() {
+        assertNull(nodeB.removeSessionByMappingId("ST-unknown"));
+        assertTrue(forwarded.isEmpty());
+    }
+
+    @Test
+    public void survivesRegistryFailures() {
+        final var storage = new DistributedSessionMappingStorage(new SessionMappingRegistry() {
+            @Override
+            public void register(final String mappingId, final SessionLocation location) {
+                throw new IllegalStateException("down");
+            }
+
+            @Override
+            public SessionLocation lookup(final String mappingId) {
+                throw new IllegalStateException("down");
+            }
+
+            @Override
+            public void unregister(final String mappingId) {
+                throw new IllegalStateException("down");
+            }
+        }, NODE_A);
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+
+        assertSame(session, storage.removeSessionByMappingId("ST-1"));
+        assertNull(storage.removeSessionByMappingId("ST-2"));
+    }
+
+    @Test
+    public void postsLogoutRequestToNode() {
+        final List<String> requests = new ArrayList<>();
+        final var handler = new HttpRemoteLogoutHandler(new HttpTransport() {
+            @Serial
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String get(final URL url, final String encoding) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String post(final URL url, final Map<String, String> headers, final String body, final String encoding) {
+                requests.add(url + " " + body);
+                return "";
+            }
+        });
+        handler.logout("ST-1", new SessionLocation(NODE_A, "session"));
+
+        assertEquals(1, requests.size());
+        final var request = requests.get(0);
+        assertTrue(request.startsWith(NODE_A + " logoutRequest="));
+        final var logoutRequest = URLDecoder.decode(request.substring(request.indexOf('=') + 1), StandardCharsets.UTF_8);
+        assertEquals("ST-1", XmlUtils.getTextForElement(logoutRequest, "SessionIndex"));
+    }
+
+    @Test
+    public void encodesLocations() {
+        final var location = new SessionLocation(NODE_A, "ABC123");
+        assertEquals(location, SessionLocation.decode(location.encode()));
+        assertNull(SessionLocation.decode("malformed"));
+    }
+
+    private DistributedSessionMappingStorage newStorage(final String node) {
+        final var storage = new DistributedSessionMappingStorage(registry, node);
+        storage.setRemoteLogoutHandler((mappingId, location) -> forwarded.add(mappingId + '@' + location.node()));
+        return storage;
+    }
+
+    private static final class InMemorySessionMappingRegistry implements SessionMappingRegistry {
+
+        private final Map<String, String> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public void register(final String mappingId, final SessionLocation location) {
+            entries.put(mappingId, location.encode());
+        }
+
+        @Override
+        public SessionLocation lookup(final String mappingId) {
+            return SessionLocation.decode(entries.get(mappingId));
+        }
+
+        @Override
+        public void unregister(final String mappingId) {
+            entries.remove(mappingId);
+        }
+    }
+}
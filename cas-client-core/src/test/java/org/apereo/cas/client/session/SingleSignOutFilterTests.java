@@ -113,4 +113,17 @@ public class SingleSignOutFilterTests {
         filter.doFilter(request, response, filterChain);
         assertNull(SingleSignOutFilter.getSingleSignOutHandler().getSessionMappingStorage().removeSessionByMappingId(TICKET));
     }
+
+    @Test
+    public void configuresBoundedSessionMappingStorage() throws ServletException {
+        final var config = new MockFilterConfig();
+        config.addInitParameter(ConfigurationKeys.SESSION_MAPPING_MAX_SIZE.getName(), "1000");
+        final var boundedFilter = new SingleSignOutFilter();
+        try {
+            boundedFilter.init(config);
+            assertTrue(SingleSignOutFilter.getSingleSignOutHandler().getSessionMappingStorage() instanceof BoundedSessionMappingStorage);
+        } finally {
+            SingleSignOutFilter.setSessionMappingStorage(new ConcurrentSessionMappingStorage());
+        }
+    }
 }
@@ -0,0 +1,167 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link HttpClientTransport}.
+ *
+ * @since 4.1.2
+ */
+public final class HttpClientTransportTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8093);
+
+    private static final String RESPONSE = "test1\r\ntest2";
+
+    private HttpClientTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        server.content = RESPONSE.getBytes(server.encoding);
+        this.transport = new HttpClientTransport(new HttpsURLConnectionFactory());
+    }
+
+    @Test
+    public void getReturnsResponseBody() throws Exception {
+        assertEquals(RESPONSE, this.transport.get(new URL("http://localhost:8093"), null));
+    }
+
+    @Test
+    public void postReturnsResponseBody() throws Exception {
+        final var response = this.transport.post(new URL("http://localhost:8093/samlValidate"),
+            Map.of("Content-Type", "text/xml"), "<request/>", "UTF-8");
+        assertEquals(RESPONSE, response);
+    }
+
+    @Test
+    public void getBodyReturnsResponseBytes() throws Exception {
+        final var body = this.transport.getBody(new URL("http://localhost:8093"), null);
+        assertEquals(RESPONSE.length(), body.length());
+        assertEquals(RESPONSE, body.asString());
+        assertEquals(RESPONSE, this.transport.getBodyAsync(new URL("http://localhost:8093"), null).get().asString());
+    }
+
+    @Test
+    public void runsOnVirtualThreads() throws Exception {
+        this.transport.setVirtualThreads(true);
+        assertEquals(RESPONSE, this.transport.get(new URL("http://localhost:8093"), null));
+        assertEquals(RESPONSE, this.transport.getAsync(new URL("http://localhost:8093"), null).get());
+    }
+
+    @Test
+    public void responsesOverMaxSizeFail() throws Exception {
+        this.transport.setMaxResponseSize(4);
+        try {
+            this.transport.get(new URL("http://localhost:8093"), null);
+            fail("RuntimeException expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void idleConnectionsAreReleased() throws Exception {
+        this.transport.setMaxConnections(1);
+        this.transport.setIdleTimeout(1);
+        assertEquals(RESPONSE, this.transport.get(new URL("http://localhost:8093"), null));
+        Thread.sleep(10);
+        assertEquals(RESPONSE, this.transport.get(new URL("http://localhost:8093"), null));
+    }
+
+    @Test
+    public void waitingForConnectionTimesOut() throws Exception {
+        try (var silentServer = new ServerSocket(0)) {
+            final var silentUrl = new URL("http://localhost:" + silentServer.getLocalPort());
+            this.transport.setMaxConnections(1);
+            this.transport.setReadTimeout(2000);
+            this.transport.setConnectionWaitTimeout(50);
+            final var pending = this.transport.getAsync(silentUrl, null);
+
+            try {
+                this.transport.get(silentUrl, null);
+                fail("RuntimeException expected");
+            } catch (final RuntimeException e) {
+                assertTrue(e.getMessage().startsWith("Timed out waiting for a connection"));
+            }
+            try {
+                this.transport.getAsync(silentUrl, null).get();
+                fail("ExecutionException expected");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause().getCause() instanceof TimeoutException);
+            }
+            pending.cancel(true);
+        }
+    }
+
+    @Test
+    public void maxConnectionsCanGrowAfterFirstUse() throws Exception {
+        try (var silentServer = new ServerSocket(0)) {
+            this.transport.setMaxConnections(1);
+            this.transport.setReadTimeout(2000);
+            this.transport.setConnectionWaitTimeout(50);
+            final var pending = this.transport.getAsync(new URL("http://localhost:" + silentServer.getLocalPort()), null);
+
+            this.transport.setMaxConnections(2);
+            assertEquals(RESPONSE, this.transport.get(new URL("http://localhost:8093"), null));
+            pending.cancel(true);
+        }
+    }
+
+    @Test
+    public void unreachableServerFails() throws Exception {
+        this.transport.setConnectTimeout(1000);
+        try {
+            this.transport.get(new URL("http://localhost:1"), null);
+            fail("RuntimeException expected");
+        } catch (final RuntimeException e) {
+            assertNotNull(e.getCause());
+        }
+    }
+
+    @Test
+    public void serializeAndDeserialize() throws Exception {
+        this.transport.get(new URL("http://localhost:8093"), null);
+        final var baos = new ByteArrayOutputStream();
+        try (var oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(this.transport);
+        }
+        try (var ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            final var deserialized = (HttpClientTransport) ois.readObject();
+            assertEquals(RESPONSE, deserialized.get(new URL("http://localhost:8093"), null));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link HttpResponseBody}.
+ *
+ * @since 4.1.2
+ */
+public final class HttpResponseBodyTests {
+
+    private static final String CONTENT = "<cas:user>usérname</cas:user>";
+
+    @Test
+    public void readsDeclaredLength() throws Exception {
+        final var bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        final var body = HttpResponseBody.read(new ByteArrayInputStream(bytes), bytes.length, 0, StandardCharsets.UTF_8);
+        assertEquals(bytes.length, body.length());
+        assertEquals(CONTENT, body.asString());
+        assertArrayEquals(bytes, body.asInputStream().readAllBytes());
+        assertTrue(body.asByteBuffer().isReadOnly());
+    }
+
+    @Test
+    public void readsUnknownLength() throws Exception {
+        final var bytes = new byte[20000];
+        Arrays.fill(bytes, (byte) 'a');
+        final var body = HttpResponseBody.read(new ByteArrayInputStream(bytes), -1, 0, StandardCharsets.UTF_8);
+        assertEquals(bytes.length, body.length());
+        assertEquals(bytes.length, body.asByteBuffer().remaining());
+    }
+
+    @Test
+    public void readsPastWrongDeclaredLength() throws Exception {
+        final var bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        final var body = HttpResponseBody.read(new ByteArrayInputStream(bytes), 4, 0, StandardCharsets.UTF_8);
+        assertEquals(CONTENT, body.asString());
+    }
+
+    @Test
+    public void rejectsDeclaredLengthOverLimit() {
+        try {
+            HttpResponseBody.read(new ByteArrayInputStream(new byte[100]), 100, 10, StandardCharsets.UTF_8);
+            fail("IOException expected");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void rejectsUndeclaredLengthOverLimit() {
+        try {
+            HttpResponseBody.read(new ByteArrayInputStream(new byte[100]), -1, 10, StandardCharsets.UTF_8);
+            fail("IOException expected");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link HttpURLConnectionTransport}.
+ *
+ * @since 4.1.2
+ */
+public final class HttpURLConnectionTransportTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8094);
+
+    private static final String RESPONSE = "test1\r\ntest2";
+
+    private final ThreadRecordingConnectionFactory connectionFactory = new ThreadRecordingConnectionFactory();
+
+    private HttpURLConnectionTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        server.content = RESPONSE.getBytes(server.encoding);
+        this.transport = new HttpURLConnectionTransport(this.connectionFactory);
+    }
+
+    @Test
+    public void asyncRequestsRunOnCallingThreadByDefault() throws Exception {
+        final var response = this.transport.getAsync(new URL("http://localhost:8094"), null).get(10, TimeUnit.SECONDS);
+        assertEquals(RESPONSE, response);
+        assertSame(Thread.currentThread(), this.connectionFactory.thread);
+    }
+
+    @Test
+    public void asyncRequestsRunOnVirtualThreads() throws Exception {
+        this.transport.setVirtualThreads(true);
+
+        final var response = this.transport.getBodyAsync(new URL("http://localhost:8094"), null).get(10, TimeUnit.SECONDS);
+        assertEquals(RESPONSE, response.asString());
+        assertTrue(this.connectionFactory.thread.isVirtual());
+
+        this.connectionFactory.thread = null;
+        final var posted = this.transport.postAsync(new URL("http://localhost:8094/samlValidate"),
+            Map.of("Content-Type", "text/xml"), "<request/>", "UTF-8").get(10, TimeUnit.SECONDS);
+        assertEquals(RESPONSE, posted);
+        assertTrue(this.connectionFactory.thread.isVirtual());
+    }
+
+    private static final class ThreadRecordingConnectionFactory implements HttpURLConnectionFactory {
+
+        private static final long serialVersionUID = 1L;
+
+        private volatile transient Thread thread;
+
+        @Override
+        public HttpURLConnection buildHttpURLConnection(final URLConnection url) {
+            this.thread = Thread.currentThread();
+            return (HttpURLConnection) url;
+        }
+    }
+}
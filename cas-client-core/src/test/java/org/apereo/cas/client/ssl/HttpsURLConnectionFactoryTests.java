@@ -21,11 +21,20 @@ package org.apereo.cas.client.ssl;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.crypto.spec.SecretKeySpec;
+import javax.net.ssl.HttpsURLConnection;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyStore;
+import java.util.Properties;
 
 import static org.junit.Assert.*;
 
@@ -56,4 +65,115 @@ public final class HttpsURLConnectionFactoryTests {
         final var deserializedObject = (HttpsURLConnectionFactory) ois.readObject();
         assertEquals(this.httpsURLConnectionFactory, deserializedObject);
     }
+
+    @Test
+    public void sslSocketFactoryIsReused() throws Exception {
+        final var keyStore = createKeyStore();
+        try {
+            this.httpsURLConnectionFactory.setSSLConfiguration(sslConfiguration(keyStore, "60000"));
+
+            final var first = connect().getSSLSocketFactory();
+            assertSame(first, connect().getSSLSocketFactory());
+        } finally {
+            Files.deleteIfExists(keyStore.toPath());
+        }
+    }
+
+    @Test
+    public void sslSocketFactoryIsReloadedWhenKeyStoreChanges() throws Exception {
+        final var keyStore = createKeyStore();
+        try {
+            this.httpsURLConnectionFactory.setSSLConfiguration(sslConfiguration(keyStore, "0"));
+
+            final var first = connect().getSSLSocketFactory();
+            assertSame(first, connect().getSSLSocketFactory());
+
+            writeKeyStore(keyStore, "alias");
+            assertNotSame(first, connect().getSSLSocketFactory());
+        } finally {
+            Files.deleteIfExists(keyStore.toPath());
+        }
+    }
+
+    @Test
+    public void sslSocketFactoryIsNotReloadedWhenOnlyModificationTimeChanges() throws Exception {
+        final var keyStore = createKeyStore();
+        try {
+            this.httpsURLConnectionFactory.setSSLConfiguration(sslConfiguration(keyStore, "0"));
+
+            final var first = connect().getSSLSocketFactory();
+            Files.setLastModifiedTime(keyStore.toPath(), FileTime.fromMillis(keyStore.lastModified() - 60000));
+            assertSame(first, connect().getSSLSocketFactory());
+        } finally {
+            Files.deleteIfExists(keyStore.toPath());
+        }
+    }
+
+    @Test
+    public void lastGoodSslSocketFactoryIsKeptWhenKeyStoreIsInvalid() throws Exception {
+        final var keyStore = createKeyStore();
+        try {
+            this.httpsURLConnectionFactory.setSSLConfiguration(sslConfiguration(keyStore, "0"));
+
+            final var first = connect().getSSLSocketFactory();
+            Files.write(keyStore.toPath(), new byte[]{1, 2, 3});
+            assertSame(first, connect().getSSLSocketFactory());
+
+            writeKeyStore(keyStore, "alias");
+            final var reloaded = connect().getSSLSocketFactory();
+            assertNotSame(first, reloaded);
+            assertNotSame(HttpsURLConnection.getDefaultSSLSocketFactory(), reloaded);
+        } finally {
+            Files.deleteIfExists(keyStore.toPath());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void invalidKeyStoreIsReportedOnFirstUse() throws Exception {
+        final var keyStore = createKeyStore();
+        try {
+            Files.write(keyStore.toPath(), new byte[]{1, 2, 3});
+            this.httpsURLConnectionFactory.setSSLConfiguration(sslConfiguration(keyStore, "0"));
+            connect();
+        } finally {
+            Files.deleteIfExists(keyStore.toPath());
+        }
+    }
+
+    private HttpsURLConnection connect() throws Exception {
+        return (HttpsURLConnection) this.httpsURLConnectionFactory
+            .buildHttpURLConnection(new URL("https://localhost/cas").openConnection());
+    }
+
+    private static Properties sslConfiguration(final File keyStore, final String reloadInterval) {
+        final var properties = new Properties();
+        properties.setProperty("protocol", "TLS");
+        properties.setProperty("keyStoreType", "PKCS12");
+        properties.setProperty("keyStorePath", keyStore.getAbsolutePath());
+        properties.setProperty("keyStorePass", "changeit");
+        properties.setProperty("certificatePassword", "changeit");
+        properties.setProperty("keyStoreReloadInterval", reloadInterval);
+        return properties;
+    }
+
+    private static File createKeyStore() throws Exception {
+        final var file = File.createTempFile("cas-client", ".p12");
+        writeKeyStore(file, null);
+        return file;
+    }
+
+    /**
+     * Writes an empty key store, or one holding a single secret key under the given alias.
+     */
+    private static void writeKeyStore(final File file, final String alias) throws Exception {
+        final var keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        if (alias != null) {
+            keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(new SecretKeySpec(new byte[16], "AES")),
+                new KeyStore.PasswordProtection("changeit".toCharArray()));
+        }
+        try (var out = new FileOutputStream(file)) {
+            keyStore.store(out, "changeit".toCharArray());
+        }
+    }
 }
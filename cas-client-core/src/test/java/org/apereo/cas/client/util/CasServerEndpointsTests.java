@@ -0,0 +1,195 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockServletContext;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CasServerEndpoints}.
+ *
+ * @since 4.1.2
+ */
+public final class CasServerEndpointsTests {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void parsesUrls() {
+        final var endpoints = CasServerEndpoints.of("  https://parse-a.example.org/cas\n https://parse-b.example.org/cas/ ");
+        assertEquals(List.of("https://parse-a.example.org/cas/", "https://parse-b.example.org/cas/"), endpoints.getUrls());
+        assertEquals("https://parse-a.example.org/cas/", endpoints.preferred().getUrl());
+    }
+
+    @Test
+    public void prefersUnmeasuredThenFastestEndpoint() {
+        final var endpoints = CasServerEndpoints.of("https://latency-a.example.org/ https://latency-b.example.org/");
+        final var a = endpoints.candidates().get(0);
+        assertEquals("https://latency-a.example.org/", a.getUrl());
+        a.recordSuccess(50 * MILLIS);
+        assertEquals(50, a.getLatency(), 0.001);
+
+        final var b = endpoints.candidates().get(0);
+        assertEquals("https://latency-b.example.org/", b.getUrl());
+        b.recordSuccess(10 * MILLIS);
+        assertSame(b, endpoints.preferred());
+
+        for (var i = 0; i < 10; i++) {
+            b.recordSuccess(200 * MILLIS);
+        }
+        assertTrue(b.getLatency() > 50);
+        assertSame(a, endpoints.preferred());
+    }
+
+    @Test
+    public void failsOverAndAvoidsFailedEndpoint() {
+        final var endpoints = CasServerEndpoints.of("https://failover-a.example.org/ https://failover-b.example.org/");
+        final var result = endpoints.call(url -> {
+            if (url.contains("failover-a")) {
+                throw connectFailure(url);
+            }
+            return url;
+        });
+        assertEquals("https://failover-b.example.org/", result);
+
+        final var candidates = endpoints.candidates();
+        assertEquals("https://failover-b.example.org/", candidates.get(0).getUrl());
+        assertFalse(candidates.get(1).isHealthy());
+        assertTrue(candidates.get(0).isHealthy());
+    }
+
+    @Test
+    public void probesFailedEndpointOnceBackOffElapsed() throws Exception {
+        final var endpoints = CasServerEndpoints.of("https://probe-a.example.org/ https://probe-b.example.org/");
+        final var a = endpoints.preferred();
+        a.recordSuccess(MILLIS);
+        final var b = endpoints.candidates().get(0);
+        b.recordSuccess(100 * MILLIS);
+        a.recordFailure();
+        assertSame(b, endpoints.candidates().get(0));
+
+        Thread.sleep(CasServerEndpoints.MIN_BACKOFF + 100);
+        assertSame(b, endpoints.preferred());
+        assertSame(a, endpoints.candidates().get(0));
+        assertSame("only one call probes the endpoint", b, endpoints.candidates().get(0));
+
+        a.recordSuccess(MILLIS);
+        assertTrue(a.isHealthy());
+        assertSame(a, endpoints.candidates().get(0));
+    }
+
+    @Test
+    public void reportsLastFailureWhenAllEndpointsFail() {
+        final var endpoints = CasServerEndpoints.of("https://down-a.example.org/ https://down-b.example.org/");
+        try {
+            endpoints.call(url -> {
+                throw connectFailure(url);
+            });
+            fail("The call should have failed.");
+        } catch (final UncheckedIOException e) {
+            assertEquals("Connection refused: https://down-b.example.org/", e.getCause().getMessage());
+            assertEquals("Connection refused: https://down-a.example.org/", e.getSuppressed()[0].getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void failsOverAsynchronously() throws Exception {
+        final var endpoints = CasServerEndpoints.of("https://async-a.example.org/ https://async-b.example.org/");
+        final var result = endpoints.callAsync(url -> url.contains("async-a")
+            ? CompletableFuture.failedFuture(connectFailure(url))
+            : CompletableFuture.completedFuture(url));
+        assertEquals("https://async-b.example.org/", result.get(10, TimeUnit.SECONDS));
+
+        try {
+            endpoints.callAsync(url -> CompletableFuture.failedFuture(connectFailure(url))).get(10, TimeUnit.SECONDS);
+            fail("The call should have failed.");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+        }
+    }
+
+    @Test
+    public void doesNotFailOverOnceRequestMayHaveReachedServer() {
+        final var endpoints = CasServerEndpoints.of("https://timeout-a.example.org/ https://timeout-b.example.org/");
+        final List<String> called = new ArrayList<>();
+        try {
+            endpoints.call(url -> {
+                called.add(url);
+                throw new UncheckedIOException(new SocketTimeoutException("Read timed out"));
+            });
+            fail("The call should have failed.");
+        } catch (final UncheckedIOException e) {
+            assertEquals(List.of("https://timeout-a.example.org/"), called);
+        }
+        assertTrue(endpoints.candidates().stream().allMatch(CasServerEndpoints.Endpoint::isHealthy));
+
+        try {
+            endpoints.callAsync(url -> {
+                called.add(url);
+                return CompletableFuture.failedFuture(new IllegalStateException("Response exceeds the maximum size"));
+            }).get(10, TimeUnit.SECONDS);
+            fail("The call should have failed.");
+        } catch (final Exception e) {
+            assertEquals(2, called.size());
+        }
+        assertTrue(endpoints.candidates().stream().allMatch(CasServerEndpoints.Endpoint::isHealthy));
+    }
+
+    @Test
+    public void callsSingleUrlWithoutMeasuring() {
+        final var endpoints = CasServerEndpoints.of("https://single.example.org/cas");
+        try {
+            endpoints.call(url -> {
+                throw connectFailure(url);
+            });
+            fail("The call should have failed.");
+        } catch (final UncheckedIOException e) {
+            assertTrue(endpoints.preferred().isHealthy());
+        }
+        assertEquals("ok", endpoints.call(url -> "ok"));
+        assertTrue(Double.isNaN(endpoints.preferred().getLatency()));
+    }
+
+    @Test
+    public void sharesMeasurementsWithinRegistryOnly() {
+        final var urls = "https://shared-a.example.org/ https://shared-b.example.org/";
+        final var registry = CasServerEndpoints.Registry.of(new MockServletContext());
+        registry.endpoints(urls).preferred().recordFailure();
+
+        assertEquals("https://shared-b.example.org/", registry.endpoints(urls).preferred().getUrl());
+        assertEquals("https://shared-a.example.org/", CasServerEndpoints.of(urls).preferred().getUrl());
+        assertEquals("https://shared-a.example.org/",
+            CasServerEndpoints.Registry.of(new MockServletContext()).endpoints(urls).preferred().getUrl());
+    }
+
+    private static UncheckedIOException connectFailure(final String url) {
+        return new UncheckedIOException(new ConnectException("Connection refused: " + url));
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+import org.apereo.cas.client.validation.Cas30ProxyReceivingTicketValidationFilter;
+import org.apereo.cas.client.validation.CompactAssertion;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link CombinedCasFilter}.
+ *
+ * @since 4.1.2
+ */
+public final class CombinedCasFilterTests {
+
+    private final CombinedCasFilter filter = new CombinedCasFilter();
+
+    private final Cas30ProxyReceivingTicketValidationFilter ticketValidationFilter =
+        new Cas30ProxyReceivingTicketValidationFilter();
+
+    private final List<String> validatedTickets = new ArrayList<>();
+
+    private HttpServletRequest filteredRequest;
+
+    private String heldUser;
+
+    @Before
+    public void setUp() throws Exception {
+        final var config = new MockFilterConfig();
+        config.addInitParameter("casServerLoginUrl", "https://cas.example.org/cas/login");
+        config.addInitParameter("casServerUrlPrefix", "https://cas.example.org/cas");
+        config.addInitParameter("serverName", "localhost:8080");
+        config.addInitParameter("redirectAfterValidation", "false");
+        config.addInitParameter("roleAttribute", "memberOf");
+        this.filter.setTicketValidationFilter(this.ticketValidationFilter);
+        this.filter.init(config);
+        this.ticketValidationFilter.setTicketValidator((ticket, service) -> {
+            this.validatedTickets.add(ticket);
+            return new AssertionImpl("validated");
+        });
+    }
+
+    @After
+    public void tearDown() {
+        this.filter.destroy();
+    }
+
+    @Test
+    public void authenticatedSessionTakesFastPath() throws Exception {
+        final var request = new MockHttpServletRequest("GET", "/app/page");
+        final var session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, new AssertionImpl("alice"));
+        request.setSession(session);
+        request.setQueryString("page=1");
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            this.filteredRequest = (HttpServletRequest) req;
+            this.heldUser = AssertionHolder.getAssertion().getPrincipal().getName();
+        });
+
+        assertEquals("alice", this.filteredRequest.getRemoteUser());
+        assertEquals("alice", this.heldUser);
+        assertNull(AssertionHolder.getAssertion());
+        assertTrue(this.validatedTickets.isEmpty());
+    }
+
+    @Test
+    public void fastPathAttachesProxyRetriever() throws Exception {
+        this.ticketValidationFilter.setProxyRetriever((pgt, service) -> pgt + ':' + service);
+        final var request = new MockHttpServletRequest("GET", "/app/page");
+        final var session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, replicate(CompactAssertion.of(
+            new AssertionImpl(new AttributePrincipalImpl("alice", "PGT-1", (pgt, service) -> "PT-local")))));
+        request.setSession(session);
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> this.heldUser =
+            AssertionHolder.getAssertion().getPrincipal().getProxyTicketFor("https://service"));
+
+        assertEquals("PGT-1:https://service", this.heldUser);
+        assertTrue(this.validatedTickets.isEmpty());
+    }
+
+    @Test
+    public void ticketIsValidatedDespiteSession() throws Exception {
+        final var request = new MockHttpServletRequest("GET", "/app/page");
+        final var session = new MockHttpSession();
+        session.setAttribute(AbstractCasFilter.CONST_CAS_ASSERTION, new AssertionImpl("alice"));
+        request.setSession(session);
+        request.setQueryString("ticket=ST-1");
+        request.addParameter("ticket", "ST-1");
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            this.filteredRequest = (HttpServletRequest) req;
+            this.heldUser = AssertionHolder.getAssertion().getPrincipal().getName();
+        });
+
+        assertEquals(List.of("ST-1"), this.validatedTickets);
+        assertEquals("validated", this.filteredRequest.getRemoteUser());
+        assertEquals("validated", this.heldUser);
+    }
+
+    @Test
+    public void formPostGoesThroughDelegates() throws Exception {
+        final var request = new MockHttpServletRequest("POST", "/app/page");
+        request.setContentType("application/x-www-form-urlencoded; charset=UTF-8");
+        request.addParameter("ticket", "ST-2");
+
+        this.filter.doFilter(request, new MockHttpServletResponse(),
+            (req, res) -> this.filteredRequest = (HttpServletRequest) req);
+
+        assertEquals(List.of("ST-2"), this.validatedTickets);
+        assertEquals("validated", this.filteredRequest.getRemoteUser());
+    }
+
+    @Test
+    public void unauthenticatedRequestIsRedirected() throws Exception {
+        final var request = new MockHttpServletRequest("GET", "/app/page");
+        final var response = new MockHttpServletResponse();
+
+        this.filter.doFilter(request, response, (req, res) -> fail("Request should have been redirected."));
+
+        assertTrue(response.getRedirectedUrl().startsWith("https://cas.example.org/cas/login?service="));
+        assertNull(AssertionHolder.getAssertion());
+    }
+
+    private static Assertion replicate(final Assertion assertion) throws Exception {
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(assertion);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Assertion) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link MaintenanceScheduler}.
+ *
+ * @since 4.1.2
+ */
+public final class MaintenanceSchedulerTests {
+
+    @After
+    public void tearDown() {
+        MaintenanceScheduler.shutdown();
+    }
+
+    @Test
+    public void runsTaskPeriodically() throws Exception {
+        final var latch = new CountDownLatch(3);
+        final var task = MaintenanceScheduler.schedule("test", latch::countDown, 20);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        task.cancel();
+        assertTrue(task.isCancelled());
+    }
+
+    @Test
+    public void keepsRunningAfterFailure() throws Exception {
+        final var latch = new CountDownLatch(2);
+        MaintenanceScheduler.schedule("failing", () -> {
+            latch.countDown();
+            throw new IllegalStateException("failure");
+        }, 20);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void stopsWithLastTask() {
+        final var first = MaintenanceScheduler.schedule("first", () -> { }, 60000);
+        final var second = MaintenanceScheduler.schedule("second", () -> { }, 60000);
+        assertTrue(MaintenanceScheduler.isRunning());
+        first.cancel();
+        assertTrue(MaintenanceScheduler.isRunning());
+        second.cancel();
+        assertFalse(MaintenanceScheduler.isRunning());
+    }
+
+    @Test
+    public void shutdownCancelsAllTasks() throws Exception {
+        final var runs = new AtomicInteger();
+        final var task = MaintenanceScheduler.schedule("test", runs::incrementAndGet, 20);
+        MaintenanceScheduler.shutdown();
+        assertTrue(task.isCancelled());
+        assertFalse(MaintenanceScheduler.isRunning());
+        // let a run in progress at shutdown complete
+        Thread.sleep(50);
+        final var count = runs.get();
+        Thread.sleep(100);
+        assertEquals(count, runs.get());
+    }
+
+    @Test
+    public void shutdownOfContextOnlyCancelsItsTasks() {
+        final var shared = MaintenanceScheduler.schedule("shared", () -> { }, 60000);
+        final var thread = Thread.currentThread();
+        final var previous = thread.getContextClassLoader();
+        final var webapp = new URLClassLoader(new URL[0], previous);
+        final MaintenanceScheduler.ScheduledTask own;
+        thread.setContextClassLoader(webapp);
+        try {
+            own = MaintenanceScheduler.schedule("own", () -> { }, 60000);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+        MaintenanceScheduler.shutdown(webapp);
+        assertTrue(own.isCancelled());
+        assertFalse(shared.isCancelled());
+        assertTrue(MaintenanceScheduler.isRunning());
+    }
+
+    @Test
+    public void restartsAfterShutdown() throws Exception {
+        MaintenanceScheduler.shutdown();
+        final var latch = new CountDownLatch(1);
+        MaintenanceScheduler.schedule("test", latch::countDown, 20);
+        assertTrue(MaintenanceScheduler.isRunning());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link ThreadLocalXPathExpression}.
+ *
+ * @since 4.1.2
+ */
+public final class ThreadLocalXPathExpressionTests {
+
+    private static final String XML = "<response><user>username</user></response>";
+
+    private final ThreadLocalXPathExpression expression = new ThreadLocalXPathExpression("/response/user",
+        new MapNamespaceContext());
+
+    @Test
+    public void evaluatesOnPlatformThread() throws Exception {
+        assertEquals("username", this.expression.evaluate(new InputSource(new StringReader(XML))));
+        assertSame(this.expression.get(), this.expression.get());
+    }
+
+    @Test
+    public void evaluatesOnVirtualThreads() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var first = executor.submit(() -> this.expression.evaluate(new InputSource(new StringReader(XML))));
+            assertEquals("username", first.get(10, TimeUnit.SECONDS));
+            final var second = executor.submit(() -> this.expression.evaluateAsString(XmlUtils.newDocument(XML)));
+            assertEquals("username", second.get(10, TimeUnit.SECONDS));
+        }
+    }
+}
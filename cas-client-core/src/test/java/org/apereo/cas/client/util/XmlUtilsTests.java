@@ -0,0 +1,74 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link XmlUtils}.
+ *
+ * @since 4.1.2
+ */
+public final class XmlUtilsTests {
+
+    private static final String XXE = "<?xml version=\"1.0\"?><!DOCTYPE foo [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                                      + "<root><user>&xxe;</user></root>";
+
+    @Test
+    public void rejectsDoctypeInSaxParsing() {
+        assertNull(XmlUtils.getTextForElement(XXE, "user"));
+        assertNull(XmlUtils.getTextForElements(XXE, "user"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rejectsDoctypeInDomParsing() {
+        XmlUtils.newDocument(XXE);
+    }
+
+    @Test
+    public void reusesParsersAfterFailure() {
+        assertNull(XmlUtils.getTextForElement("<root><user>", "user"));
+        assertEquals("casuser", XmlUtils.getTextForElement("<root><user>casuser</user></root>", "user"));
+        assertEquals(List.of("a", "b"), XmlUtils.getTextForElements("<root><p>a</p><p>b</p></root>", "p"));
+        assertEquals("root", XmlUtils.newDocument("<root/>").getDocumentElement().getLocalName());
+    }
+
+    @Test
+    public void parsesConcurrently() throws Exception {
+        final List<Callable<String>> tasks = new ArrayList<>();
+        for (var i = 0; i < 200; i++) {
+            final var user = "user" + i;
+            tasks.add(() -> XmlUtils.getTextForElement("<root><user>" + user + "</user></root>", "user")
+                            + XmlUtils.newDocument("<root><user>" + user + "</user></root>").getDocumentElement().getTextContent());
+        }
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            final var results = executor.invokeAll(tasks);
+            for (var i = 0; i < results.size(); i++) {
+                assertEquals("user" + i + "user" + i, results.get(i).get());
+            }
+        }
+    }
+}
@@ -18,12 +18,25 @@
  */
 package org.apereo.cas.client.validation;
 
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.proxy.ProxyRetriever;
+
 import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockServletContext;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterConfig;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import static org.junit.Assert.*;
 
 /**
@@ -59,4 +72,134 @@ public class Cas10TicketValidationFilterTests {
         assertTrue(validator instanceof Cas10TicketValidator);
         assertTrue(((Cas10TicketValidator) validator).isRenew());
     }
+
+    @Test
+    public void testAsyncValidationRedirects() throws Exception {
+        final var f = newAsyncFilter(true);
+        final var request = newTicketRequest();
+        final var response = new MockHttpServletResponse();
+        final var chain = new MockFilterChain();
+
+        f.doFilter(request, response, chain);
+
+        assertEquals("http://www.jasig.org", response.getRedirectedUrl());
+        assertNull(chain.getRequest());
+        assertNotNull(request.getSession().getAttribute(Cas10TicketValidationFilter.CONST_CAS_ASSERTION));
+    }
+
+    @Test
+    public void testAsyncValidationDispatchesThroughChain() throws Exception {
+        final var f = newAsyncFilter(false);
+        final var request = newTicketRequest();
+        final var response = new MockHttpServletResponse();
+
+        f.doFilter(request, response, new MockFilterChain());
+        assertNotNull(((MockAsyncContext) request.getAsyncContext()).getDispatchedPath());
+        assertNotNull(request.getAttribute(Cas10TicketValidationFilter.CONST_CAS_ASSERTION));
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        final var chain = new MockFilterChain();
+        f.doFilter(request, response, chain);
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    public void testAsyncValidationFailure() throws Exception {
+        final var f = newAsyncFilter(true);
+        f.setExceptionOnValidationFailure(false);
+        f.setTicketValidator((ticket, service) -> {
+            throw new TicketValidationException("invalid ticket");
+        });
+        final var request = newTicketRequest();
+        final var response = new MockHttpServletResponse();
+        final var chain = new MockFilterChain();
+
+        f.doFilter(request, response, chain);
+
+        assertEquals(403, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testStoresCompactAssertion() throws Exception {
+        final var f = new Cas10TicketValidationFilter();
+        final var config = new MockFilterConfig();
+        config.addInitParameter("casServerUrlPrefix", "https://cas.example.com");
+        config.addInitParameter("service", "http://www.jasig.org");
+        config.addInitParameter("compactAssertion", "true");
+        f.init(config);
+        f.setTicketValidator((ticket, service) -> new AssertionImpl("user"));
+        final var request = newTicketRequest();
+
+        f.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        final var assertion = request.getSession().getAttribute(Cas10TicketValidationFilter.CONST_CAS_ASSERTION);
+        assertTrue(assertion instanceof CompactAssertion);
+        assertEquals("user", ((Assertion) assertion).getPrincipal().getName());
+    }
+
+    @Test
+    public void testAttachesProxyRetrieverOfFilterToDeserializedCompactAssertion() throws Exception {
+        final var first = newCompactAssertionFilter((pgt, service) -> "PT-first");
+        final var second = newCompactAssertionFilter((pgt, service) -> "PT-second");
+        final var firstRequest = newSessionRequest();
+        final var secondRequest = newSessionRequest();
+
+        first.doFilter(firstRequest, new MockHttpServletResponse(), new MockFilterChain());
+        second.doFilter(secondRequest, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals("PT-first", getSessionAssertion(firstRequest).getPrincipal().getProxyTicketFor("https://service"));
+        assertEquals("PT-second", getSessionAssertion(secondRequest).getPrincipal().getProxyTicketFor("https://service"));
+    }
+
+    private static Cas10TicketValidationFilter newCompactAssertionFilter(final ProxyRetriever proxyRetriever)
+        throws Exception {
+        final var f = new Cas10TicketValidationFilter();
+        final var config = new MockFilterConfig();
+        config.addInitParameter("casServerUrlPrefix", "https://cas.example.com");
+        config.addInitParameter("service", "http://www.jasig.org");
+        config.addInitParameter("compactAssertion", "true");
+        f.init(config);
+        f.setProxyRetriever(proxyRetriever);
+        return f;
+    }
+
+    /**
+     * @return a request whose session holds a compact assertion deserialized as if replicated from another node.
+     */
+    private static MockHttpServletRequest newSessionRequest() throws Exception {
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(CompactAssertion.of(new AssertionImpl(new AttributePrincipalImpl("user", "PGT-1", null))));
+        }
+        final var request = new MockHttpServletRequest("GET", "/");
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            request.getSession().setAttribute(Cas10TicketValidationFilter.CONST_CAS_ASSERTION, in.readObject());
+        }
+        return request;
+    }
+
+    private static Assertion getSessionAssertion(final MockHttpServletRequest request) {
+        return (Assertion) request.getSession().getAttribute(Cas10TicketValidationFilter.CONST_CAS_ASSERTION);
+    }
+
+    private static Cas10TicketValidationFilter newAsyncFilter(final boolean redirectAfterValidation) throws Exception {
+        final var f = new Cas10TicketValidationFilter();
+        final var config = new MockFilterConfig();
+        config.addInitParameter("casServerUrlPrefix", "https://cas.example.com");
+        config.addInitParameter("service", "http://www.jasig.org");
+        config.addInitParameter("asyncValidation", "true");
+        config.addInitParameter("redirectAfterValidation", String.valueOf(redirectAfterValidation));
+        f.init(config);
+        f.setTicketValidator((ticket, service) -> new AssertionImpl("user"));
+        return f;
+    }
+
+    private static MockHttpServletRequest newTicketRequest() {
+        final var request = new MockHttpServletRequest("GET", "/");
+        request.setAsyncSupported(true);
+        request.setQueryString("ticket=ST-1");
+        request.addParameter("ticket", "ST-1");
+        return request;
+    }
 }
@@ -30,7 +30,10 @@ import org.springframework.context.support.ClassPathXmlApplicationContext;
 import java.io.Serial;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -142,6 +145,61 @@ public final class Cas20ProxyTicketValidatorTests extends AbstractTicketValidato
 
     }
 
+    @Test
+    public void testStructuredHooksAreCalled() throws TicketValidationException, UnsupportedEncodingException {
+        final List<String> calls = new ArrayList<>();
+        final var validator = new Cas20ProxyTicketValidator(CONST_CAS_SERVER_URL_PREFIX + "8089") {
+            @Override
+            protected Map<String, Object> extractCustomAttributes(final ServiceValidationResponse response) {
+                calls.add("attributes");
+                return new HashMap<>(Collections.singletonMap("custom", response.getUser()));
+            }
+
+            @Override
+            protected String retrieveProxyGrantingTicket(final ServiceValidationResponse response) {
+                calls.add("proxyGrantingTicket");
+                return null;
+            }
+
+            @Override
+            protected void customParseResponse(final ServiceValidationResponse response, final Assertion assertion)
+                throws TicketValidationException {
+                calls.add("customParse");
+                super.customParseResponse(response, assertion);
+            }
+        };
+        validator.setAllowedProxyChains(this.ticketValidator.getAllowedProxyChains());
+        final var RESPONSE =
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>username</cas:user><cas:proxies><cas:proxy>proxy1</cas:proxy><cas:proxy>proxy2</cas:proxy><cas:proxy>proxy3</cas:proxy></cas:proxies></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+
+        final var assertion = validator.validate("test", "test");
+        assertEquals("username", assertion.getPrincipal().getAttributes().get("custom"));
+        assertEquals(List.of("proxyGrantingTicket", "attributes", "customParse"), calls);
+    }
+
+    @Test
+    public void testOverriddenProxyChainCheckIsEnforced() throws UnsupportedEncodingException {
+        final var validator = new Cas20ProxyTicketValidator(CONST_CAS_SERVER_URL_PREFIX + "8089") {
+            @Override
+            protected void customParseResponse(final ServiceValidationResponse response, final Assertion assertion)
+                throws TicketValidationException {
+                throw new InvalidProxyChainTicketValidationException("Invalid proxy chain: " + response.getProxies());
+            }
+        };
+        validator.setAllowedProxyChains(this.ticketValidator.getAllowedProxyChains());
+        final var RESPONSE =
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>username</cas:user><cas:proxies><cas:proxy>proxy1</cas:proxy><cas:proxy>proxy2</cas:proxy><cas:proxy>proxy3</cas:proxy></cas:proxies></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+
+        try {
+            validator.validate("test", "test");
+            fail("Invalid proxy chain");
+        } catch (final TicketValidationException e) {
+            assertTrue(e instanceof InvalidProxyChainTicketValidationException);
+        }
+    }
+
     private static ProxyGrantingTicketStorage getProxyGrantingTicketStorage() {
         return new ProxyGrantingTicketStorageImpl();
     }
@@ -32,8 +32,11 @@ import java.io.Serial;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -104,6 +107,59 @@ public final class Cas20ServiceTicketValidatorTests extends AbstractTicketValida
 
     }
 
+    @Test
+    public void testYesResponseAsync() throws Exception {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME + "</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+
+        final var assertion = this.ticketValidator.validateAsync("test", "test").get(10, TimeUnit.SECONDS);
+        assertEquals(USERNAME, assertion.getPrincipal().getName());
+    }
+
+    @Test
+    public void testFailsOverToNextServer() throws Exception {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME + "</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+
+        final var validator = new Cas20ServiceTicketValidator(CONST_CAS_SERVER_URL_PREFIX + "1/cas "
+                                                              + CONST_CAS_SERVER_URL_PREFIX + "8088");
+        assertEquals(USERNAME, validator.validate("test", "test").getPrincipal().getName());
+        assertEquals(USERNAME, validator.validateAsync("test", "test").get(10, TimeUnit.SECONDS).getPrincipal().getName());
+    }
+
+    @Test
+    public void testSubclassParsingText() throws Exception {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME + "</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+        final var responses = new ArrayList<String>();
+        final var validator = new Cas20ServiceTicketValidator(CONST_CAS_SERVER_URL_PREFIX + "8088") {
+            @Override
+            protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
+                responses.add(response);
+                return super.parseResponseFromServer(response);
+            }
+        };
+
+        assertEquals(USERNAME, validator.validate("test", "test").getPrincipal().getName());
+        assertEquals(List.of(RESPONSE), responses);
+    }
+
+    @Test
+    public void testNoResponseAsync() throws Exception {
+        final var RESPONSE =
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationFailure code=\"INVALID_TICKET\">Ticket ST-1856339-aA5Yuvrxzpv8Tau1cYQ7 not recognized</cas:authenticationFailure></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+        try {
+            this.ticketValidator.validateAsync("test", "test").get(10, TimeUnit.SECONDS);
+            fail("ValidationException expected due to 'no' response");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TicketValidationException);
+        }
+    }
+
     @Test
     public void testYesResponseWithPgtiou() throws TicketValidationException, UnsupportedEncodingException, IllegalAccessException {
         final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
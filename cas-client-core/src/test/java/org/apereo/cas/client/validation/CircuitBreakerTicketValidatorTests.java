@@ -0,0 +1,214 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link CircuitBreakerTicketValidator}.
+ *
+ * @since 4.1.2
+ */
+public final class CircuitBreakerTicketValidatorTests {
+
+    private boolean serverDown;
+
+    private int calls;
+
+    private final TicketValidator server = (ticket, service) -> {
+        this.calls++;
+        if (this.serverDown) {
+            throw new RuntimeException("Connection refused");
+        }
+        if (ticket.startsWith("ST-invalid")) {
+            throw new TicketValidationException("Ticket not recognized", "INVALID_TICKET");
+        }
+        return new AssertionImpl("alice");
+    };
+
+    @Test
+    public void opensOnceFailureRateIsReached() throws Exception {
+        final var validator = newValidator(4, 60000L);
+        this.serverDown = true;
+        for (var i = 0; i < 4; i++) {
+            assertEquals(CircuitBreakerTicketValidator.State.CLOSED, validator.getState());
+            validateExpectingFailure(validator, null);
+        }
+
+        assertEquals(CircuitBreakerTicketValidator.State.OPEN, validator.getState());
+        validateExpectingFailure(validator, CircuitBreakerTicketValidator.CIRCUIT_OPEN);
+        assertEquals(4, this.calls);
+    }
+
+    @Test
+    public void invalidTicketsDoNotOpenTheCircuit() throws Exception {
+        final var validator = newValidator(4, 60000L);
+        for (var i = 0; i < 8; i++) {
+            validateExpectingFailure(validator, "INVALID_TICKET");
+        }
+
+        assertEquals(CircuitBreakerTicketValidator.State.CLOSED, validator.getState());
+    }
+
+    @Test
+    public void trialValidationClosesTheCircuit() throws Exception {
+        final var validator = newValidator(2, 0L);
+        this.serverDown = true;
+        validateExpectingFailure(validator, null);
+        validateExpectingFailure(validator, null);
+        assertEquals(CircuitBreakerTicketValidator.State.OPEN, validator.getState());
+
+        validateExpectingFailure(validator, null);
+        assertEquals(CircuitBreakerTicketValidator.State.OPEN, validator.getState());
+
+        this.serverDown = false;
+        assertEquals("alice", validator.validate("ST-1", "service").getPrincipal().getName());
+        assertEquals(CircuitBreakerTicketValidator.State.CLOSED, validator.getState());
+    }
+
+    @Test
+    public void slowValidationsOpenTheCircuit() throws Exception {
+        final var validator = newValidator(2, 60000L);
+        validator.setSlowCallThreshold(0L);
+        validator.validate("ST-1", "service");
+        validator.validate("ST-2", "service");
+
+        assertEquals(CircuitBreakerTicketValidator.State.OPEN, validator.getState());
+    }
+
+    @Test
+    public void rejectsValidationsBeyondLimit() throws Exception {
+        final var pending = new CompletableFuture<Assertion>();
+        final var validator = new CircuitBreakerTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                return pending;
+            }
+        });
+        validator.setEnabled(false);
+        validator.setMaxConcurrentValidations(1);
+
+        final var first = validator.validateAsync("ST-1", "service");
+        assertEquals(1, validator.getConcurrentValidations());
+        try {
+            validator.validateAsync("ST-2", "service").get();
+            fail("Validation should have been rejected.");
+        } catch (final ExecutionException e) {
+            assertEquals(CircuitBreakerTicketValidator.TOO_MANY_VALIDATIONS, ((TicketValidationException) e.getCause()).getCode());
+        }
+
+        pending.complete(new AssertionImpl("alice"));
+        assertEquals("alice", first.get().getPrincipal().getName());
+        assertEquals(0, validator.getConcurrentValidations());
+    }
+
+    @Test
+    public void staleValidationDoesNotDecideHalfOpenCircuit() throws Exception {
+        final var stale = new CompletableFuture<Assertion>();
+        final var trial = new CompletableFuture<Assertion>();
+        final var validator = new CircuitBreakerTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) {
+                throw new RuntimeException("Connection refused");
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                return "ST-stale".equals(ticket) ? stale : trial;
+            }
+        });
+        validator.setWindowSize(2);
+        validator.setOpenDuration(0L);
+
+        final var staleValidation = validator.validateAsync("ST-stale", "service");
+        validateExpectingFailure(validator, null);
+        validateExpectingFailure(validator, null);
+        assertEquals(CircuitBreakerTicketValidator.State.OPEN, validator.getState());
+
+        final var trialValidation = validator.validateAsync("ST-trial", "service");
+        assertEquals(CircuitBreakerTicketValidator.State.HALF_OPEN, validator.getState());
+        stale.complete(new AssertionImpl("alice"));
+        assertEquals("alice", staleValidation.get().getPrincipal().getName());
+        assertEquals(CircuitBreakerTicketValidator.State.HALF_OPEN, validator.getState());
+
+        trial.completeExceptionally(new RuntimeException("Connection refused"));
+        assertTrue(trialValidation.isCompletedExceptionally());
+        assertEquals(CircuitBreakerTicketValidator.State.OPEN, validator.getState());
+    }
+
+    @Test
+    public void releasesPermitsTakenBeforeLimitChanged() throws Exception {
+        final var pending = new CompletableFuture<Assertion>();
+        final var validator = new CircuitBreakerTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                return "ST-1".equals(ticket) ? pending : new CompletableFuture<>();
+            }
+        });
+        validator.setEnabled(false);
+        validator.setMaxConcurrentValidations(1);
+
+        final var first = validator.validateAsync("ST-1", "service");
+        validator.setMaxConcurrentValidations(1);
+        pending.complete(new AssertionImpl("alice"));
+        assertEquals("alice", first.get().getPrincipal().getName());
+        assertEquals(0, validator.getConcurrentValidations());
+
+        validator.validateAsync("ST-2", "service");
+        try {
+            validator.validateAsync("ST-3", "service").get();
+            fail("Validation should have been rejected.");
+        } catch (final ExecutionException e) {
+            assertEquals(CircuitBreakerTicketValidator.TOO_MANY_VALIDATIONS, ((TicketValidationException) e.getCause()).getCode());
+        }
+    }
+
+    private CircuitBreakerTicketValidator newValidator(final int windowSize, final long openDuration) {
+        final var validator = new CircuitBreakerTicketValidator(this.server);
+        validator.setWindowSize(windowSize);
+        validator.setOpenDuration(openDuration);
+        return validator;
+    }
+
+    private static void validateExpectingFailure(final TicketValidator validator, final String code) {
+        try {
+            validator.validate("ST-invalid", "service");
+            fail("Validation should have failed.");
+        } catch (final TicketValidationException e) {
+            assertEquals(code, e.getCode());
+        } catch (final RuntimeException e) {
+            assertNull(code);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link CoalescingTicketValidator}.
+ *
+ * @since 4.1.2
+ */
+public final class CoalescingTicketValidatorTests {
+
+    @Test
+    public void concurrentValidationsShareOneCall() throws Exception {
+        final var calls = new AtomicInteger();
+        final var release = new CountDownLatch(1);
+        final var validator = new CoalescingTicketValidator((ticket, service) -> {
+            calls.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new AssertionImpl("user");
+        });
+
+        final var executor = Executors.newFixedThreadPool(2);
+        try {
+            final var first = executor.submit(() -> validator.validate("ST-1", "https://example.com"));
+            while (validator.size() == 0) {
+                Thread.sleep(1);
+            }
+            final var second = executor.submit(() -> validator.validate("ST-1", "https://example.com"));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failureIsShared() throws Exception {
+        final var calls = new AtomicInteger();
+        final var result = new CompletableFuture<Assertion>();
+        final var validator = new CoalescingTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                calls.incrementAndGet();
+                return result;
+            }
+        });
+
+        final var first = validator.validateAsync("ST-1", "https://example.com");
+        final var second = validator.validateAsync("ST-1", "https://example.com");
+        result.completeExceptionally(new TicketValidationException("INVALID_TICKET"));
+
+        for (final var future : new CompletableFuture<?>[]{first, second}) {
+            try {
+                future.get();
+                fail("TicketValidationException expected");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof TicketValidationException);
+            }
+        }
+        try {
+            validator.validate("ST-1", "https://example.com");
+            fail("TicketValidationException expected");
+        } catch (final TicketValidationException e) {
+            assertEquals("INVALID_TICKET", e.getMessage());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void synchronousFailureOfAsyncValidationIsNotRemembered() throws Exception {
+        final var calls = new AtomicInteger();
+        final var validator = new CoalescingTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                calls.incrementAndGet();
+                throw new IllegalStateException("CAS server unreachable");
+            }
+        });
+
+        for (var i = 0; i < 2; i++) {
+            try {
+                validator.validateAsync("ST-1", "https://example.com").get(10, TimeUnit.SECONDS);
+                fail("IllegalStateException expected");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals(2, calls.get());
+        assertEquals(0, validator.size());
+    }
+
+    @Test
+    public void unexpectedFailureIsSharedButNotRemembered() throws Exception {
+        final var calls = new AtomicInteger();
+        final var result = new CompletableFuture<Assertion>();
+        final var validator = new CoalescingTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                return calls.incrementAndGet() == 1 ? result : CompletableFuture.completedFuture(new AssertionImpl("user"));
+            }
+        });
+
+        final var first = validator.validateAsync("ST-1", "https://example.com");
+        final var second = validator.validateAsync("ST-1", "https://example.com");
+        result.completeExceptionally(new IllegalStateException("CAS server unreachable"));
+
+        for (final var future : new CompletableFuture<?>[]{first, second}) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("IllegalStateException expected");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, validator.size());
+
+        assertEquals("user", validator.validateAsync("ST-1", "https://example.com").get().getPrincipal().getName());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void distinctServicesAreValidatedSeparately() throws Exception {
+        final var calls = new AtomicInteger();
+        final var validator = new CoalescingTicketValidator((ticket, service) -> {
+            calls.incrementAndGet();
+            return new AssertionImpl(service);
+        });
+
+        assertEquals("a", validator.validate("ST-1", "a").getPrincipal().getName());
+        assertEquals("b", validator.validate("ST-1", "b").getPrincipal().getName());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void expiredOutcomesAreNotShared() throws Exception {
+        final var calls = new AtomicInteger();
+        final var validator = new CoalescingTicketValidator((ticket, service) -> {
+            calls.incrementAndGet();
+            return new AssertionImpl("user");
+        });
+        validator.setTimeToLive(0);
+
+        validator.validate("ST-1", "https://example.com");
+        validator.validate("ST-1", "https://example.com");
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void sizeIsBounded() throws Exception {
+        final var validator = new CoalescingTicketValidator((ticket, service) -> new AssertionImpl("user"));
+        validator.setMaxSize(10);
+
+        for (var i = 0; i < 100; i++) {
+            validator.validate("ST-" + i, "https://example.com");
+        }
+        assertTrue(validator.size() <= 11);
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link CompactAssertion}.
+ *
+ * @since 4.1.2
+ */
+public final class CompactAssertionTests {
+
+    @Test
+    public void roundTripsThroughSerialization() throws Exception {
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("mail", "alice@example.org");
+        attributes.put("memberOf", new LinkedList<>(List.of("staff", "faculty")));
+        attributes.put("description", null);
+        final Map<String, Serializable> context = new HashMap<>();
+        context.put("authenticationLevel", 3);
+        final var original = new AssertionImpl(new AttributePrincipalImpl("alice", attributes, "PGT-1", (pgt, service) -> null),
+            new Date(1000), new Date(2000), new Date(500), Map.of("authenticationMethod", "mfa"), context);
+
+        final var copy = (CompactAssertion) roundTrip(CompactAssertion.of(original));
+
+        assertEquals(new Date(1000), copy.getValidFromDate());
+        assertEquals(new Date(2000), copy.getValidUntilDate());
+        assertEquals(new Date(500), copy.getAuthenticationDate());
+        assertEquals("alice", copy.getPrincipal().getName());
+        assertEquals(attributes, copy.getPrincipal().getAttributes());
+        assertEquals(Map.of("authenticationMethod", "mfa"), copy.getAttributes());
+        assertEquals(context, copy.getContext());
+        assertFalse(copy.isValid());
+    }
+
+    @Test
+    public void internsAttributeNames() throws Exception {
+        final var copy = roundTrip(CompactAssertion.of(new AssertionImpl(new AttributePrincipalImpl("alice",
+            Map.of(new String("memberOf".toCharArray()), "staff")))));
+
+        assertSame("memberOf", copy.getPrincipal().getAttributes().keySet().iterator().next());
+    }
+
+    @Test
+    public void keepsMissingDates() throws Exception {
+        final var copy = roundTrip(CompactAssertion.of(new AssertionImpl(new AttributePrincipalImpl("alice"),
+            new Date(), null, null, Map.of())));
+
+        assertNull(copy.getValidUntilDate());
+        assertNull(copy.getAuthenticationDate());
+        assertTrue(copy.isValid());
+    }
+
+    @Test
+    public void requestsProxyTicketsThroughOriginalPrincipalUntilSerialized() throws Exception {
+        final var assertion = CompactAssertion.of(new AssertionImpl(new AttributePrincipalImpl("alice", "PGT-1",
+            (pgt, service) -> "PT-local")));
+        assertion.attachProxyRetriever((pgt, service) -> "PT-attached");
+        final var copy = (CompactAssertion) roundTrip(assertion);
+
+        assertEquals("PT-local", assertion.getPrincipal().getProxyTicketFor("https://service"));
+        assertNull(copy.getPrincipal().getProxyTicketFor("https://service"));
+        copy.attachProxyRetriever((pgt, service) -> pgt + ':' + service);
+        assertEquals("PGT-1:https://service", copy.getPrincipal().getProxyTicketFor("https://service"));
+    }
+
+    @Test
+    public void serializesSmallerThanAssertionImpl() throws Exception {
+        final Map<String, Object> attributes = new HashMap<>();
+        attributes.put("mail", "alice@example.org");
+        attributes.put("memberOf", new LinkedList<>(Arrays.asList("staff", "faculty", "library")));
+        final var original = new AssertionImpl(new AttributePrincipalImpl("alice", attributes), Map.of("authenticationMethod", "mfa"));
+
+        assertTrue(serialize(CompactAssertion.of(original)).length < serialize(original).length / 2);
+    }
+
+    private static Assertion roundTrip(final Assertion assertion) throws Exception {
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(serialize(assertion)))) {
+            return (Assertion) in.readObject();
+        }
+    }
+
+    private static byte[] serialize(final Assertion assertion) throws Exception {
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(assertion);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link ProxyList}.
+ *
+ * @since 4.1.2
+ */
+public final class ProxyListTests {
+
+    private final ProxyList proxyList = new ProxyList(List.of(
+        new String[]{"https://proxy1/cb", "https://app1/cb"},
+        new String[]{"https://proxy2/cb", "^https://(app)[0-9]+/"},
+        new String[]{"^https://proxy[a-z]/", "https://app3/cb"},
+        new String[]{"^https://(edge)/", "^https://(app)/\\1/"},
+        new String[]{"https://proxy4/cb"}));
+
+    @Test
+    public void matchesExactChain() {
+        assertTrue(this.proxyList.contains(new String[]{"https://proxy1/cb", "https://app1/cb"}));
+        assertFalse(this.proxyList.contains(new String[]{"https://proxy1/cb", "https://app2/cb"}));
+        assertTrue(this.proxyList.contains(new String[]{"https://proxy4/cb"}));
+        assertFalse(this.proxyList.contains(new String[]{"https://proxy4/cb", "https://app1/cb", "https://app1/cb"}));
+    }
+
+    @Test
+    public void matchesChainsWithPatterns() {
+        assertTrue(this.proxyList.contains(new String[]{"https://proxy2/cb", "https://app42/cb"}));
+        assertFalse(this.proxyList.contains(new String[]{"https://proxy1/cb", "https://app42/cb"}));
+        assertTrue(this.proxyList.contains(new String[]{"https://proxyz/cb", "https://app3/cb"}));
+        assertFalse(this.proxyList.contains(new String[]{"https://proxyz/cb", "https://app1/cb"}));
+    }
+
+    @Test
+    public void matchesPatternsWithBackReferences() {
+        assertTrue(this.proxyList.contains(new String[]{"https://edge/cb", "https://app/app/"}));
+        assertFalse(this.proxyList.contains(new String[]{"https://edge/cb", "https://app/web/"}));
+    }
+
+    @Test
+    public void remembersOutcomes() {
+        final var proxied = new String[]{"https://proxy2/cb", "https://app7/cb"};
+        assertTrue(this.proxyList.contains(proxied));
+        assertTrue(this.proxyList.contains(proxied.clone()));
+        assertFalse(this.proxyList.contains(new String[]{"https://other/cb"}));
+        assertFalse(this.proxyList.contains(new String[]{"https://other/cb"}));
+    }
+
+    @Test
+    public void worksWithoutCache() {
+        final var uncached = new ProxyList(List.<String[]>of(new String[]{"^https://proxy/"}), 0);
+        assertTrue(uncached.contains(new String[]{"https://proxy/cb"}));
+        assertFalse(uncached.contains(new String[]{"http://proxy/cb"}));
+        assertFalse(new ProxyList().contains(new String[]{"https://proxy/cb"}));
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.ssl.HttpResponseBody;
+
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link ServiceValidationResponse}.
+ *
+ * @since 4.1.2
+ */
+public final class ServiceValidationResponseTests {
+
+    @Test
+    public void readsSuccessInOnePass() throws Exception {
+        final var xml = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                        + "<cas:authenticationSuccess><cas:user>username</cas:user>"
+                        + "<cas:proxyGrantingTicket>PGTIOU-1</cas:proxyGrantingTicket>"
+                        + "<cas:proxies><cas:proxy>proxy1</cas:proxy><cas:proxy>proxy2</cas:proxy></cas:proxies>"
+                        + "<cas:attributes><cas:password>foo &amp; bar</cas:password>"
+                        + "<cas:eduPersonId><![CDATA[id<1>]]></cas:eduPersonId>"
+                        + "<cas:groupMembership>group1</cas:groupMembership>"
+                        + "<cas:groupMembership>group2</cas:groupMembership>"
+                        + "</cas:attributes></cas:authenticationSuccess></cas:serviceResponse>";
+        final var response = ServiceValidationResponse.parse(xml);
+
+        assertFalse(response.isFailure());
+        assertEquals("username", response.getUser());
+        assertEquals("PGTIOU-1", response.getProxyGrantingTicket());
+        assertEquals(List.of("proxy1", "proxy2"), response.getProxies());
+        assertEquals("foo & bar", response.getAttributes().get("password"));
+        assertEquals("id<1>", response.getAttributes().get("eduPersonId"));
+        assertEquals(List.of("group1", "group2"), response.getAttributes().get("groupMembership"));
+        assertTrue(response.getInlineAttributes().isEmpty());
+    }
+
+    @Test
+    public void readsBody() throws Exception {
+        final var xml = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                        + "<cas:authenticationSuccess><cas:user>usérname</cas:user>"
+                        + "</cas:authenticationSuccess></cas:serviceResponse>";
+        final var response = ServiceValidationResponse.parse(HttpResponseBody.of(xml, StandardCharsets.ISO_8859_1));
+
+        assertEquals("usérname", response.getUser());
+        assertEquals(xml, response.getXml());
+    }
+
+    @Test
+    public void readsFailure() throws Exception {
+        final var xml = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                        + "<cas:authenticationFailure code=\"INVALID_TICKET\">Ticket ST-1 not recognized</cas:authenticationFailure>"
+                        + "</cas:serviceResponse>";
+        final var response = ServiceValidationResponse.parse(xml);
+
+        assertTrue(response.isFailure());
+        assertEquals("INVALID_TICKET", response.getFailureCode());
+        assertEquals("Ticket ST-1 not recognized", response.getFailureDescription());
+        assertNull(response.getUser());
+        assertTrue(response.getProxies().isEmpty());
+    }
+
+    @Test
+    public void readsInlineAttributes() throws Exception {
+        final var xml = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                        + "<cas:authenticationSuccess><cas:user>username</cas:user><cas:attributes>"
+                        + "<cas:attribute name=\"urn:oid:0.9.2342.19200300.100.1.3\" value=\"a@example.org\"/>"
+                        + "<cas:attribute name=\"urn:oid:0.9.2342.19200300.100.1.3\" value=\"b@example.org\"/>"
+                        + "</cas:attributes></cas:authenticationSuccess></cas:serviceResponse>";
+        final var response = ServiceValidationResponse.parse(xml);
+
+        assertEquals(List.of("a@example.org", "b@example.org"),
+            response.getInlineAttributes().get("urn:oid:0.9.2342.19200300.100.1.3"));
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void rejectsDoctype() throws Exception {
+        ServiceValidationResponse.parse("<?xml version=\"1.0\"?><!DOCTYPE foo [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+                                        + "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                                        + "<cas:authenticationSuccess><cas:user>&xxe;</cas:user></cas:authenticationSuccess>"
+                                        + "</cas:serviceResponse>");
+    }
+}
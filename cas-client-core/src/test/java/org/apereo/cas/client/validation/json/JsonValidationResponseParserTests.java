@@ -0,0 +1,104 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.json;
+
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link JsonValidationResponseParser}.
+ *
+ * @since 4.1.2
+ */
+public final class JsonValidationResponseParserTests {
+
+    private static final String SUCCESS = "{\"serviceResponse\":{\"authenticationSuccess\":{"
+                                          + "\"user\":\"casüser\",\"proxyGrantingTicket\":\"PGTIOU-1\","
+                                          + "\"proxies\":[\"https://proxy1\",\"https://proxy2\"],"
+                                          + "\"unknown\":{\"nested\":[1,2]},"
+                                          + "\"attributes\":{\"cn\":[\"Name\"],\"age\":42,\"ratio\":0.5,\"active\":true,"
+                                          + "\"address\":{\"city\":\"Paris\"},\"none\":null}}}}";
+
+    @Test
+    public void readsSuccess() throws Exception {
+        final var response = JsonValidationResponseParser.parse(SUCCESS);
+
+        assertEquals("casüser", response.getUser());
+        assertEquals("PGTIOU-1", response.getProxyGrantingTicket());
+        assertEquals(List.of("https://proxy1", "https://proxy2"), response.getProxies());
+        final var attributes = response.getAttributes();
+        assertEquals(List.of("Name"), attributes.get("cn"));
+        assertEquals(42, attributes.get("age"));
+        assertEquals(0.5d, attributes.get("ratio"));
+        assertEquals(Boolean.TRUE, attributes.get("active"));
+        assertEquals(Map.of("city", "Paris"), attributes.get("address"));
+        assertTrue(attributes.containsKey("none"));
+        assertNull(attributes.get("none"));
+    }
+
+    @Test
+    public void readsStream() throws Exception {
+        for (final var charset : List.of(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1)) {
+            final var response = JsonValidationResponseParser.parse(
+                new ByteArrayInputStream(SUCCESS.getBytes(charset)), charset);
+            assertEquals("casüser", response.getUser());
+        }
+    }
+
+    @Test
+    public void readsFailure() throws Exception {
+        try {
+            JsonValidationResponseParser.parse("{\"serviceResponse\":{\"authenticationFailure\":"
+                                               + "{\"code\":\"INVALID_TICKET\",\"description\":\"Not recognized\"}}}");
+            fail("TicketValidationException expected");
+        } catch (final TicketValidationException e) {
+            assertEquals("INVALID_TICKET", e.getCode());
+            assertEquals("INVALID_TICKET - Not recognized", e.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectsMissingPrincipal() throws Exception {
+        try {
+            JsonValidationResponseParser.parse("{\"serviceResponse\":{}}");
+            fail("TicketValidationException expected");
+        } catch (final TicketValidationException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = TicketValidationException.class)
+    public void rejectsEmptyStream() throws Exception {
+        JsonValidationResponseParser.parse(new ByteArrayInputStream(new byte[0]), StandardCharsets.UTF_8);
+    }
+
+    @Test(expected = JsonProcessingException.class)
+    public void rejectsXml() throws Exception {
+        JsonValidationResponseParser.parse("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'/>");
+    }
+}
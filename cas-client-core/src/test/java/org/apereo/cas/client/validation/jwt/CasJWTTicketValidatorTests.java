@@ -1,11 +1,32 @@
 package org.apereo.cas.client.validation.jwt;
 
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.validation.TicketValidationException;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
 import static org.junit.Assert.*;
 
 public class CasJWTTicketValidatorTests {
 
+    private static final String PREVIOUS_KEY = "previous-signing-key-previous-signing-key-previous-signing-key-0001";
+
+    private static final String CURRENT_KEY = "current-signing-key-current-signing-key-current-signing-key-00000001";
+
     private static CasJWTTicketValidator getValidator(final String url) {
         var validator = new CasJWTTicketValidator();
         validator.setEncryptionKey("GR7E6uL9djKBSH59BN8boYQ68gQgzwehIIp6s1QicPc");
@@ -44,4 +65,175 @@ public class CasJWTTicketValidatorTests {
         assertEquals("919d04b9-55c0-43ae-81fa-f5e3a55e6c85", assertion.getPrincipal().getName());
         assertEquals("919d04b9-55c0-43ae-81fa-f5e3a55e6c85", assertion.getPrincipal().getAttributes().get("sub"));
     }
+
+    @Test
+    public void verifyKeySelectedByKeyId() throws Exception {
+        var validator = getValidator("jwtservice");
+        validator.setSigningKeys(Map.of("previous", PREVIOUS_KEY, "current", CURRENT_KEY));
+
+        assertEquals("casuser", validator.validate(sign(CURRENT_KEY, "current"), "https://example.org").getPrincipal().getName());
+        assertEquals("casuser", validator.validate(sign(PREVIOUS_KEY, "previous"), "https://example.org").getPrincipal().getName());
+        try {
+            validator.validate(sign(CURRENT_KEY, "previous"), "https://example.org");
+            fail("A JWT signed with another key than the one named by its key id should be rejected");
+        } catch (final TicketValidationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void verifyUnknownKeyIdFallsBackToSigningKey() throws Exception {
+        var validator = getValidator("jwtservice");
+        validator.setSigningKey(CURRENT_KEY);
+        validator.setSigningKeys(Map.of("previous", PREVIOUS_KEY));
+
+        assertEquals("casuser", validator.validate(sign(CURRENT_KEY, "unknown"), "https://example.org").getPrincipal().getName());
+        assertEquals("casuser", validator.validate(sign(CURRENT_KEY, null), "https://example.org").getPrincipal().getName());
+    }
+
+    @Test
+    public void verifyKeysRotatedAfterInitialization() throws Exception {
+        var validator = getValidator("jwtservice");
+        validator.setSigningKey(PREVIOUS_KEY);
+        validator.initialize();
+        assertNotNull(validator.validate(sign(PREVIOUS_KEY, null), "https://example.org"));
+
+        validator.setSigningKey(CURRENT_KEY);
+        assertNotNull(validator.validate(sign(CURRENT_KEY, null), "https://example.org"));
+        try {
+            validator.validate(sign(PREVIOUS_KEY, null), "https://example.org");
+            fail("A JWT signed with a rotated key should be rejected");
+        } catch (final TicketValidationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void verifyConcurrentFirstValidations() throws Exception {
+        var validator = getValidator("jwtservice");
+        validator.setSigningKey(CURRENT_KEY);
+        var jwt = sign(CURRENT_KEY, null);
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var validations = new ArrayList<Callable<String>>();
+            for (var i = 0; i < 32; i++) {
+                validations.add(() -> validator.validate(jwt, "https://example.org").getPrincipal().getName());
+            }
+            for (var result : executor.invokeAll(validations)) {
+                assertEquals("casuser", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void verifyCachedResults() throws Exception {
+        var validator = getValidator("jwtservice");
+        validator.setSigningKey(CURRENT_KEY);
+        validator.setCacheResults(true);
+        var jwt = sign(CURRENT_KEY, null);
+
+        var assertion = validator.validate(jwt, "https://example.org");
+        assertSame(assertion, validator.validate(jwt, "https://example.org"));
+        assertNotSame(assertion, validator.validate(sign(CURRENT_KEY, null), "https://example.org"));
+
+        validator.setSigningKey(PREVIOUS_KEY);
+        try {
+            validator.validate(jwt, "https://example.org");
+            fail("Cached results should be dropped when keys are replaced");
+        } catch (final TicketValidationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void verifyReplaysRejected() throws Exception {
+        var validator = getValidator("jwtservice");
+        validator.setSigningKey(CURRENT_KEY);
+        validator.setRejectReplays(true);
+        var jwt = sign(CURRENT_KEY, null);
+
+        assertNotNull(validator.validate(jwt, "https://example.org"));
+        assertNotNull(validator.validate(sign(CURRENT_KEY, null), "https://example.org"));
+        try {
+            validator.validate(jwt, "https://example.org");
+            fail("A JWT presented twice should be rejected");
+        } catch (final TicketValidationException e) {
+            assertTrue(e.getMessage().contains("already been used"));
+        }
+    }
+
+    @Test
+    public void verifyReplaysOfJwtsWithoutExpirationRejected() throws Exception {
+        var validator = getValidator("jwtservice");
+        validator.setSigningKey(CURRENT_KEY);
+        validator.setRequiredClaims("sub,aud,iat,jti,iss");
+        validator.setRejectReplays(true);
+        var claims = new JWTClaimsSet.Builder()
+            .subject("casuser")
+            .issuer("https://cas.example.org:8443/cas")
+            .audience("jwtservice")
+            .jwtID(UUID.randomUUID().toString())
+            .issueTime(new Date())
+            .build();
+
+        try {
+            validator.validate(sign(CURRENT_KEY, null, claims), "https://example.org");
+            fail("A JWT without expiration should be rejected when detecting replays");
+        } catch (final TicketValidationException e) {
+            assertTrue(e.getMessage().contains("no exp claim"));
+        }
+    }
+
+    @Test
+    public void verifyUnexpiredJwtIdsAreNotEvicted() throws Exception {
+        final List<MetricsRecorder.ValidationRejection> rejections = new ArrayList<>();
+        var validator = getValidator("jwtservice");
+        validator.setSigningKey(CURRENT_KEY);
+        validator.setRejectReplays(true);
+        validator.setCacheMaxSize(2);
+        validator.setMetricsRecorder(new MetricsRecorder() {
+            @Override
+            public void recordValidationRejected(final ValidationRejection rejection) {
+                rejections.add(rejection);
+            }
+        });
+        var jwt = sign(CURRENT_KEY, null);
+
+        assertNotNull(validator.validate(jwt, "https://example.org"));
+        assertNotNull(validator.validate(sign(CURRENT_KEY, null), "https://example.org"));
+        try {
+            validator.validate(sign(CURRENT_KEY, null), "https://example.org");
+            fail("A JWT should be rejected when its id cannot be remembered");
+        } catch (final TicketValidationException e) {
+            assertTrue(e.getMessage().contains("Too many JWTs"));
+        }
+        try {
+            validator.validate(jwt, "https://example.org");
+            fail("A JWT presented twice should be rejected");
+        } catch (final TicketValidationException e) {
+            assertTrue(e.getMessage().contains("already been used"));
+        }
+        assertEquals(List.of(MetricsRecorder.ValidationRejection.REPLAY_CACHE_FULL), rejections);
+    }
+
+    private static String sign(final String key, final String keyId) throws Exception {
+        var claims = new JWTClaimsSet.Builder()
+            .subject("casuser")
+            .issuer("https://cas.example.org:8443/cas")
+            .audience("jwtservice")
+            .jwtID(UUID.randomUUID().toString())
+            .issueTime(new Date())
+            .expirationTime(new Date(System.currentTimeMillis() + 60000))
+            .build();
+        return sign(key, keyId, claims);
+    }
+
+    private static String sign(final String key, final String keyId, final JWTClaimsSet claims) throws Exception {
+        var header = new JWSHeader.Builder(JWSAlgorithm.HS512).type(JOSEObjectType.JWT).keyID(keyId).build();
+        var jwt = new SignedJWT(header, claims);
+        jwt.sign(new MACSigner(key.getBytes(StandardCharsets.UTF_8)));
+        return jwt.serialize();
+    }
 }
@@ -0,0 +1,60 @@
+package org.apereo.cas.client.validation.jwt;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link JWTValidationCache}.
+ *
+ * @since 4.1.2
+ */
+public class JWTValidationCacheTests {
+
+    private final Assertion assertion = new AssertionImpl(new AttributePrincipalImpl("casuser"));
+
+    @Test
+    public void evictsOldestEntriesBeyondMaxSize() {
+        var cache = new JWTValidationCache(10, true);
+        var expiresAt = System.currentTimeMillis() + 60000;
+        for (var i = 0; i <= 10; i++) {
+            cache.put("jwt-" + i, assertion, expiresAt);
+        }
+
+        assertEquals(9, cache.size());
+        assertNull(cache.get("jwt-0"));
+        assertNull(cache.get("jwt-1"));
+        assertSame(assertion, cache.get("jwt-10"));
+    }
+
+    @Test
+    public void dropsExpiredEntriesBeforeUnexpiredOnes() {
+        var cache = new JWTValidationCache(10, true);
+        var now = System.currentTimeMillis();
+        cache.put("unexpired", assertion, now + 60000);
+        for (var i = 0; i < 10; i++) {
+            cache.put("expired-" + i, assertion, now - 1);
+        }
+
+        assertEquals(1, cache.size());
+        assertSame(assertion, cache.get("unexpired"));
+    }
+
+    @Test
+    public void reportsFullUntilEntriesExpire() throws Exception {
+        var cache = new JWTValidationCache(2, false);
+        var now = System.currentTimeMillis();
+        assertTrue(cache.putIfAbsent("jwt-1", assertion, now + 60000));
+        assertTrue(cache.putIfAbsent("jwt-2", assertion, now + 50));
+        assertFalse(cache.putIfAbsent("jwt-1", assertion, now + 60000));
+        assertTrue(cache.isFull());
+
+        Thread.sleep(100);
+        assertNull(cache.get("jwt-2"));
+        assertFalse(cache.isFull());
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.ehcache.Cache;
+
+/**
+ * {@link SessionMappingRegistry} backed by an Ehcache {@link Cache}. For the registry to be shared between nodes, the
+ * cache must be clustered, i.e. a Terracotta-backed cache. Such a cache can only be obtained from a cache manager
+ * built by the application, so this registry has no default constructor and cannot be configured through
+ * <code>sessionMappingRegistryClass</code>: wrap it in a {@link DistributedSessionMappingStorage} and pass that to
+ * {@link SingleSignOutFilter#setSessionMappingStorage(SessionMappingStorage)} instead.
+ *
+ * @since 4.1.2
+ */
+public final class EhcacheSessionMappingRegistry implements SessionMappingRegistry {
+
+    /**
+     * Suggested name of the clustered cache.
+     */
+    public static final String EHCACHE_CACHE_NAME = "org.apereocas.client.session.EhcacheSessionMappingRegistry.cache";
+
+    private final Cache<String, String> cache;
+
+    /**
+     * @param cache cache holding encoded {@link SessionLocation}s by ticket, expected to expire its entries.
+     */
+    public EhcacheSessionMappingRegistry(final Cache<String, String> cache) {
+        CommonUtils.assertNotNull(cache, "cache cannot be null.");
+        this.cache = cache;
+    }
+
+    @Override
+    public void register(final String mappingId, final SessionLocation location) {
+        this.cache.put(mappingId, location.encode());
+    }
+
+    @Override
+    public SessionLocation lookup(final String mappingId) {
+        return SessionLocation.decode(this.cache.get(mappingId));
+    }
+
+    @Override
+    public void unregister(final String mappingId) {
+        this.cache.remove(mappingId);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link EhcacheSessionMappingRegistry}.
+ *
+ * @since 4.1.2
+ */
+public final class EhcacheSessionMappingRegistryTests {
+
+    private final CacheManager cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+        .withCache(EhcacheSessionMappingRegistry.EHCACHE_CACHE_NAME,
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, ResourcePoolsBuilder.heap(100)))
+        .build(true);
+
+    private final EhcacheSessionMappingRegistry registry = new EhcacheSessionMappingRegistry(
+        cacheManager.getCache(EhcacheSessionMappingRegistry.EHCACHE_CACHE_NAME, String.class, String.class));
+
+    @After
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    public void storesLocations() {
+        final var location = new SessionLocation("http://node-a:8080/app/", "session");
+
+        assertNull(registry.lookup("ST-1"));
+        registry.register("ST-1", location);
+        assertEquals(location, registry.lookup("ST-1"));
+        registry.unregister("ST-1");
+        assertNull(registry.lookup("ST-1"));
+    }
+
+    @Test
+    public void forwardsLogoutBetweenNodes() {
+        final var forwarded = new SessionLocation[1];
+        final var nodeA = new DistributedSessionMappingStorage(registry, "http://node-a:8080/app/");
+        final var nodeB = new DistributedSessionMappingStorage(registry, "http://node-b:8080/app/");
+        nodeB.setRemoteLogoutHandler((mappingId, location) -> forwarded[0] = location);
+        final var session = new MockHttpSession();
+
+        nodeA.addSessionById("ST-1", session);
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        assertEquals(new SessionLocation("http://node-a:8080/app/", session.getId()), forwarded[0]);
+    }
+}
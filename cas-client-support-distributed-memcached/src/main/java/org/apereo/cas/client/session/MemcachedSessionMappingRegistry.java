@@ -0,0 +1,135 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.MemcachedClientIF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SessionMappingRegistry} backed by memcached, shared by all nodes talking to the same memcached servers.
+ * Entries are keyed by ticket and expire after {@link #setTimeToLive(int) timeToLive} seconds.
+ *
+ * @since 4.1.2
+ */
+public final class MemcachedSessionMappingRegistry implements SessionMappingRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemcachedSessionMappingRegistry.class);
+
+    private static final String KEY_PREFIX = "cas-slo:";
+
+    private final MemcachedClientIF client;
+
+    private int timeToLive = (int) TimeUnit.DAYS.toSeconds(1);
+
+    private long operationTimeout = 1000L;
+
+    /**
+     * Default constructor reads from the /cas/casclient_memcached_hosts.txt in the classpath.  Each line should be a
+     * host:port combination of memcached servers.
+     */
+    public MemcachedSessionMappingRegistry() {
+        this(getHostsFromClassPath());
+    }
+
+    public MemcachedSessionMappingRegistry(final String[] hostnamesAndPorts) {
+        final List<InetSocketAddress> addresses = new ArrayList<>();
+        for (final var hostname : hostnamesAndPorts) {
+            final var hostPort = hostname.split(":");
+            addresses.add(new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1])));
+        }
+        try {
+            this.client = new MemcachedClient(addresses);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public MemcachedSessionMappingRegistry(final MemcachedClientIF client) {
+        CommonUtils.assertNotNull(client, "client cannot be null.");
+        this.client = client;
+    }
+
+    private static String[] getHostsFromClassPath() {
+        final var inputStream = MemcachedSessionMappingRegistry.class.getResourceAsStream("/cas/casclient_memcached_hosts.txt");
+        CommonUtils.assertNotNull(inputStream, "/cas/casclient_memcached_hosts.txt not found in classpath.");
+        final var hosts = new ArrayList<String>();
+        try (final var reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                hosts.add(line);
+            }
+            return hosts.toArray(new String[0]);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void register(final String mappingId, final SessionLocation location) {
+        // fire and forget, a lost registration only means the logout will not be forwarded
+        this.client.set(KEY_PREFIX + mappingId, this.timeToLive, location.encode());
+    }
+
+    @Override
+    public SessionLocation lookup(final String mappingId) {
+        final var future = this.client.asyncGet(KEY_PREFIX + mappingId);
+        try {
+            return SessionLocation.decode((String) future.get(this.operationTimeout, TimeUnit.MILLISECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            return null;
+        } catch (final Exception e) {
+            future.cancel(false);
+            logger.warn("Unable to look up ticket [{}] in memcached: {}", mappingId, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void unregister(final String mappingId) {
+        this.client.delete(KEY_PREFIX + mappingId);
+    }
+
+    /**
+     * @param timeToLive seconds a ticket stays registered, at most 30 days.
+     */
+    public void setTimeToLive(final int timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param operationTimeout milliseconds to wait for memcached when looking up a ticket.
+     */
+    public void setOperationTimeout(final long operationTimeout) {
+        this.operationTimeout = operationTimeout;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Minimal in-process stand-in for memcached, speaking the text protocol commands used by the client:
+ * <code>set</code>, <code>get</code> and <code>delete</code>. Expiry is ignored.
+ *
+ * @since 4.1.2
+ */
+final class LocalMemcachedServer implements AutoCloseable {
+
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+
+    private final ServerSocket serverSocket;
+
+    LocalMemcachedServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final var acceptor = new Thread(this::accept, "local-memcached");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String getAddress() {
+        return "127.0.0.1:" + this.serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                final var socket = this.serverSocket.accept();
+                final var worker = new Thread(() -> serve(socket), "local-memcached-connection");
+                worker.setDaemon(true);
+                worker.start();
+            } catch (final IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (socket; var in = new BufferedInputStream(socket.getInputStream()); var out = socket.getOutputStream()) {
+            String line;
+            while ((line = readLine(in)) != null) {
+                final var command = line.split(" ");
+                switch (command[0]) {
+                    case "set" -> {
+                        final var data = in.readNBytes(Integer.parseInt(command[4]));
+                        readLine(in);
+                        this.values.put(command[1], data);
+                        reply(out, command, "STORED");
+                    }
+                    case "get", "gets" -> {
+                        for (var i = 1; i < command.length; i++) {
+                            final var data = this.values.get(command[i]);
+                            if (data != null) {
+                                out.write(("VALUE " + command[i] + " 0 " + data.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                                out.write(data);
+                                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                            }
+                        }
+                        out.write("END\r\n".getBytes(StandardCharsets.US_ASCII));
+                    }
+                    case "delete" -> reply(out, command, this.values.remove(command[1]) != null ? "DELETED" : "NOT_FOUND");
+                    case "version" -> out.write("VERSION 1.6.0\r\n".getBytes(StandardCharsets.US_ASCII));
+                    default -> out.write("ERROR\r\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                out.flush();
+            }
+        } catch (final IOException e) {
+            // connection closed by the client
+        }
+    }
+
+    private static void reply(final OutputStream out, final String[] command, final String reply) throws IOException {
+        if (!"noreply".equals(command[command.length - 1])) {
+            out.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static String readLine(final InputStream in) throws IOException {
+        final var line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                final var bytes = line.toByteArray();
+                return new String(bytes, 0, bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length,
+                    StandardCharsets.US_ASCII);
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link MemcachedSessionMappingRegistry}, against a {@link LocalMemcachedServer}.
+ *
+ * @since 4.1.2
+ */
+public final class MemcachedSessionMappingRegistryTests {
+
+    private LocalMemcachedServer server;
+
+    private MemcachedSessionMappingRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new LocalMemcachedServer();
+        registry = new MemcachedSessionMappingRegistry(new String[]{server.getAddress()});
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    public void forwardsLogoutBetweenNodes() throws Exception {
+        final var forwarded = new SessionLocation[1];
+        final var nodeA = new DistributedSessionMappingStorage(registry, "http://node-a:8080/app/");
+        final var nodeB = new DistributedSessionMappingStorage(registry, "http://node-b:8080/app/");
+        nodeB.setRemoteLogoutHandler((mappingId, location) -> forwarded[0] = location);
+        final var session = new MockHttpSession();
+
+        nodeA.addSessionById("ST-1-abc", session);
+        assertEquals(new SessionLocation("http://node-a:8080/app/", session.getId()), awaitLookup("ST-1-abc"));
+
+        assertNull(nodeB.removeSessionByMappingId("ST-1-abc"));
+        assertEquals(new SessionLocation("http://node-a:8080/app/", session.getId()), forwarded[0]);
+
+        assertSame(session, nodeA.removeSessionByMappingId("ST-1-abc"));
+        for (var i = 0; i < 50 && registry.lookup("ST-1-abc") != null; i++) {
+            Thread.sleep(20);
+        }
+        assertNull(registry.lookup("ST-1-abc"));
+    }
+
+    @Test
+    public void returnsNothingForUnknownTickets() {
+        assertNull(registry.lookup("ST-unknown"));
+    }
+
+    /**
+     * Registrations are asynchronous.
+     */
+    private SessionLocation awaitLookup(final String mappingId) throws InterruptedException {
+        for (var i = 0; i < 50; i++) {
+            final var location = registry.lookup(mappingId);
+            if (location != null) {
+                return location;
+            }
+            Thread.sleep(20);
+        }
+        return null;
+    }
+}
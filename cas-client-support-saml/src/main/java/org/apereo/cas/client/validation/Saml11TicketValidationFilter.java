@@ -52,6 +52,7 @@ public class Saml11TicketValidationFilter extends AbstractTicketValidationFilter
 
         final HttpURLConnectionFactory factory = new HttpsURLConnectionFactory(getHostnameVerifier(), getSSLConfig());
         validator.setURLConnectionFactory(factory);
+        validator.setHttpTransport(getHttpTransport(factory));
 
         validator.setEncoding(getString(ConfigurationKeys.ENCODING));
         return validator;
@@ -32,7 +32,6 @@ import org.w3c.dom.NodeList;
 import javax.xml.namespace.NamespaceContext;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.security.NoSuchAlgorithmException;
@@ -45,6 +44,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * TicketValidator that can understand validating a SAML artifact.  This includes the SOAP request/response.
@@ -61,6 +61,11 @@ public final class Saml11TicketValidator extends AbstractUrlBasedTicketValidator
     /** SAML 1.1 request template. */
     private static final String SAML_REQUEST_TEMPLATE;
 
+    /** HTTP headers of the SOAP request sent to /samlValidate. */
+    private static final Map<String, String> SAML_REQUEST_HEADERS = Map.of(
+            "Content-Type", "text/xml",
+            "SOAPAction", "http://www.oasis-open.org/committees/security");
+
     /** SAML 1.1. namespace context. */
     private static final NamespaceContext NS_CONTEXT = new MapNamespaceContext(
             "soap->http://schemas.xmlsoap.org/soap/envelope/",
@@ -202,33 +207,25 @@ public final class Saml11TicketValidator extends AbstractUrlBasedTicketValidator
 
     @Override
     protected String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
-        final var request = String.format(
+        return getHttpTransport().post(validationUrl, SAML_REQUEST_HEADERS, createSamlRequest(ticket), getCharset().name());
+    }
+
+    @Override
+    protected CompletableFuture<String> retrieveResponseFromServerAsync(final URL validationUrl, final String ticket) {
+        return getHttpTransport().postAsync(validationUrl, SAML_REQUEST_HEADERS, createSamlRequest(ticket), getCharset().name());
+    }
+
+    private String createSamlRequest(final String ticket) {
+        return String.format(
                 SAML_REQUEST_TEMPLATE,
                 generateId(),
                 SamlUtils.formatForUtcTime(new Date()),
                 ticket);
-        HttpURLConnection conn = null;
-        try {
-            conn = this.getURLConnectionFactory().buildHttpURLConnection(validationUrl.openConnection());
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "text/xml");
-            conn.setRequestProperty("SOAPAction", "http://www.oasis-open.org/committees/security");
-            conn.setUseCaches(false);
-            conn.setDoInput(true);
-            conn.setDoOutput(true);
-
-
-            final var charset = CommonUtils.isNotBlank(getEncoding()) ?
-                    Charset.forName(getEncoding()) : IOUtils.UTF8;
-            conn.getOutputStream().write(request.getBytes(charset));
-            return IOUtils.readString(conn.getInputStream(), charset);
-        } catch (final IOException e) {
-            throw new RuntimeException("IO error sending HTTP request to /samlValidate", e);
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
-        }
+    }
+
+    private Charset getCharset() {
+        return CommonUtils.isNotBlank(getEncoding()) ?
+                Charset.forName(getEncoding()) : IOUtils.UTF8;
     }
 
     public void setTolerance(final long tolerance) {
@@ -21,15 +21,21 @@ package org.apereo.cas.client.boot.configuration;
 import org.apereo.cas.client.authentication.AuthenticationFilter;
 import org.apereo.cas.client.authentication.Saml11AuthenticationFilter;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.metrics.MetricsRecorder;
 import org.apereo.cas.client.session.SingleSignOutFilter;
 import org.apereo.cas.client.session.SingleSignOutHttpSessionListener;
 import org.apereo.cas.client.util.AssertionThreadLocalFilter;
 import org.apereo.cas.client.util.HttpServletRequestWrapperFilter;
+import org.apereo.cas.client.util.MaintenanceSchedulerListener;
+import org.apereo.cas.client.validation.AbstractTicketValidationFilter;
 import org.apereo.cas.client.validation.Cas20ProxyReceivingTicketValidationFilter;
 import org.apereo.cas.client.validation.Cas30ProxyReceivingTicketValidationFilter;
 import org.apereo.cas.client.validation.Saml11TicketValidationFilter;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -67,6 +73,9 @@ public class CasClientConfiguration {
     @Autowired
     CasClientConfigurationProperties configProps;
 
+    @Autowired
+    ObjectProvider<MetricsRecorder> metricsRecorder;
+
     private CasClientConfigurer casClientConfigurer;
 
     private static Map<String, String> constructInitParams(final String casUrlParamName, final String casUrlParamVal, final String clientHostUrlVal) {
@@ -76,6 +85,12 @@ public class CasClientConfiguration {
         return initParams;
     }
 
+    private static void putIfSet(final FilterRegistrationBean filterRegistrationBean, final String name, final Object value) {
+        if (value != null) {
+            filterRegistrationBean.getInitParameters().put(name, String.valueOf(value));
+        }
+    }
+
     private static void initFilter(final FilterRegistrationBean filterRegistrationBean,
                                    final Filter targetFilter,
                                    final int filterOrder,
@@ -94,7 +109,7 @@ public class CasClientConfiguration {
     @ConditionalOnProperty(prefix = "cas", name = "skipTicketValidation", havingValue = "false", matchIfMissing = true)
     public FilterRegistrationBean casValidationFilter() {
         final var validationFilter = new FilterRegistrationBean();
-        final Filter targetCasValidationFilter;
+        final AbstractTicketValidationFilter targetCasValidationFilter;
         switch (this.configProps.getValidationType()) {
             case CAS:
                 targetCasValidationFilter = new Cas20ProxyReceivingTicketValidationFilter();
@@ -107,6 +122,7 @@ public class CasClientConfiguration {
                 targetCasValidationFilter = new Cas30ProxyReceivingTicketValidationFilter();
                 break;
         }
+        this.metricsRecorder.ifAvailable(targetCasValidationFilter::setMetricsRecorder);
 
         initFilter(validationFilter,
             targetCasValidationFilter,
@@ -121,6 +137,25 @@ public class CasClientConfiguration {
             validationFilter.getInitParameters().put(ConfigurationKeys.REDIRECT_AFTER_VALIDATION.getName(),
                 String.valueOf(this.configProps.getRedirectAfterValidation()));
         }
+        if (this.configProps.getCompactAssertion() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.COMPACT_ASSERTION.getName(),
+                String.valueOf(this.configProps.getCompactAssertion()));
+        }
+        putIfSet(validationFilter, ConfigurationKeys.HTTP_CONNECT_TIMEOUT.getName(), this.configProps.getHttpConnectTimeout());
+        putIfSet(validationFilter, ConfigurationKeys.HTTP_READ_TIMEOUT.getName(), this.configProps.getHttpReadTimeout());
+        putIfSet(validationFilter, ConfigurationKeys.VIRTUAL_THREADS.getName(), this.configProps.getVirtualThreads());
+        putIfSet(validationFilter, ConfigurationKeys.MAX_CONCURRENT_VALIDATIONS.getName(), this.configProps.getMaxConcurrentValidations());
+        putIfSet(validationFilter, ConfigurationKeys.CIRCUIT_BREAKER.getName(), this.configProps.getCircuitBreaker());
+        putIfSet(validationFilter, ConfigurationKeys.CIRCUIT_BREAKER_WINDOW_SIZE.getName(), this.configProps.getCircuitBreakerWindowSize());
+        putIfSet(validationFilter, ConfigurationKeys.CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD.getName(), this.configProps.getCircuitBreakerFailureRateThreshold());
+        putIfSet(validationFilter, ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_THRESHOLD.getName(), this.configProps.getCircuitBreakerSlowCallThreshold());
+        putIfSet(validationFilter, ConfigurationKeys.CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD.getName(), this.configProps.getCircuitBreakerSlowCallRateThreshold());
+        putIfSet(validationFilter, ConfigurationKeys.CIRCUIT_BREAKER_OPEN_DURATION.getName(), this.configProps.getCircuitBreakerOpenDuration());
+        if (Boolean.TRUE.equals(this.configProps.getAsyncValidation())) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.ASYNC_VALIDATION.getName(), Boolean.TRUE.toString());
+            validationFilter.setAsyncSupported(true);
+            validationFilter.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        }
 
         if (this.configProps.getHostnameVerifier() != null) {
             validationFilter.getInitParameters().put(ConfigurationKeys.HOSTNAME_VERIFIER.getName(), this.configProps.getHostnameVerifier());
@@ -183,6 +218,10 @@ public class CasClientConfiguration {
             reqWrapperFilter.setUrlPatterns(this.configProps.getRequestWrapperUrlPatterns());
         }
         reqWrapperFilter.setOrder(3);
+        if (Boolean.TRUE.equals(this.configProps.getAsyncValidation())) {
+            reqWrapperFilter.setAsyncSupported(true);
+            reqWrapperFilter.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        }
 
         if (this.casClientConfigurer != null) {
             this.casClientConfigurer.configureHttpServletRequestWrapperFilter(reqWrapperFilter);
@@ -198,6 +237,10 @@ public class CasClientConfiguration {
             assertionTLFilter.setUrlPatterns(this.configProps.getAssertionThreadLocalUrlPatterns());
         }
         assertionTLFilter.setOrder(4);
+        if (Boolean.TRUE.equals(this.configProps.getAsyncValidation())) {
+            assertionTLFilter.setAsyncSupported(true);
+            assertionTLFilter.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        }
 
         if (this.casClientConfigurer != null) {
             this.casClientConfigurer.configureAssertionThreadLocalFilter(assertionTLFilter);
@@ -223,7 +266,9 @@ public class CasClientConfiguration {
     @ConditionalOnProperty(prefix = "cas", value = "single-logout.enabled", havingValue = "true")
     public FilterRegistrationBean casSingleSignOutFilter() {
         final var singleSignOutFilter = new FilterRegistrationBean();
-        singleSignOutFilter.setFilter(new SingleSignOutFilter());
+        final var targetSingleSignOutFilter = new SingleSignOutFilter();
+        this.metricsRecorder.ifAvailable(targetSingleSignOutFilter::setMetricsRecorder);
+        singleSignOutFilter.setFilter(targetSingleSignOutFilter);
         final Map<String, String> initParameters = new HashMap<>(1);
         initParameters.put(ConfigurationKeys.CAS_SERVER_URL_PREFIX.getName(), configProps.getServerUrlPrefix());
         singleSignOutFilter.setInitParameters(initParameters);
@@ -240,6 +285,13 @@ public class CasClientConfiguration {
         return singleSignOutListener;
     }
 
+    @Bean
+    public ServletListenerRegistrationBean<EventListener> casMaintenanceSchedulerListener() {
+        final var maintenanceSchedulerListener = new ServletListenerRegistrationBean<>();
+        maintenanceSchedulerListener.setListener(new MaintenanceSchedulerListener());
+        return maintenanceSchedulerListener;
+    }
+
     @Configuration
     @EnableConfigurationProperties(CasClientConfigurationProperties.class)
     @ConditionalOnClass(AuthenticationUserDetailsService.class)
@@ -269,4 +321,19 @@ public class CasClientConfiguration {
             };
         }
     }
+
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(prefix = "cas", value = "metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public static class CasClientMetricsConfiguration {
+
+        /**
+         * Handed to the CAS filters of this application, so that each application publishes to its own registry.
+         */
+        @Bean
+        public MetricsRecorder casClientMetricsRecorder(final ObjectProvider<MeterRegistry> meterRegistry) {
+            final var registry = meterRegistry.getIfAvailable();
+            return registry != null ? new MicrometerMetricsRecorder(registry) : MetricsRecorder.NOOP;
+        }
+    }
 }
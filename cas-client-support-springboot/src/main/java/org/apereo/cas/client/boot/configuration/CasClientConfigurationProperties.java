@@ -92,6 +92,66 @@ public class CasClientConfigurationProperties {
      */
     private Boolean redirectAfterValidation = Boolean.TRUE;
 
+    /**
+     * Validation filter asyncValidation parameter.
+     */
+    private Boolean asyncValidation;
+
+    /**
+     * Validation filter compactAssertion parameter.
+     */
+    private Boolean compactAssertion;
+
+    /**
+     * Validation filter httpConnectTimeout parameter, in milliseconds.
+     */
+    private Long httpConnectTimeout;
+
+    /**
+     * Validation filter httpReadTimeout parameter, in milliseconds.
+     */
+    private Long httpReadTimeout;
+
+    /**
+     * Validation filter virtualThreads parameter.
+     */
+    private Boolean virtualThreads;
+
+    /**
+     * Validation filter maxConcurrentValidations parameter.
+     */
+    private Integer maxConcurrentValidations;
+
+    /**
+     * Validation filter circuitBreaker parameter.
+     */
+    private Boolean circuitBreaker;
+
+    /**
+     * Validation filter circuitBreakerWindowSize parameter.
+     */
+    private Integer circuitBreakerWindowSize;
+
+    /**
+     * Validation filter circuitBreakerFailureRateThreshold parameter, in percent.
+     */
+    private Integer circuitBreakerFailureRateThreshold;
+
+    /**
+     * Validation filter circuitBreakerSlowCallThreshold parameter, in milliseconds.
+     */
+    private Long circuitBreakerSlowCallThreshold;
+
+    /**
+     * Validation filter circuitBreakerSlowCallRateThreshold parameter, in percent.
+     */
+    private Integer circuitBreakerSlowCallRateThreshold;
+
+    /**
+     * Validation filter circuitBreakerOpenDuration parameter, in milliseconds.
+     */
+    private Long circuitBreakerOpenDuration;
+
     /**
      * Cas20ProxyReceivingTicketValidationFilter acceptAnyProxy parameter.
      */
@@ -127,6 +187,8 @@ public class CasClientConfigurationProperties {
 
     private SingleLogout singleLogout;
 
+    private Metrics metrics = new Metrics();
+
     public static class SingleLogout{
         /**
          * whether to receive the single logout request from cas server.
@@ -142,6 +204,21 @@ public class CasClientConfigurationProperties {
         }
     }
 
+    public static class Metrics {
+        /**
+         * whether to publish client metrics to the Micrometer registry, when there is one.
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
     public String getServerUrlPrefix() {
         return serverUrlPrefix;
     }
@@ -222,6 +299,102 @@ public class CasClientConfigurationProperties {
         this.redirectAfterValidation = redirectAfterValidation;
     }
 
+    public Boolean getAsyncValidation() {
+        return asyncValidation;
+    }
+
+    public void setAsyncValidation(final Boolean asyncValidation) {
+        this.asyncValidation = asyncValidation;
+    }
+
+    public Boolean getCompactAssertion() {
+        return compactAssertion;
+    }
+
+    public void setCompactAssertion(final Boolean compactAssertion) {
+        this.compactAssertion = compactAssertion;
+    }
+
+    public Long getHttpConnectTimeout() {
+        return httpConnectTimeout;
+    }
+
+    public void setHttpConnectTimeout(final Long httpConnectTimeout) {
+        this.httpConnectTimeout = httpConnectTimeout;
+    }
+
+    public Long getHttpReadTimeout() {
+        return httpReadTimeout;
+    }
+
+    public void setHttpReadTimeout(final Long httpReadTimeout) {
+        this.httpReadTimeout = httpReadTimeout;
+    }
+
+    public Boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(final Boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public Integer getMaxConcurrentValidations() {
+        return maxConcurrentValidations;
+    }
+
+    public void setMaxConcurrentValidations(final Integer maxConcurrentValidations) {
+        this.maxConcurrentValidations = maxConcurrentValidations;
+    }
+
+    public Boolean getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(final Boolean circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public Integer getCircuitBreakerWindowSize() {
+        return circuitBreakerWindowSize;
+    }
+
+    public void setCircuitBreakerWindowSize(final Integer circuitBreakerWindowSize) {
+        this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+    }
+
+    public Integer getCircuitBreakerFailureRateThreshold() {
+        return circuitBreakerFailureRateThreshold;
+    }
+
+    public void setCircuitBreakerFailureRateThreshold(final Integer circuitBreakerFailureRateThreshold) {
+        this.circuitBreakerFailureRateThreshold = circuitBreakerFailureRateThreshold;
+    }
+
+    public Long getCircuitBreakerSlowCallThreshold() {
+        return circuitBreakerSlowCallThreshold;
+    }
+
+    public void setCircuitBreakerSlowCallThreshold(final Long circuitBreakerSlowCallThreshold) {
+        this.circuitBreakerSlowCallThreshold = circuitBreakerSlowCallThreshold;
+    }
+
+    public Integer getCircuitBreakerSlowCallRateThreshold() {
+        return circuitBreakerSlowCallRateThreshold;
+    }
+
+    public void setCircuitBreakerSlowCallRateThreshold(final Integer circuitBreakerSlowCallRateThreshold) {
+        this.circuitBreakerSlowCallRateThreshold = circuitBreakerSlowCallRateThreshold;
+    }
+
+    public Long getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public void setCircuitBreakerOpenDuration(final Long circuitBreakerOpenDuration) {
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
     public List<String> getAssertionThreadLocalUrlPatterns() {
         return assertionThreadLocalUrlPatterns;
     }
@@ -278,6 +451,14 @@ public class CasClientConfigurationProperties {
         this.singleLogout = singleLogout;
     }
 
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(final Metrics metrics) {
+        this.metrics = metrics;
+    }
+
     public List<String> getAttributeAuthorities() {
         return attributeAuthorities;
     }
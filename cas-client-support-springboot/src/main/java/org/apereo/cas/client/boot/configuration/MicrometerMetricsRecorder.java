@@ -0,0 +1,167 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.boot.configuration;
+
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.session.SessionMappingStorage;
+import org.apereo.cas.client.validation.CircuitBreakerTicketValidator;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MetricsRecorder} publishing the measurements of the CAS client to a Micrometer {@link MeterRegistry}:
+ * <ul>
+ * <li><code>cas.client.validation</code> - timer with percentile histogram, tagged by <code>validator</code>,
+ * <code>outcome</code> (success or failure) and <code>code</code>, the failure code returned by the CAS server or
+ * the exception type for other failures.</li>
+ * <li><code>cas.client.response.parsing</code> - timer tagged by <code>validator</code>.</li>
+ * <li><code>cas.client.http.connect</code> and <code>cas.client.http.read</code> - timers tagged by <code>host</code>.</li>
+ * <li><code>cas.client.logout</code> - counter of single sign-out requests tagged by <code>result</code>, hit when
+ * a session was mapped to the ticket and miss otherwise.</li>
+ * <li><code>cas.client.session.mappings</code> - gauge of the sessions mapped for single sign-out, tagged by
+ * <code>filter</code>.</li>
+ * <li><code>cas.client.proxy.granting.tickets</code> - counter of storage operations tagged by <code>event</code>.</li>
+ * <li><code>cas.client.circuit.breaker.state</code> - gauge of the circuit to the CAS server: 0 when closed, 1 when
+ * half open and 2 when open, tagged by <code>filter</code>.</li>
+ * <li><code>cas.client.validation.concurrent</code> - gauge of the validations in progress, when they are limited,
+ * tagged by <code>filter</code>.</li>
+ * <li><code>cas.client.validation.rejected</code> - counter of validations rejected without contacting the CAS server,
+ * tagged by <code>reason</code>.</li>
+ * </ul>
+ *
+ * @since 4.1.2
+ */
+public final class MicrometerMetricsRecorder implements MetricsRecorder {
+
+    private final MeterRegistry registry;
+
+    private final Counter logoutHits;
+
+    private final Counter logoutMisses;
+
+    private final Map<ProxyGrantingTicketEvent, Counter> proxyGrantingTicketCounters = new EnumMap<>(ProxyGrantingTicketEvent.class);
+
+    private final Map<ValidationRejection, Counter> rejectionCounters = new EnumMap<>(ValidationRejection.class);
+
+    public MicrometerMetricsRecorder(final MeterRegistry registry) {
+        this.registry = registry;
+        this.logoutHits = Counter.builder("cas.client.logout").tag("result", "hit")
+            .description("Single sign-out requests").register(registry);
+        this.logoutMisses = Counter.builder("cas.client.logout").tag("result", "miss")
+            .description("Single sign-out requests").register(registry);
+        for (final var event : ProxyGrantingTicketEvent.values()) {
+            this.proxyGrantingTicketCounters.put(event, Counter.builder("cas.client.proxy.granting.tickets")
+                .tag("event", event.name().toLowerCase())
+                .description("Proxy granting ticket storage operations").register(registry));
+        }
+        for (final var rejection : ValidationRejection.values()) {
+            this.rejectionCounters.put(rejection, Counter.builder("cas.client.validation.rejected")
+                .tag("reason", rejection.name().toLowerCase())
+                .description("Validations rejected without contacting the CAS server").register(registry));
+        }
+    }
+
+    @Override
+    public void recordValidation(final String validator, final long durationNanos, final Throwable failure) {
+        Timer.builder("cas.client.validation")
+            .tag("validator", validator)
+            .tag("outcome", failure == null ? "success" : "failure")
+            .tag("code", failureCode(failure))
+            .description("Ticket validations")
+            .publishPercentileHistogram()
+            .register(this.registry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordResponseParsing(final String validator, final long durationNanos) {
+        Timer.builder("cas.client.response.parsing").tag("validator", validator)
+            .description("Parsing of validation responses").register(this.registry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordHttpConnect(final String host, final long durationNanos) {
+        Timer.builder("cas.client.http.connect").tag("host", host)
+            .description("Connections to the CAS server").register(this.registry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordHttpRead(final String host, final long durationNanos) {
+        Timer.builder("cas.client.http.read").tag("host", host)
+            .description("Responses read from the CAS server").register(this.registry)
+            .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordLogout(final boolean sessionFound) {
+        (sessionFound ? this.logoutHits : this.logoutMisses).increment();
+    }
+
+    @Override
+    public void registerSessionMappingStorage(final String name, final SessionMappingStorage storage) {
+        if (storage.size() >= 0) {
+            Gauge.builder("cas.client.session.mappings", storage, SessionMappingStorage::size).tag("filter", name)
+                .description("Sessions mapped for single sign-out").register(this.registry);
+        }
+    }
+
+    @Override
+    public void registerCircuitBreaker(final String name, final CircuitBreakerTicketValidator circuitBreaker) {
+        Gauge.builder("cas.client.circuit.breaker.state", circuitBreaker, breaker -> switch (breaker.getState()) {
+                case CLOSED -> 0;
+                case HALF_OPEN -> 1;
+                case OPEN -> 2;
+            })
+            .tag("filter", name)
+            .description("State of the circuit to the CAS server").register(this.registry);
+        Gauge.builder("cas.client.validation.concurrent", circuitBreaker, CircuitBreakerTicketValidator::getConcurrentValidations)
+            .tag("filter", name)
+            .description("Validations in progress").register(this.registry);
+    }
+
+    @Override
+    public void recordValidationRejected(final ValidationRejection rejection) {
+        this.rejectionCounters.get(rejection).increment();
+    }
+
+    @Override
+    public void recordProxyGrantingTicket(final ProxyGrantingTicketEvent event) {
+        this.proxyGrantingTicketCounters.get(event).increment();
+    }
+
+    private static String failureCode(final Throwable failure) {
+        if (failure == null) {
+            return "none";
+        }
+        if (failure instanceof final TicketValidationException e && e.getCode() != null) {
+            return e.getCode();
+        }
+        return failure.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.boot.configuration;
+
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.util.AbstractConfigurationFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockFilterConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link CasClientConfiguration.CasClientMetricsConfiguration}.
+ *
+ * @since 4.1.2
+ */
+public final class CasClientMetricsConfigurationTests {
+
+    @Test
+    public void handsRecorderOfEachApplicationToItsFilters() throws Exception {
+        try (var first = newContext(Map.of()); var second = newContext(Map.of())) {
+            final var firstRecorder = getFilter(first, "casSingleSignOutFilter").getMetricsRecorder();
+            final var secondRecorder = getFilter(second, "casSingleSignOutFilter").getMetricsRecorder();
+
+            assertTrue(firstRecorder instanceof MicrometerMetricsRecorder);
+            assertSame(firstRecorder, getFilter(first, "casValidationFilter").getMetricsRecorder());
+            assertNotSame(firstRecorder, secondRecorder);
+
+            getFilter(first, "casSingleSignOutFilter").init(new MockFilterConfig("casSingleSignOutFilter"));
+            assertNotNull(first.getBean(MeterRegistry.class).find("cas.client.session.mappings")
+                .tag("filter", "casSingleSignOutFilter").gauge());
+            assertNull(second.getBean(MeterRegistry.class).find("cas.client.session.mappings").gauge());
+        }
+    }
+
+    @Test
+    public void discardsMeasurementsWhenDisabled() {
+        try (var context = newContext(Map.of("cas.metrics.enabled", "false"))) {
+            assertSame(MetricsRecorder.NOOP, getFilter(context, "casValidationFilter").getMetricsRecorder());
+        }
+    }
+
+    private static AnnotationConfigApplicationContext newContext(final Map<String, Object> properties) {
+        final Map<String, Object> allProperties = new HashMap<>(properties);
+        allProperties.put("cas.server-url-prefix", "https://cas.example.org/cas");
+        allProperties.put("cas.server-login-url", "https://cas.example.org/cas/login");
+        allProperties.put("cas.client-host-url", "https://app.example.org");
+        allProperties.put("cas.single-logout.enabled", "true");
+        final var context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", allProperties));
+        context.register(MeterRegistryConfiguration.class, CasClientConfiguration.class);
+        context.refresh();
+        return context;
+    }
+
+    private static AbstractConfigurationFilter getFilter(final AnnotationConfigApplicationContext context, final String name) {
+        return (AbstractConfigurationFilter) context.getBean(name, FilterRegistrationBean.class).getFilter();
+    }
+
+    @Configuration
+    static class MeterRegistryConfiguration {
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.boot.configuration;
+
+import org.apereo.cas.client.metrics.MetricsRecorder;
+import org.apereo.cas.client.session.HashMapBackedSessionMappingStorage;
+import org.apereo.cas.client.validation.CircuitBreakerTicketValidator;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the {@link MicrometerMetricsRecorder}.
+ *
+ * @since 4.1.2
+ */
+public final class MicrometerMetricsRecorderTests {
+
+    private SimpleMeterRegistry registry;
+
+    private MicrometerMetricsRecorder recorder;
+
+    @Before
+    public void setUp() {
+        this.registry = new SimpleMeterRegistry();
+        this.recorder = new MicrometerMetricsRecorder(this.registry);
+    }
+
+    @Test
+    public void recordsValidationsTaggedByOutcome() {
+        this.recorder.recordValidation("Cas30ServiceTicketValidator", TimeUnit.MILLISECONDS.toNanos(5), null);
+        this.recorder.recordValidation("Cas30ServiceTicketValidator", TimeUnit.MILLISECONDS.toNanos(5),
+            new TicketValidationException("not recognized", "INVALID_TICKET"));
+        this.recorder.recordValidation("Cas30ServiceTicketValidator", TimeUnit.MILLISECONDS.toNanos(5),
+            new IllegalStateException("failure"));
+
+        assertEquals(1, this.registry.get("cas.client.validation").tag("outcome", "success").tag("code", "none")
+            .timer().count());
+        assertEquals(1, this.registry.get("cas.client.validation").tag("outcome", "failure")
+            .tag("code", "INVALID_TICKET").timer().count());
+        assertEquals(1, this.registry.get("cas.client.validation").tag("outcome", "failure")
+            .tag("code", "IllegalStateException").timer().count());
+    }
+
+    @Test
+    public void countsLogoutsAndRejections() {
+        this.recorder.recordLogout(true);
+        this.recorder.recordLogout(false);
+        this.recorder.recordLogout(false);
+        this.recorder.recordValidationRejected(MetricsRecorder.ValidationRejection.CIRCUIT_OPEN);
+
+        assertEquals(1.0, this.registry.get("cas.client.logout").tag("result", "hit").counter().count(), 0.0);
+        assertEquals(2.0, this.registry.get("cas.client.logout").tag("result", "miss").counter().count(), 0.0);
+        assertEquals(1.0, this.registry.get("cas.client.validation.rejected").tag("reason", "circuit_open")
+            .counter().count(), 0.0);
+    }
+
+    @Test
+    public void registersGauges() throws Exception {
+        final var storage = new HashMapBackedSessionMappingStorage();
+        this.recorder.registerSessionMappingStorage("singleSignOutFilter", storage);
+        this.recorder.registerCircuitBreaker("casValidationFilter", new CircuitBreakerTicketValidator((ticket, service) -> null));
+        final var openCircuitBreaker = new CircuitBreakerTicketValidator((ticket, service) -> {
+            throw new IllegalStateException("Connection refused");
+        });
+        openCircuitBreaker.setWindowSize(1);
+        this.recorder.registerCircuitBreaker("proxyValidationFilter", openCircuitBreaker);
+        try {
+            openCircuitBreaker.validate("ST-1", "service");
+            fail("Validation should have failed.");
+        } catch (final IllegalStateException e) {
+            assertEquals(CircuitBreakerTicketValidator.State.OPEN, openCircuitBreaker.getState());
+        }
+
+        assertEquals(0.0, this.registry.get("cas.client.session.mappings").tag("filter", "singleSignOutFilter")
+            .gauge().value(), 0.0);
+        assertEquals(0.0, this.registry.get("cas.client.circuit.breaker.state").tag("filter", "casValidationFilter")
+            .gauge().value(), 0.0);
+        assertEquals(2.0, this.registry.get("cas.client.circuit.breaker.state").tag("filter", "proxyValidationFilter")
+            .gauge().value(), 0.0);
+        assertEquals(0.0, this.registry.get("cas.client.validation.concurrent").tag("filter", "casValidationFilter")
+            .gauge().value(), 0.0);
+    }
+}